@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Compares the per-provider patterns LinkHandler used to run against LinkClassifier, for the
+// generated URL corpus and the post URLs from the shared listing fixture.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LinkClassifierBenchmark {
+
+	private static final String TAG = "LinkClassifierBenchmark";
+
+	private static final String LISTING_FIXTURE = "fixtures/listing_100_posts.json";
+
+	private static final int CORPUS_SIZE = 2000;
+	private static final int ITERATIONS = 10;
+
+	private interface UrlBody {
+		void run(String url);
+	}
+
+	private static List<String> postUrls() throws IOException {
+
+		final ArrayList<String> result = new ArrayList<>();
+
+		try(InputStream is
+					= LinkClassifierBenchmark.class.getClassLoader().getResourceAsStream(
+							LISTING_FIXTURE)) {
+
+			final JsonValue listing = JsonValue.parse(
+					new JsonFactory().createParser(General.readWholeStreamAsUTF8(is)));
+
+			for(final JsonValue child
+					: listing.asObject().getObject("data").getArray("children")) {
+
+				result.add(child.asObject().getObject("data").getString("url"));
+			}
+		}
+
+		return result;
+	}
+
+	private static void benchmark(
+			final String name,
+			final List<String> urls,
+			final UrlBody body) {
+
+		// Warm up
+		for(final String url : urls) {
+			body.run(url);
+		}
+
+		final long startNanos = System.nanoTime();
+
+		for(int i = 0; i < ITERATIONS; i++) {
+			for(final String url : urls) {
+				body.run(url);
+			}
+		}
+
+		final long elapsedNanos = System.nanoTime() - startNanos;
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%s: %.0f ns/URL",
+				name,
+				(double)elapsedNanos / ITERATIONS / urls.size()));
+	}
+
+	private static void benchmarkAll(final String corpusName, final List<String> urls) {
+
+		benchmark(corpusName + ", patterns", urls, url -> {
+			for(final LinkClassifier.Provider provider : LinkClassifier.Provider.values()) {
+				ReferenceLinkPatterns.getId(provider, url);
+			}
+		});
+
+		benchmark(corpusName + ", classify", urls, LinkClassifier::classify);
+		benchmark(corpusName + ", isProbablyAnImage", urls, LinkHandler::isProbablyAnImage);
+	}
+
+	@Test
+	public void generatedCorpus() {
+		benchmarkAll("Generated URLs", LinkCorpus.generate(CORPUS_SIZE));
+	}
+
+	@Test
+	public void postUrlCorpus() throws IOException {
+		benchmarkAll("Post URLs", postUrls());
+	}
+}
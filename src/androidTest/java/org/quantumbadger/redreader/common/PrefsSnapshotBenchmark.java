@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+// Compares reading the per-post and per-comment preferences through the PrefsUtility accessors
+// with reading them from a PrefsSnapshot. Relies on the application having called
+// PrefsUtility.init().
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class PrefsSnapshotBenchmark {
+
+	private static final String TAG = "PrefsSnapshotBenchmark";
+
+	private static final int WARMUP_ITERATIONS = 2_000;
+	private static final int ITERATIONS = 20_000;
+
+	private static int readAccessors() {
+
+		int result = PrefsUtility.appearance_post_subtitle_items().size();
+		result += PrefsUtility.appearance_post_age_units();
+		result += PrefsUtility.images_thumbnail_size_dp();
+		result += (int)PrefsUtility.appearance_fontscale_posts();
+		result += PrefsUtility.pref_behaviour_fling_post_left().ordinal();
+		result += PrefsUtility.appearance_comment_age_mode().ordinal();
+		result += PrefsUtility.appearance_comment_age_units();
+		result += (int)PrefsUtility.appearance_fontscale_bodytext();
+		result += PrefsUtility.pref_appearance_linkbuttons() ? 1 : 0;
+		result += PrefsUtility.pref_accessibility_separate_body_text_lines() ? 1 : 0;
+
+		return result;
+	}
+
+	private static int readSnapshot() {
+
+		final PrefsSnapshot prefs = PrefsUtility.snapshot();
+
+		int result = prefs.postSubtitleItems.size();
+		result += prefs.postAgeUnits;
+		result += prefs.thumbnailSizeDp;
+		result += (int)prefs.postFontScale;
+		result += prefs.postFlingLeft.ordinal();
+		result += prefs.commentAgeMode.ordinal();
+		result += prefs.commentAgeUnits;
+		result += (int)prefs.commentBodyFontScale;
+		result += prefs.showLinkButtons ? 1 : 0;
+		result += prefs.separateBodyTextLines ? 1 : 0;
+
+		return result;
+	}
+
+	@Test
+	public void compareAccessorsWithSnapshot() {
+
+		Assert.assertEquals(readAccessors(), readSnapshot());
+
+		int sink = 0;
+
+		for(int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink += readAccessors();
+			sink += readSnapshot();
+		}
+
+		final long accessorStart = System.nanoTime();
+
+		for(int i = 0; i < ITERATIONS; i++) {
+			sink += readAccessors();
+		}
+
+		final long accessorNanos = System.nanoTime() - accessorStart;
+
+		final long snapshotStart = System.nanoTime();
+
+		for(int i = 0; i < ITERATIONS; i++) {
+			sink += readSnapshot();
+		}
+
+		final long snapshotNanos = System.nanoTime() - snapshotStart;
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"10 preferences: accessors %.2f us, snapshot %.3f us (sink %d)",
+				accessorNanos / 1000.0 / ITERATIONS,
+				snapshotNanos / 1000.0 / ITERATIONS,
+				sink));
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.datastream;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Random;
+
+// Times reading a large image from the cache through each kind of SeekableInputStream, for
+// both uncompressed and ZSTD-compressed cache files.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class CacheFileStreamBenchmark {
+
+	private static final String TAG = "CacheFileStreamBenchmark";
+
+	private static final int LENGTH = 20 * 1024 * 1024;
+	private static final int ITERATIONS = 5;
+
+	private interface StreamFactory {
+		SeekableInputStream open(File file) throws IOException;
+	}
+
+	private static File writeFile(
+			final Context context,
+			final String name,
+			final byte[] data,
+			final boolean compress) throws IOException {
+
+		final File file = new File(context.getCacheDir(), name);
+
+		try(OutputStream os = compress
+				? new ZstdOutputStream(new FileOutputStream(file), 3)
+				: new FileOutputStream(file)) {
+
+			os.write(data);
+		}
+
+		return file;
+	}
+
+	private static byte[] readAll(final InputStream is) throws IOException {
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final byte[] buf = new byte[8192];
+
+		int bytesRead;
+
+		while((bytesRead = is.read(buf, 0, buf.length)) > 0) {
+			output.write(buf, 0, bytesRead);
+		}
+
+		return output.toByteArray();
+	}
+
+	private static void benchmark(
+			final String name,
+			final File file,
+			final StreamFactory factory) throws IOException {
+
+		final byte[] buf = new byte[8192];
+
+		long bestNanos = Long.MAX_VALUE;
+
+		for(int i = 0; i < ITERATIONS; i++) {
+
+			final long startNanos = System.nanoTime();
+
+			long total = 0;
+
+			try(SeekableInputStream is = factory.open(file)) {
+
+				int bytesRead;
+
+				while((bytesRead = is.read(buf, 0, buf.length)) > 0) {
+					total += bytesRead;
+				}
+			}
+
+			bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+
+			Assert.assertEquals(LENGTH, total);
+		}
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%s: %.0f MB/s",
+				name,
+				LENGTH / (bestNanos / 1_000_000_000.0) / 1_000_000.0));
+	}
+
+	@Test
+	public void openLargeImage() throws IOException {
+
+		final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+		final byte[] data = new byte[LENGTH];
+		new Random(1234).nextBytes(data);
+
+		final File plainFile = writeFile(context, "CacheFileStreamBenchmark.dat", data, false);
+		final File compressedFile
+				= writeFile(context, "CacheFileStreamBenchmark.zst", data, true);
+
+		try {
+			benchmark("20 MB, RandomAccessFile", plainFile, SeekableFileInputStream::new);
+			benchmark("20 MB, mapped", plainFile, MappedFileInputStream::new);
+
+			benchmark("20 MB compressed, fully inflated", compressedFile, file -> {
+				try(InputStream is = new ZstdInputStream(new FileInputStream(file))) {
+					return new MemoryDataStream(readAll(is)).getInputStream();
+				}
+			});
+
+			benchmark(
+					"20 MB compressed, streaming",
+					compressedFile,
+					file -> new StreamingSeekableInputStream(
+							() -> new ZstdInputStream(new FileInputStream(file))));
+
+		} finally {
+			Assert.assertTrue(plainFile.delete());
+			Assert.assertTrue(compressedFile.delete());
+		}
+	}
+}
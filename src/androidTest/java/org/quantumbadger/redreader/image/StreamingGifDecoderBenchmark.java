@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+
+// The previous decoder held every frame as a full size ARGB_4444 bitmap before playback reached
+// the end, and only started playback once the second frame had been decoded. This logs the
+// equivalent figures for the streaming decoder, which holds a fixed number of canvases.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StreamingGifDecoderBenchmark {
+
+	private static final String TAG = "StreamingGifDecoderBenchmark";
+
+	private static final int WIDTH = 320;
+	private static final int HEIGHT = 240;
+	private static final int FRAME_COUNT = 300;
+
+	private static final int MIN_CODE_SIZE = 8;
+	private static final int MAX_CODES = 4096;
+
+	// Packs LZW codes least significant bit first, into data sub-blocks of up to 255 bytes
+	private static final class CodeWriter {
+
+		private final ByteArrayOutputStream mOutput;
+		private final byte[] mBlock = new byte[255];
+
+		private int mBlockLength = 0;
+		private int mBits = 0;
+		private int mBitCount = 0;
+
+		private CodeWriter(final ByteArrayOutputStream output) {
+			mOutput = output;
+		}
+
+		private void write(final int code, final int codeSize) {
+
+			mBits |= code << mBitCount;
+			mBitCount += codeSize;
+
+			while(mBitCount >= 8) {
+				writeByte(mBits & 0xFF);
+				mBits >>>= 8;
+				mBitCount -= 8;
+			}
+		}
+
+		private void writeByte(final int value) {
+
+			mBlock[mBlockLength++] = (byte)value;
+
+			if(mBlockLength == mBlock.length) {
+				flushBlock();
+			}
+		}
+
+		private void flushBlock() {
+
+			if(mBlockLength > 0) {
+				mOutput.write(mBlockLength);
+				mOutput.write(mBlock, 0, mBlockLength);
+				mBlockLength = 0;
+			}
+		}
+
+		private void finish() {
+
+			if(mBitCount > 0) {
+				writeByte(mBits & 0xFF);
+			}
+
+			flushBlock();
+			mOutput.write(0);
+		}
+	}
+
+	private static void writeShort(final ByteArrayOutputStream output, final int value) {
+		output.write(value & 0xFF);
+		output.write((value >> 8) & 0xFF);
+	}
+
+	private static void writeImageData(
+			final ByteArrayOutputStream output,
+			final int colourIndex) {
+
+		final int clearCode = 1 << MIN_CODE_SIZE;
+		final int endCode = clearCode + 1;
+
+		final CodeWriter writer = new CodeWriter(output);
+		final HashMap<Integer, Integer> table = new HashMap<>();
+
+		int codeSize = MIN_CODE_SIZE + 1;
+		int nextCode = clearCode + 2;
+
+		output.write(MIN_CODE_SIZE);
+		writer.write(clearCode, codeSize);
+
+		int prefix = colourIndex;
+
+		for(int i = 1; i < WIDTH * HEIGHT; i++) {
+
+			final int key = (prefix << 8) | colourIndex;
+			final Integer existing = table.get(key);
+
+			if(existing != null) {
+				prefix = existing;
+				continue;
+			}
+
+			writer.write(prefix, codeSize);
+
+			if(nextCode < MAX_CODES) {
+				table.put(key, nextCode++);
+
+				if(nextCode > (1 << codeSize)) {
+					codeSize++;
+				}
+
+			} else {
+				writer.write(clearCode, codeSize);
+				table.clear();
+				codeSize = MIN_CODE_SIZE + 1;
+				nextCode = clearCode + 2;
+			}
+
+			prefix = colourIndex;
+		}
+
+		writer.write(prefix, codeSize);
+		writer.write(endCode, codeSize);
+		writer.finish();
+	}
+
+	// Each frame fills the screen with a single colour from the global colour table
+	private static byte[] encodeAnimation() {
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		output.write('G');
+		output.write('I');
+		output.write('F');
+		output.write('8');
+		output.write('9');
+		output.write('a');
+
+		writeShort(output, WIDTH);
+		writeShort(output, HEIGHT);
+		output.write(0xF7); // Global colour table of 256 entries
+		output.write(0);
+		output.write(0);
+
+		for(int i = 0; i < 256; i++) {
+			final int colour = i * 0x10305;
+			output.write((colour >> 16) & 0xFF);
+			output.write((colour >> 8) & 0xFF);
+			output.write(colour & 0xFF);
+		}
+
+		for(int frame = 0; frame < FRAME_COUNT; frame++) {
+
+			// Graphic control extension: no disposal, 40ms delay
+			output.write(0x21);
+			output.write(0xF9);
+			output.write(4);
+			output.write(0x04);
+			writeShort(output, 4);
+			output.write(0);
+			output.write(0);
+
+			output.write(0x2C);
+			writeShort(output, 0);
+			writeShort(output, 0);
+			writeShort(output, WIDTH);
+			writeShort(output, HEIGHT);
+			output.write(0);
+
+			writeImageData(output, frame % 256);
+		}
+
+		output.write(0x3B);
+
+		return output.toByteArray();
+	}
+
+	@Test
+	public void longAnimation() throws IOException {
+
+		final byte[] gif = encodeAnimation();
+
+		for(int iteration = 0; iteration < 3; iteration++) {
+
+			final long startNanos = System.nanoTime();
+			final StreamingGifDecoder decoder = new StreamingGifDecoder(
+					new BufferedInputStream(new ByteArrayInputStream(gif)));
+
+			Assert.assertTrue(decoder.readNextFrame());
+			final long firstFrameNanos = System.nanoTime() - startNanos;
+
+			boolean hasMoreFrames;
+
+			do {
+				hasMoreFrames = decoder.readNextFrame();
+			} while(hasMoreFrames);
+
+			final long allFramesNanos = System.nanoTime() - startNanos;
+
+			Assert.assertEquals(FRAME_COUNT, decoder.getFrameCount());
+
+			// The first two iterations are a warm-up
+			if(iteration == 2) {
+
+				final long frameBytes4444 = (long)WIDTH * HEIGHT * 2;
+				final long canvasBytes = (long)WIDTH * HEIGHT * 4;
+
+				Log.i(TAG, String.format(
+						Locale.US,
+						"%d frames of %dx%d: first frame after %.2f ms (previously two frames"
+								+ " were needed, %.2f ms), all frames %.1f ms."
+								+ " Bitmaps held: previously %d KiB, now %d KiB",
+						FRAME_COUNT,
+						WIDTH,
+						HEIGHT,
+						firstFrameNanos / 1_000_000.0,
+						2 * allFramesNanos / 1_000_000.0 / FRAME_COUNT,
+						allFramesNanos / 1_000_000.0,
+						frameBytes4444 * FRAME_COUNT / 1024,
+						// Canvas, plus the queued, displayed and spare bitmaps
+						canvasBytes * (1 + 3 + 1 + 1) / 1024));
+			}
+		}
+	}
+}
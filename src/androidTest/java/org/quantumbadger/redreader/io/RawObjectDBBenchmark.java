@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.io;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.reddit.things.InvalidSubredditNameException;
+import org.quantumbadger.redreader.reddit.things.RedditSubreddit;
+import org.quantumbadger.redreader.reddit.things.SubredditCanonicalId;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+// Times putAll and getById on a RawObjectDB of RedditSubreddit rows.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class RawObjectDBBenchmark {
+
+	private static final String TAG = "RawObjectDBBenchmark";
+	private static final String DB_FILENAME = "RawObjectDBBenchmark.db";
+
+	private static final int ROWS = 5_000;
+
+	private static RedditSubreddit createSubreddit(final int index, final long timestamp) {
+
+		final RedditSubreddit subreddit = new RedditSubreddit(
+				new WritableObject.CreationData(null, timestamp));
+
+		subreddit.display_name = "subreddit" + index;
+		subreddit.name = "t5_" + index;
+		subreddit.id = Integer.toString(index, 36);
+		subreddit.url = "/r/subreddit" + index + "/";
+		subreddit.title = "Subreddit number " + index;
+		subreddit.public_description = "A description of subreddit " + index;
+		subreddit.created = timestamp / 1000;
+		subreddit.created_utc = timestamp / 1000;
+		subreddit.subscribers = index * 10;
+		subreddit.over18 = (index % 7) == 0;
+
+		return subreddit;
+	}
+
+	@Test
+	public void putAllAndGetById() throws InvalidSubredditNameException {
+
+		final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+		context.deleteDatabase(DB_FILENAME);
+
+		final RawObjectDB<SubredditCanonicalId, RedditSubreddit> db
+				= new RawObjectDB<>(context, DB_FILENAME, RedditSubreddit.class);
+
+		try {
+			final long timestamp = System.currentTimeMillis();
+
+			final ArrayList<RedditSubreddit> subreddits = new ArrayList<>(ROWS);
+			final ArrayList<SubredditCanonicalId> ids = new ArrayList<>(ROWS);
+
+			for(int i = 0; i < ROWS; i++) {
+				final RedditSubreddit subreddit = createSubreddit(i, timestamp);
+				subreddits.add(subreddit);
+				ids.add(subreddit.getCanonicalId());
+			}
+
+			final long putAllStart = System.nanoTime();
+			db.putAll(subreddits);
+			final long putAllNanos = System.nanoTime() - putAllStart;
+
+			final long getByIdStart = System.nanoTime();
+
+			for(int i = 0; i < ROWS; i++) {
+
+				final RedditSubreddit result = db.getById(ids.get(i));
+
+				Assert.assertNotNull(result);
+				Assert.assertEquals(subreddits.get(i).url, result.url);
+				Assert.assertEquals(subreddits.get(i).subscribers, result.subscribers);
+				Assert.assertEquals(subreddits.get(i).over18, result.over18);
+				Assert.assertEquals(timestamp, result.downloadTime);
+			}
+
+			final long getByIdNanos = System.nanoTime() - getByIdStart;
+
+			Assert.assertEquals(ROWS, db.getAll().size());
+
+			Log.i(TAG, String.format(
+					Locale.US,
+					"%d rows: putAll %d ms, getById %.1f us per row",
+					ROWS,
+					putAllNanos / 1_000_000,
+					getByIdNanos / 1000.0 / ROWS));
+
+		} finally {
+			db.close();
+			context.deleteDatabase(DB_FILENAME);
+		}
+	}
+}
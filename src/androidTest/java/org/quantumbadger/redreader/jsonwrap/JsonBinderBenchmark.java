@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.jsonwrap;
+
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.reddit.things.RedditComment;
+import org.quantumbadger.redreader.reddit.things.RedditPost;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Compares the reflective JsonValue.parse + asObject path against the binders, for a listing of
+// 100 posts and a thread of 500 comments.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class JsonBinderBenchmark {
+
+	private static final String TAG = "JsonBinderBenchmark";
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String LISTING_FIXTURE = "fixtures/listing_100_posts.json";
+	private static final String THREAD_FIXTURE = "fixtures/thread_500_comments.json";
+
+	private static final int ITERATIONS = 50;
+
+	private interface BenchmarkBody {
+		void run() throws Exception;
+	}
+
+	private static String readFixture(final String name) throws IOException {
+		try(InputStream is = JsonBinderBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+			return General.readWholeStreamAsUTF8(is);
+		}
+	}
+
+	private static JsonArray children(final JsonValue listing) {
+		return listing.asObject().getObject("data").getArray("children");
+	}
+
+	private static List<RedditPost> postsByReflection(final String json) throws Exception {
+
+		final ArrayList<RedditPost> result = new ArrayList<>();
+
+		for(final JsonValue child : children(JsonValue.parse(JSON_FACTORY.createParser(json)))) {
+			result.add(child.asObject().getObject("data").asObject(RedditPost.class));
+		}
+
+		return result;
+	}
+
+	private static List<RedditPost> postsByBinder(final String json) throws IOException {
+
+		final ArrayList<RedditPost> result = new ArrayList<>();
+
+		for(final JsonValue child : children(JsonValue.parse(JSON_FACTORY.createParser(json)))) {
+			result.add(child.asObject(RedditThing.BINDER).asPost());
+		}
+
+		return result;
+	}
+
+	// Reads the posts straight from the token stream, without building a JsonValue tree
+	private static List<RedditPost> postsByStreaming(final String json) throws IOException {
+
+		final ArrayList<RedditPost> result = new ArrayList<>();
+
+		try(JsonParser parser = JSON_FACTORY.createParser(json)) {
+
+			while(parser.nextToken() != null) {
+				if(parser.currentToken() == JsonToken.FIELD_NAME
+						&& "children".equals(parser.getCurrentName())) {
+					break;
+				}
+			}
+
+			Assert.assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+			parser.nextToken();
+
+			while(parser.currentToken() == JsonToken.START_OBJECT) {
+
+				parser.nextToken();
+
+				while(parser.currentToken() == JsonToken.FIELD_NAME) {
+
+					final String field = parser.getCurrentName();
+					parser.nextToken();
+
+					if("data".equals(field)) {
+						result.add(RedditPost.BINDER.parse(parser));
+					} else {
+						parser.skipChildren();
+						parser.nextToken();
+					}
+				}
+
+				parser.nextToken();
+			}
+		}
+
+		return result;
+	}
+
+	private static void collectComments(
+			final JsonValue listing,
+			final List<JsonObject> output) {
+
+		for(final JsonValue child : children(listing)) {
+
+			if(!"t1".equals(child.asObject().getString("kind"))) {
+				continue;
+			}
+
+			final JsonObject data = child.asObject().getObject("data");
+			output.add(data);
+
+			final JsonValue replies = data.get("replies");
+
+			if(replies != null && replies.asObject() != null) {
+				collectComments(replies, output);
+			}
+		}
+	}
+
+	// The second listing on a comment page holds the comments
+	private static List<JsonObject> commentObjects(final String json) throws IOException {
+		final JsonArray page = JsonValue.parse(JSON_FACTORY.createParser(json)).asArray();
+
+		final ArrayList<JsonObject> result = new ArrayList<>();
+		collectComments(page.get(1), result);
+		return result;
+	}
+
+	private static void benchmark(final String name, final BenchmarkBody body) throws Exception {
+
+		// Warm up
+		for(int i = 0; i < ITERATIONS; i++) {
+			body.run();
+		}
+
+		final long startNanos = System.nanoTime();
+
+		for(int i = 0; i < ITERATIONS; i++) {
+			body.run();
+		}
+
+		final long elapsedNanos = System.nanoTime() - startNanos;
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%s: %.3f ms/iteration",
+				name,
+				elapsedNanos / 1_000_000.0 / ITERATIONS));
+	}
+
+	@Test
+	public void bindPosts() throws Exception {
+
+		final String listing = readFixture(LISTING_FIXTURE);
+
+		benchmark("100 posts, reflection", () -> postsByReflection(listing));
+		benchmark("100 posts, binder", () -> postsByBinder(listing));
+		benchmark("100 posts, streaming", () -> postsByStreaming(listing));
+	}
+
+	@Test
+	public void bindComments() throws Exception {
+
+		final List<JsonObject> comments = commentObjects(readFixture(THREAD_FIXTURE));
+
+		benchmark("500 comments, reflection", () -> {
+			for(final JsonObject data : comments) {
+				data.asObject(RedditComment.class);
+			}
+		});
+
+		benchmark("500 comments, binder", () -> {
+			for(final JsonObject data : comments) {
+				RedditComment.BINDER.bind(data);
+			}
+		});
+	}
+}
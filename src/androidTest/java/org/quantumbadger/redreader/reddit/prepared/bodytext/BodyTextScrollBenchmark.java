@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.prepared.bodytext;
+
+import android.app.Instrumentation;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.widget.FrameLayout;
+import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.rule.ActivityTestRule;
+import androidx.test.runner.AndroidJUnit4;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.activities.MainActivity;
+import org.quantumbadger.redreader.activities.UITestUtils;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+import org.quantumbadger.redreader.reddit.prepared.html.HtmlReader;
+import org.quantumbadger.redreader.views.RedditCommentView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Scrolls through the bodies of a 2,000-comment thread, with and without precomputed text, and
+// reports the frame times and jank from FrameMetrics.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BodyTextScrollBenchmark {
+
+	private static final String TAG = "BodyTextScrollBenchmark";
+
+	private static final String THREAD_FIXTURE = "fixtures/thread_500_comments.json";
+
+	// The fixture's comments are repeated to reach this many rows
+	private static final int COMMENT_COUNT = 2000;
+
+	private static final float SCROLL_DP_PER_FRAME = 100;
+
+	@Rule
+	public ActivityTestRule<MainActivity> mActivityTestRule
+			= new ActivityTestRule<>(MainActivity.class);
+
+	private static final class BodyAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+		@NonNull private final MainActivity mActivity;
+		@NonNull private final List<BodyElement> mBodies;
+		private final float mTextSize;
+
+		private BodyAdapter(
+				@NonNull final MainActivity activity,
+				@NonNull final List<BodyElement> bodies,
+				final float textSize) {
+
+			mActivity = activity;
+			mBodies = bodies;
+			mTextSize = textSize;
+		}
+
+		@NonNull
+		@Override
+		public RecyclerView.ViewHolder onCreateViewHolder(
+				@NonNull final ViewGroup parent,
+				final int viewType) {
+
+			final FrameLayout holder = new FrameLayout(mActivity);
+
+			holder.setLayoutParams(new RecyclerView.LayoutParams(
+					ViewGroup.LayoutParams.MATCH_PARENT,
+					ViewGroup.LayoutParams.WRAP_CONTENT));
+
+			return new RecyclerView.ViewHolder(holder) {};
+		}
+
+		// Creates the body views on each bind, as RedditCommentView does
+		@Override
+		public void onBindViewHolder(
+				@NonNull final RecyclerView.ViewHolder holder,
+				final int position) {
+
+			final FrameLayout layout = (FrameLayout)holder.itemView;
+
+			layout.removeAllViews();
+			layout.addView(mBodies.get(position).generateView(
+					mActivity,
+					null,
+					mTextSize,
+					false));
+		}
+
+		@Override
+		public int getItemCount() {
+			return mBodies.size();
+		}
+	}
+
+	private static void collectCommentHtml(final JsonValue listing, final List<String> output) {
+
+		for(final JsonValue child : listing.asObject().getObject("data").getArray("children")) {
+
+			if(!"t1".equals(child.asObject().getString("kind"))) {
+				continue;
+			}
+
+			final JsonObject data = child.asObject().getObject("data");
+			output.add(StringEscapeUtils.unescapeHtml4(data.getString("body_html")));
+
+			final JsonValue replies = data.get("replies");
+
+			if(replies != null && replies.asObject() != null) {
+				collectCommentHtml(replies, output);
+			}
+		}
+	}
+
+	private static List<String> commentHtml() throws IOException {
+
+		try(InputStream is
+					= BodyTextScrollBenchmark.class.getClassLoader().getResourceAsStream(
+							THREAD_FIXTURE)) {
+
+			final JsonArray page = JsonValue.parse(
+					new JsonFactory().createParser(General.readWholeStreamAsUTF8(is))).asArray();
+
+			final ArrayList<String> result = new ArrayList<>();
+			collectCommentHtml(page.get(1), result);
+			return result;
+		}
+	}
+
+	private void scrollThread(final String name, final boolean precompute) throws Exception {
+
+		Assume.assumeTrue(
+				"FrameMetrics requires API 24",
+				Build.VERSION.SDK_INT >= Build.VERSION_CODES.N);
+
+		UITestUtils.handleFirstRunDialog();
+
+		final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+		final MainActivity activity = mActivityTestRule.getActivity();
+		final float textSize = RedditCommentView.getBodyTextSize();
+
+		// Parse each row separately, so that no two rows share precomputed text
+		final List<String> html = commentHtml();
+		final ArrayList<BodyElement> bodies = new ArrayList<>(COMMENT_COUNT);
+
+		for(int i = 0; i < COMMENT_COUNT; i++) {
+			bodies.add(HtmlReader.parse(html.get(i % html.size()), activity));
+		}
+
+		if(precompute) {
+
+			final PrecomputedTextCompat.Params[] params = new PrecomputedTextCompat.Params[1];
+
+			instrumentation.runOnMainSync(() -> params[0]
+					= BodyElementTextSpanned.getTextMetricsParams(activity, textSize));
+
+			// Off the UI thread, as CommentListingRequest does
+			for(final BodyElement body : bodies) {
+				body.precomputeText(params[0]);
+			}
+		}
+
+		final RecyclerView[] recyclerView = new RecyclerView[1];
+
+		instrumentation.runOnMainSync(() -> {
+			recyclerView[0] = new RecyclerView(activity);
+			recyclerView[0].setLayoutManager(new LinearLayoutManager(activity));
+			recyclerView[0].setAdapter(new BodyAdapter(activity, bodies, textSize));
+			activity.setContentView(recyclerView[0]);
+		});
+
+		instrumentation.waitForIdleSync();
+
+		final ArrayList<Long> frameNanos = new ArrayList<>();
+
+		final HandlerThread metricsThread = new HandlerThread(TAG);
+		metricsThread.start();
+
+		final Window.OnFrameMetricsAvailableListener listener
+				= (window, frameMetrics, dropCount) -> {
+					synchronized(frameNanos) {
+						frameNanos.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+					}
+				};
+
+		final CountDownLatch scrolled = new CountDownLatch(1);
+		final int scrollPx = General.dpToPixels(activity, SCROLL_DP_PER_FRAME);
+
+		instrumentation.runOnMainSync(() -> {
+
+			activity.getWindow().addOnFrameMetricsAvailableListener(
+					listener,
+					new Handler(metricsThread.getLooper()));
+
+			Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+				@Override
+				public void doFrame(final long frameTimeNanos) {
+
+					if(recyclerView[0].canScrollVertically(1)) {
+						recyclerView[0].scrollBy(0, scrollPx);
+						Choreographer.getInstance().postFrameCallback(this);
+
+					} else {
+						scrolled.countDown();
+					}
+				}
+			});
+		});
+
+		Assert.assertTrue(scrolled.await(5, TimeUnit.MINUTES));
+		instrumentation.waitForIdleSync();
+
+		instrumentation.runOnMainSync(
+				() -> activity.getWindow().removeOnFrameMetricsAvailableListener(listener));
+
+		metricsThread.quitSafely();
+		metricsThread.join();
+
+		final float refreshRate = activity.getWindowManager().getDefaultDisplay().getRefreshRate();
+		final long frameBudgetNanos = (long)(1_000_000_000L / refreshRate);
+
+		final ArrayList<Long> sorted;
+
+		synchronized(frameNanos) {
+			sorted = new ArrayList<>(frameNanos);
+		}
+
+		Assert.assertFalse(sorted.isEmpty());
+		Collections.sort(sorted);
+
+		int jankFrames = 0;
+
+		for(final long nanos : sorted) {
+			if(nanos > frameBudgetNanos) {
+				jankFrames++;
+			}
+		}
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%s: %d frames, %.1f%% janky (over %.1f ms), p50 %.1f ms, p90 %.1f ms,"
+						+ " p99 %.1f ms",
+				name,
+				sorted.size(),
+				100.0 * jankFrames / sorted.size(),
+				frameBudgetNanos / 1_000_000.0,
+				sorted.get(sorted.size() / 2) / 1_000_000.0,
+				sorted.get(sorted.size() * 9 / 10) / 1_000_000.0,
+				sorted.get(sorted.size() * 99 / 100) / 1_000_000.0));
+	}
+
+	@Test
+	public void scrollWithoutPrecomputedText() throws Exception {
+		scrollThread("setText", false);
+	}
+
+	@Test
+	public void scrollWithPrecomputedText() throws Exception {
+		scrollThread("Precomputed", true);
+	}
+}
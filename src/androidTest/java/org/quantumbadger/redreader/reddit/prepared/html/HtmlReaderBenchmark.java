@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.prepared.html;
+
+import android.os.Debug;
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Compares HtmlReader against the previous String-based tokenizer, over the comment and self-post
+// HTML from the shared fixtures.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class HtmlReaderBenchmark {
+
+	private static final String TAG = "HtmlReaderBenchmark";
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String LISTING_FIXTURE = "fixtures/listing_100_posts.json";
+	private static final String THREAD_FIXTURE = "fixtures/thread_500_comments.json";
+
+	private static final int ITERATIONS = 20;
+
+	private interface Tokenizer {
+		HtmlReader.Token readNext() throws MalformedHtmlException;
+	}
+
+	private interface TokenizerFactory {
+		Tokenizer create(String html);
+	}
+
+	private static JsonValue readFixture(final String name) throws IOException {
+		try(InputStream is = HtmlReaderBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+			return JsonValue.parse(JSON_FACTORY.createParser(General.readWholeStreamAsUTF8(is)));
+		}
+	}
+
+	private static JsonArray children(final JsonValue listing) {
+		return listing.asObject().getObject("data").getArray("children");
+	}
+
+	// The API escapes the HTML, so unescape it the same way the app does before parsing
+	private static void addHtml(final String escapedHtml, final List<String> output) {
+		if(escapedHtml != null) {
+			output.add(StringEscapeUtils.unescapeHtml4(escapedHtml));
+		}
+	}
+
+	private static void collectCommentHtml(final JsonValue listing, final List<String> output) {
+
+		for(final JsonValue child : children(listing)) {
+
+			if(!"t1".equals(child.asObject().getString("kind"))) {
+				continue;
+			}
+
+			final JsonObject data = child.asObject().getObject("data");
+			addHtml(data.getString("body_html"), output);
+
+			final JsonValue replies = data.get("replies");
+
+			if(replies != null && replies.asObject() != null) {
+				collectCommentHtml(replies, output);
+			}
+		}
+	}
+
+	private static List<String> documents() throws IOException {
+
+		final ArrayList<String> result = new ArrayList<>();
+
+		for(final JsonValue child : children(readFixture(LISTING_FIXTURE))) {
+			addHtml(child.asObject().getObject("data").getString("selftext_html"), result);
+		}
+
+		final JsonArray page = readFixture(THREAD_FIXTURE).asArray();
+		addHtml(
+				children(page.get(0)).get(0).asObject().getObject("data")
+						.getString("selftext_html"),
+				result);
+		collectCommentHtml(page.get(1), result);
+
+		return result;
+	}
+
+	private static int tokenize(final List<String> documents, final TokenizerFactory factory)
+			throws MalformedHtmlException {
+
+		int tokens = 0;
+
+		for(final String html : documents) {
+
+			final Tokenizer tokenizer = factory.create(html);
+
+			while(tokenizer.readNext().type != HtmlReader.TokenType.EOF) {
+				tokens++;
+			}
+		}
+
+		return tokens;
+	}
+
+	@SuppressWarnings("deprecation")
+	private static void benchmark(
+			final String name,
+			final List<String> documents,
+			final long totalBytes,
+			final TokenizerFactory factory) throws MalformedHtmlException {
+
+		// Warm up
+		final int expectedTokens = tokenize(documents, factory);
+
+		long bestNanos = Long.MAX_VALUE;
+
+		for(int i = 0; i < ITERATIONS; i++) {
+
+			final long startNanos = System.nanoTime();
+			Assert.assertEquals(expectedTokens, tokenize(documents, factory));
+			bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+		}
+
+		Debug.resetThreadAllocCount();
+		Debug.resetThreadAllocSize();
+		Debug.startAllocCounting();
+
+		tokenize(documents, factory);
+
+		Debug.stopAllocCounting();
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%s: %.1f MB/s, %d bytes in %d objects allocated per document",
+				name,
+				totalBytes / 1_000_000.0 / (bestNanos / 1_000_000_000.0),
+				Debug.getThreadAllocSize() / documents.size(),
+				Debug.getThreadAllocCount() / documents.size()));
+	}
+
+	@Test
+	public void tokenize() throws Exception {
+
+		final List<String> documents = documents();
+
+		long totalBytes = 0;
+
+		for(final String html : documents) {
+			totalBytes += html.getBytes(StandardCharsets.UTF_8).length;
+		}
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%d documents, %d bytes",
+				documents.size(),
+				totalBytes));
+
+		benchmark(
+				"Reference",
+				documents,
+				totalBytes,
+				html -> new ReferenceHtmlReader(html)::readNext);
+
+		benchmark(
+				"HtmlReader",
+				documents,
+				totalBytes,
+				html -> new HtmlReader(html)::readNext);
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.things;
+
+import android.util.Log;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.common.General;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Times how long a listing takes to deliver its first post when the body arrives slowly.
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class RedditListingStreamReaderBenchmark {
+
+	private static final String TAG = "RedditListingStreamReaderBenchmark";
+
+	// Stands in for a slow connection: hands out the body a chunk at a time, pausing before
+	// each chunk.
+	private static final class ThrottledInputStream extends InputStream {
+
+		private final byte[] mData;
+		private final int mChunkSize;
+		private final long mDelayMs;
+
+		private int mPosition = 0;
+
+		private ThrottledInputStream(
+				final byte[] data,
+				final int chunkSize,
+				final long delayMs) {
+
+			mData = data;
+			mChunkSize = chunkSize;
+			mDelayMs = delayMs;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] buf = new byte[1];
+			return read(buf, 0, 1) < 0 ? -1 : buf[0] & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+			if(mPosition >= mData.length) {
+				return -1;
+			}
+
+			try {
+				Thread.sleep(mDelayMs);
+			} catch(final InterruptedException e) {
+				throw new IOException(e);
+			}
+
+			final int count = Math.min(Math.min(len, mChunkSize), mData.length - mPosition);
+			System.arraycopy(mData, mPosition, buf, off, count);
+			mPosition += count;
+			return count;
+		}
+
+		public int getPosition() {
+			return mPosition;
+		}
+	}
+
+	private static String readListing() throws IOException {
+
+		try(InputStream is = RedditListingStreamReaderBenchmark.class.getClassLoader()
+				.getResourceAsStream("fixtures/listing_100_posts.json")) {
+
+			return General.readWholeStreamAsUTF8(is);
+		}
+	}
+
+	@Test
+	public void timeToFirstPostOnSlowStream() throws IOException {
+
+		final byte[] data = readListing().getBytes(StandardCharsets.UTF_8);
+		final JsonFactory jsonFactory = new JsonFactory();
+
+		// Warm up, so that class loading isn't counted
+		RedditListingStreamReader.read(
+				jsonFactory.createParser(new ByteArrayInputStream(data)),
+				thing -> {});
+
+		final ThrottledInputStream stream = new ThrottledInputStream(data, 8192, 2);
+
+		final long startNanos = System.nanoTime();
+		final long[] firstPostNanos = {-1};
+		final int[] bytesReadAtFirstPost = {-1};
+
+		final int count = RedditListingStreamReader.read(
+				jsonFactory.createParser(stream),
+				thing -> {
+					if(firstPostNanos[0] < 0) {
+						firstPostNanos[0] = System.nanoTime();
+						bytesReadAtFirstPost[0] = stream.getPosition();
+					}
+				});
+
+		final long endNanos = System.nanoTime();
+
+		Assert.assertEquals(100, count);
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%d byte listing: first post after %.1f ms (%d bytes), all posts after %.1f ms",
+				data.length,
+				(firstPostNanos[0] - startNanos) / 1_000_000.0,
+				bytesReadAtFirstPost[0],
+				(endNanos - startNanos) / 1_000_000.0));
+	}
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.account;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.reddit.api.RedditOAuth;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+
+public final class RedditAccessTokenManager {
+
+	private static final String TAG = "AccessTokenManager";
+
+	@SuppressLint("StaticFieldLeak") private static RedditAccessTokenManager singleton;
+
+	public static synchronized RedditAccessTokenManager getInstance(final Context context) {
+		if(singleton == null) {
+			singleton = new RedditAccessTokenManager(context.getApplicationContext());
+		}
+		return singleton;
+	}
+
+	private final Context mContext;
+
+	private final CachedThreadPool mRefreshThreadPool
+			= new CachedThreadPool(1, "Access token refresh");
+
+	// Keyed by canonical username. Guarded by mPendingFetches.
+	private final HashMap<String, PendingFetch> mPendingFetches = new HashMap<>();
+	private final HashSet<String> mQueuedRefreshes = new HashSet<>();
+
+	private static final class PendingFetch {
+
+		private final CountDownLatch mLatch = new CountDownLatch(1);
+		private RedditOAuth.FetchAccessTokenResult mResult;
+
+		private void complete(@Nullable final RedditOAuth.FetchAccessTokenResult result) {
+			mResult = result;
+			mLatch.countDown();
+		}
+
+		@Nullable
+		private RedditOAuth.FetchAccessTokenResult await() {
+
+			try {
+				mLatch.await();
+			} catch(final InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+
+			return mResult;
+		}
+	}
+
+	private RedditAccessTokenManager(final Context context) {
+		mContext = context;
+	}
+
+	/**
+	 * Returns the user's current access token, or null if there isn't one which is still
+	 * valid. If the token is close to expiring, a replacement is fetched in the background.
+	 */
+	@Nullable
+	public RedditOAuth.AccessToken getValidAccessToken(@NonNull final RedditAccount user) {
+
+		final RedditOAuth.AccessToken accessToken = user.getMostRecentAccessToken();
+
+		if(accessToken == null || accessToken.isExpired()) {
+			return null;
+		}
+
+		if(accessToken.shouldRefresh()) {
+			refreshInBackground(user);
+		}
+
+		return accessToken;
+	}
+
+	/**
+	 * Fetches a new access token for the user, unless a valid one is already available. If
+	 * another thread is already fetching a token for the same user, this waits for it and
+	 * shares its result rather than making a second request.
+	 */
+	@NonNull
+	public RedditOAuth.FetchAccessTokenResult fetchAccessTokenSynchronous(
+			@NonNull final RedditAccount user) {
+
+		return fetchAccessTokenSynchronous(user, false);
+	}
+
+	public void invalidateAccessToken(@NonNull final RedditAccount user) {
+		user.setAccessToken(null);
+		RedditAccountManager.getInstance(mContext).saveAccessToken(user, null);
+	}
+
+	private void refreshInBackground(@NonNull final RedditAccount user) {
+
+		final String key = user.getCanonicalUsername();
+
+		synchronized(mPendingFetches) {
+			if(mPendingFetches.containsKey(key) || !mQueuedRefreshes.add(key)) {
+				return;
+			}
+		}
+
+		mRefreshThreadPool.add(() -> {
+
+			synchronized(mPendingFetches) {
+				mQueuedRefreshes.remove(key);
+			}
+
+			try {
+				final RedditOAuth.FetchAccessTokenResult result
+						= fetchAccessTokenSynchronous(user, true);
+
+				// The old token is still usable, so the next request will try again
+				if(result.status != RedditOAuth.FetchAccessTokenResultStatus.SUCCESS) {
+					Log.w(TAG, "Background token refresh failed: " + result.status);
+				}
+
+			} catch(final Exception e) {
+				Log.e(TAG, "Background token refresh failed", e);
+			}
+		});
+	}
+
+	@NonNull
+	private RedditOAuth.FetchAccessTokenResult fetchAccessTokenSynchronous(
+			@NonNull final RedditAccount user,
+			final boolean refreshEarly) {
+
+		final String key = user.getCanonicalUsername();
+		final PendingFetch pendingFetch;
+		final PendingFetch existingFetch;
+
+		synchronized(mPendingFetches) {
+
+			existingFetch = mPendingFetches.get(key);
+
+			if(existingFetch == null) {
+
+				// A fetch may have completed while we were waiting for the lock
+				final RedditOAuth.AccessToken accessToken = user.getMostRecentAccessToken();
+
+				if(accessToken != null) {
+
+					final boolean needsFetch = refreshEarly
+							? accessToken.shouldRefresh()
+							: accessToken.isExpired();
+
+					if(!needsFetch) {
+						return new RedditOAuth.FetchAccessTokenResult(accessToken);
+					}
+				}
+
+				pendingFetch = new PendingFetch();
+				mPendingFetches.put(key, pendingFetch);
+
+			} else {
+				pendingFetch = null;
+			}
+		}
+
+		if(existingFetch != null) {
+			return awaitFetch(user, existingFetch);
+		}
+
+		RedditOAuth.FetchAccessTokenResult result = null;
+
+		try {
+			if(user.isAnonymous()) {
+				result = RedditOAuth.fetchAnonymousAccessTokenSynchronous(mContext);
+			} else {
+				result = RedditOAuth.fetchAccessTokenSynchronous(mContext, user);
+			}
+
+			if(result.status == RedditOAuth.FetchAccessTokenResultStatus.SUCCESS) {
+				user.setAccessToken(result.accessToken);
+				RedditAccountManager.getInstance(mContext)
+						.saveAccessToken(user, result.accessToken);
+			}
+
+		} finally {
+			synchronized(mPendingFetches) {
+				mPendingFetches.remove(key);
+			}
+
+			pendingFetch.complete(result);
+		}
+
+		return result;
+	}
+
+	@NonNull
+	private RedditOAuth.FetchAccessTokenResult awaitFetch(
+			@NonNull final RedditAccount user,
+			@NonNull final PendingFetch pendingFetch) {
+
+		final RedditOAuth.FetchAccessTokenResult result = pendingFetch.await();
+
+		if(result == null) {
+			// The other fetch threw an exception, so try again ourselves
+			return fetchAccessTokenSynchronous(user, false);
+		}
+
+		if(result.status == RedditOAuth.FetchAccessTokenResultStatus.SUCCESS) {
+			user.setAccessToken(result.accessToken);
+		}
+
+		return result;
+	}
+}
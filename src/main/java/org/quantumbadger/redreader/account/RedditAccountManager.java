@@ -61,8 +61,10 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 	private static final String FIELD_REFRESH_TOKEN = "refresh_token";
 	private static final String FIELD_PRIORITY = "priority";
 	private static final String FIELD_USES_NEW_CLIENT_ID = "uses_new_client_id";
+	private static final String FIELD_ACCESS_TOKEN = "access_token";
+	private static final String FIELD_ACCESS_TOKEN_EXPIRY = "access_token_expiry";
 
-	private static final int ACCOUNTS_DB_VERSION = 3;
+	private static final int ACCOUNTS_DB_VERSION = 4;
 
 	@SuppressLint("StaticFieldLeak") private static RedditAccountManager singleton;
 
@@ -94,12 +96,16 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 						"%s TEXT NOT NULL PRIMARY KEY ON CONFLICT REPLACE," +
 						"%s TEXT," +
 						"%s INTEGER," +
-						"%s BOOLEAN NOT NULL)",
+						"%s BOOLEAN NOT NULL," +
+						"%s TEXT," +
+						"%s INTEGER)",
 				TABLE,
 				FIELD_USERNAME,
 				FIELD_REFRESH_TOKEN,
 				FIELD_PRIORITY,
-				FIELD_USES_NEW_CLIENT_ID);
+				FIELD_USES_NEW_CLIENT_ID,
+				FIELD_ACCESS_TOKEN,
+				FIELD_ACCESS_TOKEN_EXPIRY);
 
 		db.execSQL(queryString);
 
@@ -130,6 +136,21 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 					TABLE,
 					FIELD_USES_NEW_CLIENT_ID));
 		}
+
+		if(oldVersion < 4) {
+
+			db.execSQL(String.format(
+					Locale.US,
+					"ALTER TABLE %s ADD COLUMN %s TEXT",
+					TABLE,
+					FIELD_ACCESS_TOKEN));
+
+			db.execSQL(String.format(
+					Locale.US,
+					"ALTER TABLE %s ADD COLUMN %s INTEGER",
+					TABLE,
+					FIELD_ACCESS_TOKEN_EXPIRY));
+		}
 	}
 
 	public synchronized void addAccount(final RedditAccount account) {
@@ -159,6 +180,7 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 
 		row.put(FIELD_PRIORITY, account.priority);
 		row.put(FIELD_USES_NEW_CLIENT_ID, account.usesNewClientId);
+		putAccessToken(row, account.getMostRecentAccessToken());
 
 		db.insert(TABLE, null, row);
 
@@ -170,6 +192,44 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 		}
 	}
 
+	private static void putAccessToken(
+			@NonNull final ContentValues row,
+			@Nullable final RedditOAuth.AccessToken accessToken) {
+
+		if(accessToken == null) {
+			row.putNull(FIELD_ACCESS_TOKEN);
+			row.putNull(FIELD_ACCESS_TOKEN_EXPIRY);
+		} else {
+			row.put(FIELD_ACCESS_TOKEN, accessToken.token);
+			row.put(FIELD_ACCESS_TOKEN_EXPIRY, accessToken.getExpiryUtc());
+		}
+	}
+
+	public synchronized void saveAccessToken(
+			@NonNull final RedditAccount account,
+			@Nullable final RedditOAuth.AccessToken accessToken) {
+
+		// Other instances of this account should start using the new token too
+		if(account.isAnonymous()) {
+			ANON.setAccessToken(accessToken);
+		}
+
+		if(accountsCache != null) {
+			for(final RedditAccount cachedAccount : accountsCache) {
+				if(cachedAccount.equals(account)) {
+					cachedAccount.setAccessToken(accessToken);
+				}
+			}
+		}
+
+		final ContentValues row = new ContentValues();
+		putAccessToken(row, accessToken);
+
+		final SQLiteDatabase db = getWritableDatabase();
+		db.update(TABLE, row, FIELD_USERNAME + "=?", new String[] {account.username});
+		db.close();
+	}
+
 	public synchronized ArrayList<RedditAccount> getAccounts() {
 
 		if(accountsCache == null) {
@@ -239,7 +299,9 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 				FIELD_USERNAME,
 				FIELD_REFRESH_TOKEN,
 				FIELD_PRIORITY,
-				FIELD_USES_NEW_CLIENT_ID};
+				FIELD_USES_NEW_CLIENT_ID,
+				FIELD_ACCESS_TOKEN,
+				FIELD_ACCESS_TOKEN_EXPIRY};
 
 		final Cursor cursor = db.query(
 				TABLE,
@@ -275,6 +337,21 @@ public final class RedditAccountManager extends SQLiteOpenHelper {
 						usesNewClientId,
 						priority);
 
+				if(!cursor.isNull(4) && !cursor.isNull(5)) {
+
+					final RedditOAuth.AccessToken accessToken = RedditOAuth.AccessToken.restore(
+							cursor.getString(4),
+							cursor.getLong(5));
+
+					if(!accessToken.isExpired()) {
+						account.setAccessToken(accessToken);
+
+						if(account.isAnonymous() && ANON.getMostRecentAccessToken() == null) {
+							ANON.setAccessToken(accessToken);
+						}
+					}
+				}
+
 				accountsCache.add(account);
 
 				if(defaultAccountCache == null
@@ -72,6 +72,7 @@ import org.quantumbadger.redreader.image.GetAlbumInfoListener;
 import org.quantumbadger.redreader.image.GetImageInfoListener;
 import org.quantumbadger.redreader.image.GifDecoderThread;
 import org.quantumbadger.redreader.image.ImageInfo;
+import org.quantumbadger.redreader.image.ImageInfoResolver;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditPreparedPost;
 import org.quantumbadger.redreader.reddit.things.RedditPost;
@@ -84,6 +85,7 @@ import org.quantumbadger.redreader.views.bezelmenu.SideToolbarOverlay;
 import org.quantumbadger.redreader.views.glview.RRGLSurfaceView;
 import org.quantumbadger.redreader.views.imageview.BasicGestureHandler;
 import org.quantumbadger.redreader.views.imageview.ImageTileSource;
+import org.quantumbadger.redreader.views.imageview.ImageTileSourceRegionDecoder;
 import org.quantumbadger.redreader.views.imageview.ImageTileSourceWholeBitmap;
 import org.quantumbadger.redreader.views.imageview.ImageViewDisplayListManager;
 import org.quantumbadger.redreader.views.liststatus.ErrorView;
@@ -91,6 +93,7 @@ import org.quantumbadger.redreader.views.video.ExoPlayerSeekableInputStreamDataS
 import org.quantumbadger.redreader.views.video.ExoPlayerSeekableInputStreamDataSourceFactory;
 import org.quantumbadger.redreader.views.video.ExoPlayerWrapperView;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -262,7 +265,7 @@ public class ImageViewActivity extends BaseActivity
 		mLayout = new FrameLayout(this);
 		mLayout.addView(progressLayout);
 
-		LinkHandler.getImageInfo(
+		ImageInfoResolver.getInstance(this).getImageInfo(
 				this,
 				mUrl,
 				new Priority(Constants.Priority.IMAGE_VIEW),
@@ -1309,7 +1312,7 @@ public class ImageViewActivity extends BaseActivity
 		Log.i(TAG, "Playing GIF using legacy decoder");
 
 		// The GIF decoder thread will close this itself
-		@SuppressWarnings("PMD.CloseResource") final InputStream is;
+		@SuppressWarnings("PMD.CloseResource") final SeekableInputStream is;
 		try {
 			is = streamFactory.create();
 
@@ -1363,6 +1366,32 @@ public class ImageViewActivity extends BaseActivity
 		gifThread.start();
 	}
 
+	@NonNull
+	private static ImageTileSource createImageTileSource(
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory)
+			throws IOException {
+
+		// Only decode the tiles which are displayed, so that memory use depends on the size of
+		// the screen rather than the size of the image
+		try(SeekableInputStream is = streamFactory.create()) {
+
+			final File file = is.waitForCompleteFile();
+
+			if(file != null) {
+				return new ImageTileSourceRegionDecoder(file);
+			}
+
+			return new ImageTileSourceRegionDecoder(is);
+
+		} catch(final IOException e) {
+			Log.i(TAG, "Unable to decode regions of image, decoding whole bitmap", e);
+		}
+
+		try(InputStream is = streamFactory.create()) {
+			return new ImageTileSourceWholeBitmap(BitmapFactory.decodeStream(is));
+		}
+	}
+
 	private void showImageWithInternalViewer(
 			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory) {
 
@@ -1370,22 +1399,18 @@ public class ImageViewActivity extends BaseActivity
 
 		final ImageTileSource imageTileSource;
 		try {
-			try(InputStream is = streamFactory.create()) {
-
-				imageTileSource = new ImageTileSourceWholeBitmap(
-						BitmapFactory.decodeStream(is));
-
-			} catch(final Throwable t) {
-				Log.e(TAG, "Exception when creating ImageTileSource", t);
-				General.quickToast(this, R.string.imageview_decode_failed);
-				revertToWeb();
-				return;
-			}
+			imageTileSource = createImageTileSource(streamFactory);
 
 		} catch(final OutOfMemoryError e) {
 			General.quickToast(this, R.string.imageview_oom);
 			revertToWeb();
 			return;
+
+		} catch(final Throwable t) {
+			Log.e(TAG, "Exception when creating ImageTileSource", t);
+			General.quickToast(this, R.string.imageview_decode_failed);
+			revertToWeb();
+			return;
 		}
 
 		AndroidCommon.UI_THREAD_HANDLER.post(() -> {
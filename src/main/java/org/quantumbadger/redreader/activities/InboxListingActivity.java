@@ -300,7 +300,7 @@ public final class InboxListingActivity extends BaseActivity {
 
 							for(final JsonValue child : children) {
 
-								final RedditThing thing = child.asObject(RedditThing.class);
+								final RedditThing thing = child.asObject(RedditThing.BINDER);
 
 								switch(thing.getKind()) {
 									case COMMENT:
@@ -351,7 +351,7 @@ public final class InboxListingActivity extends BaseActivity {
 
 											for(final JsonValue childMsgValue : replies) {
 												final RedditMessage childMsgRaw
-														= childMsgValue.asObject(RedditThing.class)
+														= childMsgValue.asObject(RedditThing.BINDER)
 														.asMessage();
 												final RedditPreparedMessage childMsg
 														= new RedditPreparedMessage(
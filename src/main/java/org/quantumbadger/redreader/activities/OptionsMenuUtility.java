@@ -41,6 +41,7 @@ import org.quantumbadger.redreader.reddit.PostCommentSort;
 import org.quantumbadger.redreader.reddit.PostSort;
 import org.quantumbadger.redreader.reddit.UserCommentSort;
 import org.quantumbadger.redreader.reddit.api.SubredditSubscriptionState;
+import org.quantumbadger.redreader.search.OfflineSearchDialog;
 import org.quantumbadger.redreader.settings.SettingsActivity;
 
 import java.util.ArrayList;
@@ -77,6 +78,7 @@ public final class OptionsMenuUtility {
 		SUBMIT_POST,
 		SEARCH,
 		SEARCH_COMMENTS,
+		SEARCH_OFFLINE,
 		REFRESH_SUBREDDITS,
 		REFRESH_POSTS,
 		REFRESH_COMMENTS,
@@ -123,6 +125,10 @@ public final class OptionsMenuUtility {
 					getOrThrow(appbarItemsPrefs, AppbarItemsPref.REFRESH),
 					false);
 
+			if(getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH) != DO_NOT_SHOW) {
+				add(activity, menu, Option.SEARCH_OFFLINE);
+			}
+
 		} else if(!subredditsVisible && postsVisible && !commentsVisible) {
 			if(postsSortable) {
 
@@ -165,6 +171,10 @@ public final class OptionsMenuUtility {
 					getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH),
 					false);
 
+			if(getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH) != DO_NOT_SHOW) {
+				add(activity, menu, Option.SEARCH_OFFLINE);
+			}
+
 			if(subredditPinned != null) {
 				if(subredditPinned) {
 					add(
@@ -242,6 +252,11 @@ public final class OptionsMenuUtility {
 					Option.SEARCH,
 					getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH),
 					false);
+
+			if(getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH) != DO_NOT_SHOW) {
+				add(activity, menu, Option.SEARCH_OFFLINE);
+			}
+
 			if(pastCommentsSupported) {
 				add(
 						activity,
@@ -362,6 +377,7 @@ public final class OptionsMenuUtility {
 
 					add(activity, searchMenu, Option.SEARCH);
 					add(activity, searchMenu, Option.SEARCH_COMMENTS);
+					add(activity, searchMenu, Option.SEARCH_OFFLINE);
 				}
 			} else if(postsVisible) {
 				add(
@@ -370,6 +386,11 @@ public final class OptionsMenuUtility {
 						Option.SEARCH,
 						getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH),
 						false);
+
+				if(getOrThrow(appbarItemsPrefs, AppbarItemsPref.SEARCH) != DO_NOT_SHOW) {
+					add(activity, menu, Option.SEARCH_OFFLINE);
+				}
+
 				add(
 						activity,
 						menu,
@@ -813,6 +834,20 @@ public final class OptionsMenuUtility {
 
 				break;
 			}
+			case SEARCH_OFFLINE: {
+				menu.add(
+						Menu.NONE,
+						AppbarItemsPref.SEARCH.ordinal(),
+						1,
+						activity.getString(R.string.action_search_offline))
+						.setOnMenuItemClickListener(item -> {
+							OfflineSearchDialog.show(activity);
+							return true;
+						})
+						.setShowAsAction(showAsAction);
+
+				break;
+			}
 			case REFRESH_COMMENTS: {
 				final MenuItem refreshComments = menu.add(
 						Menu.NONE,
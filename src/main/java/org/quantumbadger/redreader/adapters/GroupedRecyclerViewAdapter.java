@@ -20,6 +20,7 @@ package org.quantumbadger.redreader.adapters;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
+import org.quantumbadger.redreader.common.collections.FenwickTree;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,6 +36,7 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 
 		private final long mUniqueId = ITEM_UNIQUE_ID_GENERATOR.incrementAndGet();
 		private boolean mCurrentlyHidden = false;
+		private int mPositionInGroup = -1;
 
 		public abstract Class getViewType();
 
@@ -46,15 +48,21 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 	}
 
 	private final ArrayList<Item>[] mItems;
+
+	// One entry per item, 1 if visible and 0 if hidden
+	private final FenwickTree[] mVisibleItems;
+
 	private final HashMap<Class, Integer> mItemViewTypeMap = new HashMap<>();
 	private final HashMap<Integer, Item> mViewTypeItemMap = new HashMap<>();
 
 	public GroupedRecyclerViewAdapter(final int groups) {
 		//noinspection unchecked
 		mItems = (ArrayList<Item>[])new ArrayList[groups];
+		mVisibleItems = new FenwickTree[groups];
 
 		for(int i = 0; i < groups; i++) {
 			mItems[i] = new ArrayList<>();
+			mVisibleItems[i] = new FenwickTree();
 		}
 
 		setHasStableIds(true);
@@ -63,14 +71,16 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 	private int getItemPositionInternal(final int groupId, final Item item) {
 
 		final ArrayList<Item> group = mItems[groupId];
+		final int positionInGroup = item.mPositionInGroup;
 
-		for(int i = 0; i < group.size(); i++) {
-			if(group.get(i) == item) {
-				return getItemPositionInternal(groupId, i);
-			}
+		if(positionInGroup < 0
+				|| positionInGroup >= group.size()
+				|| group.get(positionInGroup) != item) {
+
+			throw new RuntimeException("Item not found");
 		}
 
-		throw new RuntimeException("Item not found");
+		return getItemPositionInternal(groupId, positionInGroup);
 	}
 
 	// "positionInGroup" should include both hidden and visible items
@@ -82,10 +92,8 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 			result += getGroupUnhiddenCount(i);
 		}
 
-		for(int i = 0; i < positionInGroup; i++) {
-			if(!mItems[group].get(i).mCurrentlyHidden) {
-				result++;
-			}
+		if(group < mItems.length) {
+			result += mVisibleItems[group].prefixSum(positionInGroup);
 		}
 
 		return result;
@@ -99,27 +107,18 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 					+ " is too low");
 		}
 
-		int currentPosition = 0;
+		int positionInGroup = desiredPosition;
 
 		for(int groupId = 0; groupId < mItems.length; groupId++) {
 
-			final ArrayList<Item> group = mItems[groupId];
-
-			for(int positionInGroup = 0;
-				positionInGroup < group.size();
-				positionInGroup++) {
-
-				final Item item = group.get(positionInGroup);
-
-				if(!item.mCurrentlyHidden) {
+			final int groupUnhiddenCount = getGroupUnhiddenCount(groupId);
 
-					if(currentPosition == desiredPosition) {
-						return item;
-					}
-
-					currentPosition++;
-				}
+			if(positionInGroup < groupUnhiddenCount) {
+				return mItems[groupId].get(
+						mVisibleItems[groupId].indexOfPrefixSumExceeding(positionInGroup));
 			}
+
+			positionInGroup -= groupUnhiddenCount;
 		}
 
 		throw new RuntimeException("Item desiredPosition "
@@ -170,18 +169,7 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 	}
 
 	private int getGroupUnhiddenCount(final int groupId) {
-
-		final ArrayList<Item> group = mItems[groupId];
-
-		int result = 0;
-
-		for(int i = 0; i < group.size(); i++) {
-			if(!group.get(i).mCurrentlyHidden) {
-				result++;
-			}
-		}
-
-		return result;
+		return mVisibleItems[groupId].total();
 	}
 
 	@Override
@@ -205,11 +193,17 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 		return getItemInternal(position);
 	}
 
+	private void addToGroupInternal(final int groupId, final Item item) {
+		item.mPositionInGroup = mItems[groupId].size();
+		mItems[groupId].add(item);
+		mVisibleItems[groupId].add(item.mCurrentlyHidden ? 0 : 1);
+	}
+
 	public void appendToGroup(final int group, final Item item) {
 
 		final int position = getItemPositionInternal(group + 1, 0);
 
-		mItems[group].add(item);
+		addToGroupInternal(group, item);
 
 		if(!item.mCurrentlyHidden) {
 			notifyItemInserted(position);
@@ -220,10 +214,9 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 
 		final int position = getItemPositionInternal(group + 1, 0);
 
-		mItems[group].addAll(items);
-
 		for(final Item item : items) {
 			item.mCurrentlyHidden = false;
+			addToGroupInternal(group, item);
 		}
 
 		notifyItemRangeInserted(position, items.size());
@@ -231,18 +224,18 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 
 	public void removeAllFromGroup(final int groupId) {
 
-		final ArrayList<Item> group = mItems[groupId];
+		final int position = getItemPositionInternal(groupId, 0);
+		final int unhiddenCount = getGroupUnhiddenCount(groupId);
 
-		for(int i = group.size() - 1; i >= 0; i--) {
-
-			final Item item = group.get(i);
-			final int position = getItemPositionInternal(groupId, i);
+		for(final Item item : mItems[groupId]) {
+			item.mPositionInGroup = -1;
+		}
 
-			group.remove(i);
+		mItems[groupId].clear();
+		mVisibleItems[groupId].clear();
 
-			if(!item.mCurrentlyHidden) {
-				notifyItemRemoved(position);
-			}
+		if(unhiddenCount > 0) {
+			notifyItemRangeRemoved(position, unhiddenCount);
 		}
 	}
 
@@ -250,28 +243,31 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 
 		final ArrayList<Item> group = mItems[groupId];
 
-		for(int i = 0; i < group.size(); i++) {
-			if(group.get(i) == item) {
-
-				final int position = getItemPositionInternal(groupId, i);
-
-				group.remove(i);
+		final int position = getItemPositionInternal(groupId, item);
+		final int positionInGroup = item.mPositionInGroup;
 
-				if(!item.mCurrentlyHidden) {
-					notifyItemRemoved(position);
-				}
+		group.remove(positionInGroup);
+		mVisibleItems[groupId].remove(positionInGroup);
+		item.mPositionInGroup = -1;
 
-				return;
-			}
+		for(int i = positionInGroup; i < group.size(); i++) {
+			group.get(i).mPositionInGroup = i;
 		}
 
-		throw new RuntimeException("Item not found");
+		if(!item.mCurrentlyHidden) {
+			notifyItemRemoved(position);
+		}
 	}
 
 	public void updateHiddenStatus() {
 
 		int position = 0;
 
+		// Consecutive changes are batched into a single notification
+		int changeStart = 0;
+		int changeCount = 0;
+		boolean changeIsRemoval = false;
+
 		for(int groupId = 0; groupId < mItems.length; groupId++) {
 
 			final ArrayList<Item> group = mItems[groupId];
@@ -286,11 +282,24 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 				final boolean isHidden = item.isHidden();
 				item.mCurrentlyHidden = isHidden;
 
-				if(isHidden && !wasHidden) {
-					notifyItemRemoved(position);
+				if(isHidden != wasHidden) {
+
+					mVisibleItems[groupId].set(positionInGroup, isHidden ? 0 : 1);
+
+					final boolean continuesChange = changeCount > 0
+							&& changeIsRemoval == isHidden
+							&& (isHidden
+									? position == changeStart
+									: position == changeStart + changeCount);
 
-				} else if(!isHidden && wasHidden) {
-					notifyItemInserted(position);
+					if(!continuesChange) {
+						notifyRangeChange(changeStart, changeCount, changeIsRemoval);
+						changeStart = position;
+						changeCount = 0;
+						changeIsRemoval = isHidden;
+					}
+
+					changeCount++;
 				}
 
 				if(!isHidden) {
@@ -298,6 +307,24 @@ public class GroupedRecyclerViewAdapter extends RecyclerView.Adapter {
 				}
 			}
 		}
+
+		notifyRangeChange(changeStart, changeCount, changeIsRemoval);
+	}
+
+	private void notifyRangeChange(
+			final int start,
+			final int count,
+			final boolean isRemoval) {
+
+		if(count == 0) {
+			return;
+		}
+
+		if(isRemoval) {
+			notifyItemRangeRemoved(start, count);
+		} else {
+			notifyItemRangeInserted(start, count);
+		}
 	}
 
 	public void notifyItemChanged(final int groupId, final Item item) {
@@ -22,15 +22,16 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import org.quantumbadger.redreader.account.RedditAccount;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.RRTime;
+import org.quantumbadger.redreader.common.StringUtils;
 
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,6 +42,7 @@ final class CacheDbManager extends SQLiteOpenHelper {
 
 	private static final String CACHE_DB_FILENAME = "cache.db";
 	private static final String TABLE = "web";
+	private static final String TABLE_SIZES = "sizes";
 
 	public static final String FIELD_URL = "url";
 	public static final String FIELD_ID = "id";
@@ -53,16 +55,28 @@ final class CacheDbManager extends SQLiteOpenHelper {
 	public static final String FIELD_COMPRESSION_TYPE = "compressionType";
 	public static final String FIELD_LENGTH_UNCOMPRESSED = "lengthUncompressed";
 	public static final String FIELD_LENGTH_COMPRESSED = "lengthCompressed";
+	public static final String FIELD_LAST_ACCESS = "lastAccess";
+
+	private static final String FIELD_SIZES_TYPE = "type";
+	private static final String FIELD_SIZES_BYTES = "bytes";
 
 	private static final int STATUS_MOVING = 1;
 	private static final int STATUS_DONE = 2;
 
-	private static final int CACHE_DB_VERSION = 2;
+	private static final int CACHE_DB_VERSION = 4;
 
 	CacheDbManager(final Context context) {
 		super(context, CACHE_DB_FILENAME, null, CACHE_DB_VERSION);
 	}
 
+	@Override
+	public void onConfigure(final SQLiteDatabase db) {
+
+		// Without this, rows deleted by ON CONFLICT REPLACE don't fire the delete trigger, and
+		// the sizes table would drift
+		db.execSQL("PRAGMA recursive_triggers = ON");
+	}
+
 	@Override
 	public void onCreate(final SQLiteDatabase db) {
 
@@ -79,6 +93,7 @@ final class CacheDbManager extends SQLiteOpenHelper {
 						"%s INTEGER," +
 						"%s INTEGER," +
 						"%s INTEGER," +
+						"%s INTEGER NOT NULL DEFAULT 0," +
 						"UNIQUE (%s, %s, %s) ON CONFLICT REPLACE)",
 				TABLE,
 				FIELD_ID,
@@ -92,9 +107,96 @@ final class CacheDbManager extends SQLiteOpenHelper {
 				FIELD_COMPRESSION_TYPE,
 				FIELD_LENGTH_COMPRESSED,
 				FIELD_LENGTH_UNCOMPRESSED,
+				FIELD_LAST_ACCESS,
 				FIELD_USER, FIELD_URL, FIELD_SESSION);
 
 		db.execSQL(queryString);
+
+		createIndexesAndSizes(db);
+		createLastAccessIndex(db);
+	}
+
+	private static void createLastAccessIndex(final SQLiteDatabase db) {
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE INDEX IF NOT EXISTS %s_type_last_access ON %s (%s, %s)",
+				TABLE,
+				TABLE,
+				FIELD_TYPE,
+				FIELD_LAST_ACCESS));
+	}
+
+	// Version 3 added indexes for lookups and pruning, and a table holding the total compressed
+	// length of the entries of each file type, kept up to date by triggers
+	private static void createIndexesAndSizes(final SQLiteDatabase db) {
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE INDEX IF NOT EXISTS %s_url_user ON %s (%s, %s)",
+				TABLE,
+				TABLE,
+				FIELD_URL,
+				FIELD_USER));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE INDEX IF NOT EXISTS %s_type_timestamp ON %s (%s, %s)",
+				TABLE,
+				TABLE,
+				FIELD_TYPE,
+				FIELD_TIMESTAMP));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE TABLE IF NOT EXISTS %s (%s INTEGER PRIMARY KEY, %s INTEGER NOT NULL)",
+				TABLE_SIZES,
+				FIELD_SIZES_TYPE,
+				FIELD_SIZES_BYTES));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"INSERT OR REPLACE INTO %s (%s, %s) SELECT %s, SUM(%s) FROM %s GROUP BY %s",
+				TABLE_SIZES,
+				FIELD_SIZES_TYPE,
+				FIELD_SIZES_BYTES,
+				FIELD_TYPE,
+				FIELD_LENGTH_COMPRESSED,
+				TABLE,
+				FIELD_TYPE));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE TRIGGER IF NOT EXISTS %s_size_insert AFTER INSERT ON %s BEGIN "
+						+ "INSERT OR IGNORE INTO %s (%s, %s) VALUES (NEW.%s, 0); "
+						+ "UPDATE %s SET %s = %s + NEW.%s WHERE %s = NEW.%s; "
+						+ "END",
+				TABLE,
+				TABLE,
+				TABLE_SIZES,
+				FIELD_SIZES_TYPE,
+				FIELD_SIZES_BYTES,
+				FIELD_TYPE,
+				TABLE_SIZES,
+				FIELD_SIZES_BYTES,
+				FIELD_SIZES_BYTES,
+				FIELD_LENGTH_COMPRESSED,
+				FIELD_SIZES_TYPE,
+				FIELD_TYPE));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE TRIGGER IF NOT EXISTS %s_size_delete AFTER DELETE ON %s BEGIN "
+						+ "UPDATE %s SET %s = %s - OLD.%s WHERE %s = OLD.%s; "
+						+ "END",
+				TABLE,
+				TABLE,
+				TABLE_SIZES,
+				FIELD_SIZES_BYTES,
+				FIELD_SIZES_BYTES,
+				FIELD_LENGTH_COMPRESSED,
+				FIELD_SIZES_TYPE,
+				FIELD_TYPE));
 	}
 
 	@Override
@@ -125,6 +227,30 @@ final class CacheDbManager extends SQLiteOpenHelper {
 					FIELD_LENGTH_COMPRESSED,
 					0));
 		}
+
+		if(oldVersion < 3) {
+			// Entries from before version 2 have no recorded length, so they won't be counted
+			// in the sizes table until they are pruned
+			createIndexesAndSizes(db);
+		}
+
+		if(oldVersion < 4) {
+			db.execSQL(String.format(
+					Locale.US,
+					"ALTER TABLE %s ADD COLUMN %s INTEGER NOT NULL DEFAULT %d",
+					TABLE,
+					FIELD_LAST_ACCESS,
+					0));
+
+			db.execSQL(String.format(
+					Locale.US,
+					"UPDATE %s SET %s = %s",
+					TABLE,
+					FIELD_LAST_ACCESS,
+					FIELD_TIMESTAMP));
+
+			createLastAccessIndex(db);
+		}
 	}
 
 	synchronized Optional<CacheEntry> selectById(final long id) {
@@ -235,6 +361,7 @@ final class CacheDbManager extends SQLiteOpenHelper {
 		row.put(FIELD_COMPRESSION_TYPE, compressionType.databaseId);
 		row.put(FIELD_LENGTH_COMPRESSED, lengthCompressed);
 		row.put(FIELD_LENGTH_UNCOMPRESSED, lengthUncompressed);
+		row.put(FIELD_LAST_ACCESS, RRTime.utcCurrentTimeMillis());
 
 		final long result = db.insert(TABLE, null, row);
 
@@ -259,87 +386,194 @@ final class CacheDbManager extends SQLiteOpenHelper {
 		return db.delete(TABLE, FIELD_ID + "=?", new String[] {String.valueOf(id)});
 	}
 
-	public synchronized ArrayList<Long> getFilesToPrune(
-			final HashSet<Long> currentFiles,
-			final HashMap<Integer, Long> maxAge,
-			final long defaultMaxAge) {
+	synchronized List<Integer> getFileTypes() {
 
-		final SQLiteDatabase db = this.getWritableDatabase();
-
-		final long currentTime = RRTime.utcCurrentTimeMillis();
+		final SQLiteDatabase db = getReadableDatabase();
 
-		final Cursor cursor = db.query(
+		try(Cursor cursor = db.query(
+				true,
 				TABLE,
-				new String[] {FIELD_ID, FIELD_TIMESTAMP, FIELD_TYPE},
+				new String[] {FIELD_TYPE},
 				null,
 				null,
 				null,
 				null,
 				null,
-				null);
+				null)) {
 
-		final HashSet<Long> currentEntries = new HashSet<>();
-		final ArrayList<Long> entriesToDelete = new ArrayList<>();
-		final ArrayList<Long> filesToDelete = new ArrayList<>(32);
+			final ArrayList<Integer> result = new ArrayList<>(cursor.getCount());
 
-		while(cursor.moveToNext()) {
+			while(cursor.moveToNext()) {
+				result.add(cursor.getInt(0));
+			}
 
-			final long id = cursor.getLong(0);
-			final long timestamp = cursor.getLong(1);
-			final int type = cursor.getInt(2);
+			return result;
+		}
+	}
 
-			final long pruneIfBeforeMs;
+	// Deletes up to maxEntries of the oldest entries of the given type which were written before
+	// the specified time, and returns their IDs so that the files can be deleted.
+	synchronized ArrayList<Long> pruneOldestEntries(
+			final int fileType,
+			final long pruneIfBeforeMs,
+			final int maxEntries) {
 
-			if(maxAge.containsKey(type)) {
-				pruneIfBeforeMs = currentTime - maxAge.get(type);
-			} else {
-				Log.e("RR DEBUG cache", "Using default age! Filetype " + type);
-				pruneIfBeforeMs = currentTime - defaultMaxAge;
-			}
+		final SQLiteDatabase db = getWritableDatabase();
 
-			if(!currentFiles.contains(id)) {
-				entriesToDelete.add(id);
+		final ArrayList<Long> result = new ArrayList<>(maxEntries);
 
-			} else if(timestamp < pruneIfBeforeMs) {
-				entriesToDelete.add(id);
-				filesToDelete.add(id);
+		db.beginTransaction();
 
-			} else {
-				currentEntries.add(id);
+		try {
+			try(Cursor cursor = db.query(
+					TABLE,
+					new String[] {FIELD_ID},
+					String.format(Locale.US, "%s=? AND %s<?", FIELD_TYPE, FIELD_TIMESTAMP),
+					new String[] {String.valueOf(fileType), String.valueOf(pruneIfBeforeMs)},
+					null,
+					null,
+					FIELD_TIMESTAMP + " ASC",
+					String.valueOf(maxEntries))) {
+
+				while(cursor.moveToNext()) {
+					result.add(cursor.getLong(0));
+				}
 			}
-		}
 
-		for(final long id : currentFiles) {
-			if(!currentEntries.contains(id)) {
-				filesToDelete.add(id);
+			if(!result.isEmpty()) {
+				db.execSQL(String.format(
+						Locale.US,
+						"DELETE FROM %s WHERE %s IN (%s)",
+						TABLE,
+						FIELD_ID,
+						StringUtils.join(result, ",")));
 			}
+
+			db.setTransactionSuccessful();
+
+		} finally {
+			db.endTransaction();
 		}
 
-		if(!entriesToDelete.isEmpty()) {
+		return result;
+	}
 
-			final StringBuilder query = new StringBuilder(String.format(
-					Locale.US,
-					"DELETE FROM %s WHERE %s IN (",
-					TABLE,
-					FIELD_ID));
+	synchronized void setLastAccessTime(
+			@NonNull final Collection<Long> ids,
+			final long lastAccess) {
+
+		if(ids.isEmpty()) {
+			return;
+		}
 
-			query.append(entriesToDelete.remove(entriesToDelete.size() - 1));
+		final SQLiteDatabase db = getWritableDatabase();
 
-			for(final long id : entriesToDelete) {
-				query.append(",").append(id);
-				if(query.length() > 512 * 1024) {
-					break;
+		final ContentValues row = new ContentValues(1);
+		row.put(FIELD_LAST_ACCESS, lastAccess);
+
+		db.update(
+				TABLE,
+				row,
+				String.format(
+						Locale.US,
+						"%s IN (%s)",
+						FIELD_ID,
+						StringUtils.join(ids, ",")),
+				null);
+	}
+
+	// Deletes up to maxEntries of the least recently accessed complete entries of the given
+	// type, stopping once bytesToFree bytes have been freed. The IDs and timestamps of the
+	// deleted entries are added to evictedIds and evictedTimestamps, so that the files and
+	// anything derived from them can be deleted, and the number of bytes freed is returned.
+	synchronized long evictLeastRecentlyUsed(
+			final int fileType,
+			final long bytesToFree,
+			final int maxEntries,
+			@NonNull final ArrayList<Long> evictedIds,
+			@NonNull final ArrayList<Long> evictedTimestamps) {
+
+		final SQLiteDatabase db = getWritableDatabase();
+
+		final ArrayList<Long> ids = new ArrayList<>(maxEntries);
+		final ArrayList<Long> timestamps = new ArrayList<>(maxEntries);
+		long bytesFreed = 0;
+
+		db.beginTransaction();
+
+		try {
+			try(Cursor cursor = db.query(
+					TABLE,
+					new String[] {FIELD_ID, FIELD_LENGTH_COMPRESSED, FIELD_TIMESTAMP},
+					String.format(
+							Locale.US,
+							"%s=? AND %s=%d",
+							FIELD_TYPE,
+							FIELD_STATUS,
+							STATUS_DONE),
+					new String[] {String.valueOf(fileType)},
+					null,
+					null,
+					FIELD_LAST_ACCESS + " ASC",
+					String.valueOf(maxEntries))) {
+
+				while(bytesFreed < bytesToFree && cursor.moveToNext()) {
+					ids.add(cursor.getLong(0));
+					bytesFreed += cursor.getLong(1);
+					timestamps.add(cursor.getLong(2));
 				}
 			}
 
-			query.append(')');
+			if(!ids.isEmpty()) {
+				db.execSQL(String.format(
+						Locale.US,
+						"DELETE FROM %s WHERE %s IN (%s)",
+						TABLE,
+						FIELD_ID,
+						StringUtils.join(ids, ",")));
+			}
+
+			db.setTransactionSuccessful();
 
-			db.execSQL(query.toString());
+		} finally {
+			db.endTransaction();
 		}
 
-		cursor.close();
+		evictedIds.addAll(ids);
+		evictedTimestamps.addAll(timestamps);
+		return bytesFreed;
+	}
 
-		return filesToDelete;
+	// Returns the subset of the specified IDs which have an entry in the database
+	synchronized HashSet<Long> getExistingEntries(@NonNull final Collection<Long> ids) {
+
+		final HashSet<Long> result = new HashSet<>(ids.size());
+
+		if(ids.isEmpty()) {
+			return result;
+		}
+
+		final SQLiteDatabase db = getReadableDatabase();
+
+		try(Cursor cursor = db.query(
+				TABLE,
+				new String[] {FIELD_ID},
+				String.format(
+						Locale.US,
+						"%s IN (%s)",
+						FIELD_ID,
+						StringUtils.join(ids, ",")),
+				null,
+				null,
+				null,
+				null)) {
+
+			while(cursor.moveToNext()) {
+				result.add(cursor.getLong(0));
+			}
+		}
+
+		return result;
 	}
 
 	public synchronized void emptyTheWholeCache() {
@@ -347,30 +581,26 @@ final class CacheDbManager extends SQLiteOpenHelper {
 		db.execSQL(String.format(Locale.US, "DELETE FROM %s", TABLE));
 	}
 
-	public synchronized HashMap<Long, Integer> getFilesToSize() {
-		final SQLiteDatabase db = this.getWritableDatabase();
+	synchronized HashMap<Integer, Long> getSizesByType() {
 
-		final Cursor cursor = db.query(
-				TABLE,
-				new String[] {FIELD_ID, FIELD_TYPE},
-				null,
+		final SQLiteDatabase db = getReadableDatabase();
+
+		try(Cursor cursor = db.query(
+				TABLE_SIZES,
+				new String[] {FIELD_SIZES_TYPE, FIELD_SIZES_BYTES},
 				null,
 				null,
 				null,
 				null,
-				null);
+				null)) {
 
-		final HashMap<Long, Integer> filesToCheck = new HashMap<>(32);
+			final HashMap<Integer, Long> result = new HashMap<>(cursor.getCount());
 
-		while(cursor.moveToNext()) {
-			final long id = cursor.getLong(0);
-			final int type = cursor.getInt(1);
+			while(cursor.moveToNext()) {
+				result.put(cursor.getInt(0), cursor.getLong(1));
+			}
 
-			filesToCheck.put(id, type);
+			return result;
 		}
-
-		cursor.close();
-
-		return filesToCheck;
 	}
 }
@@ -19,21 +19,29 @@ package org.quantumbadger.redreader.cache;
 
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.account.RedditAccessTokenManager;
 import org.quantumbadger.redreader.activities.BugReportActivity;
 import org.quantumbadger.redreader.common.Constants;
+import org.quantumbadger.redreader.common.Consumer;
 import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.GenericFactory;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.PrioritisedCachedThreadPool;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRTime;
 import org.quantumbadger.redreader.common.TorCommon;
+import org.quantumbadger.redreader.common.datastream.FileDataStream;
 import org.quantumbadger.redreader.common.datastream.MemoryDataStream;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.http.HTTPBackend;
 import org.quantumbadger.redreader.reddit.api.RedditOAuth;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -43,21 +51,47 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 
 	private final CacheRequest mInitiator;
 	private final CacheManager manager;
+	private final PrioritisedDownloadQueue mQueue;
+	private final InFlightDownloadRegistry mRegistry;
 	private final UUID session;
 
 	private volatile boolean mCancelled = false;
 	private static final AtomicBoolean resetUserCredentials = new AtomicBoolean(false);
 	private final HTTPBackend.Request mRequest;
 
+	@NonNull private volatile Priority mPriority;
+
+	private final Object mRequestsLock = new Object();
+
+	// All requests receiving callbacks from this download, including the initiator
+	private final ArrayList<CacheRequest> mRequests = new ArrayList<>(1);
+
+	// Replayed to any requests which are attached after the download has started
+	private final ArrayList<Consumer<CacheRequest>> mEventsSoFar = new ArrayList<>();
+
+	// Callbacks are queued under mRequestsLock, and run outside it by whichever thread finds
+	// the queue idle, so that each request still sees events in the order they happened
+	private final ArrayDeque<Runnable> mPendingDeliveries = new ArrayDeque<>();
+	private boolean mDelivering = false;
+
+	private boolean mFinished = false;
+
 	public CacheDownload(
 			final CacheRequest initiator,
-			final CacheManager manager) {
+			final CacheManager manager,
+			final PrioritisedDownloadQueue queue,
+			final InFlightDownloadRegistry registry) {
 
 		this.mInitiator = initiator;
 
 		this.manager = manager;
+		mQueue = queue;
+		mRegistry = registry;
+		mPriority = initiator.getPriority();
 
-		if(!initiator.setDownload(this)) {
+		if(initiator.setDownload(this)) {
+			mRequests.add(initiator);
+		} else {
 			mCancelled = true;
 		}
 
@@ -72,38 +106,297 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 				new HTTPBackend.RequestDetails(mInitiator.url, mInitiator.requestBody));
 	}
 
-	public synchronized void cancel() {
+	// Returns false if the request could not be attached, and needs its own download
+	boolean attach(@NonNull final CacheRequest request) {
+
+		final boolean priorityRaised;
+		final boolean replayEvents;
+
+		synchronized(mRequestsLock) {
+
+			if(mFinished || mCancelled) {
+				return false;
+			}
+
+			// Don't leave the request waiting in a slower queue than it asked for
+			if(mEventsSoFar.isEmpty() && request.queueType != mInitiator.queueType) {
+				return false;
+			}
+
+			if(!request.setDownload(this)) {
+				// Already cancelled, nothing more to do
+				return true;
+			}
+
+			mRequests.add(request);
+
+			priorityRaised = request.getPriority().isHigherPriorityThan(mPriority);
+
+			if(priorityRaised) {
+				mPriority = request.getPriority();
+			}
+
+			replayEvents = !mEventsSoFar.isEmpty();
+
+			if(replayEvents) {
+
+				final ArrayList<Consumer<CacheRequest>> events = new ArrayList<>(mEventsSoFar);
+
+				mPendingDeliveries.addLast(() -> {
+					for(final Consumer<CacheRequest> event : events) {
+						event.consume(request);
+					}
+				});
+			}
+		}
+
+		if(priorityRaised) {
+			mQueue.onPriorityChanged(this);
+		}
+
+		// The caller holds the download queue's lock, so don't run callbacks on this thread
+		if(replayEvents) {
+			new Thread() {
+				@Override
+				public void run() {
+					deliverPendingEvents();
+				}
+			}.start();
+		}
+
+		return true;
+	}
+
+	// Called when the priority of one of the attached requests changes. The download takes
+	// the highest priority of all its requests.
+	void onRequestPriorityChanged() {
 
-		mCancelled = true;
+		synchronized(mRequestsLock) {
+
+			if(mFinished || mCancelled || mRequests.isEmpty()) {
+				return;
+			}
+
+			Priority highest = mRequests.get(0).getPriority();
+
+			for(final CacheRequest request : mRequests) {
+				if(request.getPriority().isHigherPriorityThan(highest)) {
+					highest = request.getPriority();
+				}
+			}
+
+			mPriority = highest;
+		}
+
+		mQueue.onPriorityChanged(this);
+	}
+
+	// The download itself is only cancelled once every attached request has been cancelled
+	void cancel(@NonNull final CacheRequest request) {
+
+		final boolean cancelDownload;
+
+		synchronized(mRequestsLock) {
+			cancelDownload = mRequests.remove(request) && mRequests.isEmpty();
+
+			if(cancelDownload) {
+				mCancelled = true;
+			}
+		}
+
+		// If the download hasn't started, take it out of the queue so that it doesn't use up a
+		// slot. doDownload() will never be called, so clean up here instead.
+		if(cancelDownload && mQueue.remove(this)) {
+			onFinished();
+		}
 
 		new Thread() {
 			@Override
 			public void run() {
-				if(mRequest != null) {
+
+				if(cancelDownload) {
 					mRequest.cancel();
-					mInitiator.notifyFailure(
-							CacheRequest.REQUEST_FAILURE_CANCELLED,
-							null,
-							null,
-							"Cancelled",
-							Optional.empty());
 				}
+
+				request.notifyFailure(
+						CacheRequest.REQUEST_FAILURE_CANCELLED,
+						null,
+						null,
+						"Cancelled",
+						Optional.empty());
 			}
 		}.start();
 	}
 
 	public void doDownload() {
 
-		if(mCancelled) {
-			return;
-		}
-
 		try {
+			if(mCancelled) {
+				return;
+			}
+
 			performDownload(mRequest);
 
 		} catch(final Throwable t) {
 			BugReportActivity.handleGlobalError(mInitiator.context, t);
+
+		} finally {
+			onFinished();
+		}
+	}
+
+	private void onFinished() {
+
+		synchronized(mRequestsLock) {
+			mFinished = true;
+			mEventsSoFar.clear();
 		}
+
+		mRegistry.unregister(mInitiator, this);
+	}
+
+	// Must be called while holding mRequestsLock
+	private void queueDelivery(@NonNull final Consumer<CacheRequest> event) {
+
+		final ArrayList<CacheRequest> requests = new ArrayList<>(mRequests);
+
+		mPendingDeliveries.addLast(() -> {
+			for(final CacheRequest request : requests) {
+				event.consume(request);
+			}
+		});
+	}
+
+	private void deliverPendingEvents() {
+
+		synchronized(mRequestsLock) {
+
+			if(mDelivering) {
+				return;
+			}
+
+			mDelivering = true;
+		}
+
+		boolean queueEmptied = false;
+
+		try {
+			while(true) {
+
+				final Runnable delivery;
+
+				synchronized(mRequestsLock) {
+
+					delivery = mPendingDeliveries.pollFirst();
+
+					if(delivery == null) {
+						mDelivering = false;
+						queueEmptied = true;
+						return;
+					}
+				}
+
+				delivery.run();
+			}
+
+		} finally {
+			if(!queueEmptied) {
+				synchronized(mRequestsLock) {
+					mDelivering = false;
+				}
+			}
+		}
+	}
+
+	private void notifyEvent(@NonNull final Consumer<CacheRequest> event) {
+
+		synchronized(mRequestsLock) {
+			mEventsSoFar.add(event);
+			queueDelivery(event);
+		}
+
+		deliverPendingEvents();
+	}
+
+	private void notifyDownloadStarted() {
+		notifyEvent(CacheRequest::notifyDownloadStarted);
+	}
+
+	private void notifyDataStreamAvailable(
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory,
+			final long timestamp,
+			@Nullable final String mimetype) {
+
+		notifyEvent(request -> request.notifyDataStreamAvailable(
+				streamFactory,
+				timestamp,
+				session,
+				false,
+				mimetype));
+	}
+
+	private void notifyDataStreamComplete(
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory,
+			final long timestamp,
+			@Nullable final String mimetype) {
+
+		notifyEvent(request -> request.notifyDataStreamComplete(
+				streamFactory,
+				timestamp,
+				session,
+				false,
+				mimetype));
+	}
+
+	private void notifyCacheFileWritten(
+			@NonNull final CacheManager.ReadableCacheFile cacheFile,
+			final long timestamp,
+			@Nullable final String mimetype) {
+
+		notifyEvent(request -> request.notifyCacheFileWritten(
+				cacheFile,
+				timestamp,
+				session,
+				false,
+				mimetype));
+	}
+
+	private void notifyProgress(
+			final boolean authorizationInProgress,
+			final long bytesRead,
+			final long totalBytes) {
+
+		synchronized(mRequestsLock) {
+			queueDelivery(request -> request.notifyProgress(
+					authorizationInProgress,
+					bytesRead,
+					totalBytes));
+		}
+
+		deliverPendingEvents();
+	}
+
+	private void notifyFailure(
+			final @CacheRequest.RequestFailureType int type,
+			final Throwable t,
+			final Integer httpStatus,
+			final String readableMessage,
+			@NonNull final Optional<FailedRequestBody> body) {
+
+		synchronized(mRequestsLock) {
+
+			mFinished = true;
+			mEventsSoFar.clear();
+
+			queueDelivery(request -> request.notifyFailure(
+					type,
+					t,
+					httpStatus,
+					readableMessage,
+					body));
+		}
+
+		deliverPendingEvents();
 	}
 
 	public static void resetUserCredentialsOnNextRequest() {
@@ -114,30 +407,25 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 
 		if(mInitiator.queueType == CacheRequest.DOWNLOAD_QUEUE_REDDIT_API) {
 
+			final RedditAccessTokenManager tokenManager
+					= RedditAccessTokenManager.getInstance(mInitiator.context);
+
 			if(resetUserCredentials.getAndSet(false)) {
-				mInitiator.user.setAccessToken(null);
+				tokenManager.invalidateAccessToken(mInitiator.user);
 			}
 
 			RedditOAuth.AccessToken accessToken
-					= mInitiator.user.getMostRecentAccessToken();
-
-			if(accessToken == null || accessToken.isExpired()) {
-
-				mInitiator.notifyProgress(true, 0, 0);
+					= tokenManager.getValidAccessToken(mInitiator.user);
 
-				final RedditOAuth.FetchAccessTokenResult result;
+			if(accessToken == null) {
 
-				if(mInitiator.user.isAnonymous()) {
-					result = RedditOAuth.fetchAnonymousAccessTokenSynchronous(mInitiator.context);
+				notifyProgress(true, 0, 0);
 
-				} else {
-					result = RedditOAuth.fetchAccessTokenSynchronous(
-							mInitiator.context,
-							mInitiator.user);
-				}
+				final RedditOAuth.FetchAccessTokenResult result
+						= tokenManager.fetchAccessTokenSynchronous(mInitiator.user);
 
 				if(result.status != RedditOAuth.FetchAccessTokenResultStatus.SUCCESS) {
-					mInitiator.notifyFailure(
+					notifyFailure(
 							CacheRequest.REQUEST_FAILURE_REQUEST,
 							result.error.t,
 							result.error.httpStatus,
@@ -147,7 +435,6 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 				}
 
 				accessToken = result.accessToken;
-				mInitiator.user.setAccessToken(accessToken);
 			}
 
 			request.addHeader("Authorization", "bearer " + accessToken.token);
@@ -158,9 +445,19 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 			request.addHeader("Authorization", "Client-ID c3713d9e7674477");
 		}
 
-		mInitiator.notifyDownloadStarted();
+		notifyDownloadStarted();
 
 		request.executeInThisThread(new HTTPBackend.Listener() {
+			@Override
+			public void onResponseHeaders(
+					final int httpStatus,
+					@NonNull final HTTPBackend.ResponseHeaders headers) {
+
+				if(mInitiator.queueType == CacheRequest.DOWNLOAD_QUEUE_REDDIT_API) {
+					mQueue.onRedditResponseHeaders(httpStatus, headers);
+				}
+			}
+
 			@Override
 			public void onError(
 					final @CacheRequest.RequestFailureType int failureType,
@@ -173,7 +470,7 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 					resetUserCredentialsOnNextRequest();
 				}
 
-				mInitiator.notifyFailure(
+				notifyFailure(
 						failureType,
 						exception,
 						httpStatus,
@@ -189,109 +486,14 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 
 				if(mCancelled) {
 					Log.i(TAG, "Request cancelled at start of onSuccess()");
-					return;
-				}
-
-				final MemoryDataStream stream = new MemoryDataStream(64 * 1024);
-
-				mInitiator.notifyDataStreamAvailable(
-						stream::getInputStream,
-						RRTime.utcCurrentTimeMillis(),
-						session,
-						false,
-						mimetype);
-
-				// Download the file into memory
-
-				try {
-
-					final byte[] buf = new byte[64 * 1024];
-
-					int bytesRead;
-					long totalBytesRead = 0;
-
-					while((bytesRead = is.read(buf)) > 0) {
-
-						totalBytesRead += bytesRead;
-
-						stream.writeBytes(buf, 0, bytesRead);
-
-						if(bodyBytes != null) {
-							mInitiator.notifyProgress(
-									false,
-									totalBytesRead,
-									bodyBytes);
-						}
-
-						if(mCancelled) {
-							Log.i(TAG, "Request cancelled during read loop");
-							stream.setFailed(new IOException("Download cancelled"));
-							return;
-						}
-					}
-
-					stream.setComplete();
-
-					mInitiator.notifyDataStreamComplete(
-							stream::getInputStream,
-							RRTime.utcCurrentTimeMillis(),
-							session,
-							false,
-							mimetype);
-
-				} catch(final Throwable t) {
-
-					stream.setFailed(t instanceof IOException
-							? (IOException)t
-							: new IOException("Got exception during download", t));
-
-					mInitiator.notifyFailure(
-							CacheRequest.REQUEST_FAILURE_CONNECTION,
-							t,
-							null,
-							"The connection was interrupted",
-							Optional.empty());
-
-					return;
-
-				} finally {
 					General.closeSafely(is);
+					return;
 				}
 
-				// Save it to the cache
+				@Nullable final CacheManager.WritableCacheFile writableCacheFile;
 
 				if(mInitiator.cache) {
 
-					@NonNull final CacheManager.WritableCacheFile writableCacheFile;
-
-					final CacheCompressionType cacheCompressionType;
-
-					switch(mInitiator.fileType) {
-						case Constants.FileType.CAPTCHA:
-						case Constants.FileType.IMAGE:
-						case Constants.FileType.INLINE_IMAGE_PREVIEW:
-						case Constants.FileType.NOCACHE:
-						case Constants.FileType.THUMBNAIL:
-							// Image saving/sharing relies the file on disk being "raw"
-							cacheCompressionType = CacheCompressionType.NONE;
-							break;
-
-						case Constants.FileType.COMMENT_LIST:
-						case Constants.FileType.IMAGE_INFO:
-						case Constants.FileType.INBOX_LIST:
-						case Constants.FileType.MULTIREDDIT_LIST:
-						case Constants.FileType.POST_LIST:
-						case Constants.FileType.SUBREDDIT_ABOUT:
-						case Constants.FileType.SUBREDDIT_LIST:
-						case Constants.FileType.USER_ABOUT:
-							cacheCompressionType = CacheCompressionType.ZSTD;
-							break;
-
-						default:
-							Log.e(TAG, "Unhandled filetype: " + mInitiator.fileType);
-							cacheCompressionType = CacheCompressionType.NONE;
-					}
-
 					try {
 						writableCacheFile = manager.openNewCacheFile(
 								mInitiator.url,
@@ -299,7 +501,7 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 								mInitiator.fileType,
 								session,
 								mimetype,
-								cacheCompressionType);
+								getCompressionType(mInitiator.fileType));
 
 					} catch(final IOException e) {
 
@@ -314,58 +516,297 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 									= CacheRequest.REQUEST_FAILURE_CACHE_DIR_DOES_NOT_EXIST;
 						}
 
-						mInitiator.notifyFailure(
+						notifyFailure(
 								failureType,
 								e,
 								null,
 								"Could not access the local cache",
 								Optional.empty());
 
+						General.closeSafely(is);
 						return;
 					}
 
-					try {
-						stream.getUnderlyingByteArrayWhenComplete(
-								writableCacheFile::writeWholeFile);
+				} else {
+					writableCacheFile = null;
+				}
 
-						writableCacheFile.onWriteFinished();
+				if(writableCacheFile != null
+						&& getCompressionType(mInitiator.fileType)
+								== CacheCompressionType.NONE) {
 
-						mInitiator.notifyCacheFileWritten(
-								writableCacheFile.getReadableCacheFile(),
-								RRTime.utcCurrentTimeMillis(),
-								session,
-								false,
-								mimetype);
+					downloadToFile(mimetype, bodyBytes, is, writableCacheFile);
 
-					} catch(final IOException e) {
+				} else {
+					downloadToMemory(mimetype, bodyBytes, is, writableCacheFile);
+				}
+			}
+		});
+	}
+
+	// Uncompressed data is written straight to the cache file, and readers tail the file as it
+	// grows. Used for images and videos, which may be very large.
+	private void downloadToFile(
+			@Nullable final String mimetype,
+			@Nullable final Long bodyBytes,
+			@NonNull final InputStream is,
+			@NonNull final CacheManager.WritableCacheFile writableCacheFile) {
+
+		final FileDataStream stream = new FileDataStream(
+				writableCacheFile.getTmpFile(),
+				writableCacheFile::writeBytes,
+				128 * 1024);
+
+		notifyDataStreamAvailable(
+				stream::getInputStream,
+				RRTime.utcCurrentTimeMillis(),
+				mimetype);
+
+		try {
+
+			final byte[] buf = new byte[64 * 1024];
+
+			int bytesRead;
+			long totalBytesRead = 0;
+
+			while((bytesRead = is.read(buf)) > 0) {
+
+				totalBytesRead += bytesRead;
+
+				try {
+					stream.writeBytes(buf, 0, bytesRead);
+
+				} catch(final IOException e) {
+
+					Log.e(TAG, "Exception writing to cache file", e);
+
+					stream.setFailed(e);
+					writableCacheFile.onWriteCancelled();
+					notifyStorageFailure(e);
+					return;
+				}
+
+				if(bodyBytes != null) {
+					notifyProgress(
+							false,
+							totalBytesRead,
+							bodyBytes);
+				}
+
+				if(mCancelled) {
+					Log.i(TAG, "Request cancelled during read loop");
+					stream.setFailed(new IOException("Download cancelled"));
+					writableCacheFile.onWriteCancelled();
+					return;
+				}
+			}
+
+		} catch(final Throwable t) {
+
+			stream.setFailed(t instanceof IOException
+					? (IOException)t
+					: new IOException("Got exception during download", t));
+
+			writableCacheFile.onWriteCancelled();
+
+			notifyFailure(
+					CacheRequest.REQUEST_FAILURE_CONNECTION,
+					t,
+					null,
+					"The connection was interrupted",
+					Optional.empty());
+
+			return;
+
+		} finally {
+			General.closeSafely(is);
+		}
 
+		try {
+			stream.setComplete(writableCacheFile::onWriteFinished);
+
+		} catch(final IOException e) {
+			writableCacheFile.onWriteCancelled();
+			notifyStorageFailure(e);
+			return;
+		}
+
+		notifyDataStreamComplete(
+				stream::getInputStream,
+				RRTime.utcCurrentTimeMillis(),
+				mimetype);
+
+		notifyCacheFileWritten(
+				writableCacheFile.getReadableCacheFile(),
+				RRTime.utcCurrentTimeMillis(),
+				mimetype);
+	}
+
+	// The data is held in memory for readers, and (if a cache file is provided) compressed into
+	// the cache as it arrives. Used for API responses, which are parsed from memory anyway.
+	private void downloadToMemory(
+			@Nullable final String mimetype,
+			@Nullable final Long bodyBytes,
+			@NonNull final InputStream is,
+			@Nullable final CacheManager.WritableCacheFile writableCacheFile) {
+
+		final MemoryDataStream stream = new MemoryDataStream(64 * 1024);
+
+		notifyDataStreamAvailable(
+				stream::getInputStream,
+				RRTime.utcCurrentTimeMillis(),
+				mimetype);
+
+		// A failure to write to the cache shouldn't prevent the data being used
+		IOException cacheWriteException = null;
+
+		try {
+
+			final byte[] buf = new byte[64 * 1024];
+
+			int bytesRead;
+			long totalBytesRead = 0;
+
+			while((bytesRead = is.read(buf)) > 0) {
+
+				totalBytesRead += bytesRead;
+
+				stream.writeBytes(buf, 0, bytesRead);
+
+				if(writableCacheFile != null && cacheWriteException == null) {
+					try {
+						writableCacheFile.writeBytes(buf, 0, bytesRead);
+
+					} catch(final IOException e) {
+						Log.e(TAG, "Exception writing to cache file", e);
+						cacheWriteException = e;
 						writableCacheFile.onWriteCancelled();
+					}
+				}
 
-						if(e.getMessage() != null && e.getMessage().contains("ENOSPC")) {
-							mInitiator.notifyFailure(
-									CacheRequest.REQUEST_FAILURE_STORAGE,
-									e,
-									null,
-									"Out of disk space",
-									Optional.empty());
-						} else {
-							mInitiator.notifyFailure(
-									CacheRequest.REQUEST_FAILURE_STORAGE,
-									e,
-									null,
-									"Failed to write to cache",
-									Optional.empty());
-						}
+				if(bodyBytes != null) {
+					notifyProgress(
+							false,
+							totalBytesRead,
+							bodyBytes);
+				}
+
+				if(mCancelled) {
+					Log.i(TAG, "Request cancelled during read loop");
+					stream.setFailed(new IOException("Download cancelled"));
+
+					if(writableCacheFile != null && cacheWriteException == null) {
+						writableCacheFile.onWriteCancelled();
 					}
+
+					return;
 				}
 			}
-		});
+
+			stream.setComplete();
+
+			notifyDataStreamComplete(
+					stream::getInputStream,
+					RRTime.utcCurrentTimeMillis(),
+					mimetype);
+
+		} catch(final Throwable t) {
+
+			stream.setFailed(t instanceof IOException
+					? (IOException)t
+					: new IOException("Got exception during download", t));
+
+			if(writableCacheFile != null && cacheWriteException == null) {
+				writableCacheFile.onWriteCancelled();
+			}
+
+			notifyFailure(
+					CacheRequest.REQUEST_FAILURE_CONNECTION,
+					t,
+					null,
+					"The connection was interrupted",
+					Optional.empty());
+
+			return;
+
+		} finally {
+			General.closeSafely(is);
+		}
+
+		if(writableCacheFile == null) {
+			return;
+		}
+
+		if(cacheWriteException != null) {
+			notifyStorageFailure(cacheWriteException);
+			return;
+		}
+
+		try {
+			writableCacheFile.onWriteFinished();
+
+			notifyCacheFileWritten(
+					writableCacheFile.getReadableCacheFile(),
+					RRTime.utcCurrentTimeMillis(),
+					mimetype);
+
+		} catch(final IOException e) {
+			writableCacheFile.onWriteCancelled();
+			notifyStorageFailure(e);
+		}
+	}
+
+	private void notifyStorageFailure(@NonNull final IOException e) {
+
+		if(e.getMessage() != null && e.getMessage().contains("ENOSPC")) {
+			notifyFailure(
+					CacheRequest.REQUEST_FAILURE_STORAGE,
+					e,
+					null,
+					"Out of disk space",
+					Optional.empty());
+		} else {
+			notifyFailure(
+					CacheRequest.REQUEST_FAILURE_STORAGE,
+					e,
+					null,
+					"Failed to write to cache",
+					Optional.empty());
+		}
+	}
+
+	@NonNull
+	private static CacheCompressionType getCompressionType(final int fileType) {
+
+		switch(fileType) {
+			case Constants.FileType.CAPTCHA:
+			case Constants.FileType.IMAGE:
+			case Constants.FileType.INLINE_IMAGE_PREVIEW:
+			case Constants.FileType.NOCACHE:
+			case Constants.FileType.THUMBNAIL:
+				// Image saving/sharing relies the file on disk being "raw"
+				return CacheCompressionType.NONE;
+
+			case Constants.FileType.COMMENT_LIST:
+			case Constants.FileType.IMAGE_INFO:
+			case Constants.FileType.INBOX_LIST:
+			case Constants.FileType.MULTIREDDIT_LIST:
+			case Constants.FileType.POST_LIST:
+			case Constants.FileType.SUBREDDIT_ABOUT:
+			case Constants.FileType.SUBREDDIT_LIST:
+			case Constants.FileType.USER_ABOUT:
+				return CacheCompressionType.ZSTD;
+
+			default:
+				Log.e(TAG, "Unhandled filetype: " + fileType);
+				return CacheCompressionType.NONE;
+		}
 	}
 
 	@NonNull
 	@Override
 	public Priority getPriority() {
-		return mInitiator.priority;
+		return mPriority;
 	}
 
 	@Override
@@ -24,10 +24,11 @@ import android.os.Build;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import com.github.luben.zstd.Zstd;
 import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
 import org.quantumbadger.redreader.account.RedditAccount;
 import org.quantumbadger.redreader.activities.BugReportActivity;
+import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.FileUtils;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.GenericFactory;
@@ -35,9 +36,15 @@ import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.PrioritisedCachedThreadPool;
 import org.quantumbadger.redreader.common.Priority;
-import org.quantumbadger.redreader.common.datastream.MemoryDataStream;
+import org.quantumbadger.redreader.common.RRTime;
+import org.quantumbadger.redreader.common.TriggerableThread;
+import org.quantumbadger.redreader.common.datastream.MappedFileInputStream;
 import org.quantumbadger.redreader.common.datastream.SeekableFileInputStream;
 import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+import org.quantumbadger.redreader.common.datastream.StreamingSeekableInputStream;
+import org.quantumbadger.redreader.image.ImageInfoResolver;
+import org.quantumbadger.redreader.image.ThumbnailCache;
+import org.quantumbadger.redreader.search.OfflineSearchIndex;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -64,6 +71,26 @@ public final class CacheManager {
 	private static final String ext = ".rr_cache_data";
 	private static final String tempExt = ".rr_cache_data_tmp";
 
+	private static final int PRUNE_BATCH_SIZE = 500;
+
+	// Used for file types with no configured maximum age
+	private static final long DEFAULT_MAX_AGE = 72;
+
+	private static final long MEGABYTE = 1024L * 1024L;
+
+	// Bounds for the maximum cache size when it is worked out from the available storage
+	private static final long AUTOMATIC_MAX_SIZE_MIN = 256 * MEGABYTE;
+	private static final long AUTOMATIC_MAX_SIZE_MAX = 2048 * MEGABYTE;
+	private static final int AUTOMATIC_MAX_SIZE_STORAGE_DIVISOR = 10;
+
+	// Once a file type goes over its budget, the least recently used entries are evicted until
+	// it is back under this fraction of the budget
+	private static final double EVICTION_TARGET_FRACTION = 0.9;
+
+	// Each file type's share of the maximum cache size, in parts out of BUDGET_SHARE_TOTAL
+	private static final HashMap<Integer, Integer> BUDGET_SHARES = createBudgetShares();
+	private static final int BUDGET_SHARE_TOTAL = sumBudgetShares();
+
 	private static final AtomicBoolean isAlreadyInitialized = new AtomicBoolean(false);
 	private final CacheDbManager dbManager;
 
@@ -76,8 +103,48 @@ public final class CacheManager {
 
 	private final Context context;
 
+	// Entries which have been read since the access times were last written
+	private final HashSet<Long> mAccessedEntries = new HashSet<>();
+
+	private final TriggerableThread mAccessTimeWriteThread
+			= new TriggerableThread(this::writeAccessTimes, 5000);
+
+	private final TriggerableThread mEvictionThread
+			= new TriggerableThread(this::evictOverBudget, 10_000);
+
 	@SuppressLint("StaticFieldLeak") private static CacheManager singleton;
 
+	private static HashMap<Integer, Integer> createBudgetShares() {
+
+		final HashMap<Integer, Integer> result = new HashMap<>(16);
+
+		result.put(Constants.FileType.SUBREDDIT_LIST, 8);
+		result.put(Constants.FileType.SUBREDDIT_ABOUT, 8);
+		result.put(Constants.FileType.MULTIREDDIT_LIST, 8);
+		result.put(Constants.FileType.POST_LIST, 32);
+		result.put(Constants.FileType.COMMENT_LIST, 64);
+		result.put(Constants.FileType.USER_ABOUT, 8);
+		result.put(Constants.FileType.INBOX_LIST, 8);
+		result.put(Constants.FileType.THUMBNAIL, 64);
+		result.put(Constants.FileType.IMAGE, 512);
+		result.put(Constants.FileType.CAPTCHA, 8);
+		result.put(Constants.FileType.INLINE_IMAGE_PREVIEW, 256);
+		result.put(Constants.FileType.IMAGE_INFO, 8);
+
+		return result;
+	}
+
+	private static int sumBudgetShares() {
+
+		int result = 0;
+
+		for(final int share : BUDGET_SHARES.values()) {
+			result += share;
+		}
+
+		return result;
+	}
+
 	public static synchronized CacheManager getInstance(final Context context) {
 		if(singleton == null) {
 			singleton = new CacheManager(context.getApplicationContext());
@@ -99,6 +166,137 @@ public final class CacheManager {
 
 		final RequestHandlerThread requestHandler = new RequestHandlerThread();
 		requestHandler.start();
+
+		mEvictionThread.trigger();
+	}
+
+	private void recordAccess(final long id) {
+
+		synchronized(mAccessedEntries) {
+			mAccessedEntries.add(id);
+		}
+
+		mAccessTimeWriteThread.trigger();
+	}
+
+	private void writeAccessTimes() {
+
+		final ArrayList<Long> ids;
+
+		synchronized(mAccessedEntries) {
+			ids = new ArrayList<>(mAccessedEntries);
+			mAccessedEntries.clear();
+		}
+
+		final long now = RRTime.utcCurrentTimeMillis();
+
+		for(int start = 0; start < ids.size(); start += PRUNE_BATCH_SIZE) {
+			dbManager.setLastAccessTime(
+					ids.subList(start, Math.min(ids.size(), start + PRUNE_BATCH_SIZE)),
+					now);
+		}
+	}
+
+	// The maximum total size of the cache in bytes, or null if the user has chosen not to limit
+	// it. Unless the user picks a size, this is a tenth of the storage the cache could use,
+	// counting the space it already takes up.
+	@Nullable
+	private Long getMaxCacheSize(@NonNull final HashMap<Integer, Long> sizes) {
+
+		final long maxSizeMb = PrefsUtility.pref_cache_max_size_mb();
+
+		if(maxSizeMb == PrefsUtility.CACHE_MAX_SIZE_UNLIMITED) {
+			return null;
+
+		} else if(maxSizeMb != PrefsUtility.CACHE_MAX_SIZE_AUTOMATIC) {
+			return maxSizeMb * MEGABYTE;
+		}
+
+		long cacheSize = 0;
+
+		for(final long size : sizes.values()) {
+			cacheSize += size;
+		}
+
+		final long availableSize = getPreferredCacheLocation().getUsableSpace() + cacheSize;
+
+		return Math.max(
+				AUTOMATIC_MAX_SIZE_MIN,
+				Math.min(
+						AUTOMATIC_MAX_SIZE_MAX,
+						availableSize / AUTOMATIC_MAX_SIZE_STORAGE_DIVISOR));
+	}
+
+	// Runs in the background after new entries are written, and evicts the least recently used
+	// entries of any file type which has gone over its share of the maximum cache size
+	private void evictOverBudget() {
+
+		try {
+			final HashMap<Integer, Long> sizes = dbManager.getSizesByType();
+			final Long maxCacheSize = getMaxCacheSize(sizes);
+
+			if(maxCacheSize == null) {
+				return;
+			}
+
+			for(final HashMap.Entry<Integer, Integer> share : BUDGET_SHARES.entrySet()) {
+
+				final int fileType = share.getKey();
+				final Long size = sizes.get(fileType);
+				final long budget = maxCacheSize / BUDGET_SHARE_TOTAL * share.getValue();
+
+				if(size == null || size <= budget) {
+					continue;
+				}
+
+				long bytesToFree = size - (long)(budget * EVICTION_TARGET_FRACTION);
+
+				int entriesEvicted = 0;
+
+				while(bytesToFree > 0) {
+
+					final ArrayList<Long> evictedIds = new ArrayList<>(PRUNE_BATCH_SIZE);
+					final ArrayList<Long> evictedTimestamps = new ArrayList<>(PRUNE_BATCH_SIZE);
+
+					bytesToFree -= dbManager.evictLeastRecentlyUsed(
+							fileType,
+							bytesToFree,
+							PRUNE_BATCH_SIZE,
+							evictedIds,
+							evictedTimestamps);
+
+					if(evictedIds.isEmpty()) {
+						break;
+					}
+
+					for(final long id : evictedIds) {
+						final File file = getExistingCacheFile(id);
+						if(file != null) {
+							file.delete();
+						}
+					}
+
+					if(fileType == Constants.FileType.POST_LIST
+							|| fileType == Constants.FileType.COMMENT_LIST) {
+
+						OfflineSearchIndex.getInstance(context)
+								.removeListings(evictedTimestamps);
+					}
+
+					entriesEvicted += evictedIds.size();
+				}
+
+				Log.i(TAG, String.format(
+						Locale.US,
+						"File type %d was %d bytes over budget, evicted %d entries",
+						fileType,
+						size - budget,
+						entriesEvicted));
+			}
+
+		} catch(final Throwable t) {
+			BugReportActivity.handleGlobalError(context, t);
+		}
 	}
 
 	@Nullable
@@ -203,6 +401,10 @@ public final class CacheManager {
 			return;
 		}
 
+		if(clearThumbnails) {
+			ThumbnailCache.getInstance(context).clear();
+		}
+
 		/*Use a maximum age of 0 to clear everything* in that category.
 		Otherwise, use Long.MAX_VALUE as the maximum age to ensure that nothing is deleted.
 
@@ -217,7 +419,48 @@ public final class CacheManager {
 	public synchronized void pruneCache(final HashMap<Integer, Long> maxAge) {
 
 		try {
+			final long currentTime = RRTime.utcCurrentTimeMillis();
+
+			int entriesPruned = 0;
+
+			for(final int fileType : dbManager.getFileTypes()) {
+
+				final long pruneIfBeforeMs = currentTime - getMaxAge(maxAge, fileType);
+
+				// Oldest first, in batches, so that other cache operations can interleave
+				while(true) {
+
+					final ArrayList<Long> entriesToDelete = dbManager.pruneOldestEntries(
+							fileType,
+							pruneIfBeforeMs,
+							PRUNE_BATCH_SIZE);
+
+					for(final long id : entriesToDelete) {
+						final File file = getExistingCacheFile(id);
+						if(file != null) {
+							file.delete();
+						}
+					}
+
+					entriesPruned += entriesToDelete.size();
+
+					if(entriesToDelete.size() < PRUNE_BATCH_SIZE) {
+						break;
+					}
+				}
+			}
+
+			Log.i(TAG, "Pruned " + entriesPruned + " entries");
 
+			// The search index is built from listings, so its documents go when they do
+			final long listingMaxAge = Math.max(
+					getMaxAge(maxAge, Constants.FileType.POST_LIST),
+					getMaxAge(maxAge, Constants.FileType.COMMENT_LIST));
+
+			OfflineSearchIndex.getInstance(context).prune(currentTime - listingMaxAge);
+
+			// Entries whose files have gone are removed when they are next read. Files without
+			// an entry are only found here.
 			final HashSet<Long> currentFiles = new HashSet<>(1024);
 
 			final List<File> dirs = getCacheDirs(context);
@@ -225,52 +468,72 @@ public final class CacheManager {
 				getCacheFileList(dir, currentFiles);
 			}
 
-			final ArrayList<Long> filesToDelete = dbManager.getFilesToPrune(
-					currentFiles,
-					maxAge,
-					72);
+			final ArrayList<Long> fileIds = new ArrayList<>(currentFiles);
+			int orphansPruned = 0;
+
+			for(int start = 0; start < fileIds.size(); start += PRUNE_BATCH_SIZE) {
+
+				final List<Long> batch = fileIds.subList(
+						start,
+						Math.min(fileIds.size(), start + PRUNE_BATCH_SIZE));
+
+				final HashSet<Long> existing = dbManager.getExistingEntries(batch);
 
-			Log.i("CacheManager", "Pruning " + filesToDelete.size() + " files");
+				for(final long id : batch) {
+					if(!existing.contains(id)) {
 
-			for(final long id : filesToDelete) {
-				final File file = getExistingCacheFile(id);
-				if(file != null) {
-					file.delete();
+						final File file = getExistingCacheFile(id);
+
+						if(file != null) {
+							file.delete();
+							orphansPruned++;
+						}
+					}
 				}
 			}
 
+			Log.i(TAG, "Pruned " + orphansPruned + " files with no entry");
+
 		} catch(final Throwable t) {
 			BugReportActivity.handleGlobalError(context, t);
 		}
+	}
 
+	private static long getMaxAge(
+			@NonNull final HashMap<Integer, Long> maxAge,
+			final int fileType) {
+
+		final Long maxAgeForType = maxAge.get(fileType);
+
+		if(maxAgeForType != null) {
+			return maxAgeForType;
+		} else {
+			Log.e(TAG, "Using default age! Filetype " + fileType);
+			return DEFAULT_MAX_AGE;
+		}
 	}
 
 	public synchronized void emptyTheWholeCache() {
 		dbManager.emptyTheWholeCache();
+		OfflineSearchIndex.getInstance(context).clear();
+		ImageInfoResolver.getInstance(context).clear();
 	}
 
 	public synchronized HashMap<Integer, Long> getCacheDataUsages() {
+
 		final HashMap<Integer, Long> dataUsagePerType = PrefsUtility.createFileTypeToLongMap();
 
 		try {
-			final HashSet<Long> currentFiles = new HashSet<>(128);
-
-			final List<File> dirs = getCacheDirs(context);
-			for(final File dir : dirs) {
-				getCacheFileList(dir, currentFiles);
-			}
-
-			final HashMap<Long, Integer> filesToCheckWithTypes = dbManager.getFilesToSize();
+			for(final HashMap.Entry<Integer, Long> entry
+					: dbManager.getSizesByType().entrySet()) {
 
-			for(final HashMap.Entry<Long, Integer> fileEntry : filesToCheckWithTypes.entrySet()) {
-				final long id = fileEntry.getKey();
-				final int type = fileEntry.getValue();
+				final int type = entry.getKey();
 
-				final File file = getExistingCacheFile(id);
-				if(file != null && dataUsagePerType.containsKey(type)) {
+				if(dataUsagePerType.containsKey(type)) {
 					dataUsagePerType.put(
 							type,
-							Objects.requireNonNull(dataUsagePerType.get(type)) + file.length());
+							Objects.requireNonNull(dataUsagePerType.get(type))
+									+ entry.getValue());
 				}
 			}
 
@@ -338,7 +601,15 @@ public final class CacheManager {
 			location = getPreferredCacheLocation();
 			mTmpFile = new File(location, UUID.randomUUID().toString() + tempExt);
 
-			mOutStream = new FileOutputStream(mTmpFile);
+			if(cacheCompressionType == CacheCompressionType.NONE) {
+				mOutStream = new FileOutputStream(mTmpFile);
+
+			} else if(cacheCompressionType == CacheCompressionType.ZSTD) {
+				mOutStream = new ZstdOutputStream(new FileOutputStream(mTmpFile), 3);
+
+			} else {
+				throw new RuntimeException("Unhandled compression type " + cacheCompressionType);
+			}
 		}
 
 		@NonNull
@@ -346,43 +617,23 @@ public final class CacheManager {
 			return Objects.requireNonNull(readableCacheFile);
 		}
 
-		public void writeWholeFile(
-				final byte[] buf,
+		// Data is readable from the temp file as soon as this returns, if uncompressed
+		@NonNull
+		File getTmpFile() {
+			return mTmpFile;
+		}
+
+		public void writeBytes(
+				@NonNull final byte[] buf,
 				final int offset,
 				final int length) throws IOException {
 
-			if(mCacheCompressionType == CacheCompressionType.NONE) {
-				mOutStream.write(buf, offset, length);
-				mCompressedLength += length;
-
-			} else if(mCacheCompressionType == CacheCompressionType.ZSTD) {
-
-				final long maxDestSize = Zstd.compressBound(length);
-
-				if(maxDestSize > Integer.MAX_VALUE) {
-					throw new IOException("Max output size is greater than MAX_INT");
-				}
-
-				final byte[] dst = new byte[(int)maxDestSize];
-
-				final int size = (int)Zstd.compressByteArray(
-						dst,
-						0,
-						dst.length,
-						buf,
-						offset,
-						length,
-						3);
-
-				mOutStream.write(dst, 0, size);
-
-				mCompressedLength += size;
-			}
-
+			mOutStream.write(buf, offset, length);
 			mUncompressedLength += length;
 		}
 
-		public void onWriteFinished() throws IOException {
+		@NonNull
+		public File onWriteFinished() throws IOException {
 
 			if(mWriteExternally) {
 				mCompressedLength = mTmpFile.length();
@@ -391,6 +642,7 @@ public final class CacheManager {
 			} else {
 				mOutStream.flush();
 				mOutStream.close();
+				mCompressedLength = mTmpFile.length();
 			}
 
 			final long cacheFileId = dbManager.newEntry(
@@ -410,8 +662,11 @@ public final class CacheManager {
 			FileUtils.moveFile(mTmpFile, dstFile);
 
 			dbManager.setEntryDone(cacheFileId);
+			mEvictionThread.trigger();
 
 			readableCacheFile = new ReadableCacheFile(cacheFileId, mCacheCompressionType);
+
+			return dstFile;
 		}
 
 		public File writeExternally() throws IOException {
@@ -490,7 +745,14 @@ public final class CacheManager {
 
 		@NonNull
 		public Optional<File> getFile() {
-			return Optional.ofNullable(getExistingCacheFile(mId));
+
+			final File file = getExistingCacheFile(mId);
+
+			if(file != null) {
+				recordAccess(mId);
+			}
+
+			return Optional.ofNullable(file);
 		}
 
 		@NonNull
@@ -557,14 +819,30 @@ public final class CacheManager {
 			return null;
 		}
 
+		recordAccess(id);
+
 		if(cacheCompressionType == CacheCompressionType.NONE) {
-			return new SeekableFileInputStream(cacheFile);
+
+			if(cacheFile.length() > Integer.MAX_VALUE) {
+				return new SeekableFileInputStream(cacheFile);
+			}
+
+			return new MappedFileInputStream(cacheFile);
 
 		} else if(cacheCompressionType == CacheCompressionType.ZSTD) {
 
-			try(InputStream is = new ZstdInputStream(new FileInputStream(cacheFile))) {
-				return new MemoryDataStream(General.readWholeStream(is)).getInputStream();
-			}
+			return new StreamingSeekableInputStream(() -> {
+
+				final FileInputStream fileStream = new FileInputStream(cacheFile);
+
+				try {
+					return new ZstdInputStream(fileStream);
+
+				} catch(final IOException | RuntimeException e) {
+					General.closeSafely(fileStream);
+					throw e;
+				}
+			});
 
 		} else {
 			throw new RuntimeException("Unhandled compression type " + cacheCompressionType);
@@ -580,6 +858,8 @@ public final class CacheManager {
 			return null;
 		}
 
+		recordAccess(id);
+
 		return Uri.fromFile(cacheFile);
 	}
 
@@ -708,7 +988,7 @@ public final class CacheManager {
 				@NonNull
 				@Override
 				public Priority getPriority() {
-					return request.priority;
+					return request.getPriority();
 				}
 
 				@Override
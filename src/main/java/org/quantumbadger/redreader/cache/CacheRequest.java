@@ -87,7 +87,7 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 	public final RedditAccount user;
 	public final UUID requestSession;
 
-	@NonNull public final Priority priority;
+	@NonNull private volatile Priority mPriority;
 
 	@NonNull public final DownloadStrategy downloadStrategy;
 
@@ -114,15 +114,41 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 		return true;
 	}
 
+	@NonNull
+	public Priority getPriority() {
+		return mPriority;
+	}
+
+	// Can be called to move a request which is still waiting in a download queue, for
+	// example when the item it is for scrolls off screen
+	public void setPriority(@NonNull final Priority priority) {
+
+		final CacheDownload currentDownload;
+
+		synchronized(this) {
+			mPriority = priority;
+			currentDownload = download;
+		}
+
+		if(currentDownload != null) {
+			currentDownload.onRequestPriorityChanged();
+		}
+	}
+
 	// Can be called to cancel the request
-	public synchronized void cancel() {
+	public void cancel() {
 
-		cancelled = true;
+		final CacheDownload downloadToCancel;
 
-		if(download != null) {
-			download.cancel();
+		synchronized(this) {
+			cancelled = true;
+			downloadToCancel = download;
 			download = null;
 		}
+
+		if(downloadToCancel != null) {
+			downloadToCancel.cancel(this);
+		}
 	}
 
 	public CacheRequest(
@@ -231,7 +257,7 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 		this.url = url;
 		this.user = user;
 		this.requestSession = requestSession;
-		this.priority = priority;
+		mPriority = priority;
 		this.downloadStrategy = downloadStrategy;
 		this.fileType = fileType;
 		this.queueType = queueType;
@@ -253,9 +279,9 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 
 	@Override
 	public int compareTo(final CacheRequest another) {
-		return priority.isHigherPriorityThan(another.priority)
+		return mPriority.isHigherPriorityThan(another.mPriority)
 				? -1
-				: (another.priority.isHigherPriorityThan(priority) ? 1 : 0);
+				: (another.mPriority.isHigherPriorityThan(mPriority) ? 1 : 0);
 	}
 
 	// Callbacks
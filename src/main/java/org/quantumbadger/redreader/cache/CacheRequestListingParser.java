@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.cache;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.quantumbadger.redreader.activities.BugReportActivity;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.GenericFactory;
+import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+import org.quantumbadger.redreader.http.FailedRequestBody;
+import org.quantumbadger.redreader.reddit.things.RedditListingStreamReader;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Like CacheRequestJSONParser, but for listings: each child is passed to the listeners as
+// soon as it has been parsed, while the rest of the response may still be downloading.
+//
+// Listeners are called in the order they were given, and all of them receive every callback.
+public final class CacheRequestListingParser implements CacheRequestCallbacks {
+
+	private static final CachedThreadPool mThreadPool
+			= new CachedThreadPool(5, "ListingParser");
+
+	public interface Listener {
+
+		void onListingStarted(
+				long timestamp,
+				@NonNull UUID session,
+				boolean fromCache);
+
+		// Called on the parsing thread. Any exception thrown here is reported as a parse
+		// failure.
+		void onThingParsed(@NonNull RedditThing thing);
+
+		void onListingFinished();
+
+		void onFailure(
+				int type,
+				@Nullable Throwable t,
+				@Nullable Integer httpStatus,
+				@Nullable String readableMessage,
+				@NonNull Optional<FailedRequestBody> body);
+
+		default void onDownloadNecessary() {
+			// Do nothing by default
+		}
+	}
+
+	@NonNull private final Context mContext;
+	@NonNull private final Listener[] mListeners;
+
+	private final AtomicBoolean mNotifiedFailure = new AtomicBoolean(false);
+
+	public CacheRequestListingParser(
+			@NonNull final Context context,
+			@NonNull final Listener... listeners) {
+		mContext = context;
+		mListeners = listeners;
+	}
+
+	private void notifyFailure(
+			final int type,
+			@Nullable final Throwable t,
+			@Nullable final Integer httpStatus,
+			@Nullable final String readableMessage,
+			@NonNull final Optional<FailedRequestBody> body) {
+
+		if(!mNotifiedFailure.getAndSet(true)) {
+			for(final Listener listener : mListeners) {
+				listener.onFailure(type, t, httpStatus, readableMessage, body);
+			}
+		}
+	}
+
+	@Override
+	public void onDataStreamAvailable(
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory,
+			final long timestamp,
+			@NonNull final UUID session,
+			final boolean fromCache,
+			@Nullable final String mimetype) {
+
+		try {
+			mThreadPool.add(() -> {
+
+				try {
+					for(final Listener listener : mListeners) {
+						listener.onListingStarted(timestamp, session, fromCache);
+					}
+
+					try(InputStream is = streamFactory.create();
+						JsonParser parser = new JsonFactory().createParser(is)) {
+
+						RedditListingStreamReader.read(parser, thing -> {
+							for(final Listener listener : mListeners) {
+								listener.onThingParsed(thing);
+							}
+						});
+
+					} catch(final Exception e) {
+						notifyFailure(
+								CacheRequest.REQUEST_FAILURE_PARSE,
+								e,
+								null,
+								"Exception during JSON parse",
+								General.ignoreIOException(streamFactory)
+										.filter(FailedRequestBody::from));
+						return;
+					}
+
+					for(final Listener listener : mListeners) {
+						listener.onListingFinished();
+					}
+
+				} catch(final Exception e) {
+					BugReportActivity.handleGlobalError(mContext, e);
+				}
+			});
+
+		} catch(final Exception e) {
+			notifyFailure(
+					CacheRequest.REQUEST_FAILURE_STORAGE,
+					e,
+					null,
+					"Exception in CacheRequestListingParser",
+					Optional.empty());
+		}
+	}
+
+	@Override
+	public void onDownloadNecessary() {
+		for(final Listener listener : mListeners) {
+			listener.onDownloadNecessary();
+		}
+	}
+
+	@Override
+	public void onFailure(
+			final int type,
+			@Nullable final Throwable t,
+			@Nullable final Integer httpStatus,
+			@Nullable final String readableMessage,
+			@NonNull final Optional<FailedRequestBody> body) {
+
+		notifyFailure(type, t, httpStatus, readableMessage, body);
+	}
+}
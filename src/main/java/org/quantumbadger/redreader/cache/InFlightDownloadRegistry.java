@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.cache;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.UUID;
+
+// Allows requests for the same data to share a single download, rather than each request
+// making its own HTTP call. Requests are keyed in the same way as entries in CacheDbManager.
+final class InFlightDownloadRegistry {
+
+	private static final String TAG = "InFlightDownloads";
+
+	private static final class Key {
+
+		@NonNull private final URI mUrl;
+		@NonNull private final String mUser;
+		@Nullable private final UUID mSession;
+		private final int mFileType;
+
+		private Key(@NonNull final CacheRequest request) {
+			mUrl = request.url;
+			mUser = request.user.username;
+			mSession = request.requestSession;
+			mFileType = request.fileType;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+
+			if(this == o) {
+				return true;
+			}
+
+			if(!(o instanceof Key)) {
+				return false;
+			}
+
+			final Key other = (Key)o;
+
+			return mFileType == other.mFileType
+					&& mUrl.equals(other.mUrl)
+					&& mUser.equals(other.mUser)
+					&& (mSession == null
+							? other.mSession == null
+							: mSession.equals(other.mSession));
+		}
+
+		@Override
+		public int hashCode() {
+			int result = mUrl.hashCode();
+			result = 31 * result + mUser.hashCode();
+			result = 31 * result + (mSession == null ? 0 : mSession.hashCode());
+			result = 31 * result + mFileType;
+			return result;
+		}
+	}
+
+	private final HashMap<Key, CacheDownload> mDownloads = new HashMap<>();
+
+	private long mDownloadsStarted = 0;
+	private long mRequestsDeduplicated = 0;
+
+	private static boolean canShareDownload(@NonNull final CacheRequest request) {
+		// Requests with a body are never cached, and must always be sent
+		return request.cache;
+	}
+
+	// Returns true if the request was attached to a download which is already in progress
+	synchronized boolean tryAttach(@NonNull final CacheRequest request) {
+
+		if(!canShareDownload(request)) {
+			return false;
+		}
+
+		final CacheDownload existing = mDownloads.get(new Key(request));
+
+		if(existing == null || !existing.attach(request)) {
+			return false;
+		}
+
+		mRequestsDeduplicated++;
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"Request for %s attached to existing download (%d of %d deduplicated)",
+				request.url,
+				mRequestsDeduplicated,
+				mRequestsDeduplicated + mDownloadsStarted));
+
+		return true;
+	}
+
+	synchronized void register(
+			@NonNull final CacheRequest request,
+			@NonNull final CacheDownload download) {
+
+		mDownloadsStarted++;
+
+		if(canShareDownload(request)) {
+			mDownloads.put(new Key(request), download);
+		}
+	}
+
+	synchronized void unregister(
+			@NonNull final CacheRequest request,
+			@NonNull final CacheDownload download) {
+
+		if(!canShareDownload(request)) {
+			return;
+		}
+
+		final Key key = new Key(request);
+
+		// The entry may already have been replaced by a newer download
+		if(mDownloads.get(key) == download) {
+			mDownloads.remove(key);
+		}
+	}
+}
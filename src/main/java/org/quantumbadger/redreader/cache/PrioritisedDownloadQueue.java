@@ -18,28 +18,44 @@
 package org.quantumbadger.redreader.cache;
 
 import android.content.Context;
+import androidx.annotation.NonNull;
+import org.quantumbadger.redreader.common.AdaptiveRateLimiter;
 import org.quantumbadger.redreader.common.PrioritisedCachedThreadPool;
-
-import java.util.HashSet;
+import org.quantumbadger.redreader.common.collections.PriorityHeap;
+import org.quantumbadger.redreader.http.HTTPBackend;
 
 
 class PrioritisedDownloadQueue {
 
-	private final HashSet<CacheDownload> redditDownloadsQueued = new HashSet<>();
+	private final PriorityHeap<CacheDownload> redditDownloadsQueued = new PriorityHeap<>();
+
+	private final InFlightDownloadRegistry mInFlightDownloads = new InFlightDownloadRegistry();
 
 	private final PrioritisedCachedThreadPool mDownloadThreadPool
 			= new PrioritisedCachedThreadPool(5, "Download");
 
+	private final PrioritisedCachedThreadPool mRedditThreadPool
+			= new PrioritisedCachedThreadPool(3, "Reddit Download");
+
+	// Bursts of up to ten requests, otherwise one per second until reddit tells us more
+	private final AdaptiveRateLimiter mRedditRateLimiter = new AdaptiveRateLimiter(10, 1.0);
+
 	public PrioritisedDownloadQueue(final Context context) {
 		new RedditQueueProcessor().start();
 	}
 
 	public synchronized void add(final CacheRequest request, final CacheManager manager) {
 
-		final CacheDownload download = new CacheDownload(request, manager);
+		if(mInFlightDownloads.tryAttach(request)) {
+			return;
+		}
+
+		final CacheDownload download
+				= new CacheDownload(request, manager, this, mInFlightDownloads);
+		mInFlightDownloads.register(request, download);
 
 		if(request.queueType == CacheRequest.DOWNLOAD_QUEUE_REDDIT_API) {
-			redditDownloadsQueued.add(download);
+			redditDownloadsQueued.add(download, download.getPriority());
 			notifyAll();
 
 		} else if(request.queueType == CacheRequest.DOWNLOAD_QUEUE_IMMEDIATE
@@ -51,27 +67,57 @@ class PrioritisedDownloadQueue {
 		}
 	}
 
+	// Blocks until there is a queued download, and the rate limit allows it to start
 	private synchronized CacheDownload getNextRedditInQueue() {
 
-		while(redditDownloadsQueued.isEmpty()) {
+		while(true) {
+
 			try {
-				wait();
+				if(redditDownloadsQueued.isEmpty()) {
+					wait();
+					continue;
+				}
+
+				final long delayMs = mRedditRateLimiter.tryAcquire();
+
+				if(delayMs > 0) {
+					// Wakes early if a download is added, but the limiter will hold it back
+					wait(delayMs);
+					continue;
+				}
+
 			} catch(final InterruptedException e) {
 				throw new RuntimeException(e);
 			}
+
+			return redditDownloadsQueued.poll();
 		}
+	}
 
-		CacheDownload next = null;
+	void onRedditResponseHeaders(
+			final int httpStatus,
+			@NonNull final HTTPBackend.ResponseHeaders headers) {
 
-		for(final CacheDownload entry : redditDownloadsQueued) {
-			if(next == null || entry.getPriority().isHigherPriorityThan(next.getPriority())) {
-				next = entry;
-			}
-		}
+		mRedditRateLimiter.onResponse(
+				httpStatus,
+				AdaptiveRateLimiter.parseHeaderValue(headers.getHeader("X-Ratelimit-Remaining")),
+				AdaptiveRateLimiter.parseHeaderValue(headers.getHeader("X-Ratelimit-Reset")));
+	}
+
+	// Removes a download which has not started yet. Returns false if it has already started.
+	synchronized boolean remove(final CacheDownload download) {
+		return redditDownloadsQueued.remove(download)
+				|| mRedditThreadPool.remove(download)
+				|| mDownloadThreadPool.remove(download);
+	}
 
-		redditDownloadsQueued.remove(next);
+	// Moves a download which has not started yet to reflect its new priority
+	synchronized void onPriorityChanged(final CacheDownload download) {
 
-		return next;
+		if(!redditDownloadsQueued.updatePriority(download, download.getPriority())
+				&& !mRedditThreadPool.onPriorityChanged(download)) {
+			mDownloadThreadPool.onPriorityChanged(download);
+		}
 	}
 
 	private class RedditQueueProcessor extends Thread {
@@ -84,22 +130,8 @@ class PrioritisedDownloadQueue {
 		public void run() {
 
 			while(true) {
-
-				synchronized(this) {
-					final CacheDownload download = getNextRedditInQueue();
-					new CacheDownloadThread(
-							download,
-							true,
-							"Cache Download Thread: Reddit");
-				}
-
-				try {
-					sleep(1200); // Delay imposed by reddit API restrictions.
-				} catch(final InterruptedException e) {
-					throw new RuntimeException(e);
-				}
+				mRedditThreadPool.add(getNextRedditInQueue());
 			}
-
 		}
 	}
 }
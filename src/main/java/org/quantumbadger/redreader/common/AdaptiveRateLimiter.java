@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+// Token bucket which allows short bursts of requests, and adapts its refill rate to the budget
+// reported by the server, so that requests are spread out evenly as the limit is approached.
+public class AdaptiveRateLimiter {
+
+	public interface Clock {
+		long nowMs();
+	}
+
+	// Used when the server asks us to slow down without saying for how long
+	private static final long DEFAULT_BACKOFF_MS = 10_000;
+
+	@NonNull private final Clock mClock;
+
+	private final int mBurstSize;
+	private final double mDefaultRatePerMs;
+
+	private double mTokens;
+	private double mRatePerMs;
+	private long mLastRefillMs;
+	private long mBlockedUntilMs;
+
+	public AdaptiveRateLimiter(final int burstSize, final double defaultRequestsPerSecond) {
+		this(burstSize, defaultRequestsPerSecond, () -> System.nanoTime() / 1_000_000);
+	}
+
+	public AdaptiveRateLimiter(
+			final int burstSize,
+			final double defaultRequestsPerSecond,
+			@NonNull final Clock clock) {
+
+		mClock = clock;
+		mBurstSize = burstSize;
+		mDefaultRatePerMs = defaultRequestsPerSecond / 1000.0;
+
+		mTokens = burstSize;
+		mRatePerMs = mDefaultRatePerMs;
+		mLastRefillMs = clock.nowMs();
+		mBlockedUntilMs = mLastRefillMs;
+	}
+
+	private void refill(final long nowMs) {
+
+		if(nowMs > mLastRefillMs) {
+			mTokens = Math.min(mBurstSize, mTokens + (nowMs - mLastRefillMs) * mRatePerMs);
+			mLastRefillMs = nowMs;
+		}
+	}
+
+	// Takes a token if one is available, and returns zero. Otherwise, returns the number of
+	// milliseconds to wait before trying again.
+	public synchronized long tryAcquire() {
+
+		final long nowMs = mClock.nowMs();
+
+		if(nowMs < mBlockedUntilMs) {
+			return mBlockedUntilMs - nowMs;
+		}
+
+		refill(nowMs);
+
+		if(mTokens >= 1) {
+			mTokens -= 1;
+			return 0;
+		}
+
+		return Math.max(1, (long)Math.ceil((1 - mTokens) / mRatePerMs));
+	}
+
+	// remaining: the number of requests left in the current window
+	// resetSeconds: the time until the window ends and the budget is restored
+	public synchronized void onResponse(
+			final int httpStatus,
+			@Nullable final Double remaining,
+			@Nullable final Double resetSeconds) {
+
+		final long nowMs = mClock.nowMs();
+		refill(nowMs);
+
+		final long resetMs = resetSeconds == null
+				? DEFAULT_BACKOFF_MS
+				: Math.max(1000, (long)(resetSeconds * 1000));
+
+		if(httpStatus == 429 || (remaining != null && remaining < 1)) {
+			mTokens = 0;
+			mBlockedUntilMs = Math.max(mBlockedUntilMs, nowMs + resetMs);
+			mRatePerMs = mDefaultRatePerMs;
+			return;
+		}
+
+		if(remaining == null || resetSeconds == null) {
+			return;
+		}
+
+		// Spend what is left of the budget evenly over the rest of the window, bursting no
+		// further than the server will allow
+		mRatePerMs = remaining / resetMs;
+		mTokens = Math.min(mTokens, remaining);
+	}
+
+	@Nullable
+	public static Double parseHeaderValue(@Nullable final String value) {
+
+		if(value == null) {
+			return null;
+		}
+
+		try {
+			final double result = Double.parseDouble(value.trim());
+			return Double.isNaN(result) || Double.isInfinite(result) ? null : result;
+
+		} catch(final NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -49,6 +49,7 @@ import org.quantumbadger.redreader.fragments.ShareOrderDialog;
 import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.image.GetImageInfoListener;
 import org.quantumbadger.redreader.image.ImageInfo;
+import org.quantumbadger.redreader.image.ImageInfoResolver;
 import org.quantumbadger.redreader.image.LegacySaveImageCallback;
 
 import java.io.File;
@@ -639,7 +640,7 @@ public class FileUtils {
 			@NonNull final String uri,
 			@NonNull final DownloadImageToSaveSuccessCallback callback) {
 
-		LinkHandler.getImageInfo(
+		ImageInfoResolver.getInstance(activity).getImageInfo(
 				activity,
 				uri,
 				new Priority(Constants.Priority.IMAGE_VIEW),
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Finds the media provider links in a URL in a single pass, instead of running each of
+ * the provider patterns in LinkHandler over the URL in turn.
+ *
+ * The host tokens are stored in a trie, which is walked from every position in the URL
+ * where the corresponding pattern could begin. The results are identical to calling
+ * find() and group(1) on the patterns in LinkHandler, including their quirks: hosts are
+ * matched anywhere in the URL (not just in the authority), the last occurrence on the
+ * first matching line wins, and the dots in "v.redd.it" match any character.
+ */
+public final class LinkClassifier {
+
+	public enum Provider {
+		IMGUR("imgur.com/", IdSyntax.WORD),
+		GFYCAT("gfycat.com/", IdSyntax.GIF_DETAIL_WORD),
+		REDGIFS("redgifs.com/watch/", IdSyntax.GIF_DETAIL_WORD),
+		STREAMABLE("streamable.com/", IdSyntax.WORD),
+		REDDIT_UPLOADS("i.reddituploads.com/", IdSyntax.WORD),
+		REDDIT_VIDEOS("v?redd?it/", IdSyntax.WORD),
+		IMGFLIP("imgflip.com/i/", IdSyntax.WORD),
+		MAKEAMEME("makeameme.org/meme/", IdSyntax.WORD_OR_DASH),
+		GIPHY("giphy.com/gifs/", IdSyntax.WORD),
+		QKME("qkme.me/", IdSyntax.WORD),
+		QUICKMEME("quickmeme.com/meme/", IdSyntax.WORD),
+		LIVEMEME("livememe.com/", IdSyntax.WORD),
+
+		// Unlike the others, this must appear literally, and the first occurrence wins
+		DEVIANTART("https://www.deviantart.com/", IdSyntax.DEVIANTART_ART);
+
+		// '?' in a token matches any single character other than a line terminator
+		@NonNull private final String mToken;
+		@NonNull private final IdSyntax mIdSyntax;
+
+		Provider(@NonNull final String token, @NonNull final IdSyntax idSyntax) {
+			mToken = token;
+			mIdSyntax = idSyntax;
+		}
+	}
+
+	private enum IdSyntax {
+		WORD,
+		WORD_OR_DASH,
+		GIF_DETAIL_WORD,
+		DEVIANTART_ART
+	}
+
+	public static final class Result {
+
+		@NonNull private final String[] mIds = new String[PROVIDERS.length];
+		@NonNull private final int[] mLines = new int[PROVIDERS.length];
+
+		private Result() {}
+
+		/**
+		 * @return The ID captured by the provider's pattern, or null if it did not match.
+		 */
+		@Nullable
+		public String getId(@NonNull final Provider provider) {
+			return mIds[provider.ordinal()];
+		}
+
+		private void offer(
+				@NonNull final Provider provider,
+				@NonNull final String id,
+				final int line) {
+
+			final int index = provider.ordinal();
+
+			if(provider == Provider.DEVIANTART) {
+				if(mIds[index] == null) {
+					mIds[index] = id;
+				}
+
+			} else if(mIds[index] == null || mLines[index] == line) {
+				mIds[index] = id;
+				mLines[index] = line;
+			}
+		}
+	}
+
+	private static final class Node {
+
+		@NonNull private final Node[] mChildren = new Node[128];
+		@Nullable private Node mWildcard;
+		@Nullable private Provider mProvider;
+
+		@NonNull
+		private Node getOrCreateChild(final char c) {
+
+			if(c == '?') {
+				if(mWildcard == null) {
+					mWildcard = new Node();
+				}
+				return mWildcard;
+			}
+
+			if(mChildren[c] == null) {
+				mChildren[c] = new Node();
+			}
+			return mChildren[c];
+		}
+	}
+
+	private static final Provider[] PROVIDERS = Provider.values();
+
+	@NonNull private static final Node PREFIXED_ROOT = new Node();
+	@NonNull private static final Node DEVIANTART_ROOT = new Node();
+
+	static {
+		for(final Provider provider : PROVIDERS) {
+
+			Node node = provider == Provider.DEVIANTART ? DEVIANTART_ROOT : PREFIXED_ROOT;
+
+			for(int i = 0; i < provider.mToken.length(); i++) {
+				node = node.getOrCreateChild(provider.mToken.charAt(i));
+			}
+
+			node.mProvider = provider;
+		}
+	}
+
+	private LinkClassifier() {}
+
+	@NonNull
+	public static Result classify(@NonNull final String url) {
+
+		final Result result = new Result();
+		final int length = url.length();
+
+		int line = 0;
+		int pos = 0;
+
+		while(pos < length) {
+
+			final int codePoint = url.codePointAt(pos);
+			final int next = pos + Character.charCount(codePoint);
+
+			// The provider patterns all require a non-letter before the host
+			if(!isAsciiLetter(codePoint)) {
+				walk(PREFIXED_ROOT, url, next, line, result);
+			}
+
+			if(codePoint == 'h') {
+				walk(DEVIANTART_ROOT, url, pos, line, result);
+			}
+
+			if(isLineTerminator(codePoint)) {
+				line++;
+			}
+
+			pos = next;
+		}
+
+		return result;
+	}
+
+	private static void walk(
+			@NonNull final Node node,
+			@NonNull final String url,
+			final int pos,
+			final int line,
+			@NonNull final Result result) {
+
+		if(node.mProvider != null) {
+
+			final String id = matchId(node.mProvider.mIdSyntax, url, pos);
+
+			if(id != null) {
+				result.offer(node.mProvider, id, line);
+			}
+		}
+
+		if(pos >= url.length()) {
+			return;
+		}
+
+		final char c = url.charAt(pos);
+
+		if(c < 128 && node.mChildren[c] != null) {
+			walk(node.mChildren[c], url, pos + 1, line, result);
+		}
+
+		if(node.mWildcard != null) {
+
+			final int codePoint = url.codePointAt(pos);
+
+			if(!isLineTerminator(codePoint)) {
+				walk(
+						node.mWildcard,
+						url,
+						pos + Character.charCount(codePoint),
+						line,
+						result);
+			}
+		}
+	}
+
+	@Nullable
+	private static String matchId(
+			@NonNull final IdSyntax syntax,
+			@NonNull final String url,
+			final int start) {
+
+		switch(syntax) {
+
+			case WORD:
+				return wordAt(url, start, false);
+
+			case WORD_OR_DASH:
+				return wordAt(url, start, true);
+
+			case GIF_DETAIL_WORD: {
+
+				final String gifDetailPrefix = "gifs/detail/";
+
+				if(url.startsWith(gifDetailPrefix, start)) {
+
+					final String id = wordAt(url, start + gifDetailPrefix.length(), false);
+
+					if(id != null) {
+						return id;
+					}
+				}
+
+				return wordAt(url, start, false);
+			}
+
+			case DEVIANTART_ART: {
+
+				final String user = wordAt(url, start, true);
+
+				if(user == null) {
+					return null;
+				}
+
+				final int artStart = start + user.length();
+
+				if(url.startsWith("/art/", artStart) && wordAt(url, artStart + 5, true) != null) {
+					return user;
+				}
+
+				return null;
+			}
+
+			default:
+				throw new RuntimeException("Unknown syntax " + syntax);
+		}
+	}
+
+	@Nullable
+	private static String wordAt(
+			@NonNull final String url,
+			final int start,
+			final boolean allowDash) {
+
+		int end = start;
+
+		while(end < url.length()) {
+
+			final char c = url.charAt(end);
+
+			if(isAsciiLetter(c)
+					|| (c >= '0' && c <= '9')
+					|| c == '_'
+					|| (allowDash && c == '-')) {
+				end++;
+			} else {
+				break;
+			}
+		}
+
+		return end == start ? null : url.substring(start, end);
+	}
+
+	private static boolean isAsciiLetter(final int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	// Everything excluded by '.' in a java.util.regex.Pattern without flags
+	private static boolean isLineTerminator(final int c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+}
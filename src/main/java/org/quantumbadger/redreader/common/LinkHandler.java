@@ -548,138 +548,76 @@ public class LinkHandler {
 		}
 	}
 
-	public static final Pattern imgurPattern
-			= Pattern.compile(".*[^A-Za-z]imgur\\.com/(\\w+).*");
 	public static final Pattern imgurAlbumPattern
 			= Pattern.compile(".*[^A-Za-z]imgur\\.com/(a|gallery)/(\\w+).*");
 	public static final Pattern redditGalleryPattern
 			= Pattern.compile(".*[^A-Za-z]reddit\\.com/gallery/(\\w+).*");
-	public static final Pattern qkmePattern1
-			= Pattern.compile(".*[^A-Za-z]qkme\\.me/(\\w+).*");
-	public static final Pattern qkmePattern2
-			= Pattern.compile(".*[^A-Za-z]quickmeme\\.com/meme/(\\w+).*");
-	public static final Pattern lvmePattern
-			= Pattern.compile(".*[^A-Za-z]livememe\\.com/(\\w+).*");
-	public static final Pattern gfycatPattern
-			= Pattern.compile(".*[^A-Za-z]gfycat\\.com/(?:gifs/detail/)?(\\w+).*");
-	public static final Pattern redgifsPattern
-			= Pattern.compile(".*[^A-Za-z]redgifs\\.com/watch/(?:gifs/detail/)?(\\w+).*");
-	public static final Pattern streamablePattern
-			= Pattern.compile(".*[^A-Za-z]streamable\\.com/(\\w+).*");
-	public static final Pattern reddituploadsPattern
-			= Pattern.compile(".*[^A-Za-z]i\\.reddituploads\\.com/(\\w+).*");
-	public static final Pattern redditVideosPattern
-			= Pattern.compile(".*[^A-Za-z]v.redd.it/(\\w+).*");
-	public static final Pattern imgflipPattern
-			= Pattern.compile(".*[^A-Za-z]imgflip\\.com/i/(\\w+).*");
-	public static final Pattern makeamemePattern
-			= Pattern.compile(".*[^A-Za-z]makeameme\\.org/meme/([\\w\\-]+).*");
-	public static final Pattern deviantartPattern
-			= Pattern.compile("https://www\\.deviantart\\.com/([\\w\\-]+)/art/([\\w\\-]+)");
-	public static final Pattern giphyPattern
-			= Pattern.compile(".*[^A-Za-z]giphy\\.com/gifs/(\\w+).*");
 
 	public static boolean isProbablyAnImage(final String url) {
 
-		{
-			final Matcher matchImgur = imgurPattern.matcher(url);
+		final LinkClassifier.Result links = LinkClassifier.classify(url);
 
-			if(matchImgur.find()) {
-				final String imgId = matchImgur.group(1);
-				if(imgId.length() > 2 && !imgId.startsWith("gallery")) {
-					return true;
-				}
+		{
+			final String imgId = links.getId(LinkClassifier.Provider.IMGUR);
+			if(imgId != null && imgId.length() > 2 && !imgId.startsWith("gallery")) {
+				return true;
 			}
 		}
 
 		{
-			final Matcher matchGfycat = gfycatPattern.matcher(url);
-
-			if(matchGfycat.find()) {
-				final String imgId = matchGfycat.group(1);
-				if(imgId.length() > 5) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.GFYCAT);
+			if(imgId != null && imgId.length() > 5) {
+				return true;
 			}
 		}
 
 		{
-			final Matcher matchRedgifs = redgifsPattern.matcher(url);
-
-			if(matchRedgifs.find()) {
-				final String imgId = matchRedgifs.group(1);
-				if(imgId.length() > 5) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.REDGIFS);
+			if(imgId != null && imgId.length() > 5) {
+				return true;
 			}
 		}
 
 		{
-			final Matcher matchStreamable = streamablePattern.matcher(url);
-
-			if(matchStreamable.find()) {
-				final String imgId = matchStreamable.group(1);
-				if(imgId.length() > 2) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.STREAMABLE);
+			if(imgId != null && imgId.length() > 2) {
+				return true;
 			}
 		}
 
 		{
-			final Matcher matchRedditUploads = reddituploadsPattern.matcher(url);
-
-			if(matchRedditUploads.find()) {
-				final String imgId = matchRedditUploads.group(1);
-				if(imgId.length() > 10) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.REDDIT_UPLOADS);
+			if(imgId != null && imgId.length() > 10) {
+				return true;
 			}
 		}
 
 		{
-			final Matcher matchImgflip = imgflipPattern.matcher(url);
-
-			if(matchImgflip.find()) {
-				final String imgId = matchImgflip.group(1);
-				if(imgId.length() > 3) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.IMGFLIP);
+			if(imgId != null && imgId.length() > 3) {
+				return true;
 			}
 		}
 
 		{
-			final Matcher matchMakeameme = makeamemePattern.matcher(url);
-
-			if(matchMakeameme.find()) {
-				final String imgId = matchMakeameme.group(1);
-				if(imgId.length() > 3) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.MAKEAMEME);
+			if(imgId != null && imgId.length() > 3) {
+				return true;
 			}
 		}
 
-		{
-			final Matcher matchDeviantart = deviantartPattern.matcher(url);
-
-			if(matchDeviantart.find()) {
-				if(url.length() > 40) {
-					return true;
-				}
-			}
+		if(links.getId(LinkClassifier.Provider.DEVIANTART) != null && url.length() > 40) {
+			return true;
 		}
 
 		{
-			final Matcher matchRedditVideos = redditVideosPattern.matcher(url);
-
-			if(matchRedditVideos.find()) {
-				final String imgId = matchRedditVideos.group(1);
-				if(imgId.length() > 3) {
-					return true;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.REDDIT_VIDEOS);
+			if(imgId != null && imgId.length() > 3) {
+				return true;
 			}
 		}
 
-		return getImageUrlPatternMatch(url) != null;
+		return getImageUrlPatternMatch(url, links) != null;
 	}
 
 	private static abstract class ImageInfoRetryListener implements GetImageInfoListener {
@@ -956,89 +894,66 @@ public class LinkHandler {
 			@NonNull final Priority priority,
 			final GetImageInfoListener listener) {
 
-		{
-			final Matcher matchImgur = imgurPattern.matcher(url);
+		final LinkClassifier.Result links = LinkClassifier.classify(url);
 
-			if(matchImgur.find()) {
-				final String imgId = matchImgur.group(1);
-				if(imgId.length() > 2 && !imgId.startsWith("gallery")) {
-					getImgurImageInfo(context, imgId, priority, true, listener);
-					return;
-				}
+		{
+			final String imgId = links.getId(LinkClassifier.Provider.IMGUR);
+			if(imgId != null && imgId.length() > 2 && !imgId.startsWith("gallery")) {
+				getImgurImageInfo(context, imgId, priority, true, listener);
+				return;
 			}
 		}
 
 		{
-			final Matcher matchGfycat = gfycatPattern.matcher(url);
-
-			if(matchGfycat.find()) {
-				final String imgId = matchGfycat.group(1);
-				if(imgId.length() > 5) {
-					GfycatAPI.getImageInfo(context, imgId, priority, listener);
-					return;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.GFYCAT);
+			if(imgId != null && imgId.length() > 5) {
+				GfycatAPI.getImageInfo(context, imgId, priority, listener);
+				return;
 			}
 		}
 
 		{
-			final Matcher matchRedgifs = redgifsPattern.matcher(url);
-
-			if(matchRedgifs.find()) {
-				final String imgId = matchRedgifs.group(1);
-				if(imgId.length() > 5) {
-					RedgifsAPI.getImageInfo(context, imgId, priority, listener);
-					return;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.REDGIFS);
+			if(imgId != null && imgId.length() > 5) {
+				RedgifsAPI.getImageInfo(context, imgId, priority, listener);
+				return;
 			}
 		}
 
 		{
-			final Matcher matchStreamable = streamablePattern.matcher(url);
-
-			if(matchStreamable.find()) {
-				final String imgId = matchStreamable.group(1);
-				if(imgId.length() > 2) {
-					StreamableAPI.getImageInfo(
-							context,
-							imgId,
-							priority,
-							listener);
-					return;
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.STREAMABLE);
+			if(imgId != null && imgId.length() > 2) {
+				StreamableAPI.getImageInfo(
+						context,
+						imgId,
+						priority,
+						listener);
+				return;
 			}
 		}
-		{
-			final Matcher matchDeviantart = deviantartPattern.matcher(url);
 
-			if(matchDeviantart.find()) {
-				if(url.length() > 40) {
-					DeviantArtAPI.getImageInfo(
-							context,
-							url,
-							priority,
-							listener);
-					return;
-				}
-			}
+		if(links.getId(LinkClassifier.Provider.DEVIANTART) != null && url.length() > 40) {
+			DeviantArtAPI.getImageInfo(
+					context,
+					url,
+					priority,
+					listener);
+			return;
 		}
-		{
-			final Matcher matchRedditVideos = redditVideosPattern.matcher(url);
-
-			if(matchRedditVideos.find()) {
 
-				final String imgId = matchRedditVideos.group(1);
-				if(imgId.length() > 3) {
-					RedditVideosAPI.getImageInfo(
-							context,
-							imgId,
-							priority,
-							listener);
-					return;
-				}
+		{
+			final String imgId = links.getId(LinkClassifier.Provider.REDDIT_VIDEOS);
+			if(imgId != null && imgId.length() > 3) {
+				RedditVideosAPI.getImageInfo(
+						context,
+						imgId,
+						priority,
+						listener);
+				return;
 			}
 		}
 
-		final ImageInfo imageUrlPatternMatch = getImageUrlPatternMatch(url);
+		final ImageInfo imageUrlPatternMatch = getImageUrlPatternMatch(url, links);
 
 		if(imageUrlPatternMatch != null) {
 			listener.onSuccess(imageUrlPatternMatch);
@@ -1047,63 +962,52 @@ public class LinkHandler {
 		}
 	}
 
-	private static ImageInfo getImageUrlPatternMatch(final String url) {
+	private static ImageInfo getImageUrlPatternMatch(
+			final String url,
+			final LinkClassifier.Result links) {
 
 		final String urlLower = StringUtils.asciiLowercase(url);
 
 		{
-			final Matcher matchRedditUploads = reddituploadsPattern.matcher(url);
-
-			if(matchRedditUploads.find()) {
-				final String imgId = matchRedditUploads.group(1);
-				if(imgId.length() > 10) {
-					return new ImageInfo(
-							url,
-							ImageInfo.MediaType.IMAGE,
-							ImageInfo.HasAudio.NO_AUDIO);
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.REDDIT_UPLOADS);
+			if(imgId != null && imgId.length() > 10) {
+				return new ImageInfo(
+						url,
+						ImageInfo.MediaType.IMAGE,
+						ImageInfo.HasAudio.NO_AUDIO);
 			}
 		}
 
 		{
-			final Matcher matchImgflip = imgflipPattern.matcher(url);
-
-			if(matchImgflip.find()) {
-				final String imgId = matchImgflip.group(1);
-				if(imgId.length() > 3) {
-					final String imageUrl = "https://i.imgflip.com/" + imgId + ".jpg";
-					return new ImageInfo(
-							imageUrl,
-							ImageInfo.MediaType.IMAGE,
-							ImageInfo.HasAudio.NO_AUDIO);
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.IMGFLIP);
+			if(imgId != null && imgId.length() > 3) {
+				final String imageUrl = "https://i.imgflip.com/" + imgId + ".jpg";
+				return new ImageInfo(
+						imageUrl,
+						ImageInfo.MediaType.IMAGE,
+						ImageInfo.HasAudio.NO_AUDIO);
 			}
 		}
 
 		{
-			final Matcher matchMakeameme = makeamemePattern.matcher(url);
-
-			if(matchMakeameme.find()) {
-				final String imgId = matchMakeameme.group(1);
-				if(imgId.length() > 3) {
-					final String imageUrl = "https://media.makeameme.org/created/"
-							+ imgId
-							+ ".jpg";
-					return new ImageInfo(
-							imageUrl,
-							ImageInfo.MediaType.IMAGE,
-							ImageInfo.HasAudio.NO_AUDIO);
-				}
+			final String imgId = links.getId(LinkClassifier.Provider.MAKEAMEME);
+			if(imgId != null && imgId.length() > 3) {
+				final String imageUrl = "https://media.makeameme.org/created/"
+						+ imgId
+						+ ".jpg";
+				return new ImageInfo(
+						imageUrl,
+						ImageInfo.MediaType.IMAGE,
+						ImageInfo.HasAudio.NO_AUDIO);
 			}
 		}
 
 		{
-			final Matcher matchGiphy = giphyPattern.matcher(url);
-
-			if(matchGiphy.find()) {
+			final String imgId = links.getId(LinkClassifier.Provider.GIPHY);
+			if(imgId != null) {
 				return new ImageInfo(
 						"https://media.giphy.com/media/"
-								+ matchGiphy.group(1)
+								+ imgId
 								+ "/giphy.mp4",
 						ImageInfo.MediaType.VIDEO,
 						ImageInfo.HasAudio.NO_AUDIO);
@@ -1189,40 +1093,31 @@ public class LinkHandler {
 			}
 		}
 
-		final Matcher matchQkme1 = qkmePattern1.matcher(url);
+		final String qkmeId1 = links.getId(LinkClassifier.Provider.QKME);
 
-		if(matchQkme1.find()) {
-			final String imgId = matchQkme1.group(1);
-			if(imgId.length() > 2) {
-				return new ImageInfo(String.format(
-						Locale.US,
-						"http://i.qkme.me/%s.jpg",
-						imgId), ImageInfo.MediaType.IMAGE, ImageInfo.HasAudio.NO_AUDIO);
-			}
+		if(qkmeId1 != null && qkmeId1.length() > 2) {
+			return new ImageInfo(String.format(
+					Locale.US,
+					"http://i.qkme.me/%s.jpg",
+					qkmeId1), ImageInfo.MediaType.IMAGE, ImageInfo.HasAudio.NO_AUDIO);
 		}
 
-		final Matcher matchQkme2 = qkmePattern2.matcher(url);
+		final String qkmeId2 = links.getId(LinkClassifier.Provider.QUICKMEME);
 
-		if(matchQkme2.find()) {
-			final String imgId = matchQkme2.group(1);
-			if(imgId.length() > 2) {
-				return new ImageInfo(String.format(
-						Locale.US,
-						"http://i.qkme.me/%s.jpg",
-						imgId), ImageInfo.MediaType.IMAGE, ImageInfo.HasAudio.NO_AUDIO);
-			}
+		if(qkmeId2 != null && qkmeId2.length() > 2) {
+			return new ImageInfo(String.format(
+					Locale.US,
+					"http://i.qkme.me/%s.jpg",
+					qkmeId2), ImageInfo.MediaType.IMAGE, ImageInfo.HasAudio.NO_AUDIO);
 		}
 
-		final Matcher matchLvme = lvmePattern.matcher(url);
+		final String lvmeId = links.getId(LinkClassifier.Provider.LIVEMEME);
 
-		if(matchLvme.find()) {
-			final String imgId = matchLvme.group(1);
-			if(imgId.length() > 2) {
-				return new ImageInfo(String.format(
-						Locale.US,
-						"http://www.livememe.com/%s.jpg",
-						imgId), ImageInfo.MediaType.IMAGE, ImageInfo.HasAudio.NO_AUDIO);
-			}
+		if(lvmeId != null && lvmeId.length() > 2) {
+			return new ImageInfo(String.format(
+					Locale.US,
+					"http://www.livememe.com/%s.jpg",
+					lvmeId), ImageInfo.MediaType.IMAGE, ImageInfo.HasAudio.NO_AUDIO);
 		}
 
 		return null;
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+
+// Runs tasks on a thread pool, and passes their results to a consumer in the order in which the
+// tasks were submitted. The consumer is only ever called by one thread at a time.
+public final class OrderedWorkQueue<E> {
+
+	@NonNull private final CachedThreadPool mThreadPool;
+	@NonNull private final Consumer<E> mConsumer;
+
+	private final Object mLock = new Object();
+
+	private final HashMap<Long, E> mCompleted = new HashMap<>();
+
+	private long mNextSubmitted = 0;
+	private long mNextConsumed = 0;
+	private boolean mConsuming = false;
+
+	@Nullable private Throwable mFailure;
+
+	public OrderedWorkQueue(
+			@NonNull final CachedThreadPool threadPool,
+			@NonNull final Consumer<E> consumer) {
+
+		mThreadPool = threadPool;
+		mConsumer = consumer;
+	}
+
+	public void submit(@NonNull final GenericFactory<E, RuntimeException> task) {
+
+		final long sequence;
+
+		synchronized(mLock) {
+			sequence = mNextSubmitted++;
+		}
+
+		mThreadPool.add(() -> {
+
+			E result = null;
+
+			try {
+				result = task.create();
+
+			} catch(final Throwable t) {
+				onFailure(t);
+
+			} finally {
+				// Always completes the sequence number, or awaitCompletion() would never return
+				onTaskFinished(sequence, result);
+			}
+		});
+	}
+
+	// Blocks until every submitted task has finished and been consumed. Rethrows the first
+	// exception thrown by a task or by the consumer, if any.
+	public void awaitCompletion() throws InterruptedException {
+
+		synchronized(mLock) {
+
+			while(mNextConsumed < mNextSubmitted || mConsuming) {
+				mLock.wait();
+			}
+
+			if(mFailure instanceof RuntimeException) {
+				throw (RuntimeException)mFailure;
+
+			} else if(mFailure instanceof Error) {
+				throw (Error)mFailure;
+
+			} else if(mFailure != null) {
+				throw new RuntimeException(mFailure);
+			}
+		}
+	}
+
+	private void onFailure(@NonNull final Throwable t) {
+		synchronized(mLock) {
+			if(mFailure == null) {
+				mFailure = t;
+			}
+		}
+	}
+
+	private void onTaskFinished(final long sequence, @Nullable final E result) {
+
+		synchronized(mLock) {
+
+			// A failed task leaves a gap, which is skipped over rather than consumed
+			mCompleted.put(sequence, result);
+
+			if(mConsuming) {
+				return;
+			}
+
+			mConsuming = true;
+		}
+
+		boolean stoppedConsuming = false;
+
+		try {
+			while(true) {
+
+				final E next;
+
+				synchronized(mLock) {
+
+					// Checked and cleared under the same lock as the mConsuming check above,
+					// so that no result is left unconsumed
+					if(!mCompleted.containsKey(mNextConsumed)) {
+						mConsuming = false;
+						stoppedConsuming = true;
+						mLock.notifyAll();
+						return;
+					}
+
+					next = mCompleted.remove(mNextConsumed);
+					mNextConsumed++;
+				}
+
+				if(next == null) {
+					continue;
+				}
+
+				try {
+					mConsumer.consume(next);
+
+				} catch(final Throwable t) {
+					onFailure(t);
+				}
+			}
+
+		} finally {
+			if(!stoppedConsuming) {
+				synchronized(mLock) {
+					mConsuming = false;
+					mLock.notifyAll();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Set;
+
+// An immutable copy of the preferences which are read while preparing or binding each post,
+// comment or message. Use PrefsUtility.snapshot() to get the current one: it is rebuilt
+// whenever a preference changes, so it shouldn't be held on to.
+public final class PrefsSnapshot {
+
+	@NonNull public final Set<PrefsUtility.AppearancePostSubtitleItem> postSubtitleItems;
+	public final int postAgeUnits;
+	public final boolean postHeaderUsesDifferentSettings;
+	@NonNull public final Set<PrefsUtility.AppearancePostSubtitleItem> postHeaderSubtitleItems;
+	public final int postHeaderAgeUnits;
+
+	public final float postFontScale;
+	public final float postSubtitleFontScale;
+	public final boolean postShowCommentsButton;
+	public final boolean postTitleOpensComments;
+	@NonNull public final PrefsUtility.PostFlingAction postFlingLeft;
+	@NonNull public final PrefsUtility.PostFlingAction postFlingRight;
+	public final int thumbnailSizeDp;
+
+	@NonNull public final PrefsUtility.CommentAgeMode commentAgeMode;
+	public final int commentAgeUnits;
+	public final float commentBodyFontScale;
+	public final float commentHeaderFontScale;
+	public final int commentMinHeight;
+	@NonNull public final PrefsUtility.CommentFlingAction commentFlingLeft;
+	@NonNull public final PrefsUtility.CommentFlingAction commentFlingRight;
+
+	public final int inboxAgeUnits;
+
+	public final boolean showLinkButtons;
+	public final boolean separateBodyTextLines;
+	public final boolean nsfwAllowed;
+
+	PrefsSnapshot() {
+
+		postSubtitleItems = Collections.unmodifiableSet(
+				PrefsUtility.appearance_post_subtitle_items());
+		postAgeUnits = PrefsUtility.appearance_post_age_units();
+		postHeaderUsesDifferentSettings
+				= PrefsUtility.appearance_post_subtitle_items_use_different_settings();
+		postHeaderSubtitleItems = Collections.unmodifiableSet(
+				PrefsUtility.appearance_post_header_subtitle_items());
+		postHeaderAgeUnits = PrefsUtility.appearance_post_header_age_units();
+
+		postFontScale = PrefsUtility.appearance_fontscale_posts();
+		postSubtitleFontScale = PrefsUtility.appearance_fontscale_post_subtitles();
+		postShowCommentsButton = PrefsUtility.appearance_post_show_comments_button();
+		postTitleOpensComments = PrefsUtility.pref_behaviour_post_title_opens_comments();
+		postFlingLeft = PrefsUtility.pref_behaviour_fling_post_left();
+		postFlingRight = PrefsUtility.pref_behaviour_fling_post_right();
+		thumbnailSizeDp = PrefsUtility.images_thumbnail_size_dp();
+
+		commentAgeMode = PrefsUtility.appearance_comment_age_mode();
+		commentAgeUnits = PrefsUtility.appearance_comment_age_units();
+		commentBodyFontScale = PrefsUtility.appearance_fontscale_bodytext();
+		commentHeaderFontScale = PrefsUtility.appearance_fontscale_comment_headers();
+		commentMinHeight = PrefsUtility.pref_accessibility_min_comment_height();
+		commentFlingLeft = PrefsUtility.pref_behaviour_fling_comment_left();
+		commentFlingRight = PrefsUtility.pref_behaviour_fling_comment_right();
+
+		inboxAgeUnits = PrefsUtility.appearance_inbox_age_units();
+
+		showLinkButtons = PrefsUtility.pref_appearance_linkbuttons();
+		separateBodyTextLines = PrefsUtility.pref_accessibility_separate_body_text_lines();
+		nsfwAllowed = PrefsUtility.pref_behaviour_nsfw();
+	}
+}
@@ -56,9 +56,23 @@ public final class PrefsUtility {
 	private static SharedPrefsWrapper sharedPrefs;
 	private static Resources mRes;
 
+	@NonNull private static final AtomicReference<PrefsSnapshot> mSnapshot
+			= new AtomicReference<>();
+
 	public static void init(final Context context, final Resources res) {
 		sharedPrefs = General.getSharedPrefs(context);
 		mRes = Objects.requireNonNull(res);
+
+		mSnapshot.set(new PrefsSnapshot());
+
+		// Listeners are called after the change has been applied in memory
+		sharedPrefs.registerOnSharedPreferenceChangeListener(
+				(prefs, key) -> mSnapshot.set(new PrefsSnapshot()));
+	}
+
+	@NonNull
+	public static PrefsSnapshot snapshot() {
+		return mSnapshot.get();
 	}
 
 	private static String getPrefKey(@StringRes final int prefKey) {
@@ -1210,6 +1224,22 @@ public final class PrefsUtility {
 				"168"));
 	}
 
+	// pref_cache_max_size
+
+	public static final long CACHE_MAX_SIZE_AUTOMATIC = -1;
+	public static final long CACHE_MAX_SIZE_UNLIMITED = 0;
+
+	// In megabytes, or one of the constants above
+	public static long pref_cache_max_size_mb() {
+		try {
+			return Long.parseLong(getString(
+					R.string.pref_cache_max_size_key,
+					"-1"));
+		} catch(final Throwable e) {
+			return CACHE_MAX_SIZE_AUTOMATIC;
+		}
+	}
+
 	// pref_cache_precache_images
 
 	public static NeverAlwaysOrWifiOnly cache_precache_images() {
@@ -18,12 +18,11 @@
 package org.quantumbadger.redreader.common;
 
 import androidx.annotation.NonNull;
-
-import java.util.ArrayList;
+import org.quantumbadger.redreader.common.collections.PriorityHeap;
 
 public class PrioritisedCachedThreadPool {
 
-	private final ArrayList<Task> mTasks = new ArrayList<>(16);
+	private final PriorityHeap<Task> mTasks = new PriorityHeap<>();
 	private final Executor mExecutor = new Executor();
 
 	private final int mMaxThreads;
@@ -41,7 +40,7 @@ public class PrioritisedCachedThreadPool {
 	public void add(final Task task) {
 
 		synchronized(mTasks) {
-			mTasks.add(task);
+			mTasks.add(task, task.getPriority());
 			mTasks.notifyAll();
 
 			if(mIdleThreads < 1 && mRunningThreads < mMaxThreads) {
@@ -51,6 +50,22 @@ public class PrioritisedCachedThreadPool {
 		}
 	}
 
+	// Removes a task which has not started running yet. Returns false if the task has already
+	// been started, or was never added.
+	public boolean remove(final Task task) {
+		synchronized(mTasks) {
+			return mTasks.remove(task);
+		}
+	}
+
+	// Should be called when the value returned by a queued task's getPriority() changes.
+	// Returns false if the task has already been started, or was never added.
+	public boolean onPriorityChanged(final Task task) {
+		synchronized(mTasks) {
+			return mTasks.updatePriority(task, task.getPriority());
+		}
+	}
+
 	public static abstract class Task {
 
 		@NonNull public abstract Priority getPriority();
@@ -87,16 +102,7 @@ public class PrioritisedCachedThreadPool {
 						}
 					}
 
-					int taskIndex = -1;
-					for(int i = 0; i < mTasks.size(); i++) {
-						if(taskToRun == null || mTasks.get(i).getPriority()
-								.isHigherPriorityThan(taskToRun.getPriority())) {
-							taskToRun = mTasks.get(i);
-							taskIndex = i;
-						}
-					}
-
-					mTasks.remove(taskIndex);
+					taskToRun = mTasks.poll();
 				}
 
 				assert taskToRun != null;
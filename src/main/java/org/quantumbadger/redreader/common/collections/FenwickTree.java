@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.collections;
+
+import java.util.Arrays;
+
+// A list of non-negative integers, supporting prefix sums and searches in O(log n) time
+public class FenwickTree {
+
+	private int[] mValues;
+	private int[] mTree; // 1-based
+	private int mSize;
+
+	public FenwickTree() {
+		this(16);
+	}
+
+	public FenwickTree(final int initialCapacity) {
+		mValues = new int[Math.max(1, initialCapacity)];
+		mTree = new int[mValues.length + 1];
+		mSize = 0;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public int get(final int index) {
+		checkIndex(index);
+		return mValues[index];
+	}
+
+	public void add(final int value) {
+
+		if(value < 0) {
+			throw new IllegalArgumentException("Negative value " + value);
+		}
+
+		if(mSize == mValues.length) {
+			mValues = Arrays.copyOf(mValues, mValues.length * 2);
+			rebuild();
+		}
+
+		mSize++;
+		set(mSize - 1, value);
+	}
+
+	public void set(final int index, final int value) {
+
+		checkIndex(index);
+
+		if(value < 0) {
+			throw new IllegalArgumentException("Negative value " + value);
+		}
+
+		final int delta = value - mValues[index];
+
+		if(delta == 0) {
+			return;
+		}
+
+		mValues[index] = value;
+
+		for(int i = index + 1; i < mTree.length; i += i & -i) {
+			mTree[i] += delta;
+		}
+	}
+
+	// O(n), as all following values must be moved
+	public void remove(final int index) {
+
+		checkIndex(index);
+
+		System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+		mSize--;
+		mValues[mSize] = 0;
+
+		rebuild();
+	}
+
+	public void clear() {
+		Arrays.fill(mValues, 0, mSize, 0);
+		Arrays.fill(mTree, 0);
+		mSize = 0;
+	}
+
+	// Returns the sum of the first "count" values
+	public int prefixSum(final int count) {
+
+		if(count < 0 || count > mSize) {
+			throw new IndexOutOfBoundsException("Count " + count + ", size " + mSize);
+		}
+
+		int result = 0;
+
+		for(int i = count; i > 0; i -= i & -i) {
+			result += mTree[i];
+		}
+
+		return result;
+	}
+
+	public int total() {
+		return prefixSum(mSize);
+	}
+
+	// Returns the smallest index for which prefixSum(index + 1) > sum, or -1 if there is none.
+	// For a tree of zeros and ones, this is the index of the (sum + 1)th one.
+	public int indexOfPrefixSumExceeding(final int sum) {
+
+		if(sum < 0) {
+			throw new IllegalArgumentException("Negative sum " + sum);
+		}
+
+		int position = 0;
+		int remaining = sum;
+
+		for(int step = Integer.highestOneBit(mTree.length - 1); step > 0; step >>= 1) {
+
+			final int next = position + step;
+
+			if(next < mTree.length && mTree[next] <= remaining) {
+				position = next;
+				remaining -= mTree[next];
+			}
+		}
+
+		if(position >= mSize) {
+			return -1;
+		}
+
+		return position;
+	}
+
+	private void rebuild() {
+
+		mTree = new int[mValues.length + 1];
+
+		for(int i = 1; i < mTree.length; i++) {
+
+			if(i <= mSize) {
+				mTree[i] += mValues[i - 1];
+			}
+
+			final int parent = i + (i & -i);
+
+			if(parent < mTree.length) {
+				mTree[parent] += mTree[i];
+			}
+		}
+	}
+
+	private void checkIndex(final int index) {
+		if(index < 0 || index >= mSize) {
+			throw new IndexOutOfBoundsException("Index " + index + ", size " + mSize);
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.collections;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.Priority;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// A binary heap of distinct values, ordered by Priority. Values with equal priorities are
+// returned in the order they were added. Adding, polling, removing, and changing the priority
+// of a value all take O(log n) time. Not thread safe.
+public class PriorityHeap<E> {
+
+	public interface Prioritiser<E> {
+		@NonNull Priority getPriority(@NonNull E value);
+	}
+
+	private static final class Node<E> {
+
+		@NonNull private final E mValue;
+		private final long mSequence;
+
+		@NonNull private Priority mPriority;
+		private int mIndex;
+
+		private Node(
+				@NonNull final E value,
+				@NonNull final Priority priority,
+				final long sequence) {
+
+			mValue = value;
+			mPriority = priority;
+			mSequence = sequence;
+		}
+
+		private boolean isBefore(@NonNull final Node<E> other) {
+
+			if(mPriority.isHigherPriorityThan(other.mPriority)) {
+				return true;
+			}
+
+			if(other.mPriority.isHigherPriorityThan(mPriority)) {
+				return false;
+			}
+
+			return mSequence < other.mSequence;
+		}
+	}
+
+	private final ArrayList<Node<E>> mHeap = new ArrayList<>(16);
+	private final HashMap<E, Node<E>> mNodes = new HashMap<>(16);
+
+	private long mNextSequence = 0;
+
+	public int size() {
+		return mHeap.size();
+	}
+
+	public boolean isEmpty() {
+		return mHeap.isEmpty();
+	}
+
+	public boolean contains(@NonNull final E value) {
+		return mNodes.containsKey(value);
+	}
+
+	// Returns false if the value was already in the heap
+	public boolean add(@NonNull final E value, @NonNull final Priority priority) {
+
+		if(mNodes.containsKey(value)) {
+			return false;
+		}
+
+		final Node<E> node = new Node<>(value, priority, mNextSequence++);
+		mNodes.put(value, node);
+
+		node.mIndex = mHeap.size();
+		mHeap.add(node);
+		siftUp(node.mIndex);
+
+		return true;
+	}
+
+	@Nullable
+	public E peek() {
+		return mHeap.isEmpty() ? null : mHeap.get(0).mValue;
+	}
+
+	@Nullable
+	public E poll() {
+
+		if(mHeap.isEmpty()) {
+			return null;
+		}
+
+		final Node<E> head = mHeap.get(0);
+		removeAt(0);
+		return head.mValue;
+	}
+
+	// Returns false if the value was not in the heap
+	public boolean remove(@NonNull final E value) {
+
+		final Node<E> node = mNodes.get(value);
+
+		if(node == null) {
+			return false;
+		}
+
+		removeAt(node.mIndex);
+		return true;
+	}
+
+	// Moves the value to its new position. Among values of equal priority, it keeps its
+	// original place in the order. Returns false if the value was not in the heap.
+	public boolean updatePriority(@NonNull final E value, @NonNull final Priority priority) {
+
+		final Node<E> node = mNodes.get(value);
+
+		if(node == null) {
+			return false;
+		}
+
+		node.mPriority = priority;
+
+		if(!siftUp(node.mIndex)) {
+			siftDown(node.mIndex);
+		}
+
+		return true;
+	}
+
+	// Recalculates the priority of every value, and rebuilds the heap in O(n) time
+	public void updateAllPriorities(@NonNull final Prioritiser<E> prioritiser) {
+
+		for(final Node<E> node : mHeap) {
+			node.mPriority = prioritiser.getPriority(node.mValue);
+		}
+
+		for(int index = mHeap.size() / 2 - 1; index >= 0; index--) {
+			siftDown(index);
+		}
+	}
+
+	public void clear() {
+		mHeap.clear();
+		mNodes.clear();
+	}
+
+	private void removeAt(final int index) {
+
+		final Node<E> removed = mHeap.get(index);
+		mNodes.remove(removed.mValue);
+
+		final Node<E> last = mHeap.remove(mHeap.size() - 1);
+
+		if(last != removed) {
+			set(index, last);
+
+			if(!siftUp(index)) {
+				siftDown(index);
+			}
+		}
+	}
+
+	private void set(final int index, @NonNull final Node<E> node) {
+		mHeap.set(index, node);
+		node.mIndex = index;
+	}
+
+	// Returns true if the node moved
+	private boolean siftUp(final int startIndex) {
+
+		final Node<E> node = mHeap.get(startIndex);
+		int index = startIndex;
+
+		while(index > 0) {
+
+			final int parentIndex = (index - 1) / 2;
+			final Node<E> parent = mHeap.get(parentIndex);
+
+			if(!node.isBefore(parent)) {
+				break;
+			}
+
+			set(index, parent);
+			index = parentIndex;
+		}
+
+		set(index, node);
+		return index != startIndex;
+	}
+
+	private void siftDown(final int startIndex) {
+
+		final Node<E> node = mHeap.get(startIndex);
+		final int size = mHeap.size();
+		int index = startIndex;
+
+		while(true) {
+
+			final int leftIndex = index * 2 + 1;
+
+			if(leftIndex >= size) {
+				break;
+			}
+
+			final int rightIndex = leftIndex + 1;
+
+			final int childIndex = rightIndex < size
+					&& mHeap.get(rightIndex).isBefore(mHeap.get(leftIndex))
+							? rightIndex
+							: leftIndex;
+
+			final Node<E> child = mHeap.get(childIndex);
+
+			if(!child.isBefore(node)) {
+				break;
+			}
+
+			set(index, child);
+			index = childIndex;
+		}
+
+		set(index, node);
+	}
+}
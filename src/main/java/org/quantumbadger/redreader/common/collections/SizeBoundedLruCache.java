@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.collections;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A least-recently-used cache, bounded by the total size of its values rather than their
+// count. Thread safe.
+public class SizeBoundedLruCache<K, V> {
+
+	public interface Sizer<V> {
+		long sizeOf(@NonNull V value);
+	}
+
+	private final LinkedHashMap<K, V> mEntries = new LinkedHashMap<>(32, 0.75f, true);
+
+	@NonNull private final Sizer<V> mSizer;
+	private final long mMaxSize;
+
+	private long mSize;
+
+	public SizeBoundedLruCache(final long maxSize, @NonNull final Sizer<V> sizer) {
+		mMaxSize = maxSize;
+		mSizer = sizer;
+	}
+
+	@Nullable
+	public synchronized V get(@NonNull final K key) {
+		return mEntries.get(key);
+	}
+
+	// Values larger than the whole cache are not stored
+	public synchronized void put(@NonNull final K key, @NonNull final V value) {
+
+		final long size = mSizer.sizeOf(value);
+
+		remove(key);
+
+		if(size > mMaxSize) {
+			return;
+		}
+
+		mEntries.put(key, value);
+		mSize += size;
+
+		final Iterator<Map.Entry<K, V>> iterator = mEntries.entrySet().iterator();
+
+		while(mSize > mMaxSize && iterator.hasNext()) {
+			mSize -= mSizer.sizeOf(iterator.next().getValue());
+			iterator.remove();
+		}
+	}
+
+	@Nullable
+	public synchronized V remove(@NonNull final K key) {
+
+		final V removed = mEntries.remove(key);
+
+		if(removed != null) {
+			mSize -= mSizer.sizeOf(removed);
+		}
+
+		return removed;
+	}
+
+	public synchronized void clear() {
+		mEntries.clear();
+		mSize = 0;
+	}
+
+	public synchronized int count() {
+		return mEntries.size();
+	}
+
+	public synchronized long size() {
+		return mSize;
+	}
+}
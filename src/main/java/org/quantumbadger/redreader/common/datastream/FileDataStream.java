@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.datastream;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.GenericFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+// Like MemoryDataStream, but the data is written through to a file as it arrives. Readers tail
+// the file, and only the most recently written bytes are kept in memory (in a fixed-size ring
+// buffer), so memory usage doesn't depend on the size of the stream.
+public final class FileDataStream {
+
+	private final Object mLock = new Object();
+
+	@NonNull private final ByteArrayCallback mSink;
+	@NonNull private File mFile;
+
+	@NonNull private final byte[] mRecent;
+	private long mSize;
+
+	@Nullable private IOException mFailed;
+	private boolean mComplete;
+
+	// Bytes passed to the sink must be readable from the file as soon as the sink returns
+	public FileDataStream(
+			@NonNull final File file,
+			@NonNull final ByteArrayCallback sink,
+			final int ringBufferCapacity) {
+
+		if(ringBufferCapacity < 1) {
+			throw new RuntimeException("Ring buffer capacity must be at least 1");
+		}
+
+		mFile = file;
+		mSink = sink;
+		mRecent = new byte[ringBufferCapacity];
+		mSize = 0;
+	}
+
+	public long size() {
+		synchronized(mLock) {
+			return mSize;
+		}
+	}
+
+	// Only one thread may write to the stream
+	public void writeBytes(
+			@NonNull final byte[] data,
+			final int offset,
+			final int length) throws IOException {
+
+		mSink.onByteArray(data, offset, length);
+
+		synchronized(mLock) {
+
+			final int bytesToKeep = Math.min(length, mRecent.length);
+			final int srcOffset = offset + length - bytesToKeep;
+
+			long dstPosition = mSize + length - bytesToKeep;
+			int bytesCopied = 0;
+
+			while(bytesCopied < bytesToKeep) {
+
+				final int ringOffset = (int)(dstPosition % mRecent.length);
+
+				final int bytesToCopy = Math.min(
+						bytesToKeep - bytesCopied,
+						mRecent.length - ringOffset);
+
+				System.arraycopy(
+						data,
+						srcOffset + bytesCopied,
+						mRecent,
+						ringOffset,
+						bytesToCopy);
+
+				bytesCopied += bytesToCopy;
+				dstPosition += bytesToCopy;
+			}
+
+			mSize += length;
+			mLock.notifyAll();
+		}
+	}
+
+	// The finisher may move the file, and must return its new location. No new readers can be
+	// opened while the finisher is running.
+	public void setComplete(
+			@NonNull final GenericFactory<File, IOException> finisher) throws IOException {
+
+		synchronized(mLock) {
+
+			try {
+				mFile = finisher.create();
+
+			} catch(final IOException e) {
+				mFailed = e;
+				mLock.notifyAll();
+				throw e;
+			}
+
+			mComplete = true;
+			mLock.notifyAll();
+		}
+	}
+
+	public void setFailed(@NonNull final IOException e) {
+		synchronized(mLock) {
+			mFailed = e;
+			mLock.notifyAll();
+		}
+	}
+
+	@NonNull
+	RandomAccessFile openFile() throws IOException {
+		synchronized(mLock) {
+
+			if(mFailed != null) {
+				throw mFailed;
+			}
+
+			return new RandomAccessFile(mFile, "r");
+		}
+	}
+
+	// Returns the location of the file once it has been completely written and moved into place
+	@NonNull
+	File waitForCompleteFile() throws IOException {
+		synchronized(mLock) {
+
+			while(!mComplete && mFailed == null) {
+				try {
+					mLock.wait();
+				} catch(final InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			if(mFailed != null) {
+				throw mFailed;
+			}
+
+			return mFile;
+		}
+	}
+
+	private boolean notReadyForRead(final long startingPosition) {
+		return !mComplete && mFailed == null && mSize <= startingPosition;
+	}
+
+	int blockingRead(
+			@NonNull final RandomAccessFile file,
+			final long startingPosition,
+			@NonNull final byte[] output,
+			final int offset,
+			final int maxLength) throws IOException {
+
+		if(maxLength == 0) {
+			throw new RuntimeException("Attempted to read zero bytes");
+		}
+
+		final int bytesToRead;
+
+		synchronized(mLock) {
+
+			while(notReadyForRead(startingPosition)) {
+				try {
+					mLock.wait();
+				} catch(final InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			if(mFailed != null) {
+				throw mFailed;
+			}
+
+			if(mSize <= startingPosition) {
+
+				if(mComplete) {
+					return -1;
+				}
+
+				throw new IOException("Internal error: ready conditions not true");
+			}
+
+			bytesToRead = (int)Math.min(maxLength, mSize - startingPosition);
+
+			if(startingPosition >= mSize - Math.min(mSize, mRecent.length)) {
+
+				// Still in the ring buffer, no need to touch the disk
+
+				int bytesCopied = 0;
+
+				while(bytesCopied < bytesToRead) {
+
+					final int ringOffset
+							= (int)((startingPosition + bytesCopied) % mRecent.length);
+
+					final int bytesToCopy = Math.min(
+							bytesToRead - bytesCopied,
+							mRecent.length - ringOffset);
+
+					System.arraycopy(
+							mRecent,
+							ringOffset,
+							output,
+							offset + bytesCopied,
+							bytesToCopy);
+
+					bytesCopied += bytesToCopy;
+				}
+
+				return bytesToRead;
+			}
+		}
+
+		// The requested range has already been written to the file
+
+		file.seek(startingPosition);
+		return file.read(output, offset, bytesToRead);
+	}
+
+	@NonNull
+	public FileDataStreamInputStream getInputStream() throws IOException {
+		return new FileDataStreamInputStream(this);
+	}
+}
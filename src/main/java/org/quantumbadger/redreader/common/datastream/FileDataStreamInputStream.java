@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.datastream;
+
+import androidx.annotation.NonNull;
+import org.quantumbadger.redreader.common.General;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class FileDataStreamInputStream extends SeekableInputStream {
+
+	@NonNull private final FileDataStream mStream;
+	@NonNull private final RandomAccessFile mFile;
+	private long mPosition;
+
+	public FileDataStreamInputStream(@NonNull final FileDataStream stream) throws IOException {
+		mStream = stream;
+		mFile = stream.openFile();
+		mPosition = 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		final byte[] buf = new byte[1];
+		final int bytesRead = read(buf, 0, 1);
+
+		if(bytesRead <= 0) {
+			return -1;
+		}
+
+		return buf[0] & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] buf) throws IOException {
+		return read(buf, 0, buf.length);
+	}
+
+	@Override
+	public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+		final int bytesRead = mStream.blockingRead(mFile, mPosition, buf, off, len);
+
+		if(bytesRead > 0) {
+			mPosition += bytesRead;
+		}
+
+		return bytesRead;
+	}
+
+	@NonNull
+	@Override
+	public File waitForCompleteFile() throws IOException {
+		return mStream.waitForCompleteFile();
+	}
+
+	@Override
+	public long getPosition() {
+		return mPosition;
+	}
+
+	@Override
+	public void seek(final long position) throws IOException {
+
+		if(position < 0) {
+			throw new IOException("Attempted to seek before zero");
+		}
+
+		mPosition = position;
+	}
+
+	@Override
+	public long skip(final long offset) {
+		final long bytesToSkip = Math.min(offset, Math.max(0, mStream.size() - mPosition));
+		mPosition += bytesToSkip;
+		return bytesToSkip;
+	}
+
+	@Override
+	public int available() {
+		return (int)Math.min(Integer.MAX_VALUE, Math.max(0, mStream.size() - mPosition));
+	}
+
+	@Override
+	public void close() throws IOException {
+		mFile.close();
+	}
+
+	@Override
+	public void readRemainingAsBytes(@NonNull final ByteArrayCallback callback) throws IOException {
+		final byte[] result = General.readWholeStream(this);
+		callback.onByteArray(result, 0, result.length);
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.datastream;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Reads directly from the page cache, with no system call or buffer copy per read
+public class MappedFileInputStream extends SeekableInputStream {
+
+	@NonNull private final File mFile;
+	@NonNull private final MappedByteBuffer mBuffer;
+
+	public MappedFileInputStream(@NonNull final File file) throws IOException {
+
+		mFile = file;
+
+		try(RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+
+			final FileChannel channel = raf.getChannel();
+			final long size = channel.size();
+
+			if(size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to map: " + size);
+			}
+
+			// The mapping remains valid after the channel is closed
+			mBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+
+	@Override
+	public long getPosition() {
+		return mBuffer.position();
+	}
+
+	@Override
+	public void seek(final long position) throws IOException {
+
+		if(position < 0 || position > mBuffer.limit()) {
+			throw new IOException("Seek position out of range: " + position);
+		}
+
+		mBuffer.position((int)position);
+	}
+
+	@Override
+	public void readRemainingAsBytes(@NonNull final ByteArrayCallback callback) throws IOException {
+
+		final byte[] result = new byte[mBuffer.remaining()];
+		mBuffer.get(result);
+		callback.onByteArray(result, 0, result.length);
+	}
+
+	@NonNull
+	@Override
+	public File waitForCompleteFile() {
+		return mFile;
+	}
+
+	@Override
+	public int read() {
+
+		if(!mBuffer.hasRemaining()) {
+			return -1;
+		}
+
+		return mBuffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] buf) throws IOException {
+		return read(buf, 0, buf.length);
+	}
+
+	@Override
+	public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+		if(len == 0) {
+			throw new IOException("Attempted to read zero bytes");
+		}
+
+		if(!mBuffer.hasRemaining()) {
+			return -1;
+		}
+
+		final int bytesToRead = Math.min(len, mBuffer.remaining());
+		mBuffer.get(buf, off, bytesToRead);
+		return bytesToRead;
+	}
+
+	@Override
+	public long skip(final long n) {
+
+		if(n <= 0) {
+			return 0;
+		}
+
+		final int bytesToSkip = (int)Math.min(n, mBuffer.remaining());
+		mBuffer.position(mBuffer.position() + bytesToSkip);
+		return bytesToSkip;
+	}
+
+	@Override
+	public int available() {
+		return mBuffer.remaining();
+	}
+
+	@Override
+	public void close() {
+		// Nothing to do: the mapping is released when the buffer is garbage collected
+	}
+}
@@ -27,10 +27,12 @@ import java.io.RandomAccessFile;
 
 public class SeekableFileInputStream extends SeekableInputStream {
 
+	@NonNull private final File mPath;
 	@NonNull private final RandomAccessFile mFile;
 	private long mPosition;
 
 	public SeekableFileInputStream(@NonNull final File file) throws FileNotFoundException {
+		mPath = file;
 		mFile = new RandomAccessFile(file, "r");
 	}
 
@@ -51,6 +53,12 @@ public class SeekableFileInputStream extends SeekableInputStream {
 		callback.onByteArray(result, 0, result.length);
 	}
 
+	@NonNull
+	@Override
+	public File waitForCompleteFile() {
+		return mPath;
+	}
+
 	@Override
 	public int read() throws IOException {
 
@@ -18,7 +18,9 @@
 package org.quantumbadger.redreader.common.datastream;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -47,4 +49,11 @@ public abstract class SeekableInputStream extends InputStream {
 
 	public abstract void readRemainingAsBytes(
 			@NonNull ByteArrayCallback callback) throws IOException;
+
+	// The uncompressed file holding the whole of the stream, if there is one, so that it can be
+	// opened by path. Waits for the file to be completely written.
+	@Nullable
+	public File waitForCompleteFile() throws IOException {
+		return null;
+	}
 }
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.datastream;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.GenericFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Wraps a stream which can only be read forwards, such as a decompressor. Seeking forwards
+// discards data, and seeking backwards reopens the underlying stream, so at no point is the
+// whole content held in memory.
+public class StreamingSeekableInputStream extends SeekableInputStream {
+
+	@NonNull private final GenericFactory<InputStream, IOException> mStreamFactory;
+
+	@Nullable private InputStream mStream;
+	private long mPosition;
+	private boolean mClosed;
+
+	@Nullable private byte[] mSkipBuffer;
+
+	public StreamingSeekableInputStream(
+			@NonNull final GenericFactory<InputStream, IOException> streamFactory)
+			throws IOException {
+
+		mStreamFactory = streamFactory;
+		mStream = streamFactory.create();
+	}
+
+	@NonNull
+	private InputStream getStream() throws IOException {
+
+		if(mClosed || mStream == null) {
+			throw new IOException("Stream closed");
+		}
+
+		return mStream;
+	}
+
+	@Override
+	public long getPosition() {
+		return mPosition;
+	}
+
+	@Override
+	public void seek(final long position) throws IOException {
+
+		if(position < 0) {
+			throw new IOException("Seek position out of range: " + position);
+		}
+
+		if(position < mPosition) {
+			getStream().close();
+			mStream = null;
+			mStream = mStreamFactory.create();
+			mPosition = 0;
+		}
+
+		final long bytesToSkip = position - mPosition;
+
+		if(skip(bytesToSkip) < bytesToSkip) {
+			throw new IOException("Seek position beyond end of stream: " + position);
+		}
+	}
+
+	@Override
+	public void readRemainingAsBytes(@NonNull final ByteArrayCallback callback) throws IOException {
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(32, available()));
+		final byte[] buf = new byte[64 * 1024];
+
+		int bytesRead;
+
+		while((bytesRead = read(buf, 0, buf.length)) > 0) {
+			output.write(buf, 0, bytesRead);
+		}
+
+		final byte[] result = output.toByteArray();
+		callback.onByteArray(result, 0, result.length);
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		final int result = getStream().read();
+
+		if(result >= 0) {
+			mPosition++;
+		}
+
+		return result;
+	}
+
+	@Override
+	public int read(final byte[] buf) throws IOException {
+		return read(buf, 0, buf.length);
+	}
+
+	@Override
+	public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+		if(len == 0) {
+			throw new IOException("Attempted to read zero bytes");
+		}
+
+		final int result = getStream().read(buf, off, len);
+
+		if(result > 0) {
+			mPosition += result;
+		}
+
+		return result;
+	}
+
+	// Decompressors don't always implement skip() efficiently, so read into a scratch buffer
+	@Override
+	public long skip(final long n) throws IOException {
+
+		if(n <= 0) {
+			return 0;
+		}
+
+		if(mSkipBuffer == null) {
+			mSkipBuffer = new byte[16 * 1024];
+		}
+
+		long skipped = 0;
+
+		while(skipped < n) {
+
+			final int result
+					= read(mSkipBuffer, 0, (int)Math.min(n - skipped, mSkipBuffer.length));
+
+			if(result <= 0) {
+				break;
+			}
+
+			skipped += result;
+		}
+
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return getStream().available();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if(!mClosed) {
+			mClosed = true;
+
+			if(mStream != null) {
+				mStream.close();
+				mStream = null;
+			}
+		}
+	}
+}
@@ -609,7 +609,7 @@ public class CommentListingFragment extends RRFragment
 	}
 
 	@Override
-	public void onCommentListingRequestAllItemsDownloaded(
+	public void onCommentListingRequestItemsDownloaded(
 			final ArrayList<RedditCommentListItem> items) {
 
 		mCommentListingManager.addComments(items);
@@ -623,8 +623,6 @@ public class CommentListingFragment extends RRFragment
 			mFloatingToolbar.startAnimation(animation);
 		}
 
-		mUrlsToDownload.removeFirst();
-
 		final LinearLayoutManager layoutManager
 				= (LinearLayoutManager)mRecyclerView.getLayoutManager();
 
@@ -637,6 +635,15 @@ public class CommentListingFragment extends RRFragment
 
 			mPreviousFirstVisibleItemPosition = null;
 		}
+	}
+
+	@Override
+	public void onCommentListingRequestAllItemsDownloaded(
+			final ArrayList<RedditCommentListItem> items) {
+
+		onCommentListingRequestItemsDownloaded(items);
+
+		mUrlsToDownload.removeFirst();
 
 		if(mUrlsToDownload.isEmpty()) {
 
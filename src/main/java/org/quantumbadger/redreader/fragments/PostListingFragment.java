@@ -44,18 +44,19 @@ import org.quantumbadger.redreader.adapters.PostListingManager;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
 import org.quantumbadger.redreader.cache.CacheRequestCallbacks;
-import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
+import org.quantumbadger.redreader.cache.CacheRequestListingParser;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategy;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyAlways;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfNotCached;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfTimestampOutsideBounds;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyNever;
 import org.quantumbadger.redreader.common.AndroidCommon;
+import org.quantumbadger.redreader.common.CachedThreadPool;
 import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.FileUtils;
 import org.quantumbadger.redreader.common.General;
-import org.quantumbadger.redreader.common.LinkHandler;
 import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.OrderedWorkQueue;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
@@ -64,16 +65,15 @@ import org.quantumbadger.redreader.common.TimestampBound;
 import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.image.GetImageInfoListener;
 import org.quantumbadger.redreader.image.ImageInfo;
+import org.quantumbadger.redreader.image.ImageInfoResolver;
 import org.quantumbadger.redreader.io.RequestResponseHandler;
-import org.quantumbadger.redreader.jsonwrap.JsonArray;
-import org.quantumbadger.redreader.jsonwrap.JsonObject;
-import org.quantumbadger.redreader.jsonwrap.JsonValue;
 import org.quantumbadger.redreader.listingcontrollers.CommentListingController;
 import org.quantumbadger.redreader.reddit.PostSort;
 import org.quantumbadger.redreader.reddit.RedditPostListItem;
 import org.quantumbadger.redreader.reddit.RedditSubredditManager;
 import org.quantumbadger.redreader.reddit.api.RedditSubredditSubscriptionManager;
 import org.quantumbadger.redreader.reddit.api.SubredditRequestFailure;
+import org.quantumbadger.redreader.reddit.prepared.RedditChangeDataManager;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditPreparedPost;
 import org.quantumbadger.redreader.reddit.things.InvalidSubredditNameException;
@@ -86,6 +86,7 @@ import org.quantumbadger.redreader.reddit.url.PostListingURL;
 import org.quantumbadger.redreader.reddit.url.RedditURLParser;
 import org.quantumbadger.redreader.reddit.url.SearchPostListURL;
 import org.quantumbadger.redreader.reddit.url.SubredditPostListURL;
+import org.quantumbadger.redreader.search.OfflineSearchIndex;
 import org.quantumbadger.redreader.views.PostListingHeader;
 import org.quantumbadger.redreader.views.RedditPostView;
 import org.quantumbadger.redreader.views.ScrollbarRecyclerViewManager;
@@ -99,12 +100,19 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PostListingFragment extends RRFragment
 		implements RedditPostView.PostSelectionListener {
 
 	private static final String TAG = "PostListingFragment";
 
+	private static final int PREPARE_THREADS
+			= Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	private static final CachedThreadPool PREPARE_THREAD_POOL
+			= new CachedThreadPool(PREPARE_THREADS, "Post preparation");
+
 	private static final String SAVEDSTATE_FIRST_VISIBLE_POS = "firstVisiblePosition";
 
 	@NonNull private PostListingURL mPostListingURL;
@@ -647,348 +655,449 @@ public class PostListingFragment extends RRFragment
 				Constants.FileType.POST_LIST,
 				CacheRequest.DOWNLOAD_QUEUE_REDDIT_API,
 				activity,
-				new CacheRequestJSONParser(activity, new CacheRequestJSONParser.Listener() {
+				new CacheRequestListingParser(
+						activity,
+						new PostListingParserListener(activity, url, firstDownload),
+						OfflineSearchIndex.getInstance(activity).createListingIndexer()));
+	}
 
-					@Override
-					public void onJsonParsed(
-							@NonNull final JsonValue value,
-							final long timestamp,
-							@NonNull final UUID session,
-							final boolean fromCache) {
-
-						final BaseActivity activity = (BaseActivity)getActivity();
-
-						// One hour (matches default refresh value)
-						if(firstDownload && fromCache && RRTime.since(timestamp) > 60 * 60 * 1000) {
-							AndroidCommon.UI_THREAD_HANDLER.post(() -> {
-
-								final TextView cacheNotif
-										= (TextView)LayoutInflater.from(activity).inflate(
-										R.layout.cached_header,
-										null,
-										false);
-
-								cacheNotif.setText(getActivity().getString(
-										R.string.listing_cached,
-										RRTime.formatDateTime(timestamp, getActivity())));
-
-								mPostListingManager.addNotification(cacheNotif);
-							});
-						} // TODO resuming a copy
-
-						if(firstDownload) {
-							((SessionChangeListener)activity).onSessionChanged(
-									session,
-									SessionChangeListener.SessionChangeType.POSTS,
-									timestamp);
-							PostListingFragment.this.mSession = session;
-							PostListingFragment.this.mTimestamp = timestamp;
-						}
+	// Prepares each post as soon as the parser reaches it, and adds them to the listing in
+	// small batches so that the first posts can be shown before the download completes.
+	//
+	// Posts are filtered in order on the parser thread, prepared in parallel on
+	// PREPARE_THREAD_POOL, and then handed back in their original order to be batched up for the
+	// UI thread.
+	private final class PostListingParserListener implements CacheRequestListingParser.Listener {
+
+		private static final int POST_BATCH_SIZE = 5;
+
+		@NonNull private final AppCompatActivity mActivity;
+		@NonNull private final Uri mUrl;
+		private final boolean mFirstDownload;
+
+		private long mListingTimestamp;
+
+		private boolean mIsNsfwAllowed;
+		private boolean mHideReadPosts;
+		private boolean mInlinePreviews;
+		private boolean mShowNsfwPreviews;
+		private boolean mShowSpoilerPreviews;
+		private boolean mDownloadThumbnails;
+		private boolean mAllowHighResThumbnails;
+		private boolean mShowNsfwThumbnails;
+		private boolean mShowSpoilerThumbnails;
+		private boolean mPrecacheImages;
+		private boolean mPrecacheComments;
+		private PrefsUtility.ImageViewMode mImageViewMode;
+		private PrefsUtility.GifViewMode mGifViewMode;
+		private PrefsUtility.VideoViewMode mVideoViewMode;
+		private boolean mLeftHandedMode;
+		private boolean mSubredditFilteringEnabled;
+		private HashSet<SubredditCanonicalId> mBlockedSubreddits;
+		private boolean mShowSubredditName;
+		private CacheManager mCacheManager;
+		private RedditChangeDataManager mChangeDataManager;
+
+		@NonNull private final OrderedWorkQueue<RedditPreparedPost> mPrepareQueue
+				= new OrderedWorkQueue<>(PREPARE_THREAD_POOL, this::onPostPrepared);
+
+		private long mStartTimeNanos;
+		private long mFilterNanos;
+		private final AtomicLong mPrepareNanos = new AtomicLong();
+		private long mRenderDataNanos;
+
+		@NonNull private ArrayList<RedditPostListItem> mBatch = new ArrayList<>(POST_BATCH_SIZE);
+
+		// Resolved together with each batch of posts
+		@NonNull private ArrayList<ImageInfoResolver.Lookup> mImageInfoLookups
+				= new ArrayList<>(POST_BATCH_SIZE);
+
+		private PostListingParserListener(
+				@NonNull final AppCompatActivity activity,
+				@NonNull final Uri url,
+				final boolean firstDownload) {
 
-						// TODO {"error": 403} is received for unauthorized subreddits
+			mActivity = activity;
+			mUrl = url;
+			mFirstDownload = firstDownload;
+		}
 
-						try {
+		@Override
+		public void onListingStarted(
+				final long timestamp,
+				@NonNull final UUID session,
+				final boolean fromCache) {
+
+			mStartTimeNanos = System.nanoTime();
+			mListingTimestamp = timestamp;
+
+			final BaseActivity activity = (BaseActivity)getActivity();
+
+			// One hour (matches default refresh value)
+			if(mFirstDownload && fromCache && RRTime.since(timestamp) > 60 * 60 * 1000) {
+				AndroidCommon.UI_THREAD_HANDLER.post(() -> {
+
+					final TextView cacheNotif
+							= (TextView)LayoutInflater.from(activity).inflate(
+							R.layout.cached_header,
+							null,
+							false);
+
+					cacheNotif.setText(getActivity().getString(
+							R.string.listing_cached,
+							RRTime.formatDateTime(timestamp, getActivity())));
+
+					mPostListingManager.addNotification(cacheNotif);
+				});
+			} // TODO resuming a copy
+
+			if(mFirstDownload) {
+				((SessionChangeListener)activity).onSessionChanged(
+						session,
+						SessionChangeListener.SessionChangeType.POSTS,
+						timestamp);
+				PostListingFragment.this.mSession = session;
+				PostListingFragment.this.mTimestamp = timestamp;
+			}
 
-							final JsonObject thing = value.asObject();
-							final JsonObject listing = thing.getObject("data");
-							final JsonArray posts = listing.getArray("children");
+			// TODO {"error": 403} is received for unauthorized subreddits
 
-							final boolean isNsfwAllowed = PrefsUtility.pref_behaviour_nsfw();
+			mIsNsfwAllowed = PrefsUtility.pref_behaviour_nsfw();
 
-							final boolean hideReadPosts
-									= PrefsUtility.pref_behaviour_hide_read_posts()
-									&& mPostListingURL.pathType()
-									!= RedditURLParser.USER_POST_LISTING_URL;
+			mHideReadPosts = PrefsUtility.pref_behaviour_hide_read_posts()
+					&& mPostListingURL.pathType() != RedditURLParser.USER_POST_LISTING_URL;
 
-							final boolean isConnectionWifi = General.isConnectionWifi(activity);
+			final boolean isConnectionWifi = General.isConnectionWifi(activity);
 
-							final boolean inlinePreviews
-									= PrefsUtility.images_inline_image_previews()
-									.isEnabled(isConnectionWifi);
+			mInlinePreviews = PrefsUtility.images_inline_image_previews()
+					.isEnabled(isConnectionWifi);
 
-							final boolean showNsfwPreviews
-									= PrefsUtility.images_inline_image_previews_nsfw();
+			mShowNsfwPreviews = PrefsUtility.images_inline_image_previews_nsfw();
 
-							final boolean showSpoilerPreviews
-									= PrefsUtility.images_inline_image_previews_spoiler();
+			mShowSpoilerPreviews = PrefsUtility.images_inline_image_previews_spoiler();
 
-							final boolean downloadThumbnails
-									= PrefsUtility.appearance_thumbnails_show()
-									.isEnabled(isConnectionWifi);
+			mDownloadThumbnails = PrefsUtility.appearance_thumbnails_show()
+					.isEnabled(isConnectionWifi);
 
-							final boolean allowHighResThumbnails = downloadThumbnails
-									&& PrefsUtility.images_high_res_thumbnails()
-									.isEnabled(isConnectionWifi);
+			mAllowHighResThumbnails = mDownloadThumbnails
+					&& PrefsUtility.images_high_res_thumbnails().isEnabled(isConnectionWifi);
 
-							final boolean showNsfwThumbnails
-									= PrefsUtility.appearance_thumbnails_nsfw_show();
+			mShowNsfwThumbnails = PrefsUtility.appearance_thumbnails_nsfw_show();
 
-							final boolean showSpoilerThumbnails
-									= PrefsUtility.appearance_thumbnails_spoiler_show();
+			mShowSpoilerThumbnails = PrefsUtility.appearance_thumbnails_spoiler_show();
 
-							final boolean precacheImages
-									= !inlinePreviews
-											&& PrefsUtility.cache_precache_images()
-									.isEnabled(isConnectionWifi)
-											&& !FileUtils.isCacheDiskFull(activity);
+			mPrecacheImages = !mInlinePreviews
+					&& PrefsUtility.cache_precache_images().isEnabled(isConnectionWifi)
+					&& !FileUtils.isCacheDiskFull(activity);
 
-							final boolean precacheComments = PrefsUtility.cache_precache_comments()
-									.isEnabled(isConnectionWifi);
+			mPrecacheComments = PrefsUtility.cache_precache_comments()
+					.isEnabled(isConnectionWifi);
 
-							final PrefsUtility.ImageViewMode imageViewMode
-									= PrefsUtility.pref_behaviour_imageview_mode();
+			mImageViewMode = PrefsUtility.pref_behaviour_imageview_mode();
+			mGifViewMode = PrefsUtility.pref_behaviour_gifview_mode();
+			mVideoViewMode = PrefsUtility.pref_behaviour_videoview_mode();
 
-							final PrefsUtility.GifViewMode gifViewMode
-									= PrefsUtility.pref_behaviour_gifview_mode();
+			mLeftHandedMode = PrefsUtility.pref_appearance_left_handed();
 
-							final PrefsUtility.VideoViewMode videoViewMode
-									= PrefsUtility.pref_behaviour_videoview_mode();
+			mSubredditFilteringEnabled =
+					mPostListingURL.pathType() == RedditURLParser.SUBREDDIT_POST_LISTING_URL
+							&& (mPostListingURL.asSubredditPostListURL().type
+									== SubredditPostListURL.Type.ALL
+							|| mPostListingURL.asSubredditPostListURL().type
+									== SubredditPostListURL.Type.ALL_SUBTRACTION
+							|| mPostListingURL.asSubredditPostListURL().type
+									== SubredditPostListURL.Type.POPULAR
+							|| mPostListingURL.asSubredditPostListURL().type
+									== SubredditPostListURL.Type.FRONTPAGE);
 
-							final boolean leftHandedMode
-									= PrefsUtility.pref_appearance_left_handed();
+			// Grab this so we don't have to pull from the prefs every post
+			mBlockedSubreddits = new HashSet<>(PrefsUtility.pref_blocked_subreddits());
 
-							final boolean subredditFilteringEnabled =
-									mPostListingURL.pathType()
-													== RedditURLParser.SUBREDDIT_POST_LISTING_URL
-											&& (mPostListingURL.asSubredditPostListURL().type
-													== SubredditPostListURL.Type.ALL
-											|| mPostListingURL.asSubredditPostListURL().type
-													== SubredditPostListURL.Type.ALL_SUBTRACTION
-											|| mPostListingURL.asSubredditPostListURL().type
-													== SubredditPostListURL.Type.POPULAR
-											|| mPostListingURL.asSubredditPostListURL().type
-													== SubredditPostListURL.Type.FRONTPAGE);
+			Log.i(TAG, "Inline previews: " + (mInlinePreviews ? "ON" : "OFF"));
+			Log.i(TAG, "Precaching images: " + (mPrecacheImages ? "ON" : "OFF"));
+			Log.i(TAG, "Precaching comments: " + (mPrecacheComments ? "ON" : "OFF"));
 
-							// Grab this so we don't have to pull from the prefs every post
-							final HashSet<SubredditCanonicalId> blockedSubreddits
-									= new HashSet<>(PrefsUtility.pref_blocked_subreddits());
+			mCacheManager = CacheManager.getInstance(activity);
 
-							Log.i(TAG, "Inline previews: "
-									+ (inlinePreviews ? "ON" : "OFF"));
+			mChangeDataManager = RedditChangeDataManager.getInstance(
+					RedditAccountManager.getInstance(activity).getDefaultAccount());
 
-							Log.i(TAG, "Precaching images: "
-									+ (precacheImages ? "ON" : "OFF"));
+			mShowSubredditName = !(mPostListingURL != null
+					&& mPostListingURL.pathType() == RedditURLParser.SUBREDDIT_POST_LISTING_URL
+					&& mPostListingURL.asSubredditPostListURL().type
+							== SubredditPostListURL.Type.SUBREDDIT);
+		}
 
-							Log.i(TAG, "Precaching comments: "
-									+ (precacheComments ? "ON" : "OFF"));
+		@Override
+		public void onThingParsed(@NonNull final RedditThing postThing) {
 
-							final CacheManager cm = CacheManager.getInstance(activity);
+			if(!postThing.getKind().equals(RedditThing.Kind.POST)) {
+				return;
+			}
 
-							final boolean showSubredditName = !(mPostListingURL != null
-									&& mPostListingURL.pathType()
-											== RedditURLParser.SUBREDDIT_POST_LISTING_URL
-									&& mPostListingURL.asSubredditPostListURL().type
-											== SubredditPostListURL.Type.SUBREDDIT);
+			final long filterStartNanos = System.nanoTime();
 
-							final ArrayList<RedditPostListItem> downloadedPosts
-									= new ArrayList<>(25);
+			final RedditPost post = postThing.asPost();
 
-							for(final JsonValue postThingValue : posts) {
+			mAfter = post.name;
 
-								final RedditThing postThing
-										= postThingValue.asObject(RedditThing.class);
+			final boolean isPostBlocked;
 
-								if(!postThing.getKind().equals(RedditThing.Kind.POST)) {
-									continue;
-								}
+			try {
+				isPostBlocked = mSubredditFilteringEnabled
+						&& mBlockedSubreddits.contains(new SubredditCanonicalId(post.subreddit));
 
-								final RedditPost post = postThing.asPost();
-
-								mAfter = post.name;
-
-								final boolean isPostBlocked = subredditFilteringEnabled
-										&& blockedSubreddits.contains(
-												new SubredditCanonicalId(post.subreddit));
-
-								if(!isPostBlocked
-										&& (!post.over_18 || isNsfwAllowed)
-										&& mPostIds.add(post.getIdAlone())) {
-
-									final boolean downloadThisThumbnail = downloadThumbnails
-											&& (!post.over_18 || showNsfwThumbnails)
-											&& (!post.spoiler || showSpoilerThumbnails);
-
-									final boolean downloadThisPreview = inlinePreviews
-											&& (!post.over_18 || showNsfwPreviews)
-											&& (!post.spoiler || showSpoilerPreviews);
-
-									final int positionInList = mPostCount;
-
-									final RedditParsedPost parsedPost = new RedditParsedPost(
-											activity,
-											post,
-											false);
-
-									final RedditPreparedPost preparedPost = new RedditPreparedPost(
-											activity,
-											cm,
-											positionInList,
-											parsedPost,
-											timestamp,
-											showSubredditName,
-											downloadThisThumbnail,
-											allowHighResThumbnails,
-											downloadThisPreview);
-
-									// Skip adding this post (go to next iteration) if it
-									// has been clicked on AND read posts should be hidden
-									if(hideReadPosts && preparedPost.isRead()) {
-										mPostsNotShown = true;
-										continue;
-									}
+			} catch(final InvalidSubredditNameException e) {
+				throw new RuntimeException(e);
+			}
 
-									if(precacheComments) {
-										precacheComments(activity, preparedPost, positionInList);
-									}
+			if(isPostBlocked
+					|| (post.over_18 && !mIsNsfwAllowed)
+					|| !mPostIds.add(post.getIdAlone())) {
 
-									LinkHandler.getImageInfo(
-											activity,
-											parsedPost.getUrl(),
-											new Priority(
-													Constants.Priority.IMAGE_PRECACHE,
-													positionInList),
-											new GetImageInfoListener() {
-
-												@Override
-												public void onFailure(
-														final @CacheRequest.RequestFailureType
-																int type,
-														final Throwable t,
-														final Integer status,
-														final String readableMessage,
-														@NonNull final
-																Optional<FailedRequestBody> body) {
-												}
-
-												@Override
-												public void onNotAnImage() {
-												}
-
-												@Override
-												public void onSuccess(final ImageInfo info) {
-
-													if(!precacheImages) {
-														return;
-													}
-
-													precacheImage(
-															activity,
-															info,
-															positionInList,
-															gifViewMode,
-															imageViewMode,
-															videoViewMode);
-												}
-											});
-
-									downloadedPosts.add(new RedditPostListItem(
-											preparedPost,
-											PostListingFragment.this,
-											activity,
-											leftHandedMode));
-
-									mPostCount++;
-									mPostRefreshCount.decrementAndGet();
-								} else {
-									mPostsNotShown = true;
-								}
-							}
+				mPostsNotShown = true;
+				mFilterNanos += System.nanoTime() - filterStartNanos;
+				return;
+			}
 
-							AndroidCommon.runOnUiThread(() -> {
+			// Skip adding this post if it has been clicked on AND read posts should be hidden.
+			// The change data is only updated from this post once it is prepared, so the
+			// listing's own clicked flag is checked here too.
+			if(mHideReadPosts && (post.clicked || mChangeDataManager.isRead(post))) {
+				mPostsNotShown = true;
+				mFilterNanos += System.nanoTime() - filterStartNanos;
+				return;
+			}
 
-								mPostListingManager.addPosts(downloadedPosts);
-								mPostListingManager.setLoadingVisible(false);
+			final boolean downloadThisThumbnail = mDownloadThumbnails
+					&& (!post.over_18 || mShowNsfwThumbnails)
+					&& (!post.spoiler || mShowSpoilerThumbnails);
 
-								if(mPostCount == 0
-										&& (mAfter == null || mAfter.equals(mLastAfter))) {
-									@StringRes final int emptyViewText;
+			final boolean downloadThisPreview = mInlinePreviews
+					&& (!post.over_18 || mShowNsfwPreviews)
+					&& (!post.spoiler || mShowSpoilerPreviews);
 
-									if(mPostsNotShown) {
-										if(mPostListingURL.pathType()
-												== RedditURLParser.SEARCH_POST_LISTING_URL) {
-											emptyViewText = R.string.no_search_results_hidden;
-										} else {
-											emptyViewText = R.string.no_posts_yet_hidden;
-										}
-									} else {
-										if(mPostListingURL.pathType()
-												== RedditURLParser.SEARCH_POST_LISTING_URL) {
-											emptyViewText = R.string.no_search_results;
-										} else {
-											emptyViewText = R.string.no_posts_yet;
-										}
-									}
+			final int positionInList = mPostCount;
 
-									final View emptyView =
-											LayoutInflater.from(getContext()).inflate(
-													R.layout.no_items_yet,
-													mRecyclerView,
-													false);
+			mPostCount++;
+			mPostRefreshCount.decrementAndGet();
 
-									((TextView)emptyView.findViewById(R.id.empty_view_text))
-											.setText(emptyViewText);
+			mFilterNanos += System.nanoTime() - filterStartNanos;
 
-									mPostListingManager.addViewToItems(emptyView);
-								}
+			mPrepareQueue.submit(() -> {
 
-								onPostsAdded();
+				final long prepareStartNanos = System.nanoTime();
 
-								mRequest = null;
-								mReadyToDownloadMore = true;
-								onLoadMoreItemsCheck();
-							});
+				final RedditParsedPost parsedPost = new RedditParsedPost(mActivity, post, false);
 
-						} catch(final Throwable t) {
-							onFailure(
-									CacheRequest.REQUEST_FAILURE_PARSE,
-									t,
-									null,
-									"Parse failure",
-									Optional.of(new FailedRequestBody(value)));
+				final RedditPreparedPost preparedPost = new RedditPreparedPost(
+						mActivity,
+						mCacheManager,
+						positionInList,
+						parsedPost,
+						mListingTimestamp,
+						mShowSubredditName,
+						downloadThisThumbnail,
+						mAllowHighResThumbnails,
+						downloadThisPreview);
+
+				mPrepareNanos.addAndGet(System.nanoTime() - prepareStartNanos);
+
+				return preparedPost;
+			});
+		}
+
+		// Called in list order, by one thread at a time
+		private void onPostPrepared(@NonNull final RedditPreparedPost preparedPost) {
+
+			final long renderDataStartNanos = System.nanoTime();
+
+			final int positionInList = preparedPost.getListId();
+
+			if(mPrecacheComments) {
+				precacheComments(mActivity, preparedPost, positionInList);
+			}
+
+			mImageInfoLookups.add(new ImageInfoResolver.Lookup(
+					preparedPost.src.getUrl(),
+					new Priority(Constants.Priority.IMAGE_PRECACHE, positionInList),
+					new GetImageInfoListener() {
+
+						@Override
+						public void onFailure(
+								final @CacheRequest.RequestFailureType int type,
+								final Throwable t,
+								final Integer status,
+								final String readableMessage,
+								@NonNull final Optional<FailedRequestBody> body) {
 						}
-					}
 
-					@Override
-					public void onFailure(
-							final int type,
-							@Nullable final Throwable t,
-							@Nullable final Integer httpStatus,
-							@Nullable final String readableMessage,
-							@NonNull final Optional<FailedRequestBody> body) {
+						@Override
+						public void onNotAnImage() {
+						}
 
-						AndroidCommon.UI_THREAD_HANDLER.post(() -> {
-
-							mPostListingManager.setLoadingVisible(false);
-
-							final RRError error;
-
-							if(type == CacheRequest.REQUEST_FAILURE_CACHE_MISS) {
-								error = new RRError(
-										activity.getString(R.string.error_postlist_cache_title),
-										activity.getString(R.string.error_postlist_cache_message),
-										false,
-										t,
-										httpStatus,
-										url.toString(),
-										readableMessage,
-										body);
-
-							} else {
-								error = General.getGeneralErrorForFailure(
-										activity,
-										type,
-										t,
-										httpStatus,
-										url.toString(),
-										body);
+						@Override
+						public void onSuccess(final ImageInfo info) {
+
+							if(!mPrecacheImages) {
+								return;
 							}
 
-							mPostListingManager.addFooterError(new ErrorView(
-									activity,
-									error));
-						});
+							precacheImage(
+									mActivity,
+									info,
+									positionInList,
+									mGifViewMode,
+									mImageViewMode,
+									mVideoViewMode);
+						}
+					}));
+
+			mBatch.add(new RedditPostListItem(
+					preparedPost,
+					PostListingFragment.this,
+					mActivity,
+					mLeftHandedMode));
+
+			if(mBatch.size() >= POST_BATCH_SIZE) {
+
+				final ArrayList<RedditPostListItem> batch = mBatch;
+				mBatch = new ArrayList<>(POST_BATCH_SIZE);
+
+				AndroidCommon.runOnUiThread(() -> mPostListingManager.addPosts(batch));
+
+				resolveImageInfoLookups();
+			}
+
+			mRenderDataNanos += System.nanoTime() - renderDataStartNanos;
+		}
+
+		private void resolveImageInfoLookups() {
+
+			if(mImageInfoLookups.isEmpty()) {
+				return;
+			}
+
+			final ArrayList<ImageInfoResolver.Lookup> lookups = mImageInfoLookups;
+			mImageInfoLookups = new ArrayList<>(POST_BATCH_SIZE);
+
+			ImageInfoResolver.getInstance(mActivity).resolveAll(mActivity, lookups);
+		}
+
+		@Override
+		public void onListingFinished() {
+
+			final long parseEndNanos = System.nanoTime();
+
+			try {
+				mPrepareQueue.awaitCompletion();
+			} catch(final InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+
+			final long endNanos = System.nanoTime();
+
+			Log.i(TAG, String.format(
+					Locale.US,
+					"Listing of %d posts took %d ms: parse %d ms, filter %d ms,"
+							+ " prepare %d ms (over %d threads), render data %d ms,"
+							+ " waiting for preparation %d ms",
+					mPostCount,
+					(endNanos - mStartTimeNanos) / 1_000_000,
+					(parseEndNanos - mStartTimeNanos - mFilterNanos) / 1_000_000,
+					mFilterNanos / 1_000_000,
+					mPrepareNanos.get() / 1_000_000,
+					PREPARE_THREADS,
+					mRenderDataNanos / 1_000_000,
+					(endNanos - parseEndNanos) / 1_000_000));
+
+			final ArrayList<RedditPostListItem> batch = mBatch;
+			mBatch = new ArrayList<>(0);
+
+			resolveImageInfoLookups();
+
+			AndroidCommon.runOnUiThread(() -> {
+
+				mPostListingManager.addPosts(batch);
+				mPostListingManager.setLoadingVisible(false);
+
+				if(mPostCount == 0 && (mAfter == null || mAfter.equals(mLastAfter))) {
+
+					@StringRes final int emptyViewText;
+
+					if(mPostsNotShown) {
+						if(mPostListingURL.pathType()
+								== RedditURLParser.SEARCH_POST_LISTING_URL) {
+							emptyViewText = R.string.no_search_results_hidden;
+						} else {
+							emptyViewText = R.string.no_posts_yet_hidden;
+						}
+					} else {
+						if(mPostListingURL.pathType()
+								== RedditURLParser.SEARCH_POST_LISTING_URL) {
+							emptyViewText = R.string.no_search_results;
+						} else {
+							emptyViewText = R.string.no_posts_yet;
+						}
 					}
-				}));
+
+					final View emptyView = LayoutInflater.from(getContext()).inflate(
+							R.layout.no_items_yet,
+							mRecyclerView,
+							false);
+
+					((TextView)emptyView.findViewById(R.id.empty_view_text))
+							.setText(emptyViewText);
+
+					mPostListingManager.addViewToItems(emptyView);
+				}
+
+				onPostsAdded();
+
+				mRequest = null;
+				mReadyToDownloadMore = true;
+				onLoadMoreItemsCheck();
+			});
+		}
+
+		@Override
+		public void onFailure(
+				final int type,
+				@Nullable final Throwable t,
+				@Nullable final Integer httpStatus,
+				@Nullable final String readableMessage,
+				@NonNull final Optional<FailedRequestBody> body) {
+
+			AndroidCommon.UI_THREAD_HANDLER.post(() -> {
+
+				mPostListingManager.setLoadingVisible(false);
+
+				final RRError error;
+
+				if(type == CacheRequest.REQUEST_FAILURE_CACHE_MISS) {
+					error = new RRError(
+							mActivity.getString(R.string.error_postlist_cache_title),
+							mActivity.getString(R.string.error_postlist_cache_message),
+							false,
+							t,
+							httpStatus,
+							mUrl.toString(),
+							readableMessage,
+							body);
+
+				} else {
+					error = General.getGeneralErrorForFailure(
+							mActivity,
+							type,
+							t,
+							httpStatus,
+							mUrl.toString(),
+							body);
+				}
+
+				mPostListingManager.addFooterError(new ErrorView(mActivity, error));
+			});
+		}
 	}
 
 	private void precacheComments(
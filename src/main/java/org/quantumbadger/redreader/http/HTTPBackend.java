@@ -19,6 +19,7 @@ package org.quantumbadger.redreader.http;
 
 import android.content.Context;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import org.quantumbadger.redreader.cache.CacheRequest;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.http.body.HTTPRequestBody;
@@ -76,7 +77,17 @@ public abstract class HTTPBackend {
 		void addHeader(String name, String value);
 	}
 
+	public interface ResponseHeaders {
+		@Nullable String getHeader(@NonNull String name);
+	}
+
 	public interface Listener {
+
+		// Called before onSuccess() or onError() whenever the server sent a response
+		default void onResponseHeaders(
+				final int httpStatus,
+				@NonNull final ResponseHeaders headers) {}
+
 		void onError(
 				@CacheRequest.RequestFailureType int failureType,
 				Throwable exception,
@@ -102,7 +102,7 @@ public class OKHTTPBackend extends HTTPBackend {
 
 		// here we set the over18 cookie if needed, and return it whenever the url contains search
 		// this is necessary to get the reddit API to return NSFW search results
-		if(PrefsUtility.pref_behaviour_nsfw()) {
+		if(PrefsUtility.snapshot().nsfwAllowed) {
 			final List<Cookie> list = new ArrayList<>();
 			final Cookie.Builder cookieBuilder = new Cookie.Builder();
 
@@ -274,6 +274,8 @@ public class OKHTTPBackend extends HTTPBackend {
 					final int status = response.code();
 					final ResponseBody body = response.body();
 
+					listener.onResponseHeaders(status, response::header);
+
 					if(status == 200 || status == 202) {
 
 						@SuppressWarnings("PMD.CloseResource") final InputStream bodyStream;
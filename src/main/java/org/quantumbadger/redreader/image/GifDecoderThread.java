@@ -24,22 +24,56 @@ import android.os.Message;
 import android.util.Log;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
-import jp.tomorrowkey.android.gifplayer.GifDecoder;
+import androidx.annotation.UiThread;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 
-import java.io.InputStream;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
 
 public class GifDecoderThread extends Thread {
 
 	@NonNull private static final String TAG = "GifDecoderThread";
 
+	// Frames decoded ahead of the one being displayed
+	private static final int UPCOMING_FRAMES = 3;
+
 	private volatile boolean playing = true;
-	private final InputStream is;
+	private final SeekableInputStream is;
 	private ImageView view;
 	private final OnGifLoadedListener listener;
 
+	private final ArrayBlockingQueue<Frame> mUpcomingFrames
+			= new ArrayBlockingQueue<>(UPCOMING_FRAMES);
+
+	// Bitmaps which are no longer displayed, and can be reused for decoding
+	private final ArrayBlockingQueue<Bitmap> mSpareBitmaps
+			= new ArrayBlockingQueue<>(UPCOMING_FRAMES);
+
+	private final Thread mDecodingThread = new Thread(this::decode, "GIF decoding thread");
+
+	// Only accessed from the UI thread
+	private Bitmap mDisplayedBitmap;
+
+	private static final class Frame {
+
+		@NonNull private final Bitmap mBitmap;
+		private final int mDelayMs;
+
+		private Frame(@NonNull final Bitmap bitmap, final int delayMs) {
+			mBitmap = bitmap;
+			mDelayMs = delayMs;
+		}
+	}
+
+	@UiThread
 	public void setView(final ImageView view) {
+
 		this.view = view;
+
+		if(mDisplayedBitmap != null) {
+			view.setImageBitmap(mDisplayedBitmap);
+		}
 	}
 
 	public interface OnGifLoadedListener {
@@ -53,13 +87,25 @@ public class GifDecoderThread extends Thread {
 	private final Handler handler = new Handler(Looper.getMainLooper()) {
 		@Override
 		public void handleMessage(@NonNull final Message msg) {
-			if(playing && view != null) {
-				view.setImageBitmap((Bitmap)msg.obj);
+
+			if(!playing) {
+				return;
+			}
+
+			final Bitmap previous = mDisplayedBitmap;
+			mDisplayedBitmap = (Bitmap)msg.obj;
+
+			if(view != null) {
+				view.setImageBitmap(mDisplayedBitmap);
+			}
+
+			if(previous != null && previous != mDisplayedBitmap) {
+				mSpareBitmaps.offer(previous);
 			}
 		}
 	};
 
-	public GifDecoderThread(final InputStream is, final OnGifLoadedListener listener) {
+	public GifDecoderThread(final SeekableInputStream is, final OnGifLoadedListener listener) {
 		super("GIF playing thread");
 		this.is = is;
 		this.listener = listener;
@@ -68,6 +114,7 @@ public class GifDecoderThread extends Thread {
 	public void stopPlaying() {
 		playing = false;
 		interrupt();
+		mDecodingThread.interrupt();
 
 		try {
 			is.close();
@@ -76,76 +123,96 @@ public class GifDecoderThread extends Thread {
 		}
 	}
 
-	@Override
-	public void run() {
+	// Decodes frames into the queue until playback is stopped, starting again from the
+	// beginning of the stream after the last frame
+	private void decode() {
 
-		final AtomicBoolean loaded = new AtomicBoolean(false);
-		final AtomicBoolean failed = new AtomicBoolean(false);
+		boolean anyFramesDecoded = false;
 
-		final GifDecoder decoder = new GifDecoder();
+		try {
+			while(playing) {
 
-		new Thread("GIF decoding thread") {
-			@Override
-			public void run() {
-				try {
-					decoder.read(is);
-					loaded.set(true);
-				} catch(final Throwable t) {
-					Log.i(TAG, "Got exception", t);
-					failed.set(true);
-				}
-			}
-		}.start();
+				is.seek(0);
 
-		try {
+				// Not closed, as this would close the underlying stream
+				@SuppressWarnings("PMD.CloseResource") final BufferedInputStream bufferedStream
+						= new BufferedInputStream(is, 16 * 1024);
 
-			if(!playing) {
-				return;
-			}
+				final StreamingGifDecoder decoder = new StreamingGifDecoder(bufferedStream);
 
-			listener.onGifLoaded();
+				final int width = decoder.getWidth();
+				final int height = decoder.getHeight();
 
-			int frame = 0;
+				while(playing && decoder.readNextFrame()) {
 
-			while(playing) {
+					Bitmap bitmap = mSpareBitmaps.poll();
 
-				while(decoder.getFrameCount() <= frame + 1
-						&& !loaded.get()
-						&& !failed.get()) {
-					try {
-						sleep(100);
-					} catch(final InterruptedException e) {
-						return;
+					if(bitmap == null) {
+						bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
 					}
-				}
 
-				frame = frame % decoder.getFrameCount();
+					bitmap.setPixels(decoder.getCanvas(), 0, width, 0, 0, width, height);
 
-				final Bitmap img = decoder.getFrame(frame);
+					mUpcomingFrames.put(new Frame(bitmap, decoder.getFrameDelayMs()));
+					anyFramesDecoded = true;
+				}
 
-				final Message msg = Message.obtain();
-				msg.obj = img;
-				handler.sendMessage(msg);
+				if(decoder.getFrameCount() == 0) {
+					throw new IOException("GIF contains no frames");
+				}
 
-				try {
-					sleep(Math.max(32, decoder.getDelay(frame)));
-				} catch(final InterruptedException e) {
+				if(decoder.getFrameCount() == 1) {
+					// Not animated, so the single frame can stay on screen
 					return;
 				}
+			}
+
+		} catch(final InterruptedException e) {
+			// Playback stopped
 
-				if(failed.get()) {
+		} catch(final OutOfMemoryError e) {
+			if(playing) {
+				listener.onOutOfMemory();
+				stopPlaying();
+			}
+
+		} catch(final Throwable t) {
+
+			if(playing) {
+				Log.i(TAG, "Got exception", t);
+
+				if(!anyFramesDecoded) {
 					listener.onGifInvalid();
-					return;
 				}
 
-				frame++;
+				stopPlaying();
 			}
+		}
+	}
 
-		} catch(final OutOfMemoryError e) {
-			listener.onOutOfMemory();
+	@Override
+	public void run() {
 
-		} catch(final Throwable t) {
-			listener.onGifInvalid();
+		mDecodingThread.start();
+
+		if(!playing) {
+			return;
+		}
+
+		listener.onGifLoaded();
+
+		try {
+			while(playing) {
+
+				final Frame frame = mUpcomingFrames.take();
+
+				handler.sendMessage(Message.obtain(handler, 0, frame.mBitmap));
+
+				sleep(Math.max(32, frame.mDelayMs));
+			}
+
+		} catch(final InterruptedException e) {
+			// Playback stopped
 		}
 	}
 }
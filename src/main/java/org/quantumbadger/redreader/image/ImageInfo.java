@@ -24,6 +24,8 @@ import androidx.annotation.Nullable;
 import org.apache.commons.text.StringEscapeUtils;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.ParcelHelper;
+import org.quantumbadger.redreader.io.ExtendedDataInputStream;
+import org.quantumbadger.redreader.io.ExtendedDataOutputStream;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 
 import java.io.IOException;
@@ -122,6 +124,27 @@ public class ImageInfo implements Parcelable {
 		heightPreview = ParcelHelper.readNullableLong(in);
 	}
 
+	private ImageInfo(final ExtendedDataInputStream in) throws IOException {
+		urlOriginal = in.readNullableString();
+		urlBigSquare = in.readNullableString();
+		urlAudioStream = in.readNullableString();
+		title = in.readNullableString();
+		caption = in.readNullableString();
+		type = in.readNullableString();
+		isAnimated = in.readNullableBoolean();
+		width = in.readNullableLong();
+		height = in.readNullableLong();
+		size = in.readNullableLong();
+
+		final String mediaTypeName = in.readNullableString();
+		mediaType = mediaTypeName == null ? null : MediaType.valueOf(mediaTypeName);
+
+		hasAudio = HasAudio.valueOf(in.readUTF());
+		urlPreview = in.readNullableString();
+		widthPreview = in.readNullableLong();
+		heightPreview = in.readNullableLong();
+	}
+
 	public ImageInfo(
 			final String urlOriginal,
 			final String urlBigSquare,
@@ -427,6 +450,36 @@ public class ImageInfo implements Parcelable {
 				null);
 	}
 
+	@NonNull
+	public static ImageInfo readFrom(@NonNull final ExtendedDataInputStream in)
+			throws IOException {
+
+		try {
+			return new ImageInfo(in);
+		} catch(final IllegalArgumentException e) {
+			throw new IOException("Unknown enum value", e);
+		}
+	}
+
+	public void writeTo(@NonNull final ExtendedDataOutputStream out) throws IOException {
+
+		out.writeNullableString(urlOriginal);
+		out.writeNullableString(urlBigSquare);
+		out.writeNullableString(urlAudioStream);
+		out.writeNullableString(title);
+		out.writeNullableString(caption);
+		out.writeNullableString(type);
+		out.writeNullableBoolean(isAnimated);
+		out.writeNullableLong(width);
+		out.writeNullableLong(height);
+		out.writeNullableLong(size);
+		out.writeNullableString(mediaType == null ? null : mediaType.name());
+		out.writeUTF(hasAudio.name());
+		out.writeNullableString(urlPreview);
+		out.writeNullableLong(widthPreview);
+		out.writeNullableLong(heightPreview);
+	}
+
 	@Override
 	public int describeContents() {
 		return 0;
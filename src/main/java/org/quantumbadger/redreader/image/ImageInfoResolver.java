@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.cache.CacheRequest;
+import org.quantumbadger.redreader.common.LinkHandler;
+import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.Priority;
+import org.quantumbadger.redreader.common.StringUtils;
+import org.quantumbadger.redreader.common.TriggerableThread;
+import org.quantumbadger.redreader.http.FailedRequestBody;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+// Resolves links to ImageInfo through LinkHandler, remembering the results across restarts.
+// Lookups for a URL which is already being resolved are attached to the existing request.
+public final class ImageInfoResolver {
+
+	private static final String TAG = "ImageInfoResolver";
+
+	private static final int MAX_STORED_ENTRIES = 4000;
+	private static final long MAX_STORED_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+
+	// Some providers return signed media URLs which stop working after a few hours, so results
+	// from them are only kept long enough to cover reopening the same posts
+	private static final long MAX_STORED_AGE_EXPIRING_MS = 60L * 60 * 1000;
+
+	private static final String[] EXPIRING_MEDIA_HOSTS = {
+			"redgifs.com",
+			"streamable.com",
+			"wixmp.com"
+	};
+
+	@Nullable private static ImageInfoResolver singleton;
+
+	public static final class Lookup {
+
+		@NonNull private final String mUrl;
+		@NonNull private final Priority mPriority;
+		@NonNull private final GetImageInfoListener mListener;
+
+		public Lookup(
+				@NonNull final String url,
+				@NonNull final Priority priority,
+				@NonNull final GetImageInfoListener listener) {
+
+			mUrl = url;
+			mPriority = priority;
+			mListener = listener;
+		}
+	}
+
+	@NonNull private final ImageInfoStore mStore;
+	private volatile boolean mStoreLoaded = false;
+
+	private final HashMap<String, ArrayList<GetImageInfoListener>> mInFlight = new HashMap<>();
+
+	@NonNull private final TriggerableThread mWriteThread;
+
+	public static synchronized ImageInfoResolver getInstance(@NonNull final Context context) {
+
+		if(singleton == null) {
+			singleton = new ImageInfoResolver(context.getApplicationContext());
+		}
+
+		return singleton;
+	}
+
+	private ImageInfoResolver(@NonNull final Context context) {
+
+		mStore = new ImageInfoStore(
+				new File(context.getCacheDir(), "image_info_journal"),
+				MAX_STORED_ENTRIES);
+
+		mWriteThread = new TriggerableThread(() -> {
+
+			if(!mStoreLoaded) {
+				return; // The load thread triggers another write when it finishes
+			}
+
+			try {
+				mStore.flush(System.currentTimeMillis());
+			} catch(final IOException e) {
+				Log.e(TAG, "Failed to write image info", e);
+			}
+		}, 5000);
+
+		new Thread("ImageInfoResolver load") {
+			@Override
+			public void run() {
+
+				try {
+					mStore.load(System.currentTimeMillis());
+					Log.i(TAG, "Loaded " + mStore.size() + " stored entries");
+
+				} catch(final IOException e) {
+					Log.e(TAG, "Failed to load stored image info", e);
+				}
+
+				mStoreLoaded = true;
+				mWriteThread.trigger();
+			}
+		}.start();
+	}
+
+	public void clear() {
+		mStore.clear();
+		mWriteThread.trigger();
+	}
+
+	private static boolean isExpiringMediaUrl(@Nullable final String url) {
+
+		if(url == null) {
+			return false;
+		}
+
+		final Uri uri = Uri.parse(url);
+		final String host = uri.getHost();
+
+		if(host != null) {
+
+			final String lowerHost = StringUtils.asciiLowercase(host);
+
+			for(final String expiringHost : EXPIRING_MEDIA_HOSTS) {
+				if(lowerHost.equals(expiringHost) || lowerHost.endsWith("." + expiringHost)) {
+					return true;
+				}
+			}
+		}
+
+		// Signed CDN URLs, from any provider
+		final String query = uri.getQuery();
+
+		return query != null
+				&& StringUtils.asciiLowercase(query).contains("expires=");
+	}
+
+	private static long getMaxStoredAgeMs(@NonNull final ImageInfo info) {
+
+		if(isExpiringMediaUrl(info.urlOriginal) || isExpiringMediaUrl(info.urlAudioStream)) {
+			return MAX_STORED_AGE_EXPIRING_MS;
+		}
+
+		return MAX_STORED_AGE_MS;
+	}
+
+	public void getImageInfo(
+			@NonNull final Context context,
+			@NonNull final String url,
+			@NonNull final Priority priority,
+			@NonNull final GetImageInfoListener listener) {
+
+		resolveAll(context, Collections.singletonList(new Lookup(url, priority, listener)));
+	}
+
+	// Stored results are returned synchronously, before any of the other lookups are started
+	public void resolveAll(@NonNull final Context context, @NonNull final List<Lookup> lookups) {
+
+		final long now = System.currentTimeMillis();
+
+		final ArrayList<Lookup> hits = new ArrayList<>();
+		final ArrayList<ImageInfo> hitInfos = new ArrayList<>();
+		final ArrayList<Lookup> toStart = new ArrayList<>();
+
+		synchronized(mInFlight) {
+
+			for(final Lookup lookup : lookups) {
+
+				final ImageInfo stored = mStore.get(lookup.mUrl, now);
+
+				if(stored != null) {
+					hits.add(lookup);
+					hitInfos.add(stored);
+					continue;
+				}
+
+				final ArrayList<GetImageInfoListener> waiting = mInFlight.get(lookup.mUrl);
+
+				if(waiting != null) {
+					waiting.add(lookup.mListener);
+					continue;
+				}
+
+				final ArrayList<GetImageInfoListener> listeners = new ArrayList<>(1);
+				listeners.add(lookup.mListener);
+				mInFlight.put(lookup.mUrl, listeners);
+				toStart.add(lookup);
+			}
+		}
+
+		for(int i = 0; i < hits.size(); i++) {
+			hits.get(i).mListener.onSuccess(hitInfos.get(i));
+		}
+
+		for(final Lookup lookup : toStart) {
+			LinkHandler.getImageInfo(
+					context,
+					lookup.mUrl,
+					lookup.mPriority,
+					new FanOutListener(lookup.mUrl));
+		}
+	}
+
+	@NonNull
+	private ArrayList<GetImageInfoListener> takeListeners(@NonNull final String url) {
+
+		synchronized(mInFlight) {
+			final ArrayList<GetImageInfoListener> listeners = mInFlight.remove(url);
+			return listeners == null ? new ArrayList<>() : listeners;
+		}
+	}
+
+	private final class FanOutListener implements GetImageInfoListener {
+
+		@NonNull private final String mUrl;
+
+		private FanOutListener(@NonNull final String url) {
+			mUrl = url;
+		}
+
+		@Override
+		public void onFailure(
+				final @CacheRequest.RequestFailureType int type,
+				final Throwable t,
+				final Integer status,
+				final String readableMessage,
+				@NonNull final Optional<FailedRequestBody> body) {
+
+			for(final GetImageInfoListener listener : takeListeners(mUrl)) {
+				listener.onFailure(type, t, status, readableMessage, body);
+			}
+		}
+
+		@Override
+		public void onSuccess(final ImageInfo info) {
+
+			// Links which are already direct media URLs resolve without a request, so there's
+			// no point storing them
+			if(info.urlOriginal != null && !info.urlOriginal.equals(mUrl)) {
+				mStore.put(
+						mUrl,
+						info,
+						System.currentTimeMillis(),
+						getMaxStoredAgeMs(info));
+				mWriteThread.trigger();
+			}
+
+			for(final GetImageInfoListener listener : takeListeners(mUrl)) {
+				listener.onSuccess(info);
+			}
+		}
+
+		@Override
+		public void onNotAnImage() {
+			for(final GetImageInfoListener listener : takeListeners(mUrl)) {
+				listener.onNotAnImage();
+			}
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.io.ExtendedDataOutputStream;
+import org.quantumbadger.redreader.io.JournalFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Persistent map from a link URL to the ImageInfo it resolved to, so that links which have
+// already been looked up don't need another API request. Entries are kept in write order, and
+// the oldest are evicted once there are too many. Each entry has its own expiry time, as some
+// providers return media URLs which stop working after a while. Writes are buffered until
+// flush() is called.
+public final class ImageInfoStore {
+
+	// Generation 1 stored the time each entry was written, rather than when it expires
+	private static final long GENERATION = 2;
+
+	// Longer URLs aren't stored, as writeUTF() is limited to 64 KiB
+	private static final int MAX_URL_LENGTH = 4096;
+
+	private static final class Entry {
+
+		private final long mExpiry;
+		@NonNull private final ImageInfo mInfo;
+
+		private Entry(final long expiry, @NonNull final ImageInfo info) {
+			mExpiry = expiry;
+			mInfo = info;
+		}
+	}
+
+	@NonNull private final JournalFile mJournal;
+	private final int mMaxEntries;
+
+	private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>();
+	@NonNull private ArrayList<JournalFile.RecordWriter> mPendingRecords = new ArrayList<>();
+	private int mJournalRecords = 0;
+
+	// Set by clear(), so that the journal is reset by the next flush()
+	private boolean mResetPending = false;
+
+	public ImageInfoStore(@NonNull final File file, final int maxEntries) {
+		mJournal = new JournalFile(file);
+		mMaxEntries = maxEntries;
+	}
+
+	// Entries added with put() before loading completes take precedence over the stored ones
+	public void load(final long now) throws IOException {
+
+		final LinkedHashMap<String, Entry> stored = new LinkedHashMap<>();
+
+		final int records = mJournal.replay(GENERATION, dis -> {
+
+			final String url = dis.readUTF();
+			final long expiry = dis.readLong();
+			final ImageInfo info = ImageInfo.readFrom(dis);
+
+			stored.remove(url);
+			stored.put(url, new Entry(expiry, info));
+		});
+
+		synchronized(this) {
+
+			mJournalRecords += records;
+
+			if(mResetPending) {
+				return;
+			}
+
+			final LinkedHashMap<String, Entry> added = new LinkedHashMap<>(mEntries);
+			mEntries.clear();
+
+			for(final Map.Entry<String, Entry> entry : stored.entrySet()) {
+				if(!added.containsKey(entry.getKey()) && !isExpired(entry.getValue(), now)) {
+					mEntries.put(entry.getKey(), entry.getValue());
+				}
+			}
+
+			mEntries.putAll(added);
+			evictExcess();
+		}
+	}
+
+	@Nullable
+	public synchronized ImageInfo get(@NonNull final String url, final long now) {
+
+		final Entry entry = mEntries.get(url);
+
+		if(entry == null) {
+			return null;
+		}
+
+		if(isExpired(entry, now)) {
+			mEntries.remove(url);
+			return null;
+		}
+
+		return entry.mInfo;
+	}
+
+	public synchronized void put(
+			@NonNull final String url,
+			@NonNull final ImageInfo info,
+			final long now,
+			final long maxAgeMs) {
+
+		if(url.length() > MAX_URL_LENGTH) {
+			return;
+		}
+
+		final Entry entry = new Entry(now + maxAgeMs, info);
+
+		mEntries.remove(url);
+		mEntries.put(url, entry);
+		evictExcess();
+
+		mPendingRecords.add(dos -> writeRecord(dos, url, entry));
+	}
+
+	public synchronized int size() {
+		return mEntries.size();
+	}
+
+	public synchronized void clear() {
+		mEntries.clear();
+		mPendingRecords.clear();
+		mResetPending = true;
+	}
+
+	// Appends the buffered entries to the journal. Once the journal holds many more records than
+	// there are live entries, it is rewritten with just the live entries instead. Must not be
+	// called concurrently with itself or load().
+	public void flush(final long now) throws IOException {
+
+		final ArrayList<JournalFile.RecordWriter> records;
+		final boolean compact;
+
+		synchronized(this) {
+
+			if(mPendingRecords.isEmpty() && !mResetPending) {
+				return;
+			}
+
+			compact = mResetPending
+					|| mJournalRecords + mPendingRecords.size() > mMaxEntries * 2;
+
+			mResetPending = false;
+
+			if(compact) {
+
+				records = new ArrayList<>(mEntries.size());
+
+				final Iterator<Map.Entry<String, Entry>> it = mEntries.entrySet().iterator();
+
+				while(it.hasNext()) {
+
+					final Map.Entry<String, Entry> mapEntry = it.next();
+					final String url = mapEntry.getKey();
+					final Entry entry = mapEntry.getValue();
+
+					if(isExpired(entry, now)) {
+						it.remove();
+					} else {
+						records.add(dos -> writeRecord(dos, url, entry));
+					}
+				}
+
+				mJournalRecords = 0;
+
+			} else {
+				records = mPendingRecords;
+			}
+
+			mPendingRecords = new ArrayList<>();
+			mJournalRecords += records.size();
+		}
+
+		if(compact) {
+			mJournal.reset(GENERATION);
+		}
+
+		mJournal.append(records);
+	}
+
+	private boolean isExpired(@NonNull final Entry entry, final long now) {
+		return now > entry.mExpiry;
+	}
+
+	private void evictExcess() {
+
+		final Iterator<String> it = mEntries.keySet().iterator();
+
+		while(mEntries.size() > mMaxEntries && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static void writeRecord(
+			@NonNull final ExtendedDataOutputStream dos,
+			@NonNull final String url,
+			@NonNull final Entry entry) throws IOException {
+
+		dos.writeUTF(url);
+		dos.writeLong(entry.mExpiry);
+		entry.mInfo.writeTo(dos);
+	}
+}
@@ -0,0 +1,512 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Decodes one GIF frame at a time, as it is read from the stream. Only the current canvas (and,
+// for frames which are disposed by restoring the previous image, one saved copy) is held in
+// memory, regardless of the number of frames.
+public final class StreamingGifDecoder {
+
+	private static final int MAX_CODES = 4096;
+	private static final int MAX_PIXELS = 64 * 1024 * 1024;
+
+	private static final int DISPOSE_NONE = 1;
+	private static final int DISPOSE_BACKGROUND = 2;
+	private static final int DISPOSE_PREVIOUS = 3;
+
+	@NonNull private final InputStream mIn;
+
+	private final int mWidth;
+	private final int mHeight;
+
+	@Nullable private final int[] mGlobalColours;
+	private final int mBackgroundIndex;
+
+	@NonNull private final int[] mCanvas;
+	@Nullable private int[] mSavedCanvas;
+
+	private int mFrameCount = 0;
+
+	// From the graphic control extension preceding the next frame
+	private int mDispose = DISPOSE_NONE;
+	private boolean mTransparent = false;
+	private int mTransparentIndex;
+	private int mDelayMs = 0;
+
+	// The frame just decoded, which must be disposed before the next one is drawn
+	private int mLastDispose = DISPOSE_NONE;
+	private boolean mLastTransparent;
+	private int mLastX;
+	private int mLastY;
+	private int mLastW;
+	private int mLastH;
+	private int mLastDelayMs;
+
+	private final byte[] mBlock = new byte[256];
+	private final short[] mPrefix = new short[MAX_CODES];
+	private final byte[] mSuffix = new byte[MAX_CODES];
+	private final byte[] mPixelStack = new byte[MAX_CODES + 1];
+	@Nullable private byte[] mPixels;
+
+	// Reads the header. The stream should be buffered, as it is mostly read a byte at a time.
+	public StreamingGifDecoder(@NonNull final InputStream in) throws IOException {
+
+		mIn = in;
+
+		final StringBuilder id = new StringBuilder(6);
+
+		for(int i = 0; i < 6; i++) {
+			id.append((char)read());
+		}
+
+		if(!id.toString().startsWith("GIF")) {
+			throw new IOException("Not a GIF file");
+		}
+
+		mWidth = readShort();
+		mHeight = readShort();
+
+		if(mWidth <= 0 || mHeight <= 0 || (long)mWidth * mHeight > MAX_PIXELS) {
+			throw new IOException("Invalid GIF dimensions " + mWidth + "x" + mHeight);
+		}
+
+		final int packed = read();
+		mBackgroundIndex = read();
+		read(); // Pixel aspect ratio
+
+		if((packed & 0x80) != 0) {
+			mGlobalColours = readColourTable(2 << (packed & 7));
+		} else {
+			mGlobalColours = null;
+		}
+
+		mCanvas = new int[mWidth * mHeight];
+	}
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	public int getFrameCount() {
+		return mFrameCount;
+	}
+
+	// The ARGB pixels of the most recently decoded frame, which are overwritten by the next call
+	// to readNextFrame()
+	@NonNull
+	public int[] getCanvas() {
+		return mCanvas;
+	}
+
+	public int getFrameDelayMs() {
+		return mLastDelayMs;
+	}
+
+	// Returns false once there are no more frames
+	public boolean readNextFrame() throws IOException {
+
+		while(true) {
+
+			final int blockType = mIn.read();
+
+			switch(blockType) {
+
+				case 0x2C:
+					readImage();
+					return true;
+
+				case 0x21:
+					if(read() == 0xF9) {
+						readGraphicControlExtension();
+					} else {
+						skipBlocks();
+					}
+					break;
+
+				case 0x3B: // Trailer
+				case -1: // Some files are truncated before the trailer
+					return false;
+
+				default:
+					throw new IOException("Unexpected GIF block type " + blockType);
+			}
+		}
+	}
+
+	private int read() throws IOException {
+
+		final int result = mIn.read();
+
+		if(result < 0) {
+			throw new EOFException("Unexpected end of GIF data");
+		}
+
+		return result;
+	}
+
+	private int readShort() throws IOException {
+		return read() | (read() << 8);
+	}
+
+	// Returns the size of the block, which is zero at the end of a sequence of blocks
+	private int readBlock() throws IOException {
+
+		final int size = read();
+		int pos = 0;
+
+		while(pos < size) {
+
+			final int bytesRead = mIn.read(mBlock, pos, size - pos);
+
+			if(bytesRead < 0) {
+				throw new EOFException("Unexpected end of GIF data");
+			}
+
+			pos += bytesRead;
+		}
+
+		return size;
+	}
+
+	private void skipBlocks() throws IOException {
+
+		int size;
+
+		do {
+			size = readBlock();
+		} while(size > 0);
+	}
+
+	@NonNull
+	private int[] readColourTable(final int colours) throws IOException {
+
+		// Always 256 entries, so that any index is in bounds
+		final int[] result = new int[256];
+
+		for(int i = 0; i < colours; i++) {
+			final int r = read();
+			final int g = read();
+			final int b = read();
+			result[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+		}
+
+		return result;
+	}
+
+	private void readGraphicControlExtension() throws IOException {
+
+		read(); // Block size
+		final int packed = read();
+
+		mDispose = (packed & 0x1C) >> 2;
+
+		if(mDispose == 0) {
+			mDispose = DISPOSE_NONE;
+		}
+
+		mTransparent = (packed & 1) != 0;
+		mDelayMs = readShort() * 10;
+		mTransparentIndex = read();
+
+		skipBlocks();
+	}
+
+	private void readImage() throws IOException {
+
+		final int x = readShort();
+		final int y = readShort();
+		final int w = readShort();
+		final int h = readShort();
+		final int packed = read();
+
+		if((long)w * h > MAX_PIXELS) {
+			throw new IOException("GIF frame too large: " + w + "x" + h);
+		}
+
+		final boolean interlaced = (packed & 0x40) != 0;
+
+		final int[] colours;
+
+		if((packed & 0x80) != 0) {
+			colours = readColourTable(2 << (packed & 7));
+		} else {
+			colours = mGlobalColours;
+		}
+
+		if(colours == null) {
+			throw new IOException("No colour table for GIF frame");
+		}
+
+		disposeLastFrame();
+
+		if(mDispose == DISPOSE_PREVIOUS) {
+
+			if(mSavedCanvas == null) {
+				mSavedCanvas = new int[mCanvas.length];
+			}
+
+			System.arraycopy(mCanvas, 0, mSavedCanvas, 0, mCanvas.length);
+		}
+
+		if(!decodePixels(w * h)) {
+			skipBlocks();
+		}
+
+		drawPixels(colours, x, y, w, h, interlaced);
+
+		mFrameCount++;
+
+		mLastDispose = mDispose;
+		mLastTransparent = mTransparent;
+		mLastX = x;
+		mLastY = y;
+		mLastW = w;
+		mLastH = h;
+		mLastDelayMs = mDelayMs;
+
+		mDispose = DISPOSE_NONE;
+		mTransparent = false;
+		mDelayMs = 0;
+	}
+
+	private void disposeLastFrame() {
+
+		if(mFrameCount == 0) {
+			return;
+		}
+
+		if(mLastDispose == DISPOSE_BACKGROUND) {
+
+			final int colour = mLastTransparent || mGlobalColours == null
+					? 0
+					: mGlobalColours[mBackgroundIndex];
+
+			final int right = Math.min(mWidth, mLastX + mLastW);
+			final int bottom = Math.min(mHeight, mLastY + mLastH);
+
+			for(int row = mLastY; row < bottom; row++) {
+				for(int col = mLastX; col < right; col++) {
+					mCanvas[row * mWidth + col] = colour;
+				}
+			}
+
+		} else if(mLastDispose == DISPOSE_PREVIOUS && mSavedCanvas != null) {
+			System.arraycopy(mSavedCanvas, 0, mCanvas, 0, mCanvas.length);
+		}
+	}
+
+	private void drawPixels(
+			@NonNull final int[] colours,
+			final int x,
+			final int y,
+			final int w,
+			final int h,
+			final boolean interlaced) {
+
+		final byte[] pixels = mPixels;
+
+		int pass = 1;
+		int inc = interlaced ? 8 : 1;
+		int interlacedRow = 0;
+
+		for(int i = 0; i < h; i++) {
+
+			int row = i;
+
+			if(interlaced) {
+
+				// Small images may skip entire passes
+				while(interlacedRow >= h && pass < 4) {
+					pass++;
+
+					if(pass == 2) {
+						interlacedRow = 4;
+					} else if(pass == 3) {
+						interlacedRow = 2;
+						inc = 4;
+					} else {
+						interlacedRow = 1;
+						inc = 2;
+					}
+				}
+
+				row = interlacedRow;
+				interlacedRow += inc;
+			}
+
+			row += y;
+
+			if(row >= mHeight) {
+				continue;
+			}
+
+			final int right = Math.min(mWidth, x + w);
+			int src = i * w;
+
+			for(int col = x; col < right; col++, src++) {
+
+				final int index = pixels[src] & 0xFF;
+
+				if(!mTransparent || index != mTransparentIndex) {
+					mCanvas[row * mWidth + col] = colours[index];
+				}
+			}
+		}
+	}
+
+	// LZW decoder, adapted from the original GifDecoder. Returns true if the block terminating
+	// the image data has already been read.
+	private boolean decodePixels(final int pixelCount) throws IOException {
+
+		if(mPixels == null || mPixels.length < pixelCount) {
+			mPixels = new byte[pixelCount];
+		}
+
+		final byte[] pixels = mPixels;
+
+		final int dataSize = read();
+
+		if(dataSize < 1 || dataSize > 11) {
+			throw new IOException("Invalid LZW code size " + dataSize);
+		}
+
+		final int clear = 1 << dataSize;
+		final int endOfInformation = clear + 1;
+
+		int available = clear + 2;
+		int oldCode = -1;
+		int codeSize = dataSize + 1;
+		int codeMask = (1 << codeSize) - 1;
+
+		for(int code = 0; code < clear; code++) {
+			mPrefix[code] = 0;
+			mSuffix[code] = (byte)code;
+		}
+
+		int datum = 0;
+		int bits = 0;
+		int count = 0;
+		int first = 0;
+		int top = 0;
+		int pi = 0;
+		int bi = 0;
+
+		boolean terminated = false;
+
+		while(pi < pixelCount) {
+
+			if(top == 0) {
+
+				if(bits < codeSize) {
+
+					if(count == 0) {
+
+						count = readBlock();
+
+						if(count == 0) {
+							// The data ended early, and the terminating block has been read
+							terminated = true;
+							break;
+						}
+
+						bi = 0;
+					}
+
+					datum += (mBlock[bi] & 0xFF) << bits;
+					bits += 8;
+					bi++;
+					count--;
+					continue;
+				}
+
+				int code = datum & codeMask;
+				datum >>= codeSize;
+				bits -= codeSize;
+
+				if(code > available || code == endOfInformation) {
+					break;
+				}
+
+				if(code == clear) {
+					codeSize = dataSize + 1;
+					codeMask = (1 << codeSize) - 1;
+					available = clear + 2;
+					oldCode = -1;
+					continue;
+				}
+
+				if(oldCode == -1) {
+					mPixelStack[top++] = mSuffix[code];
+					oldCode = code;
+					first = code;
+					continue;
+				}
+
+				final int inCode = code;
+
+				if(code == available) {
+					mPixelStack[top++] = (byte)first;
+					code = oldCode;
+				}
+
+				while(code > clear) {
+					mPixelStack[top++] = mSuffix[code];
+					code = mPrefix[code];
+				}
+
+				first = mSuffix[code] & 0xFF;
+
+				if(available >= MAX_CODES) {
+					break;
+				}
+
+				mPixelStack[top++] = (byte)first;
+				mPrefix[available] = (short)oldCode;
+				mSuffix[available] = (byte)first;
+				available++;
+
+				if((available & codeMask) == 0 && available < MAX_CODES) {
+					codeSize++;
+					codeMask += available;
+				}
+
+				oldCode = inCode;
+			}
+
+			top--;
+			pixels[pi++] = mPixelStack[top];
+		}
+
+		for(int i = pi; i < pixelCount; i++) {
+			pixels[i] = 0;
+		}
+
+		return terminated;
+	}
+}
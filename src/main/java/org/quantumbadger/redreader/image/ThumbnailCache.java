@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.collections.SizeBoundedLruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Holds thumbnails which have already been scaled for display, so that showing the same
+// listing again doesn't need to decode and scale the original images
+public final class ThumbnailCache {
+
+	private static final String TAG = "ThumbnailCache";
+
+	private static final long MAX_DISK_BYTES = 20 * 1024 * 1024;
+	private static final int LOOKUPS_BETWEEN_STATS = 200;
+
+	@Nullable private static ThumbnailCache singleton;
+
+	@NonNull private final SizeBoundedLruCache<String, Bitmap> mMemoryCache;
+	@NonNull private final File mDiskDir;
+
+	private final Object mDiskLock = new Object();
+	private long mDiskBytes = -1;
+
+	private final AtomicInteger mLookups = new AtomicInteger();
+	private final AtomicInteger mMemoryHits = new AtomicInteger();
+	private final AtomicInteger mDiskHits = new AtomicInteger();
+
+	public static synchronized ThumbnailCache getInstance(@NonNull final Context context) {
+
+		if(singleton == null) {
+			singleton = new ThumbnailCache(context.getApplicationContext());
+		}
+
+		return singleton;
+	}
+
+	private ThumbnailCache(@NonNull final Context context) {
+
+		mMemoryCache = new SizeBoundedLruCache<>(
+				Runtime.getRuntime().maxMemory() / 16,
+				Bitmap::getByteCount);
+
+		mDiskDir = new File(context.getCacheDir(), "scaled_thumbnails");
+	}
+
+	@NonNull
+	private static String getKey(@NonNull final String url, final int sizePixels) {
+		return sizePixels + " " + url;
+	}
+
+	@NonNull
+	private File getDiskFile(@NonNull final String key) {
+		return new File(mDiskDir, General.sha1(key.getBytes(General.CHARSET_UTF8)) + ".webp");
+	}
+
+	@Nullable
+	public Bitmap get(@NonNull final String url, final int sizePixels) {
+
+		final String key = getKey(url, sizePixels);
+
+		try {
+			final Bitmap fromMemory = mMemoryCache.get(key);
+
+			if(fromMemory != null) {
+				mMemoryHits.incrementAndGet();
+				return fromMemory;
+			}
+
+			final File file = getDiskFile(key);
+
+			if(!file.exists()) {
+				return null;
+			}
+
+			final Bitmap fromDisk = BitmapFactory.decodeFile(file.getAbsolutePath());
+
+			if(fromDisk == null) {
+				return null;
+			}
+
+			//noinspection ResultOfMethodCallIgnored
+			file.setLastModified(System.currentTimeMillis());
+
+			mDiskHits.incrementAndGet();
+			mMemoryCache.put(key, fromDisk);
+			return fromDisk;
+
+		} finally {
+			if(mLookups.incrementAndGet() % LOOKUPS_BETWEEN_STATS == 0) {
+				logStats();
+			}
+		}
+	}
+
+	// Must not be called on the UI thread, as the thumbnail is written to disk
+	public void put(
+			@NonNull final String url,
+			final int sizePixels,
+			@NonNull final Bitmap thumbnail) {
+
+		final String key = getKey(url, sizePixels);
+
+		mMemoryCache.put(key, thumbnail);
+
+		synchronized(mDiskLock) {
+
+			if(mDiskBytes < 0) {
+				//noinspection ResultOfMethodCallIgnored
+				mDiskDir.mkdirs();
+				mDiskBytes = getDiskUsage();
+			}
+
+			final File file = getDiskFile(key);
+			final File tmpFile = new File(mDiskDir, file.getName() + ".tmp");
+
+			try(FileOutputStream os = new FileOutputStream(tmpFile)) {
+
+				@SuppressWarnings("deprecation") final Bitmap.CompressFormat format
+						= Bitmap.CompressFormat.WEBP;
+
+				if(!thumbnail.compress(format, 90, os)) {
+					throw new IOException("Failed to compress thumbnail");
+				}
+
+			} catch(final IOException e) {
+				Log.e(TAG, "Failed to write thumbnail to disk", e);
+				//noinspection ResultOfMethodCallIgnored
+				tmpFile.delete();
+				return;
+			}
+
+			final long oldLength = file.length();
+
+			if(!tmpFile.renameTo(file)) {
+				//noinspection ResultOfMethodCallIgnored
+				tmpFile.delete();
+				return;
+			}
+
+			mDiskBytes += file.length() - oldLength;
+
+			if(mDiskBytes > MAX_DISK_BYTES) {
+				pruneDisk();
+			}
+		}
+	}
+
+	public void clear() {
+
+		mMemoryCache.clear();
+
+		synchronized(mDiskLock) {
+
+			final File[] files = mDiskDir.listFiles();
+
+			if(files != null) {
+				for(final File file : files) {
+					//noinspection ResultOfMethodCallIgnored
+					file.delete();
+				}
+			}
+
+			mDiskBytes = 0;
+		}
+	}
+
+	private long getDiskUsage() {
+
+		final File[] files = mDiskDir.listFiles();
+
+		if(files == null) {
+			return 0;
+		}
+
+		long total = 0;
+
+		for(final File file : files) {
+			total += file.length();
+		}
+
+		return total;
+	}
+
+	// Deletes the least recently used files until three quarters of the budget is in use
+	private void pruneDisk() {
+
+		final File[] files = mDiskDir.listFiles();
+
+		if(files == null) {
+			return;
+		}
+
+		final long[] lastModified = new long[files.length];
+		final Integer[] order = new Integer[files.length];
+
+		for(int i = 0; i < files.length; i++) {
+			lastModified[i] = files[i].lastModified();
+			order[i] = i;
+		}
+
+		Arrays.sort(order, (a, b) -> Long.compare(lastModified[a], lastModified[b]));
+
+		for(final int i : order) {
+
+			if(mDiskBytes <= MAX_DISK_BYTES * 3 / 4) {
+				break;
+			}
+
+			final long length = files[i].length();
+
+			if(files[i].delete()) {
+				mDiskBytes -= length;
+			}
+		}
+	}
+
+	private void logStats() {
+
+		final int lookups = mLookups.get();
+		final int memoryHits = mMemoryHits.get();
+		final int diskHits = mDiskHits.get();
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"%d lookups: memory hit rate %.1f%%, disk hit rate %.1f%%, %d KiB in memory",
+				lookups,
+				100.0 * memoryHits / lookups,
+				100.0 * diskHits / lookups,
+				mMemoryCache.size() / 1024));
+	}
+}
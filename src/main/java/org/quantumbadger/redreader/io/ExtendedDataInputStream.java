@@ -22,9 +22,12 @@ import androidx.annotation.Nullable;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 
 public class ExtendedDataInputStream extends DataInputStream {
 
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
 	public ExtendedDataInputStream(final InputStream in) {
 		super(in);
 	}
@@ -38,4 +41,26 @@ public class ExtendedDataInputStream extends DataInputStream {
 
 		return readBoolean();
 	}
+
+	@Nullable
+	public Long readNullableLong() throws IOException {
+
+		if(!readBoolean()) {
+			return null;
+		}
+
+		return readLong();
+	}
+
+	@Nullable
+	public String readNullableString() throws IOException {
+
+		if(!readBoolean()) {
+			return null;
+		}
+
+		final byte[] bytes = new byte[readInt()];
+		readFully(bytes);
+		return new String(bytes, UTF8);
+	}
 }
@@ -22,9 +22,12 @@ import androidx.annotation.Nullable;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 
 public class ExtendedDataOutputStream extends DataOutputStream {
 
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
 	public ExtendedDataOutputStream(final OutputStream out) {
 		super(out);
 	}
@@ -39,4 +42,29 @@ public class ExtendedDataOutputStream extends DataOutputStream {
 			writeBoolean(value);
 		}
 	}
+
+	public void writeNullableLong(@Nullable final Long value) throws IOException {
+
+		if(value == null) {
+			writeBoolean(false);
+
+		} else {
+			writeBoolean(true);
+			writeLong(value);
+		}
+	}
+
+	public void writeNullableString(@Nullable final String value) throws IOException {
+
+		if(value == null) {
+			writeBoolean(false);
+
+		} else {
+			// Not writeUTF(), which is limited to 64 KiB
+			final byte[] bytes = value.getBytes(UTF8);
+			writeBoolean(true);
+			writeInt(bytes.length);
+			write(bytes);
+		}
+	}
 }
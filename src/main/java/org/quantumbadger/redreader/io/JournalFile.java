@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.io;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// An append-only log of records, each framed with its length and a checksum. The journal is
+// tagged with a generation number, so that it can be matched to the snapshot it applies to.
+public final class JournalFile {
+
+	private static final int JOURNAL_VERSION = 1;
+	private static final int HEADER_BYTES = 4 + 8;
+
+	public interface RecordWriter {
+		void writeTo(@NonNull ExtendedDataOutputStream dos) throws IOException;
+	}
+
+	public interface RecordReader {
+		void readFrom(@NonNull ExtendedDataInputStream dis) throws IOException;
+	}
+
+	@NonNull private final File mFile;
+
+	public JournalFile(@NonNull final File file) {
+		mFile = file;
+	}
+
+	public long length() {
+		return mFile.length();
+	}
+
+	// Returns the number of records read. A partially written record at the end of the file
+	// (for example, after a crash during an append) is discarded, along with anything after it.
+	// If the journal is missing or belongs to a different generation, it is reset.
+	public int replay(
+			final long generation,
+			@NonNull final RecordReader reader) throws IOException {
+
+		int recordsRead = 0;
+		long validLength = 0;
+
+		if(mFile.exists()) {
+
+			try(ExtendedDataInputStream dis = new ExtendedDataInputStream(
+					new BufferedInputStream(new FileInputStream(mFile), 64 * 1024))) {
+
+				if(dis.readInt() == JOURNAL_VERSION && dis.readLong() == generation) {
+					validLength = HEADER_BYTES;
+				}
+
+				final CRC32 crc = new CRC32();
+
+				while(validLength > 0) {
+
+					final int length = dis.readInt();
+					final int expectedCrc = dis.readInt();
+
+					if(length < 0 || length > mFile.length()) {
+						break;
+					}
+
+					final byte[] payload = new byte[length];
+					dis.readFully(payload);
+
+					crc.reset();
+					crc.update(payload, 0, payload.length);
+
+					if((int)crc.getValue() != expectedCrc) {
+						break;
+					}
+
+					reader.readFrom(new ExtendedDataInputStream(
+							new ByteArrayInputStream(payload)));
+
+					recordsRead++;
+					validLength += 8 + length;
+				}
+
+			} catch(final EOFException e) {
+				// Reached the end of the file, possibly part way through a record
+			}
+		}
+
+		if(validLength == 0) {
+			reset(generation);
+
+		} else if(validLength < mFile.length()) {
+			try(RandomAccessFile file = new RandomAccessFile(mFile, "rw")) {
+				file.setLength(validLength);
+			}
+		}
+
+		return recordsRead;
+	}
+
+	// Returns the number of bytes written. The records are synced to disk before returning.
+	public long append(@NonNull final List<RecordWriter> records) throws IOException {
+
+		final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+		final ExtendedDataOutputStream recordStream = new ExtendedDataOutputStream(recordBytes);
+
+		final CRC32 crc = new CRC32();
+		long bytesWritten = 0;
+
+		try(FileOutputStream fos = new FileOutputStream(mFile, true)) {
+
+			final ExtendedDataOutputStream dos
+					= new ExtendedDataOutputStream(new BufferedOutputStream(fos, 16 * 1024));
+
+			for(final RecordWriter record : records) {
+
+				recordBytes.reset();
+				record.writeTo(recordStream);
+				recordStream.flush();
+
+				final byte[] payload = recordBytes.toByteArray();
+
+				crc.reset();
+				crc.update(payload, 0, payload.length);
+
+				dos.writeInt(payload.length);
+				dos.writeInt((int)crc.getValue());
+				dos.write(payload);
+
+				bytesWritten += 8 + payload.length;
+			}
+
+			dos.flush();
+			fos.getFD().sync();
+		}
+
+		return bytesWritten;
+	}
+
+	// Discards all records, and starts a new journal for the specified generation
+	public void reset(final long generation) throws IOException {
+
+		try(FileOutputStream fos = new FileOutputStream(mFile, false)) {
+
+			final ExtendedDataOutputStream dos = new ExtendedDataOutputStream(fos);
+			dos.writeInt(JOURNAL_VERSION);
+			dos.writeLong(generation);
+			dos.flush();
+
+			fos.getFD().sync();
+		}
+	}
+}
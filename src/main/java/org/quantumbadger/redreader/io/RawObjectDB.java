@@ -17,12 +17,13 @@
 
 package org.quantumbadger.redreader.io;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
+import org.quantumbadger.redreader.common.StringUtils;
 import org.quantumbadger.redreader.common.UnexpectedInternalStateException;
 
 import java.lang.reflect.Constructor;
@@ -30,21 +31,236 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Locale;
 
+// The database connection is opened on first use and then kept open, so that the insert
+// statement only needs to be compiled once, and so that SQLite's per-connection statement cache
+// can be reused for lookups.
 public class RawObjectDB<K, E extends WritableObject<K>> extends SQLiteOpenHelper {
 
-	private final Class<E> clazz;
+	private final Constructor<E> constructor;
 
 	private final Field[] fields;
+	private final ColumnType[] fieldTypes;
 	private final String[] fieldNames;
 
+	private final String selectByIdSql;
+	private final String insertSql;
+
+	private SQLiteStatement insertStatement;
+
 	private static final String TABLE_NAME = "objects";
 	private static final String FIELD_ID = "RawObjectDB_id";
 	private static final String FIELD_TIMESTAMP = "RawObjectDB_timestamp";
 
+	private enum ColumnType {
+
+		STRING {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.set(obj, cursor.isNull(column) ? null : cursor.getString(column));
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				bindNullableString(statement, index, (String)field.get(obj));
+			}
+		},
+
+		INTEGER_OBJECT {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.set(obj, cursor.isNull(column) ? null : cursor.getInt(column));
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				final Integer value = (Integer)field.get(obj);
+				if(value == null) {
+					statement.bindNull(index);
+				} else {
+					statement.bindLong(index, value);
+				}
+			}
+		},
+
+		INTEGER {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.setInt(obj, cursor.getInt(column));
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				statement.bindLong(index, field.getInt(obj));
+			}
+		},
+
+		LONG_OBJECT {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.set(obj, cursor.isNull(column) ? null : cursor.getLong(column));
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				final Long value = (Long)field.get(obj);
+				if(value == null) {
+					statement.bindNull(index);
+				} else {
+					statement.bindLong(index, value);
+				}
+			}
+		},
+
+		LONG {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.setLong(obj, cursor.getLong(column));
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				statement.bindLong(index, field.getLong(obj));
+			}
+		},
+
+		BOOLEAN_OBJECT {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.set(obj, cursor.isNull(column) ? null : cursor.getInt(column) != 0);
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				final Boolean value = (Boolean)field.get(obj);
+				if(value == null) {
+					statement.bindNull(index);
+				} else {
+					statement.bindLong(index, value ? 1 : 0);
+				}
+			}
+		},
+
+		BOOLEAN {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.setBoolean(obj, cursor.getInt(column) != 0);
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				statement.bindLong(index, field.getBoolean(obj) ? 1 : 0);
+			}
+		},
+
+		WRITABLE_HASH_SET {
+			@Override
+			void read(final Field field, final Object obj, final Cursor cursor, final int column)
+					throws IllegalAccessException {
+				field.set(
+						obj,
+						cursor.isNull(column)
+								? null
+								: WritableHashSet.unserializeWithMetadata(
+										cursor.getString(column)));
+			}
+
+			@Override
+			void bind(
+					final Field field,
+					final Object obj,
+					final SQLiteStatement statement,
+					final int index) throws IllegalAccessException {
+				statement.bindString(
+						index,
+						((WritableHashSet)field.get(obj)).serializeWithMetadata());
+			}
+		};
+
+		abstract void read(Field field, Object obj, Cursor cursor, int column)
+				throws IllegalAccessException;
+
+		abstract void bind(Field field, Object obj, SQLiteStatement statement, int index)
+				throws IllegalAccessException;
+
+		static ColumnType forField(final Field field) {
+
+			final Class<?> fieldType = field.getType();
+
+			if(fieldType == String.class) {
+				return STRING;
+			} else if(fieldType == Integer.class) {
+				return INTEGER_OBJECT;
+			} else if(fieldType == Integer.TYPE) {
+				return INTEGER;
+			} else if(fieldType == Long.class) {
+				return LONG_OBJECT;
+			} else if(fieldType == Long.TYPE) {
+				return LONG;
+			} else if(fieldType == Boolean.class) {
+				return BOOLEAN_OBJECT;
+			} else if(fieldType == Boolean.TYPE) {
+				return BOOLEAN;
+			} else if(fieldType == WritableHashSet.class) {
+				return WRITABLE_HASH_SET;
+			} else {
+				throw new UnexpectedInternalStateException(
+						"Invalid field type " + fieldType.getCanonicalName());
+			}
+		}
+	}
+
+	private static void bindNullableString(
+			final SQLiteStatement statement,
+			final int index,
+			final String value) {
+
+		if(value == null) {
+			statement.bindNull(index);
+		} else {
+			statement.bindString(index, value);
+		}
+	}
+
 	private static <E> int getDbVersion(final Class<E> clazz) {
 		for(final Field field : clazz.getDeclaredFields()) {
 			if(field.isAnnotationPresent(WritableObject.WritableObjectVersion.class)) {
@@ -65,7 +281,12 @@ public class RawObjectDB<K, E extends WritableObject<K>> extends SQLiteOpenHelpe
 			final Class<E> clazz) {
 
 		super(context.getApplicationContext(), dbFilename, null, getDbVersion(clazz));
-		this.clazz = clazz;
+
+		try {
+			constructor = clazz.getConstructor(WritableObject.CreationData.class);
+		} catch(final NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
 
 		final LinkedList<Field> fields = new LinkedList<>();
 		for(final Field field : clazz.getDeclaredFields()) {
@@ -81,12 +302,36 @@ public class RawObjectDB<K, E extends WritableObject<K>> extends SQLiteOpenHelpe
 
 		this.fields = fields.toArray(new Field[0]);
 
+		fieldTypes = new ColumnType[this.fields.length];
 		fieldNames = new String[this.fields.length + 2];
 		for(int i = 0; i < this.fields.length; i++) {
+			fieldTypes[i] = ColumnType.forField(this.fields[i]);
 			fieldNames[i] = this.fields[i].getName();
 		}
 		fieldNames[this.fields.length] = FIELD_ID;
 		fieldNames[this.fields.length + 1] = FIELD_TIMESTAMP;
+
+		final String columns = StringUtils.join(Arrays.asList(fieldNames), ",");
+
+		selectByIdSql = String.format(
+				Locale.US,
+				"SELECT %s FROM %s WHERE %s=?",
+				columns,
+				TABLE_NAME,
+				FIELD_ID);
+
+		final StringBuilder placeholders = new StringBuilder(fieldNames.length * 2);
+		for(int i = 0; i < fieldNames.length; i++) {
+			placeholders.append(i == 0 ? "?" : ",?");
+		}
+
+		// The primary key is declared with ON CONFLICT REPLACE
+		insertSql = String.format(
+				Locale.US,
+				"INSERT INTO %s (%s) VALUES (%s)",
+				TABLE_NAME,
+				columns,
+				placeholders);
 	}
 
 	private String getFieldTypeString(final Class<?> fieldType) {
@@ -137,64 +382,77 @@ public class RawObjectDB<K, E extends WritableObject<K>> extends SQLiteOpenHelpe
 			final int newVersion) {
 	}
 
-	public synchronized Collection<E> getAll() {
+	@Override
+	public synchronized void close() {
 
-		try(SQLiteDatabase db = getReadableDatabase()) {
+		if(insertStatement != null) {
+			insertStatement.close();
+			insertStatement = null;
+		}
 
-			try(Cursor cursor = db.query(
-					TABLE_NAME,
-					fieldNames,
-					null,
-					null,
-					null,
-					null,
-					null)) {
+		super.close();
+	}
 
-				final LinkedList<E> result = new LinkedList<>();
-				while(cursor.moveToNext()) {
-					result.add(readFromCursor(cursor));
-				}
-				return result;
+	public synchronized Collection<E> getAll() {
 
-			} catch(final Exception e) {
-				throw new RuntimeException(e);
+		try(Cursor cursor = getWritableDatabase().query(
+				TABLE_NAME,
+				fieldNames,
+				null,
+				null,
+				null,
+				null,
+				null)) {
+
+			final ArrayList<E> result = new ArrayList<>(cursor.getCount());
+			while(cursor.moveToNext()) {
+				result.add(readFromCursor(cursor));
 			}
+			return result;
+
+		} catch(final Exception e) {
+			throw new RuntimeException(e);
 		}
 	}
 
 	public synchronized E getById(final K id) {
-		final ArrayList<E> queryResult = getByField(FIELD_ID, id.toString());
-		if(queryResult.size() != 1) {
-			return null;
-		} else {
-			return queryResult.get(0);
+
+		try(Cursor cursor = getWritableDatabase().rawQuery(
+				selectByIdSql,
+				new String[]{id.toString()})) {
+
+			if(cursor.getCount() != 1 || !cursor.moveToFirst()) {
+				return null;
+			}
+
+			return readFromCursor(cursor);
+
+		} catch(final Exception e) {
+			throw new RuntimeException(e);
 		}
 	}
 
 	public synchronized ArrayList<E> getByField(final String field, final String value) {
 
-		try(SQLiteDatabase db = getReadableDatabase()) {
-
-			try(Cursor cursor = db.query(
-					TABLE_NAME,
-					fieldNames,
-					String.format(Locale.US, "%s=?", field),
-					new String[]{value},
-					null,
-					null,
-					null)) {
+		try(Cursor cursor = getWritableDatabase().query(
+				TABLE_NAME,
+				fieldNames,
+				String.format(Locale.US, "%s=?", field),
+				new String[]{value},
+				null,
+				null,
+				null)) {
 
-				final ArrayList<E> result = new ArrayList<>(cursor.getCount());
+			final ArrayList<E> result = new ArrayList<>(cursor.getCount());
 
-				while(cursor.moveToNext()) {
-					result.add(readFromCursor(cursor));
-				}
+			while(cursor.moveToNext()) {
+				result.add(readFromCursor(cursor));
+			}
 
-				return result;
+			return result;
 
-			} catch(final Exception e) {
-				throw new RuntimeException(e);
-			}
+		} catch(final Exception e) {
+			throw new RuntimeException(e);
 		}
 	}
 
@@ -204,57 +462,12 @@ public class RawObjectDB<K, E extends WritableObject<K>> extends SQLiteOpenHelpe
 			InstantiationException,
 			InvocationTargetException {
 
-		final E obj;
-		try {
-			final Constructor<E> constructor
-					= clazz.getConstructor(WritableObject.CreationData.class);
-			final String id = cursor.getString(fields.length);
-			final long timestamp = cursor.getLong(fields.length + 1);
-			obj = constructor.newInstance(new WritableObject.CreationData(id, timestamp));
-
-		} catch(final NoSuchMethodException e) {
-			throw new RuntimeException(e);
-		}
+		final String id = cursor.getString(fields.length);
+		final long timestamp = cursor.getLong(fields.length + 1);
+		final E obj = constructor.newInstance(new WritableObject.CreationData(id, timestamp));
 
 		for(int i = 0; i < fields.length; i++) {
-
-			final Field field = fields[i];
-			final Class<?> fieldType = field.getType();
-
-			if(fieldType == String.class) {
-				field.set(obj, cursor.isNull(i) ? null : cursor.getString(i));
-
-			} else if(fieldType == Integer.class) {
-				field.set(obj, cursor.isNull(i) ? null : cursor.getInt(i));
-
-			} else if(fieldType == Integer.TYPE) {
-				field.setInt(obj, cursor.getInt(i));
-
-			} else if(fieldType == Long.class) {
-				field.set(obj, cursor.isNull(i) ? null : cursor.getLong(i));
-
-			} else if(fieldType == Long.TYPE) {
-				field.setLong(obj, cursor.getLong(i));
-
-			} else if(fieldType == Boolean.class) {
-				field.set(obj, cursor.isNull(i) ? null : cursor.getInt(i) != 0);
-
-			} else if(fieldType == Boolean.TYPE) {
-				field.setBoolean(obj, cursor.getInt(i) != 0);
-
-			} else if(fieldType == WritableHashSet.class) {
-				field.set(
-						obj,
-						cursor.isNull(i)
-								? null
-								: WritableHashSet.unserializeWithMetadata(cursor.getString(
-										i)));
-
-			} else {
-				throw new UnexpectedInternalStateException(
-						"Invalid readFromCursor field type "
-								+ fieldType.getClass().getCanonicalName());
-			}
+			fieldTypes[i].read(fields[i], obj, cursor, i);
 		}
 
 		return obj;
@@ -262,97 +475,61 @@ public class RawObjectDB<K, E extends WritableObject<K>> extends SQLiteOpenHelpe
 
 	public synchronized void put(final E object) {
 
-		final SQLiteDatabase db = getWritableDatabase();
-
 		try {
-			final ContentValues values = new ContentValues(fields.length + 1);
-			final long result = db.insertOrThrow(
-					TABLE_NAME,
-					null,
-					toContentValues(object, values));
-
-			if(result < 0) {
-				throw new RuntimeException("Database write failed");
-			}
+			insert(getInsertStatement(), object);
 
 		} catch(final IllegalAccessException e) {
 			throw new RuntimeException(e);
-
-		} finally {
-			db.close();
 		}
 	}
 
 	public synchronized void putAll(final Collection<E> objects) {
 
 		final SQLiteDatabase db = getWritableDatabase();
+		final SQLiteStatement statement = getInsertStatement();
 
-		try {
-
-			final ContentValues values = new ContentValues(fields.length + 1);
+		db.beginTransaction();
 
+		try {
 			for(final E object : objects) {
-				final long result = db.insertOrThrow(
-						TABLE_NAME,
-						null,
-						toContentValues(object, values));
-				if(result < 0) {
-					throw new RuntimeException("Bulk database write failed");
-				}
+				insert(statement, object);
 			}
 
+			db.setTransactionSuccessful();
+
 		} catch(final IllegalAccessException e) {
 			throw new RuntimeException(e);
 
 		} finally {
-			db.close();
+			db.endTransaction();
 		}
 	}
 
-	private ContentValues toContentValues(final E obj, final ContentValues result) throws
-			IllegalAccessException {
-
-		result.put(FIELD_ID, obj.getKey().toString());
-		result.put(FIELD_TIMESTAMP, obj.getTimestamp());
+	private SQLiteStatement getInsertStatement() {
 
-		for(int i = 0; i < fields.length; i++) {
-
-			final Field field = fields[i];
-			final Class<?> fieldType = field.getType();
-
-			if(fieldType == String.class) {
-				result.put(fieldNames[i], (String)field.get(obj));
-
-			} else if(fieldType == Integer.class) {
-				result.put(fieldNames[i], (Integer)field.get(obj));
+		if(insertStatement == null) {
+			insertStatement = getWritableDatabase().compileStatement(insertSql);
+		}
 
-			} else if(fieldType == Integer.TYPE) {
-				result.put(fieldNames[i], field.getInt(obj));
+		return insertStatement;
+	}
 
-			} else if(fieldType == Long.class) {
-				result.put(fieldNames[i], (Long)field.get(obj));
+	private void insert(final SQLiteStatement statement, final E obj)
+			throws IllegalAccessException {
 
-			} else if(fieldType == Long.TYPE) {
-				result.put(fieldNames[i], field.getLong(obj));
+		statement.clearBindings();
 
-			} else if(fieldType == Boolean.class) {
-				final Boolean val = (Boolean)field.get(obj);
-				result.put(fieldNames[i], val == null ? null : (val ? 1 : 0));
+		// SQLiteStatement parameter indices start at 1
+		for(int i = 0; i < fields.length; i++) {
+			fieldTypes[i].bind(fields[i], obj, statement, i + 1);
+		}
 
-			} else if(fieldType == Boolean.TYPE) {
-				result.put(fieldNames[i], field.getBoolean(obj) ? 1 : 0);
+		statement.bindString(fields.length + 1, obj.getKey().toString());
+		statement.bindLong(fields.length + 2, obj.getTimestamp());
 
-			} else if(fieldType == WritableHashSet.class) {
-				result.put(
-						fieldNames[i],
-						((WritableHashSet)field.get(obj)).serializeWithMetadata());
-
-			} else {
-				throw new UnexpectedInternalStateException();
-			}
+		if(statement.executeInsert() < 0) {
+			throw new RuntimeException("Database write failed");
 		}
-
-		return result;
 	}
 
 }
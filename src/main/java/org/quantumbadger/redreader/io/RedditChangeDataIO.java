@@ -30,6 +30,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -37,12 +40,20 @@ public class RedditChangeDataIO {
 
 	private static final String TAG = "RedditChangeDataIO";
 
-	private static final int DB_VERSION = 1;
+	// Version 2 adds the generation number, to match the snapshot with its journal
+	private static final int DB_VERSION = 2;
+	private static final int DB_VERSION_WITHOUT_GENERATION = 1;
+
 	private static final String DB_FILENAME = "rr_change_data.dat";
 	private static final String DB_WRITETMP_FILENAME = "rr_change_data_tmp.dat";
+	private static final String DB_JOURNAL_FILENAME = "rr_change_data_journal.dat";
+
+	// Once the journal is larger than this, it is folded into a new snapshot
+	private static final long MAX_JOURNAL_BYTES = 256 * 1024;
 
 	@SuppressLint("StaticFieldLeak") private static RedditChangeDataIO INSTANCE;
-	private static boolean STATIC_UPDATE_PENDING = false;
+	private static final ArrayList<JournalFile.RecordWriter> STATIC_PENDING_RECORDS
+			= new ArrayList<>();
 
 	@NonNull
 	public static synchronized RedditChangeDataIO getInstance(final Context context) {
@@ -50,85 +61,160 @@ public class RedditChangeDataIO {
 		if(INSTANCE == null) {
 			INSTANCE = new RedditChangeDataIO(context.getApplicationContext());
 
-			if(STATIC_UPDATE_PENDING) {
-				INSTANCE.notifyUpdate();
+			if(!STATIC_PENDING_RECORDS.isEmpty()) {
+				INSTANCE.notifyUpdate(STATIC_PENDING_RECORDS);
+				STATIC_PENDING_RECORDS.clear();
 			}
 		}
 
 		return INSTANCE;
 	}
 
-	public static synchronized void notifyUpdateStatic() {
+	public static synchronized void notifyUpdateStatic(
+			@NonNull final JournalFile.RecordWriter record) {
 
 		if(INSTANCE != null) {
-			INSTANCE.notifyUpdate();
+			INSTANCE.notifyUpdate(Collections.singletonList(record));
 		} else {
-			STATIC_UPDATE_PENDING = true;
+			STATIC_PENDING_RECORDS.add(record);
+		}
+	}
+
+	// For changes which aren't journaled, such as pruning
+	public static synchronized void notifyCompactionNeededStatic() {
+		if(INSTANCE != null) {
+			INSTANCE.notifyCompactionNeeded();
 		}
 	}
 
 	private final Context mContext;
 	private final Object mLock = new Object();
 
+	@NonNull private final JournalFile mJournal;
+
+	// Only accessed by the initial read and the write thread, which don't run concurrently
+	private long mGeneration = 0;
+
 	private final AtomicBoolean mIsInitialReadStarted = new AtomicBoolean(false);
 	private boolean mIsInitialReadComplete = false;
-	private boolean mUpdatePending = false;
+	@NonNull private ArrayList<JournalFile.RecordWriter> mPendingRecords = new ArrayList<>();
+	private boolean mCompactionPending = false;
 
 	private final class WriteRunnable implements Runnable {
 		@Override
 		public void run() {
 
-			final long startTime = System.currentTimeMillis();
+			final ArrayList<JournalFile.RecordWriter> records;
+			final boolean compactionPending;
 
-			try {
-
-				final File dataFileTmpLocation = getDataFileWriteTmpLocation();
+			synchronized(mLock) {
+				records = mPendingRecords;
+				mPendingRecords = new ArrayList<>();
+				compactionPending = mCompactionPending;
+				mCompactionPending = false;
+			}
 
-				Log.i(
-						TAG,
-						String.format(
-								Locale.US,
-								"Writing tmp data file at '%s'",
-								dataFileTmpLocation.getAbsolutePath()));
+			if(!compactionPending && mJournal.length() < MAX_JOURNAL_BYTES) {
 
-				final ExtendedDataOutputStream dos
-						= new ExtendedDataOutputStream(
-						new BufferedOutputStream(
-								new FileOutputStream(dataFileTmpLocation),
-								64 * 1024));
+				if(records.isEmpty()) {
+					return;
+				}
 
-				dos.writeInt(DB_VERSION);
+				try {
+					final long startTime = System.currentTimeMillis();
+					final long bytes = mJournal.append(records);
+					final long duration = System.currentTimeMillis() - startTime;
 
-				RedditChangeDataManager.writeAllUsers(dos);
+					Log.i(
+							TAG,
+							String.format(
+									Locale.US,
+									"Appended %d records to journal (%d bytes) in %d ms",
+									records.size(),
+									bytes,
+									duration));
 
-				dos.flush();
-				dos.close();
+					return;
 
-				Log.i(TAG, "Write successful. Atomically replacing data file...");
+				} catch(final IOException e) {
+					Log.e(TAG, "Journal append failed, writing snapshot instead", e);
+				}
+			}
 
-				final File dataFileLocation = getDataFileLocation();
+			// The records are already reflected in the in-memory state, so will be included in
+			// the snapshot
 
-				if(!dataFileTmpLocation.renameTo(dataFileLocation)) {
-					Log.e(TAG, "Atomic replace failed!");
-					return;
+			if(!writeSnapshot()) {
+				synchronized(mLock) {
+					mCompactionPending = true;
 				}
+			}
+		}
+	}
+
+	private boolean writeSnapshot() {
+
+		final long startTime = System.currentTimeMillis();
+
+		try {
+
+			final File dataFileTmpLocation = getDataFileWriteTmpLocation();
+
+			Log.i(
+					TAG,
+					String.format(
+							Locale.US,
+							"Writing tmp data file at '%s'",
+							dataFileTmpLocation.getAbsolutePath()));
+
+			final long newGeneration = mGeneration + 1;
 
-				Log.i(TAG, "Write complete.");
+			final ExtendedDataOutputStream dos
+					= new ExtendedDataOutputStream(
+					new BufferedOutputStream(
+							new FileOutputStream(dataFileTmpLocation),
+							64 * 1024));
 
-				final long bytes = dataFileLocation.length();
-				final long duration = System.currentTimeMillis() - startTime;
+			dos.writeInt(DB_VERSION);
+			dos.writeLong(newGeneration);
 
-				Log.i(
-						TAG,
-						String.format(
-								Locale.US,
-								"%d bytes written in %d ms",
-								bytes,
-								duration));
+			RedditChangeDataManager.writeAllUsers(dos);
 
-			} catch(final IOException e) {
-				Log.e(TAG, "Write failed!", e);
+			dos.flush();
+			dos.close();
+
+			Log.i(TAG, "Write successful. Atomically replacing data file...");
+
+			final File dataFileLocation = getDataFileLocation();
+
+			if(!dataFileTmpLocation.renameTo(dataFileLocation)) {
+				Log.e(TAG, "Atomic replace failed!");
+				return false;
 			}
+
+			// If we crash before this point, the old journal will be ignored on the next start,
+			// as its generation doesn't match the new snapshot
+			mGeneration = newGeneration;
+			mJournal.reset(newGeneration);
+
+			Log.i(TAG, "Write complete.");
+
+			final long bytes = dataFileLocation.length();
+			final long duration = System.currentTimeMillis() - startTime;
+
+			Log.i(
+					TAG,
+					String.format(
+							Locale.US,
+							"%d bytes written in %d ms",
+							bytes,
+							duration));
+
+			return true;
+
+		} catch(final IOException e) {
+			Log.e(TAG, "Write failed!", e);
+			return false;
 		}
 	}
 
@@ -137,16 +223,29 @@ public class RedditChangeDataIO {
 
 	private RedditChangeDataIO(final Context context) {
 		mContext = context;
+		mJournal = new JournalFile(new File(context.getFilesDir(), DB_JOURNAL_FILENAME));
 	}
 
-	private void notifyUpdate() {
+	private void notifyUpdate(@NonNull final List<JournalFile.RecordWriter> records) {
 
 		synchronized(mLock) {
 
+			mPendingRecords.addAll(records);
+
+			if(mIsInitialReadComplete) {
+				triggerUpdate();
+			}
+		}
+	}
+
+	private void notifyCompactionNeeded() {
+
+		synchronized(mLock) {
+
+			mCompactionPending = true;
+
 			if(mIsInitialReadComplete) {
 				triggerUpdate();
-			} else {
-				mUpdatePending = true;
 			}
 		}
 	}
@@ -178,46 +277,71 @@ public class RedditChangeDataIO {
 							dataFileLocation.getAbsolutePath()));
 
 			if(!dataFileLocation.exists()) {
-				Log.i(TAG, "Data file does not exist. Aborting read.");
-				return;
-			}
+				Log.i(TAG, "Data file does not exist.");
 
-			final ExtendedDataInputStream dis
-					= new ExtendedDataInputStream(
-					new BufferedInputStream(
-							new FileInputStream(dataFileLocation),
-							64 * 1024));
+			} else {
 
-			try {
+				final ExtendedDataInputStream dis
+						= new ExtendedDataInputStream(
+						new BufferedInputStream(
+								new FileInputStream(dataFileLocation),
+								64 * 1024));
 
-				final int version = dis.readInt();
+				try {
 
-				if(DB_VERSION != version) {
-					Log.i(
-							TAG,
-							String.format(
-									Locale.US,
-									"Wanted version %d, got %d. Aborting read.",
-									DB_VERSION,
-									version));
-					return;
+					final int version = dis.readInt();
+
+					if(version == DB_VERSION) {
+						mGeneration = dis.readLong();
+						RedditChangeDataManager.readAllUsers(dis, mContext);
+						Log.i(TAG, "Initial read successful.");
+
+					} else if(version == DB_VERSION_WITHOUT_GENERATION) {
+						mGeneration = 0;
+						RedditChangeDataManager.readAllUsers(dis, mContext);
+						Log.i(TAG, "Initial read successful.");
+
+					} else {
+						Log.i(
+								TAG,
+								String.format(
+										Locale.US,
+										"Wanted version %d, got %d. Aborting read.",
+										DB_VERSION,
+										version));
+					}
+
+				} finally {
+					try {
+						dis.close();
+					} catch(final IOException e) {
+						Log.e(TAG, "IO error while trying to close input file", e);
+					}
 				}
+			}
 
-				RedditChangeDataManager.readAllUsers(dis, mContext);
+			final long startTime = System.currentTimeMillis();
 
-				Log.i(TAG, "Initial read successful.");
+			final int recordsReplayed = mJournal.replay(
+					mGeneration,
+					dis -> RedditChangeDataManager.readJournalRecord(dis, mContext));
 
-			} finally {
-				try {
-					dis.close();
-				} catch(final IOException e) {
-					Log.e(TAG, "IO error while trying to close input file", e);
-				}
-			}
+			Log.i(
+					TAG,
+					String.format(
+							Locale.US,
+							"Replayed %d journal records in %d ms",
+							recordsReplayed,
+							System.currentTimeMillis() - startTime));
 
 		} catch(final Exception e) {
 			Log.e(TAG, "Initial read failed", e);
 
+			// Start again from whatever is in memory
+			synchronized(mLock) {
+				mCompactionPending = true;
+			}
+
 		} finally {
 			notifyInitialReadComplete();
 		}
@@ -228,9 +352,8 @@ public class RedditChangeDataIO {
 		synchronized(mLock) {
 			mIsInitialReadComplete = true;
 
-			if(mUpdatePending) {
+			if(!mPendingRecords.isEmpty() || mCompactionPending) {
 				triggerUpdate();
-				mUpdatePending = false;
 			}
 		}
 	}
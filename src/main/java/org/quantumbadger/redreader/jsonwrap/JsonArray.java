@@ -101,6 +101,11 @@ public final class JsonArray extends JsonValue implements Iterable<JsonValue> {
 		return get(id).asObject(clazz);
 	}
 
+	@Nullable
+	public <E> E getObject(final int id, @NonNull final JsonBinder<E> binder) {
+		return get(id).asObject(binder);
+	}
+
 	@Nullable
 	public JsonArray getArray(final int id) {
 		return get(id).asArray();
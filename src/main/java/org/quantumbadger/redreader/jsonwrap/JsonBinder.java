@@ -0,0 +1,410 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.jsonwrap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.quantumbadger.redreader.common.GenericFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Populates an object from JSON using an explicit table of field setters, rather than
+// reflecting over the object's fields. Objects can either be bound from an existing
+// JsonObject, or read straight from a JsonParser without building a JsonValue tree first.
+//
+// Field values are converted in the same way as JsonObject.populateObject(). Tokens of an
+// unexpected type fall back to being parsed as a JsonValue and converted from that. Fields
+// with no registered setter are collected into a JsonObject if bindUnknownFields() has been
+// called, and are skipped otherwise.
+public final class JsonBinder<E> {
+
+	public interface ObjectSetter<E, V> {
+		void set(@NonNull E target, @Nullable V value);
+	}
+
+	public interface LongSetter<E> {
+		void set(@NonNull E target, long value);
+	}
+
+	public interface IntSetter<E> {
+		void set(@NonNull E target, int value);
+	}
+
+	public interface BooleanSetter<E> {
+		void set(@NonNull E target, boolean value);
+	}
+
+	public interface StreamReader<E> {
+		void read(@NonNull E target, @NonNull JsonParser parser) throws IOException;
+	}
+
+	private interface FieldBinding<E> {
+
+		void read(@NonNull E target, @NonNull JsonParser parser) throws IOException;
+
+		void bind(@NonNull E target, @NonNull JsonValue value);
+	}
+
+	@NonNull private final GenericFactory<E, RuntimeException> mFactory;
+	@NonNull private final HashMap<String, FieldBinding<E>> mFields = new HashMap<>();
+	@Nullable private ObjectSetter<E, JsonObject> mUnknownFieldsSetter;
+
+	public JsonBinder(@NonNull final GenericFactory<E, RuntimeException> factory) {
+		mFactory = factory;
+	}
+
+	@NonNull
+	public E bind(@NonNull final JsonObject object) {
+
+		final E result = mFactory.create();
+
+		JsonObject unknownFields = null;
+
+		for(final Map.Entry<String, JsonValue> property : object) {
+
+			final FieldBinding<E> field = mFields.get(property.getKey());
+
+			if(field != null) {
+				field.bind(result, property.getValue());
+
+			} else if(mUnknownFieldsSetter != null) {
+
+				if(unknownFields == null) {
+					unknownFields = new JsonObject();
+				}
+
+				unknownFields.put(property.getKey(), property.getValue());
+			}
+		}
+
+		if(unknownFields != null) {
+			mUnknownFieldsSetter.set(result, unknownFields);
+		}
+
+		return result;
+	}
+
+	// Reads the object starting at the parser's current token, and leaves the parser
+	// positioned on the token following the end of the object.
+	@NonNull
+	public E parse(@NonNull final JsonParser parser) throws IOException {
+
+		if(parser.currentToken() == null) {
+			parser.nextToken();
+		}
+
+		if(parser.currentToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(
+					parser,
+					"Expecting object start, got " + parser.currentToken(),
+					parser.getCurrentLocation());
+		}
+
+		final E result = mFactory.create();
+
+		JsonObject unknownFields = null;
+
+		parser.nextToken();
+
+		JsonToken jt;
+
+		while((jt = parser.currentToken()) != JsonToken.END_OBJECT) {
+
+			if(jt != JsonToken.FIELD_NAME) {
+				throw new JsonParseException(parser, "Expecting field name, got " + jt,
+						parser.getCurrentLocation());
+			}
+
+			final String name = parser.getCurrentName();
+			final FieldBinding<E> field = mFields.get(name);
+
+			parser.nextToken();
+
+			if(field != null) {
+				field.read(result, parser);
+
+			} else if(mUnknownFieldsSetter != null) {
+
+				if(unknownFields == null) {
+					unknownFields = new JsonObject();
+				}
+
+				unknownFields.put(name, JsonValue.parse(parser));
+
+			} else {
+				parser.skipChildren();
+				parser.nextToken();
+			}
+		}
+
+		parser.nextToken();
+
+		if(unknownFields != null) {
+			mUnknownFieldsSetter.set(result, unknownFields);
+		}
+
+		return result;
+	}
+
+	@NonNull
+	private JsonBinder<E> add(@NonNull final String name, @NonNull final FieldBinding<E> field) {
+
+		if(mFields.put(name, field) != null) {
+			throw new IllegalArgumentException("Field bound twice: " + name);
+		}
+
+		return this;
+	}
+
+	// Fields with no setter of their own are passed to this setter as a single object, so that
+	// rarely used fields are still available without being bound individually
+	@NonNull
+	public JsonBinder<E> bindUnknownFields(@NonNull final ObjectSetter<E, JsonObject> setter) {
+		mUnknownFieldsSetter = setter;
+		return this;
+	}
+
+	@NonNull
+	public JsonBinder<E> bindString(
+			@NonNull final String name,
+			@NonNull final ObjectSetter<E, String> setter) {
+
+		return add(name, new FieldBinding<E>() {
+			@Override
+			public void read(
+					@NonNull final E target,
+					@NonNull final JsonParser parser) throws IOException {
+
+				final JsonToken token = parser.currentToken();
+
+				if(token == JsonToken.VALUE_STRING) {
+					setter.set(target, parser.getText());
+					parser.nextToken();
+
+				} else if(token == JsonToken.VALUE_NULL) {
+					setter.set(target, null);
+					parser.nextToken();
+
+				} else {
+					bind(target, JsonValue.parse(parser));
+				}
+			}
+
+			@Override
+			public void bind(@NonNull final E target, @NonNull final JsonValue value) {
+				setter.set(target, value.asString());
+			}
+		});
+	}
+
+	@NonNull
+	public JsonBinder<E> bindLong(
+			@NonNull final String name,
+			@NonNull final LongSetter<E> setter) {
+
+		return add(name, new FieldBinding<E>() {
+			@Override
+			public void read(
+					@NonNull final E target,
+					@NonNull final JsonParser parser) throws IOException {
+
+				final JsonToken token = parser.currentToken();
+
+				if(token == JsonToken.VALUE_NUMBER_INT) {
+					setter.set(target, parser.getValueAsLong());
+					parser.nextToken();
+
+				} else if(token == JsonToken.VALUE_NUMBER_FLOAT) {
+					setter.set(target, Math.round(parser.getValueAsDouble()));
+					parser.nextToken();
+
+				} else {
+					bind(target, JsonValue.parse(parser));
+				}
+			}
+
+			@Override
+			public void bind(@NonNull final E target, @NonNull final JsonValue value) {
+
+				final Long result = value.asLong();
+
+				if(result != null) {
+					setter.set(target, result);
+				}
+			}
+		});
+	}
+
+	@NonNull
+	public JsonBinder<E> bindInt(
+			@NonNull final String name,
+			@NonNull final IntSetter<E> setter) {
+
+		return bindLong(name, (target, value) -> setter.set(target, (int)value));
+	}
+
+	@NonNull
+	public JsonBinder<E> bindNullableInt(
+			@NonNull final String name,
+			@NonNull final ObjectSetter<E, Integer> setter) {
+
+		return add(name, new FieldBinding<E>() {
+			@Override
+			public void read(
+					@NonNull final E target,
+					@NonNull final JsonParser parser) throws IOException {
+
+				final JsonToken token = parser.currentToken();
+
+				if(token == JsonToken.VALUE_NUMBER_INT) {
+					setter.set(target, (int)parser.getValueAsLong());
+					parser.nextToken();
+
+				} else if(token == JsonToken.VALUE_NULL) {
+					setter.set(target, null);
+					parser.nextToken();
+
+				} else {
+					bind(target, JsonValue.parse(parser));
+				}
+			}
+
+			@Override
+			public void bind(@NonNull final E target, @NonNull final JsonValue value) {
+
+				final Long result = value.asLong();
+				setter.set(target, result == null ? null : result.intValue());
+			}
+		});
+	}
+
+	@NonNull
+	public JsonBinder<E> bindBoolean(
+			@NonNull final String name,
+			@NonNull final BooleanSetter<E> setter) {
+
+		return bindNullableBoolean(name, (target, value) -> {
+			if(value != null) {
+				setter.set(target, value);
+			}
+		});
+	}
+
+	@NonNull
+	public JsonBinder<E> bindNullableBoolean(
+			@NonNull final String name,
+			@NonNull final ObjectSetter<E, Boolean> setter) {
+
+		return add(name, new FieldBinding<E>() {
+			@Override
+			public void read(
+					@NonNull final E target,
+					@NonNull final JsonParser parser) throws IOException {
+
+				final JsonToken token = parser.currentToken();
+
+				if(token == JsonToken.VALUE_TRUE) {
+					setter.set(target, Boolean.TRUE);
+					parser.nextToken();
+
+				} else if(token == JsonToken.VALUE_FALSE) {
+					setter.set(target, Boolean.FALSE);
+					parser.nextToken();
+
+				} else if(token == JsonToken.VALUE_NULL) {
+					setter.set(target, null);
+					parser.nextToken();
+
+				} else {
+					bind(target, JsonValue.parse(parser));
+				}
+			}
+
+			@Override
+			public void bind(@NonNull final E target, @NonNull final JsonValue value) {
+				setter.set(target, value.asBoolean());
+			}
+		});
+	}
+
+	@NonNull
+	public JsonBinder<E> bindValue(
+			@NonNull final String name,
+			@NonNull final ObjectSetter<E, JsonValue> setter) {
+
+		return add(name, new FieldBinding<E>() {
+			@Override
+			public void read(
+					@NonNull final E target,
+					@NonNull final JsonParser parser) throws IOException {
+
+				bind(target, JsonValue.parse(parser));
+			}
+
+			@Override
+			public void bind(@NonNull final E target, @NonNull final JsonValue value) {
+				setter.set(target, value);
+			}
+		});
+	}
+
+	// The reader is used when parsing from a stream, and must leave the parser positioned on the
+	// token following the value. The setter is used when binding from an existing JsonObject.
+	@NonNull
+	public JsonBinder<E> bindStreamed(
+			@NonNull final String name,
+			@NonNull final StreamReader<E> reader,
+			@NonNull final ObjectSetter<E, JsonValue> setter) {
+
+		return add(name, new FieldBinding<E>() {
+			@Override
+			public void read(
+					@NonNull final E target,
+					@NonNull final JsonParser parser) throws IOException {
+
+				reader.read(target, parser);
+			}
+
+			@Override
+			public void bind(@NonNull final E target, @NonNull final JsonValue value) {
+				setter.set(target, value);
+			}
+		});
+	}
+
+	@NonNull
+	public JsonBinder<E> bindObject(
+			@NonNull final String name,
+			@NonNull final ObjectSetter<E, JsonObject> setter) {
+
+		return bindValue(name, (target, value) -> setter.set(target, value.asObject()));
+	}
+
+	@NonNull
+	public JsonBinder<E> bindArray(
+			@NonNull final String name,
+			@NonNull final ObjectSetter<E, JsonArray> setter) {
+
+		return bindValue(name, (target, value) -> setter.set(target, value.asArray()));
+	}
+}
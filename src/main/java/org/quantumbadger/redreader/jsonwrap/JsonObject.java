@@ -41,6 +41,8 @@ public final class JsonObject extends JsonValue
 
 	private final HashMap<String, JsonValue> properties = new HashMap<>();
 
+	JsonObject() {}
+
 	protected JsonObject(final JsonParser parser) throws IOException {
 
 		if(parser.currentToken() != JsonToken.START_OBJECT) {
@@ -72,6 +74,10 @@ public final class JsonObject extends JsonValue
 		parser.nextToken();
 	}
 
+	void put(@NonNull final String name, @NonNull final JsonValue value) {
+		properties.put(name, value);
+	}
+
 	public boolean isEmpty() {
 		return properties.isEmpty();
 	}
@@ -95,6 +101,12 @@ public final class JsonObject extends JsonValue
 		return obj;
 	}
 
+	@NonNull
+	@Override
+	public <E> E asObject(@NonNull final JsonBinder<E> binder) {
+		return binder.bind(this);
+	}
+
 	@Nullable
 	public JsonValue get(final String name) {
 		return properties.get(name);
@@ -110,6 +110,12 @@ public abstract class JsonValue {
 		return null;
 	}
 
+	@Nullable
+	public <E> E asObject(@NonNull final JsonBinder<E> binder) {
+		// Default implementation
+		return null;
+	}
+
 	@Nullable
 	public JsonArray asArray() {
 		// Default implementation
@@ -135,7 +135,7 @@ public class NewMessageChecker extends BroadcastReceiver {
 								return;
 							}
 
-							final RedditThing thing = children.get(0).asObject(RedditThing.class);
+							final RedditThing thing = children.get(0).asObject(RedditThing.BINDER);
 
 							String title;
 							final String text
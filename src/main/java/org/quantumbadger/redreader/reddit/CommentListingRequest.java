@@ -21,13 +21,14 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
+import androidx.core.text.PrecomputedTextCompat;
 import org.quantumbadger.redreader.account.RedditAccount;
 import org.quantumbadger.redreader.account.RedditAccountManager;
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.activities.SessionChangeListener;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
-import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
+import org.quantumbadger.redreader.cache.CacheRequestListingParser;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategy;
 import org.quantumbadger.redreader.common.AndroidCommon;
 import org.quantumbadger.redreader.common.Constants;
@@ -38,26 +39,31 @@ import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
 import org.quantumbadger.redreader.fragments.CommentListingFragment;
 import org.quantumbadger.redreader.http.FailedRequestBody;
-import org.quantumbadger.redreader.jsonwrap.JsonArray;
-import org.quantumbadger.redreader.jsonwrap.JsonObject;
-import org.quantumbadger.redreader.jsonwrap.JsonValue;
 import org.quantumbadger.redreader.reddit.prepared.RedditChangeDataManager;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedComment;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditPreparedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditRenderableComment;
+import org.quantumbadger.redreader.reddit.prepared.bodytext.BodyElementTextSpanned;
 import org.quantumbadger.redreader.reddit.things.RedditComment;
 import org.quantumbadger.redreader.reddit.things.RedditPost;
 import org.quantumbadger.redreader.reddit.things.RedditThing;
 import org.quantumbadger.redreader.reddit.url.RedditURLParser;
+import org.quantumbadger.redreader.search.OfflineSearchIndex;
+import org.quantumbadger.redreader.views.RedditCommentView;
 
-import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class CommentListingRequest {
 
+	// Items are handed to the UI in batches of roughly this size, and only ever after a whole
+	// top-level comment and its replies have been built.
+	private static final int ITEM_BATCH_SIZE = 50;
+
 	private final Context mContext;
 	private final CommentListingFragment mFragment;
 	private final BaseActivity mActivity;
@@ -72,6 +78,10 @@ public class CommentListingRequest {
 
 	private final Listener mListener;
 
+	// Comment bodies are measured for these parameters while parsing, so that binding the rows
+	// doesn't have to
+	@NonNull private final PrecomputedTextCompat.Params mCommentBodyTextParams;
+
 	public CommentListingRequest(
 			final Context context,
 			final CommentListingFragment fragment,
@@ -95,6 +105,10 @@ public class CommentListingRequest {
 		mDownloadStrategy = downloadStrategy;
 		mListener = listener;
 
+		mCommentBodyTextParams = BodyElementTextSpanned.getTextMetricsParams(
+				activity,
+				RedditCommentView.getBodyTextSize());
+
 		mCacheManager = CacheManager.getInstance(context);
 
 		mCacheManager.makeRequest(createCommentListingCacheRequest());
@@ -113,9 +127,27 @@ public class CommentListingRequest {
 
 		void onCommentListingRequestPostDownloaded(RedditPreparedPost post);
 
+		// Called with each batch of items while the rest of the listing is still being parsed
+		void onCommentListingRequestItemsDownloaded(ArrayList<RedditCommentListItem> items);
+
+		// Called with the final batch of items
 		void onCommentListingRequestAllItemsDownloaded(ArrayList<RedditCommentListItem> items);
 	}
 
+	private static final class PendingThing {
+
+		@NonNull private final RedditThing mThing;
+		@Nullable private final RedditCommentListItem mParent;
+
+		private PendingThing(
+				@NonNull final RedditThing thing,
+				@Nullable final RedditCommentListItem parent) {
+
+			mThing = thing;
+			mParent = parent;
+		}
+	}
+
 	@NonNull
 	private CacheRequest createCommentListingCacheRequest() {
 
@@ -130,208 +162,220 @@ public class CommentListingRequest {
 				Constants.FileType.COMMENT_LIST,
 				CacheRequest.DOWNLOAD_QUEUE_REDDIT_API,
 				mContext,
-				new CacheRequestJSONParser(mContext, new CacheRequestJSONParser.Listener() {
-					@Override
-					public void onJsonParsed(
-							@NonNull final JsonValue value,
-							final long timestamp,
-							@NonNull final UUID session,
-							final boolean fromCache) {
-
-						String parentPostAuthor = null;
-
-						if(mActivity instanceof SessionChangeListener) {
-							((SessionChangeListener)mActivity).onSessionChanged(
-									session,
-									SessionChangeListener.SessionChangeType.COMMENTS,
-									timestamp);
-						}
-
-						final Integer minimumCommentScore
-								= PrefsUtility.pref_behaviour_comment_min();
-
-						if(fromCache) {
-							AndroidCommon.runOnUiThread(()
-									-> mListener.onCommentListingRequestCachedCopy(timestamp));
-						}
-
-						AndroidCommon.runOnUiThread(mListener::onCommentListingRequestParseStart);
-
-						try {
-							// Download main post
-							if(value.asArray() != null) {
-
-								// lol, reddit api
-								final JsonArray root = value.asArray();
-								final JsonObject thing = root.get(0).asObject();
-								final JsonObject listing = thing.getObject("data");
-								final JsonArray postContainer
-										= listing.getArray("children");
-								final RedditThing postThing =
-										postContainer.getObject(0, RedditThing.class);
-								final RedditPost post = postThing.asPost();
-
-								final RedditParsedPost parsedPost =
-										new RedditParsedPost(mActivity, post, mParsePostSelfText);
-
-								final RedditPreparedPost preparedPost = new RedditPreparedPost(
-										mContext,
-										mCacheManager,
-										0,
-										parsedPost,
-										timestamp,
-										true,
-										false,
-										false,
-										false);
-
-								AndroidCommon.runOnUiThread(()
-										-> mListener.onCommentListingRequestPostDownloaded(
-												preparedPost));
-
-								parentPostAuthor = parsedPost.getAuthor();
-							}
-
-							// Download comments
-
-							final JsonObject thing;
-
-							if(value.asArray() != null) {
-								thing = value.asArray().get(1).asObject();
-							} else {
-								thing = value.asObject();
-							}
-
-							final JsonObject listing = thing.getObject("data");
-							final JsonArray topLevelComments
-									= listing.getArray("children");
-
-							final ArrayList<RedditCommentListItem> items
-									= new ArrayList<>(200);
-
-							for(final JsonValue commentThingValue : topLevelComments) {
-								buildCommentTree(
-										commentThingValue,
-										null,
-										items,
-										minimumCommentScore,
-										parentPostAuthor);
-							}
-
-							final RedditChangeDataManager changeDataManager
-									= RedditChangeDataManager.getInstance(mUser);
-
-							for(final RedditCommentListItem item : items) {
-								if(item.isComment()) {
-									changeDataManager.update(
-											timestamp,
-											item.asComment().getParsedComment().getRawComment());
-								}
-							}
-
-							AndroidCommon.runOnUiThread(()
-									-> mListener.onCommentListingRequestAllItemsDownloaded(items));
-
-						} catch(final Throwable t) {
-							onFailure(
-									CacheRequest.REQUEST_FAILURE_PARSE,
-									t,
-									null,
-									"Parse failure",
-									Optional.of(new FailedRequestBody(value)));
-						}
-					}
+				new CacheRequestListingParser(
+						mContext,
+						new CommentListingParserListener(url),
+						OfflineSearchIndex.getInstance(mContext).createListingIndexer()));
+	}
 
-					@Override
-					public void onFailure(
-							final int type,
-							@Nullable final Throwable t,
-							@Nullable final Integer httpStatus,
-							@Nullable final String readableMessage,
-							@NonNull final Optional<FailedRequestBody> body) {
-
-						final RRError error = General.getGeneralErrorForFailure(
-								mContext,
-								type,
-								t,
-								httpStatus,
-								url == null ? null : url.toString(),
-								body);
-
-						AndroidCommon.runOnUiThread(()
-								-> mListener.onCommentListingRequestFailure(error));
-					}
+	private final class CommentListingParserListener
+			implements CacheRequestListingParser.Listener {
 
-					@Override
-					public void onDownloadNecessary() {
-						AndroidCommon.runOnUiThread(
-								mListener::onCommentListingRequestDownloadNecessary);
-					}
-				}));
-	}
+		@Nullable private final URI mRequestUrl;
+
+		private long mTimestamp;
+		private Integer mMinimumCommentScore;
+		private String mCurrentCanonicalUserName;
+		private boolean mShowSubredditName;
+		private boolean mNeverAutoCollapse;
+
+		private boolean mPostReceived = false;
+		@Nullable private String mParentPostAuthor = null;
+
+		@NonNull private ArrayList<RedditCommentListItem> mBatch
+				= new ArrayList<>(ITEM_BATCH_SIZE);
+
+		private CommentListingParserListener(@Nullable final URI requestUrl) {
+			mRequestUrl = requestUrl;
+		}
+
+		@Override
+		public void onListingStarted(
+				final long timestamp,
+				@NonNull final UUID session,
+				final boolean fromCache) {
+
+			mTimestamp = timestamp;
+
+			if(mActivity instanceof SessionChangeListener) {
+				((SessionChangeListener)mActivity).onSessionChanged(
+						session,
+						SessionChangeListener.SessionChangeType.COMMENTS,
+						timestamp);
+			}
 
-	private void buildCommentTree(
-			final JsonValue value,
-			final RedditCommentListItem parent,
-			final ArrayList<RedditCommentListItem> output,
-			final Integer minimumCommentScore,
-			final String parentPostAuthor) throws
-					IllegalAccessException,
-					InstantiationException,
-					NoSuchMethodException,
-					InvocationTargetException {
-
-		final RedditThing thing = value.asObject(RedditThing.class);
-
-		if(thing.getKind() == RedditThing.Kind.MORE_COMMENTS
-				&& mUrl.pathType() == RedditURLParser.POST_COMMENT_LISTING_URL) {
-
-			output.add(new RedditCommentListItem(
-					thing.asMoreComments(),
-					parent,
-					mFragment,
-					mActivity,
-					mCommentListingURL));
-
-		} else if(thing.getKind() == RedditThing.Kind.COMMENT) {
-
-			final RedditComment comment = thing.asComment();
-			final String currentCanonicalUserName = RedditAccountManager.getInstance(mContext)
+			mMinimumCommentScore = PrefsUtility.pref_behaviour_comment_min();
+
+			mCurrentCanonicalUserName = RedditAccountManager.getInstance(mContext)
 					.getDefaultAccount().getCanonicalUsername();
-			final boolean showSubredditName = !(mCommentListingURL != null
+
+			mShowSubredditName = !(mCommentListingURL != null
 					&& mCommentListingURL.pathType() == RedditURLParser.POST_COMMENT_LISTING_URL);
-			final boolean neverAutoCollapse = mCommentListingURL != null
+
+			mNeverAutoCollapse = mCommentListingURL != null
 					&& mCommentListingURL.pathType() == RedditURLParser.USER_COMMENT_LISTING_URL;
 
-			final RedditCommentListItem item = new RedditCommentListItem(
-					new RedditRenderableComment(
-							new RedditParsedComment(comment, mActivity),
-							parentPostAuthor,
-							minimumCommentScore,
-							currentCanonicalUserName,
-							true,
-							showSubredditName,
-							neverAutoCollapse),
-					parent,
-					mFragment,
-					mActivity,
-					mCommentListingURL);
-
-			output.add(item);
-
-			if(comment.replies.asObject() != null) {
-
-				final JsonObject replies = comment.replies.asObject();
-				final JsonArray children =
-						replies.getObject("data").getArray("children");
-
-				for(final JsonValue v : children) {
-					buildCommentTree(
-							v,
-							item,
-							output,
-							minimumCommentScore,
-							parentPostAuthor);
+			if(fromCache) {
+				AndroidCommon.runOnUiThread(()
+						-> mListener.onCommentListingRequestCachedCopy(timestamp));
+			}
+
+			AndroidCommon.runOnUiThread(mListener::onCommentListingRequestParseStart);
+		}
+
+		@Override
+		public void onThingParsed(@NonNull final RedditThing thing) {
+
+			// The post comes first, in its own listing (lol, reddit api)
+			if(thing.getKind() == RedditThing.Kind.POST) {
+
+				if(!mPostReceived) {
+					mPostReceived = true;
+					onPostParsed(thing.asPost());
+				}
+
+				return;
+			}
+
+			buildCommentTree(thing);
+
+			if(mBatch.size() >= ITEM_BATCH_SIZE) {
+				flushBatch(false);
+			}
+		}
+
+		@Override
+		public void onListingFinished() {
+			flushBatch(true);
+		}
+
+		@Override
+		public void onFailure(
+				final int type,
+				@Nullable final Throwable t,
+				@Nullable final Integer httpStatus,
+				@Nullable final String readableMessage,
+				@NonNull final Optional<FailedRequestBody> body) {
+
+			final RRError error = General.getGeneralErrorForFailure(
+					mContext,
+					type,
+					t,
+					httpStatus,
+					mRequestUrl == null ? null : mRequestUrl.toString(),
+					body);
+
+			AndroidCommon.runOnUiThread(()
+					-> mListener.onCommentListingRequestFailure(error));
+		}
+
+		@Override
+		public void onDownloadNecessary() {
+			AndroidCommon.runOnUiThread(
+					mListener::onCommentListingRequestDownloadNecessary);
+		}
+
+		private void onPostParsed(@NonNull final RedditPost post) {
+
+			final RedditParsedPost parsedPost
+					= new RedditParsedPost(mActivity, post, mParsePostSelfText);
+
+			final RedditPreparedPost preparedPost = new RedditPreparedPost(
+					mContext,
+					mCacheManager,
+					0,
+					parsedPost,
+					mTimestamp,
+					true,
+					false,
+					false,
+					false);
+
+			AndroidCommon.runOnUiThread(()
+					-> mListener.onCommentListingRequestPostDownloaded(preparedPost));
+
+			mParentPostAuthor = parsedPost.getAuthor();
+		}
+
+		private void flushBatch(final boolean lastBatch) {
+
+			final ArrayList<RedditCommentListItem> items = mBatch;
+			mBatch = new ArrayList<>(ITEM_BATCH_SIZE);
+
+			final RedditChangeDataManager changeDataManager
+					= RedditChangeDataManager.getInstance(mUser);
+
+			for(final RedditCommentListItem item : items) {
+				if(item.isComment()) {
+					changeDataManager.update(
+							mTimestamp,
+							item.asComment().getParsedComment().getRawComment());
+				}
+			}
+
+			if(lastBatch) {
+				AndroidCommon.runOnUiThread(()
+						-> mListener.onCommentListingRequestAllItemsDownloaded(items));
+			} else {
+				AndroidCommon.runOnUiThread(()
+						-> mListener.onCommentListingRequestItemsDownloaded(items));
+			}
+		}
+
+		// Adds the items for a top-level thing and all of its replies to the current batch,
+		// in display order. This walks the tree with an explicit stack rather than recursing,
+		// so that very deep reply chains can't overflow the thread's stack.
+		private void buildCommentTree(@NonNull final RedditThing topLevelThing) {
+
+			final ArrayDeque<PendingThing> pending = new ArrayDeque<>();
+			pending.push(new PendingThing(topLevelThing, null));
+
+			while(!pending.isEmpty()) {
+
+				final PendingThing next = pending.pop();
+				final RedditThing thing = next.mThing;
+
+				if(thing.getKind() == RedditThing.Kind.MORE_COMMENTS
+						&& mUrl.pathType() == RedditURLParser.POST_COMMENT_LISTING_URL) {
+
+					mBatch.add(new RedditCommentListItem(
+							thing.asMoreComments(),
+							next.mParent,
+							mFragment,
+							mActivity,
+							mCommentListingURL));
+
+				} else if(thing.getKind() == RedditThing.Kind.COMMENT) {
+
+					final RedditComment comment = thing.asComment();
+
+					final RedditParsedComment parsedComment
+							= new RedditParsedComment(comment, mActivity);
+
+					parsedComment.getBody().precomputeText(mCommentBodyTextParams);
+
+					final RedditCommentListItem item = new RedditCommentListItem(
+							new RedditRenderableComment(
+									parsedComment,
+									mParentPostAuthor,
+									mMinimumCommentScore,
+									mCurrentCanonicalUserName,
+									true,
+									mShowSubredditName,
+									mNeverAutoCollapse),
+							next.mParent,
+							mFragment,
+							mActivity,
+							mCommentListingURL);
+
+					mBatch.add(item);
+
+					final List<RedditThing> replies = comment.getReplies();
+
+					// Pushed in reverse, so that the first reply is popped first
+					for(int i = replies.size() - 1; i >= 0; i--) {
+						pending.push(new PendingThing(replies.get(i), item));
+					}
 				}
 			}
 		}
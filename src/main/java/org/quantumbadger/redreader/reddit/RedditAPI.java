@@ -701,7 +701,7 @@ public final class RedditAPI {
 							final boolean fromCache) {
 
 						try {
-							final RedditThing userThing = result.asObject(RedditThing.class);
+							final RedditThing userThing = result.asObject(RedditThing.BINDER);
 							final RedditUser userResult = userThing.asUser();
 							responseHandler.notifySuccess(userResult, timestamp);
 
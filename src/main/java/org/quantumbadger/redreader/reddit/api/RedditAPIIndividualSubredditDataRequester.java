@@ -89,7 +89,7 @@ public class RedditAPIIndividualSubredditDataRequester implements
 							final boolean fromCache) {
 
 						try {
-							final RedditThing subredditThing = result.asObject(RedditThing.class);
+							final RedditThing subredditThing = result.asObject(RedditThing.BINDER);
 							final RedditSubreddit subreddit = subredditThing.asSubreddit();
 							subreddit.downloadTime = timestamp;
 							handler.onRequestSuccess(subreddit, timestamp);
@@ -216,7 +216,7 @@ public class RedditAPIIndividualSubredditListRequester implements CacheDataSourc
 							}
 
 							for(final JsonValue v : subreddits) {
-								final RedditThing thing = v.asObject(RedditThing.class);
+								final RedditThing thing = v.asObject(RedditThing.BINDER);
 								final RedditSubreddit subreddit = thing.asSubreddit();
 
 								subreddit.downloadTime = timestamp;
@@ -36,6 +36,7 @@ import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.RRError;
+import org.quantumbadger.redreader.common.RRTime;
 import org.quantumbadger.redreader.common.RunnableOnce;
 import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.http.HTTPBackend;
@@ -82,16 +83,53 @@ public final class RedditOAuth {
 
 	public static final class AccessToken extends Token {
 
-		private final long mMonotonicTimestamp;
+		// Used if the server doesn't tell us how long the token lasts
+		private static final long DEFAULT_LIFETIME_MS = 60 * 60 * 1000;
 
-		public AccessToken(final String token) {
+		// Stop using the token a little early, so that it doesn't expire mid-request
+		private static final long EXPIRY_MARGIN_MS = 5 * 60 * 1000;
+
+		// Start fetching a replacement in the background once we're this close to expiry
+		private static final long REFRESH_MARGIN_MS = 15 * 60 * 1000;
+
+		private final long mMonotonicExpiry;
+		private final long mExpiryUtc;
+
+		public AccessToken(final String token, final long lifetimeMs) {
 			super(token);
-			mMonotonicTimestamp = SystemClock.elapsedRealtime();
+			mMonotonicExpiry = SystemClock.elapsedRealtime() + lifetimeMs;
+			mExpiryUtc = RRTime.utcCurrentTimeMillis() + lifetimeMs;
+		}
+
+		@NonNull
+		public static AccessToken restore(final String token, final long expiryUtc) {
+			return new AccessToken(token, expiryUtc - RRTime.utcCurrentTimeMillis());
+		}
+
+		@NonNull
+		private static AccessToken fromResponse(
+				final String token,
+				@NonNull final JsonObject response) {
+
+			final Long expiresInSecs = response.getLong("expires_in");
+
+			if(expiresInSecs == null || expiresInSecs <= 0) {
+				return new AccessToken(token, DEFAULT_LIFETIME_MS);
+			}
+
+			return new AccessToken(token, expiresInSecs * 1000);
+		}
+
+		public long getExpiryUtc() {
+			return mExpiryUtc;
 		}
 
 		public boolean isExpired() {
-			final long halfHourInMs = 30 * 60 * 1000;
-			return mMonotonicTimestamp + halfHourInMs < SystemClock.elapsedRealtime();
+			return mMonotonicExpiry - EXPIRY_MARGIN_MS < SystemClock.elapsedRealtime();
+		}
+
+		public boolean shouldRefresh() {
+			return mMonotonicExpiry - REFRESH_MARGIN_MS < SystemClock.elapsedRealtime();
 		}
 	}
 
@@ -368,8 +406,9 @@ public final class RedditOAuth {
 
 						final RefreshToken refreshToken =
 								new RefreshToken(responseObject.getString("refresh_token"));
-						final AccessToken accessToken =
-								new AccessToken(responseObject.getString("access_token"));
+						final AccessToken accessToken = AccessToken.fromResponse(
+								responseObject.getString("access_token"),
+								responseObject);
 
 						result.set(new FetchRefreshTokenResult(
 								refreshToken,
@@ -743,7 +782,7 @@ public final class RedditOAuth {
 						}
 
 						final AccessToken accessToken =
-								new AccessToken(accessTokenString);
+								AccessToken.fromResponse(accessTokenString, responseObject);
 
 						result.set(new FetchAccessTokenResult(accessToken));
 
@@ -849,7 +888,7 @@ public final class RedditOAuth {
 						}
 
 						final AccessToken accessToken =
-								new AccessToken(accessTokenString);
+								AccessToken.fromResponse(accessTokenString, responseObject);
 
 						result.set(new FetchAccessTokenResult(accessToken));
 
@@ -59,7 +59,7 @@ public final class RedditChangeDataManager {
 			RedditChangeDataManager result = INSTANCE_MAP.get(user);
 
 			if(result == null) {
-				result = new RedditChangeDataManager();
+				result = new RedditChangeDataManager(user);
 				INSTANCE_MAP.put(user, result);
 			}
 
@@ -186,6 +186,33 @@ public final class RedditChangeDataManager {
 		Log.i(TAG, "All entries read from stream.");
 	}
 
+	private static void writeJournalRecord(
+			final ExtendedDataOutputStream dos,
+			final RedditAccount user,
+			final String thingIdAndType,
+			final Entry entry) throws IOException {
+
+		dos.writeUTF(user.getCanonicalUsername());
+		dos.writeUTF(thingIdAndType);
+		entry.writeTo(dos);
+	}
+
+	public static void readJournalRecord(
+			final ExtendedDataInputStream dis,
+			final Context context) throws IOException {
+
+		final String username = dis.readUTF();
+		final String thingIdAndType = dis.readUTF();
+		final Entry entry = new Entry(dis);
+
+		final RedditAccount account =
+				RedditAccountManager.getInstance(context).getAccount(username);
+
+		if(account != null) {
+			getInstance(account).applyJournalEntry(thingIdAndType, entry);
+		}
+	}
+
 	public static void pruneAllUsersDefaultMaxAge() {
 		pruneAllUsersWhereOlderThan(PrefsUtility.pref_cache_maxage_entry());
 	}
@@ -200,10 +227,17 @@ public final class RedditChangeDataManager {
 			users = new HashSet<>(INSTANCE_MAP.keySet());
 		}
 
+		int entriesPruned = 0;
+
 		for(final RedditAccount user : users) {
 
 			final RedditChangeDataManager managerForUser = getInstance(user);
-			managerForUser.prune(maxAge);
+			entriesPruned += managerForUser.prune(maxAge);
+		}
+
+		// Pruning isn't recorded in the journal, so a new snapshot is needed
+		if(entriesPruned > 0) {
+			RedditChangeDataIO.notifyCompactionNeededStatic();
 		}
 
 		Log.i(TAG, "Pruning complete.");
@@ -277,6 +311,17 @@ public final class RedditChangeDataManager {
 					&& mIsHidden == null;
 		}
 
+		// Compares everything except the timestamp
+		boolean hasSameStateAs(final Entry other) {
+			return mIsUpvoted == other.mIsUpvoted
+					&& mIsDownvoted == other.mIsDownvoted
+					&& mIsRead == other.mIsRead
+					&& mIsSaved == other.mIsSaved
+					&& (mIsHidden == null
+							? other.mIsHidden == null
+							: mIsHidden.equals(other.mIsHidden));
+		}
+
 		public boolean isUpvoted() {
 			return mIsUpvoted;
 		}
@@ -410,12 +455,18 @@ public final class RedditChangeDataManager {
 		}
 	}
 
+	private final RedditAccount mUser;
+
 	private final HashMap<String, Entry> mEntries = new HashMap<>();
 	private final Object mLock = new Object();
 
 	private final WeakReferenceListHashMapManager<String, Listener> mListeners =
 			new WeakReferenceListHashMapManager<>();
 
+	private RedditChangeDataManager(final RedditAccount user) {
+		mUser = user;
+	}
+
 	public void addListener(
 			final RedditThingWithIdAndType thing,
 			final Listener listener) {
@@ -446,17 +497,34 @@ public final class RedditChangeDataManager {
 			final Entry existingValue,
 			final Entry newValue) {
 
+		// Entry.update() returns the existing entry when given older data
+		if(newValue == existingValue) {
+			return;
+		}
+
+		final boolean changed = !newValue.hasSameStateAs(existingValue);
+
 		if(newValue.isClear()) {
 			if(!existingValue.isClear()) {
 				mEntries.remove(thing.getIdAndType());
-				RedditChangeDataIO.notifyUpdateStatic();
 			}
 
 		} else {
+			// Keep the newer timestamp, even if nothing else has changed
 			mEntries.put(thing.getIdAndType(), newValue);
-			RedditChangeDataIO.notifyUpdateStatic();
 		}
 
+		// Most listing refreshes don't change anything, and shouldn't each add to the journal
+		if(!changed) {
+			return;
+		}
+
+		RedditChangeDataIO.notifyUpdateStatic(dos -> writeJournalRecord(
+				dos,
+				mUser,
+				thing.getIdAndType(),
+				newValue));
+
 		AndroidCommon.UI_THREAD_HANDLER.post(() -> mListeners.map(
 				thing.getIdAndType(),
 				ListenerNotifyOperator.INSTANCE,
@@ -485,6 +553,28 @@ public final class RedditChangeDataManager {
 		}
 	}
 
+	// Journal entries are replayed in order, so a later entry replaces an earlier one with the
+	// same timestamp
+	private void applyJournalEntry(final String thingIdAndType, final Entry entry) {
+
+		synchronized(mLock) {
+
+			final Entry existingEntry = mEntries.get(thingIdAndType);
+
+			if(existingEntry != null && existingEntry.mTimestamp > entry.mTimestamp) {
+				return;
+			}
+
+			if(entry.isClear()) {
+				mEntries.remove(thingIdAndType);
+			} else {
+				mEntries.put(thingIdAndType, entry);
+			}
+		}
+
+		mListeners.map(thingIdAndType, ListenerNotifyOperator.INSTANCE, thingIdAndType);
+	}
+
 	public void update(final long timestamp, final RedditComment comment) {
 
 		synchronized(mLock) {
@@ -601,12 +691,15 @@ public final class RedditChangeDataManager {
 		}
 	}
 
-	private void prune(final long maxAge) {
+	private int prune(final long maxAge) {
 
 		final long now = System.currentTimeMillis();
 		final long timestampBoundary = now - maxAge;
 
 		synchronized(mLock) {
+
+			final int initialSize = mEntries.size();
+
 			final Iterator<Map.Entry<String, Entry>> iterator =
 					mEntries.entrySet().iterator();
 			final SortedMap<Long, String> byTimestamp = new TreeMap<>();
@@ -646,6 +739,8 @@ public final class RedditChangeDataManager {
 
 				mEntries.remove(entry.getValue());
 			}
+
+			return initialSize - mEntries.size();
 		}
 	}
 }
@@ -125,7 +125,7 @@ public final class RedditPreparedMessage implements RedditRenderableInboxItem {
 						applicationContext,
 						src.created_utc * 1000L,
 						R.string.time_ago,
-						PrefsUtility.appearance_inbox_age_units()),
+						PrefsUtility.snapshot().inboxAgeUnits),
 				BetterSSB.FOREGROUND_COLOR | BetterSSB.BOLD,
 				rrCommentHeaderBoldCol,
 				0,
@@ -220,7 +220,7 @@ public final class RedditPreparedMessage implements RedditRenderableInboxItem {
 								context,
 								src.created_utc * 1000L,
 								R.string.time_ago,
-								PrefsUtility.appearance_inbox_age_units())))
+								PrefsUtility.snapshot().inboxAgeUnits)))
 				.append(separator);
 
 		return accessibilityHeader.toString();
@@ -61,6 +61,7 @@ import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.GenericFactory;
 import org.quantumbadger.redreader.common.LinkHandler;
 import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.PrefsSnapshot;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
@@ -70,6 +71,7 @@ import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 import org.quantumbadger.redreader.fragments.PostPropertiesDialog;
 import org.quantumbadger.redreader.fragments.ShareOrderDialog;
 import org.quantumbadger.redreader.http.FailedRequestBody;
+import org.quantumbadger.redreader.image.ThumbnailCache;
 import org.quantumbadger.redreader.image.ThumbnailScaler;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.reddit.APIResponseHandler;
@@ -91,6 +93,7 @@ import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
 public final class RedditPreparedPost implements RedditChangeDataManager.Listener {
@@ -190,7 +193,7 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 
 		final int thumbnailWidth = General.dpToPixels(
 				context,
-				PrefsUtility.images_thumbnail_size_dp());
+				PrefsUtility.snapshot().thumbnailSizeDp);
 
 		if(hasThumbnail && hasThumbnail(post) && !shouldShowInlinePreview()) {
 			downloadThumbnail(context, allowHighResThumbnails, thumbnailWidth, cm, listId);
@@ -952,15 +955,16 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 			final Context context,
 			final boolean headerMode) {
 
-		final EnumSet<PrefsUtility.AppearancePostSubtitleItem> mPostSubtitleItems;
+		final PrefsSnapshot prefs = PrefsUtility.snapshot();
+
+		final Set<PrefsUtility.AppearancePostSubtitleItem> mPostSubtitleItems;
 		final int mPostAgeUnits;
-		if(headerMode
-				&& PrefsUtility.appearance_post_subtitle_items_use_different_settings()) {
-			mPostSubtitleItems = PrefsUtility.appearance_post_header_subtitle_items();
-			mPostAgeUnits = PrefsUtility.appearance_post_header_age_units();
+		if(headerMode && prefs.postHeaderUsesDifferentSettings) {
+			mPostSubtitleItems = prefs.postHeaderSubtitleItems;
+			mPostAgeUnits = prefs.postHeaderAgeUnits;
 		} else {
-			mPostSubtitleItems = PrefsUtility.appearance_post_subtitle_items();
-			mPostAgeUnits = PrefsUtility.appearance_post_age_units();
+			mPostSubtitleItems = prefs.postSubtitleItems;
+			mPostAgeUnits = prefs.postAgeUnits;
 		}
 
 		final TypedArray appearance = context.obtainStyledAttributes(new int[] {
@@ -1170,15 +1174,16 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 			final Context context,
 			final boolean headerMode) {
 
-		final EnumSet<PrefsUtility.AppearancePostSubtitleItem> mPostSubtitleItems;
+		final PrefsSnapshot prefs = PrefsUtility.snapshot();
+
+		final Set<PrefsUtility.AppearancePostSubtitleItem> mPostSubtitleItems;
 		final int mPostAgeUnits;
-		if(headerMode
-				&& PrefsUtility.appearance_post_subtitle_items_use_different_settings()) {
-			mPostSubtitleItems = PrefsUtility.appearance_post_header_subtitle_items();
-			mPostAgeUnits = PrefsUtility.appearance_post_header_age_units();
+		if(headerMode && prefs.postHeaderUsesDifferentSettings) {
+			mPostSubtitleItems = prefs.postHeaderSubtitleItems;
+			mPostAgeUnits = prefs.postHeaderAgeUnits;
 		} else {
-			mPostSubtitleItems = PrefsUtility.appearance_post_subtitle_items();
-			mPostAgeUnits = PrefsUtility.appearance_post_age_units();
+			mPostSubtitleItems = prefs.postSubtitleItems;
+			mPostAgeUnits = prefs.postAgeUnits;
 		}
 
 		final StringBuilder accessibilitySubtitle = new StringBuilder();
@@ -1340,6 +1345,14 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 			uriStr = src.getThumbnailUrl();
 		}
 
+		final ThumbnailCache scaledThumbnails = ThumbnailCache.getInstance(context);
+		final Bitmap cachedThumbnail = scaledThumbnails.get(uriStr, sizePixels);
+
+		if(cachedThumbnail != null) {
+			thumbnailCache = cachedThumbnail;
+			return;
+		}
+
 		final URI uri = General.uriFromString(uriStr);
 
 		final int priority = Constants.Priority.THUMBNAIL;
@@ -1366,7 +1379,11 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 							final boolean fromCache,
 							@Nullable final String mimetype) {
 
-						onThumbnailStreamAvailable(factory, sizePixels);
+						onThumbnailStreamAvailable(
+								factory,
+								sizePixels,
+								uriStr,
+								scaledThumbnails);
 					}
 
 					@Override
@@ -1851,7 +1868,9 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 
 	private void onThumbnailStreamAvailable(
 			final GenericFactory<SeekableInputStream, IOException> factory,
-			final int desiredSizePixels) {
+			final int desiredSizePixels,
+			@NonNull final String url,
+			@NonNull final ThumbnailCache cache) {
 
 		try(SeekableInputStream seekableInputStream = factory.create()) {
 
@@ -1887,6 +1906,8 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 				data.recycle();
 			}
 
+			cache.put(url, desiredSizePixels, thumbnailCache);
+
 			if(thumbnailCallback != null) {
 				thumbnailCallback.betterThumbnailAvailable(
 						thumbnailCache,
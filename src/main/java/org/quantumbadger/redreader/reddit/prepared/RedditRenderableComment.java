@@ -103,8 +103,7 @@ public class RedditRenderableComment
 			final long postCreated,
 			final long parentCommentCreated) {
 
-		final PrefsUtility.CommentAgeMode commentAgeMode
-				= PrefsUtility.appearance_comment_age_mode();
+		final PrefsUtility.CommentAgeMode commentAgeMode = PrefsUtility.snapshot().commentAgeMode;
 
 		final BetterSSB sb = new BetterSSB();
 
@@ -301,8 +300,7 @@ public class RedditRenderableComment
 			final long parentCommentCreated,
 			final boolean collapsed) {
 
-		final PrefsUtility.CommentAgeMode commentAgeMode
-				= PrefsUtility.appearance_comment_age_mode();
+		final PrefsUtility.CommentAgeMode commentAgeMode = PrefsUtility.snapshot().commentAgeMode;
 
 		final StringBuilder accessibilityHeader = new StringBuilder();
 
@@ -20,6 +20,7 @@ package org.quantumbadger.redreader.reddit.prepared.bodytext;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
 import org.quantumbadger.redreader.activities.BaseActivity;
 
 public abstract class BodyElement {
@@ -35,6 +36,10 @@ public abstract class BodyElement {
 		return mType;
 	}
 
+	// Measures any text ahead of time, so that generateView() doesn't need to. This can be
+	// called from any thread.
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {}
+
 	public abstract View generateView(
 			@NonNull BaseActivity activity,
 			@Nullable Integer textColor,
@@ -26,6 +26,7 @@ import android.widget.LinearLayout;
 import android.widget.TableLayout;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
 import org.quantumbadger.redreader.activities.BaseActivity;
 
 import java.util.ArrayList;
@@ -39,6 +40,13 @@ public class BodyElementTable extends BodyElement {
 		mElements = elements;
 	}
 
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+		for(final BodyElement element : mElements) {
+			element.precomputeText(params);
+		}
+	}
+
 	@Override
 	public View generateView(
 			@NonNull final BaseActivity activity,
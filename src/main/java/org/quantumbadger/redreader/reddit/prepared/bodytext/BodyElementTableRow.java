@@ -22,6 +22,7 @@ import android.view.ViewGroup;
 import android.widget.TableRow;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
 import org.quantumbadger.redreader.activities.BaseActivity;
 
 import java.util.ArrayList;
@@ -35,6 +36,13 @@ public class BodyElementTableRow extends BodyElement {
 		mElements = elements;
 	}
 
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+		for(final BodyElement element : mElements) {
+			element.precomputeText(params);
+		}
+	}
+
 	@Override
 	public View generateView(
 			@NonNull final BaseActivity activity,
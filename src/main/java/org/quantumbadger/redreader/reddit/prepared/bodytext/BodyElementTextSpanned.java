@@ -21,6 +21,9 @@ import android.text.Spanned;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.views.LinkifiedTextView;
@@ -29,6 +32,9 @@ public class BodyElementTextSpanned extends BodyElement {
 
 	@NonNull private final Spanned mSpanned;
 
+	// Only used if the parameters match those of the view being generated
+	@Nullable private volatile PrecomputedTextCompat mPrecomputed;
+
 	public BodyElementTextSpanned(
 			@NonNull final BlockType blockType,
 			@NonNull final Spanned spanned) {
@@ -36,6 +42,32 @@ public class BodyElementTextSpanned extends BodyElement {
 		mSpanned = spanned;
 	}
 
+	// Returns the text parameters of the views created by generateView() with this text size
+	@UiThread
+	@NonNull
+	public static PrecomputedTextCompat.Params getTextMetricsParams(
+			@NonNull final BaseActivity activity,
+			@Nullable final Float textSize) {
+
+		final LinkifiedTextView tv = new LinkifiedTextView(activity);
+
+		if(textSize != null) {
+			tv.setTextSize(textSize);
+		}
+
+		return TextViewCompat.getTextMetricsParams(tv);
+	}
+
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+
+		final PrecomputedTextCompat existing = mPrecomputed;
+
+		if(existing == null || !existing.getParams().equals(params)) {
+			mPrecomputed = PrecomputedTextCompat.create(mSpanned, params);
+		}
+	}
+
 	@Override
 	public View generateView(
 			@NonNull final BaseActivity activity,
@@ -52,9 +84,18 @@ public class BodyElementTextSpanned extends BodyElement {
 			tv.setTextSize(textSize);
 		}
 
-		tv.setText(mSpanned, LinkifiedTextView.BufferType.SPANNABLE);
+		final PrecomputedTextCompat precomputed = mPrecomputed;
+
+		if(precomputed != null
+				&& precomputed.getParams().equals(TextViewCompat.getTextMetricsParams(tv))) {
+
+			TextViewCompat.setPrecomputedText(tv, precomputed);
+
+		} else {
+			tv.setText(mSpanned, LinkifiedTextView.BufferType.SPANNABLE);
+		}
 
-		if(PrefsUtility.pref_accessibility_separate_body_text_lines()) {
+		if(PrefsUtility.snapshot().separateBodyTextLines) {
 
 			tv.setFocusable(true);
 		}
@@ -71,13 +71,83 @@ public class HtmlReader {
 		}
 	}
 
+	// Tag names, attribute names, and class names which are returned without allocating
+	private static final String[][] COMMON_NAMES_BY_LENGTH = groupByLength(
+			"a", "p", "em", "br", "hr", "h1", "h2", "h3", "h4", "h5", "h6", "th", "td", "tr",
+			"ul", "ol", "li", "md", "del", "div", "sup", "pre", "img", "rel", "code", "span",
+			"href", "class", "title", "thead", "tbody", "table", "strong", "blockquote",
+			"md-spoiler-text");
+
 	@NonNull private final String mHtml;
+	@NonNull private final char[] mChars;
 	private int mPos = 0;
 
 	private boolean mPreformattedTextPending = false;
 
+	// Reused for each text run and attribute value
+	@NonNull private final StringBuilder mBuffer = new StringBuilder(256);
+	private boolean mLastCharWasWhitespace;
+
 	public HtmlReader(@NonNull final String html) {
 		mHtml = html;
+		mChars = html.toCharArray();
+	}
+
+	@NonNull
+	private static String[][] groupByLength(@NonNull final String... names) {
+
+		int maxLength = 0;
+
+		for(final String name : names) {
+			maxLength = Math.max(maxLength, name.length());
+		}
+
+		final String[][] result = new String[maxLength + 1][];
+
+		for(int length = 0; length <= maxLength; length++) {
+
+			int count = 0;
+
+			for(final String name : names) {
+				if(name.length() == length) {
+					count++;
+				}
+			}
+
+			result[length] = new String[count];
+			count = 0;
+
+			for(final String name : names) {
+				if(name.length() == length) {
+					result[length][count++] = name;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	@NonNull
+	private String internRange(final int start, final int end) {
+
+		final int length = end - start;
+
+		if(length < COMMON_NAMES_BY_LENGTH.length) {
+
+			candidates:
+			for(final String candidate : COMMON_NAMES_BY_LENGTH[length]) {
+
+				for(int i = 0; i < length; i++) {
+					if(candidate.charAt(i) != mChars[start + i]) {
+						continue candidates;
+					}
+				}
+
+				return candidate;
+			}
+		}
+
+		return new String(mChars, start, length);
 	}
 
 	private static String normaliseWhitespace(@NonNull final String html) {
@@ -128,13 +198,161 @@ public class HtmlReader {
 		}
 	}
 
+	private static int hexDigitValue(final char c) {
+
+		if(c >= '0' && c <= '9') {
+			return c - '0';
+		} else if(c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		} else if(c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		} else {
+			return -1;
+		}
+	}
+
+	private boolean rangeEquals(final int start, final int end, @NonNull final String expected) {
+
+		if(end - start < expected.length()) {
+			return false;
+		}
+
+		for(int i = 0; i < expected.length(); i++) {
+			if(mChars[start + i] != expected.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// Decodes the entity starting at the '&' at the specified position. Only the entities which
+	// are common in Reddit's HTML are handled here: the result is the decoded character in the
+	// low 16 bits and the entity length above that, or -1 if the entity isn't one of those.
+	private int decodeCommonEntity(final int start, final int end) {
+
+		if(rangeEquals(start, end, "&amp;")) {
+			return (5 << 16) | '&';
+		} else if(rangeEquals(start, end, "&lt;")) {
+			return (4 << 16) | '<';
+		} else if(rangeEquals(start, end, "&gt;")) {
+			return (4 << 16) | '>';
+		} else if(rangeEquals(start, end, "&quot;")) {
+			return (6 << 16) | '"';
+		}
+
+		if(!rangeEquals(start, end, "&#")) {
+			return -1;
+		}
+
+		int pos = start + 2;
+
+		final boolean hex = pos < end && (mChars[pos] == 'x' || mChars[pos] == 'X');
+		final int radix = hex ? 16 : 10;
+		final int maxDigits = hex ? 4 : 5;
+
+		if(hex) {
+			pos++;
+		}
+
+		final int digitsStart = pos;
+		int value = 0;
+
+		while(pos < end && pos - digitsStart < maxDigits) {
+
+			final int digit = hexDigitValue(mChars[pos]);
+
+			if(digit < 0 || digit >= radix) {
+				break;
+			}
+
+			value = value * radix + digit;
+			pos++;
+		}
+
+		if(pos == digitsStart || pos >= end || mChars[pos] != ';' || value > 0xFFFF) {
+			return -1;
+		}
+
+		return ((pos + 1 - start) << 16) | value;
+	}
+
+	private void appendDecoded(final char c, final boolean normaliseWhitespace) {
+
+		if(!normaliseWhitespace) {
+			mBuffer.append(c);
+
+		} else if(c != '\n' && c != '\r') {
+			if(isWhitespace(c)) {
+				if(!mLastCharWasWhitespace) {
+					mBuffer.append(' ');
+					mLastCharWasWhitespace = true;
+				}
+
+			} else {
+				mLastCharWasWhitespace = false;
+				mBuffer.append(c);
+			}
+		}
+	}
+
+	// Equivalent to unescaping the range with StringEscapeUtils.unescapeHtml4() and then
+	// optionally normalising the whitespace, but done in a single pass for the common cases
+	@NonNull
+	private String unescapeRange(
+			final int start,
+			final int end,
+			final boolean normaliseWhitespace) {
+
+		mBuffer.setLength(0);
+		mLastCharWasWhitespace = false;
+
+		int pos = start;
+
+		while(pos < end) {
+
+			final char c = mChars[pos];
+
+			if(c == '&') {
+
+				final int entity = decodeCommonEntity(pos, end);
+
+				if(entity < 0) {
+					final String unescaped = StringEscapeUtils.unescapeHtml4(
+							new String(mChars, start, end - start));
+
+					return normaliseWhitespace ? normaliseWhitespace(unescaped) : unescaped;
+				}
+
+				appendDecoded((char)(entity & 0xFFFF), normaliseWhitespace);
+				pos += entity >>> 16;
+
+			} else {
+				appendDecoded(c, normaliseWhitespace);
+				pos++;
+			}
+		}
+
+		return mBuffer.toString();
+	}
+
+	private int findEnd(final char endChar) {
+
+		int end = mPos;
+
+		while(end < mChars.length && mChars[end] != endChar) {
+			end++;
+		}
+
+		return end;
+	}
+
 	private String readName() throws MalformedHtmlException {
 
-		final StringBuilder result = new StringBuilder(16);
+		final int start = mPos;
 
 		try {
-			while(isNameChar(mHtml.charAt(mPos))) {
-				result.append(mHtml.charAt(mPos));
+			while(isNameChar(mChars[mPos])) {
 				mPos++;
 			}
 
@@ -146,28 +364,39 @@ public class HtmlReader {
 					e);
 		}
 
-		if(result.length() == 0) {
+		if(mPos == start) {
 			throw new MalformedHtmlException("Got zero-length name", mHtml, mPos);
 		}
 
-		return result.toString();
+		return internRange(start, mPos);
 	}
 
-	private String readAndUnescapeUntil(final char endChar) {
+	private String readAttributeValue() {
 
-		final StringBuilder result = new StringBuilder(64);
+		final int start = mPos;
+		final int end = findEnd('"');
+		mPos = end;
 
-		while(mPos < mHtml.length() && mHtml.charAt(mPos) != endChar) {
-			result.append(mHtml.charAt(mPos));
-			mPos++;
+		for(int i = start; i < end; i++) {
+			if(mChars[i] == '&') {
+				return unescapeRange(start, end, false);
+			}
 		}
 
-		return StringEscapeUtils.unescapeHtml4(result.toString());
+		return internRange(start, end);
+	}
+
+	private String readAndUnescapeUntil(final char endChar, final boolean normaliseWhitespace) {
+
+		final int start = mPos;
+		mPos = findEnd(endChar);
+
+		return unescapeRange(start, mPos, normaliseWhitespace);
 	}
 
 	private boolean tryAccept(final char c) {
 
-		if(mPos < mHtml.length() && mHtml.charAt(mPos) == c) {
+		if(mPos < mChars.length && mChars[mPos] == c) {
 			mPos++;
 			return true;
 		}
@@ -178,7 +407,7 @@ public class HtmlReader {
 	private void accept(final char c) throws MalformedHtmlException {
 
 		try {
-			if(mHtml.charAt(mPos) != c) {
+			if(mChars[mPos] != c) {
 				throw new MalformedHtmlException("Expecting " + c, mHtml, mPos);
 			}
 
@@ -191,14 +420,14 @@ public class HtmlReader {
 
 	private void skipWhitespace() {
 
-		while(mPos < mHtml.length() && isWhitespace(mHtml.charAt(mPos))) {
+		while(mPos < mChars.length && isWhitespace(mChars[mPos])) {
 			mPos++;
 		}
 	}
 
 	private void skipNewlines() {
 
-		while(mPos < mHtml.length() && mHtml.charAt(mPos) == '\n') {
+		while(mPos < mChars.length && mChars[mPos] == '\n') {
 			mPos++;
 		}
 	}
@@ -213,19 +442,19 @@ public class HtmlReader {
 
 				skipNewlines();
 
-				if(mPos >= mHtml.length()) {
+				if(mPos >= mChars.length) {
 					// End of data
 					return Token.EOF;
 				}
 
-				if(mHtml.charAt(mPos) == '<') {
+				if(mChars[mPos] == '<') {
 
 					mPos++;
 					skipWhitespace();
 
 					final TokenType type;
 
-					if(mHtml.charAt(mPos) == '!') {
+					if(mChars[mPos] == '!') {
 
 						// Comment
 						mPos++;
@@ -234,9 +463,9 @@ public class HtmlReader {
 
 						while(true) {
 
-							if(mHtml.charAt(mPos) == '-'
-									&& mHtml.charAt(mPos + 1) == '-'
-									&& mHtml.charAt(mPos + 2) == '>') {
+							if(mChars[mPos] == '-'
+									&& mChars[mPos + 1] == '-'
+									&& mChars[mPos + 2] == '>') {
 
 								mPos += 3;
 								continue mainLoop;
@@ -248,7 +477,7 @@ public class HtmlReader {
 
 					}
 
-					if(mHtml.charAt(mPos) == '/') {
+					if(mChars[mPos] == '/') {
 						type = TokenType.TAG_END;
 						mPos++;
 						skipWhitespace();
@@ -268,7 +497,7 @@ public class HtmlReader {
 
 					skipWhitespace();
 
-					while(mHtml.charAt(mPos) != '>') {
+					while(mChars[mPos] != '>') {
 
 						if(tryAccept('/')) {
 							skipWhitespace();
@@ -285,7 +514,7 @@ public class HtmlReader {
 
 						if(tryAccept('=')) {
 							accept('"');
-							final String value = readAndUnescapeUntil('"');
+							final String value = readAttributeValue();
 							accept('"');
 							skipWhitespace();
 
@@ -309,7 +538,7 @@ public class HtmlReader {
 
 						mPreformattedTextPending = false;
 
-						String preformattedText = readAndUnescapeUntil('<');
+						String preformattedText = readAndUnescapeUntil('<', false);
 
 						if(preformattedText.endsWith("\n")) {
 							preformattedText = preformattedText.substring(
@@ -328,7 +557,7 @@ public class HtmlReader {
 					// Raw text
 					return new Token(
 							TokenType.TEXT,
-							normaliseWhitespace(readAndUnescapeUntil('<')),
+							readAndUnescapeUntil('<', true),
 							null,
 							null,
 							null);
@@ -20,16 +20,23 @@ package org.quantumbadger.redreader.reddit.things;
 import android.net.Uri;
 import android.os.Parcel;
 import android.os.Parcelable;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.fasterxml.jackson.core.JsonToken;
 import org.apache.commons.text.StringEscapeUtils;
 import org.quantumbadger.redreader.common.LinkHandler;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
 import org.quantumbadger.redreader.jsonwrap.JsonBoolean;
 import org.quantumbadger.redreader.jsonwrap.JsonLong;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 import org.quantumbadger.redreader.reddit.url.PostCommentListingURL;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 
 
 public final class RedditComment implements
@@ -48,6 +55,9 @@ public final class RedditComment implements
 
 	public JsonValue replies;
 
+	// Set instead of replies when the comment was read from a stream
+	@Nullable private ArrayList<RedditThing> mStreamedReplies;
+
 	public String id;
 	public String subreddit_id;
 	public String link_id;
@@ -69,9 +79,84 @@ public final class RedditComment implements
 
 	@Nullable public String distinguished;
 
+	@Nullable public JsonObject rr_unknown_fields;
+
+	public static final JsonBinder<RedditComment> BINDER = new JsonBinder<>(RedditComment::new)
+			.bindString("body", (comment, value) -> comment.body = value)
+			.bindString("body_html", (comment, value) -> comment.body_html = value)
+			.bindString("author", (comment, value) -> comment.author = value)
+			.bindString("subreddit", (comment, value) -> comment.subreddit = value)
+			.bindString("author_flair_text", (comment, value) -> comment.author_flair_text = value)
+			.bindNullableBoolean("archived", (comment, value) -> comment.archived = value)
+			.bindNullableBoolean("likes", (comment, value) -> comment.likes = value)
+			.bindNullableBoolean("score_hidden", (comment, value) -> comment.score_hidden = value)
+			.bindStreamed("replies", (comment, parser) -> {
+
+				if(parser.currentToken() == JsonToken.START_OBJECT) {
+					final ArrayList<RedditThing> replies = new ArrayList<>();
+					RedditListingStreamReader.read(parser, replies::add);
+					parser.nextToken();
+					comment.mStreamedReplies = replies;
+
+				} else {
+					comment.replies = JsonValue.parse(parser);
+				}
+
+			}, (comment, value) -> comment.replies = value)
+			.bindString("id", (comment, value) -> comment.id = value)
+			.bindString("subreddit_id", (comment, value) -> comment.subreddit_id = value)
+			.bindString("link_id", (comment, value) -> comment.link_id = value)
+			.bindString("parent_id", (comment, value) -> comment.parent_id = value)
+			.bindString("name", (comment, value) -> comment.name = value)
+			.bindString("context", (comment, value) -> comment.context = value)
+			.bindInt("ups", (comment, value) -> comment.ups = value)
+			.bindInt("downs", (comment, value) -> comment.downs = value)
+			.bindInt("gilded", (comment, value) -> comment.gilded = value)
+			.bindInt("controversiality", (comment, value) -> comment.controversiality = value)
+			.bindValue("edited", (comment, value) -> comment.edited = value)
+			.bindLong("created", (comment, value) -> comment.created = value)
+			.bindLong("created_utc", (comment, value) -> comment.created_utc = value)
+			.bindNullableBoolean("saved", (comment, value) -> comment.saved = value)
+			.bindString("distinguished", (comment, value) -> comment.distinguished = value)
+			.bindUnknownFields((comment, value) -> comment.rr_unknown_fields = value);
+
 	public RedditComment() {
 	}
 
+	@NonNull
+	public List<RedditThing> getReplies() {
+
+		if(mStreamedReplies != null) {
+			return mStreamedReplies;
+		}
+
+		final JsonObject repliesObject = replies == null ? null : replies.asObject();
+
+		if(repliesObject == null) {
+			return Collections.emptyList();
+		}
+
+		final JsonArray children
+				= repliesObject.getArrayAtPath("data", "children").orElseNull();
+
+		if(children == null) {
+			return Collections.emptyList();
+		}
+
+		final ArrayList<RedditThing> result = new ArrayList<>(children.size());
+
+		for(final JsonValue child : children) {
+
+			final RedditThing thing = child.asObject(RedditThing.BINDER);
+
+			if(thing != null) {
+				result.add(thing);
+			}
+		}
+
+		return result;
+	}
+
 	// one of the many reasons why the Android API is awful
 	private RedditComment(final Parcel in) {
 
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.things;
+
+import androidx.annotation.NonNull;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.quantumbadger.redreader.common.Consumer;
+
+import java.io.IOException;
+
+// Reads a listing of the form {"kind": "Listing", "data": {"children": [...]}} from a token
+// stream, passing each child to the consumer as soon as it has been parsed rather than
+// waiting for the rest of the response.
+//
+// Comment pages are returned as an array of two listings, the first containing the post
+// and the second the comments. The children of both are passed to the consumer in order.
+public final class RedditListingStreamReader {
+
+	private RedditListingStreamReader() {}
+
+	// Returns the number of children read
+	public static int read(
+			@NonNull final JsonParser parser,
+			@NonNull final Consumer<RedditThing> consumer) throws IOException {
+
+		if(parser.currentToken() == null) {
+			parser.nextToken();
+		}
+
+		if(parser.currentToken() != JsonToken.START_ARRAY) {
+			return readListing(parser, consumer);
+		}
+
+		int childCount = 0;
+
+		while(parser.nextToken() != JsonToken.END_ARRAY) {
+			childCount += readListing(parser, consumer);
+		}
+
+		return childCount;
+	}
+
+	private static int readListing(
+			@NonNull final JsonParser parser,
+			@NonNull final Consumer<RedditThing> consumer) throws IOException {
+
+		expect(parser, JsonToken.START_OBJECT);
+
+		int childCount = -1;
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+
+			if("data".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+				childCount = readData(parser, consumer);
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		expect(parser, JsonToken.END_OBJECT);
+
+		if(childCount < 0) {
+			throw new IOException("Response is not a listing");
+		}
+
+		return childCount;
+	}
+
+	private static int readData(
+			@NonNull final JsonParser parser,
+			@NonNull final Consumer<RedditThing> consumer) throws IOException {
+
+		int childCount = -1;
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+
+			if("children".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+
+				childCount = 0;
+				parser.nextToken();
+
+				while(parser.currentToken() != JsonToken.END_ARRAY) {
+					consumer.consume(RedditThing.BINDER.parse(parser));
+					childCount++;
+				}
+
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		expect(parser, JsonToken.END_OBJECT);
+
+		return childCount;
+	}
+
+	private static void expect(
+			@NonNull final JsonParser parser,
+			@NonNull final JsonToken token) throws IOException {
+
+		if(parser.currentToken() != token) {
+			throw new JsonParseException(
+					parser,
+					"Expecting " + token + ", got " + parser.currentToken(),
+					parser.getCurrentLocation());
+		}
+	}
+}
@@ -19,6 +19,7 @@ package org.quantumbadger.redreader.reddit.things;
 
 import androidx.annotation.Nullable;
 import org.apache.commons.text.StringEscapeUtils;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 
@@ -41,6 +42,29 @@ public class RedditMessage implements JsonObject.JsonDeserializable {
 	public long created;
 	public long created_utc;
 
+	@Nullable public JsonObject rr_unknown_fields;
+
+	public static final JsonBinder<RedditMessage> BINDER = new JsonBinder<>(RedditMessage::new)
+			.bindString("author", (message, value) -> message.author = value)
+			.bindString("dest", (message, value) -> message.dest = value)
+			.bindString("body", (message, value) -> message.body = value)
+			.bindString("body_html", (message, value) -> message.body_html = value)
+			.bindString("context", (message, value) -> message.context = value)
+			.bindString("name", (message, value) -> message.name = value)
+			.bindString("parent_id", (message, value) -> message.parent_id = value)
+			.bindString("subject", (message, value) -> message.subject = value)
+			.bindString("subreddit", (message, value) -> message.subreddit = value)
+			.bindString(
+					"subreddit_name_prefixed",
+					(message, value) -> message.subreddit_name_prefixed = value)
+			.bindBoolean("new", (message, value) -> message._json_new = value)
+			.bindBoolean("was_comment", (message, value) -> message.was_comment = value)
+			.bindValue("first_message", (message, value) -> message.first_message = value)
+			.bindValue("replies", (message, value) -> message.replies = value)
+			.bindLong("created", (message, value) -> message.created = value)
+			.bindLong("created_utc", (message, value) -> message.created_utc = value)
+			.bindUnknownFields((message, value) -> message.rr_unknown_fields = value);
+
 	public String getUnescapedBodyMarkdown() {
 		return StringEscapeUtils.unescapeHtml4(body);
 	}
@@ -17,7 +17,9 @@
 
 package org.quantumbadger.redreader.reddit.things;
 
+import androidx.annotation.Nullable;
 import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 import org.quantumbadger.redreader.reddit.url.PostCommentListingURL;
@@ -31,6 +33,15 @@ public class RedditMoreComments implements JsonObject.JsonDeserializable {
 	public JsonArray children;
 	public String parent_id;
 
+	@Nullable public JsonObject rr_unknown_fields;
+
+	public static final JsonBinder<RedditMoreComments> BINDER
+			= new JsonBinder<>(RedditMoreComments::new)
+			.bindInt("count", (more, value) -> more.count = value)
+			.bindArray("children", (more, value) -> more.children = value)
+			.bindString("parent_id", (more, value) -> more.parent_id = value)
+			.bindUnknownFields((more, value) -> more.rr_unknown_fields = value);
+
 	public List<PostCommentListingURL> getMoreUrls(
 			final RedditURLParser.RedditURL commentListingURL) {
 
@@ -25,6 +25,7 @@ import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.ParcelUtils;
 import org.quantumbadger.redreader.jsonwrap.JsonBoolean;
 import org.quantumbadger.redreader.jsonwrap.JsonLong;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 
@@ -76,6 +77,48 @@ public final class RedditPost implements
 
 	@Nullable public String distinguished;
 
+	@Nullable public JsonObject rr_unknown_fields;
+
+	public static final JsonBinder<RedditPost> BINDER = new JsonBinder<>(RedditPost::new)
+			.bindString("id", (post, value) -> post.id = value)
+			.bindString("name", (post, value) -> post.name = value)
+			.bindString("url", (post, value) -> post.url = value)
+			.bindString("title", (post, value) -> post.title = value)
+			.bindString("author", (post, value) -> post.author = value)
+			.bindString("domain", (post, value) -> post.domain = value)
+			.bindString("subreddit", (post, value) -> post.subreddit = value)
+			.bindString("subreddit_id", (post, value) -> post.subreddit_id = value)
+			.bindInt("num_comments", (post, value) -> post.num_comments = value)
+			.bindInt("score", (post, value) -> post.score = value)
+			.bindInt("ups", (post, value) -> post.ups = value)
+			.bindInt("downs", (post, value) -> post.downs = value)
+			.bindInt("gilded", (post, value) -> post.gilded = value)
+			.bindBoolean("archived", (post, value) -> post.archived = value)
+			.bindBoolean("over_18", (post, value) -> post.over_18 = value)
+			.bindBoolean("hidden", (post, value) -> post.hidden = value)
+			.bindBoolean("saved", (post, value) -> post.saved = value)
+			.bindBoolean("is_self", (post, value) -> post.is_self = value)
+			.bindBoolean("clicked", (post, value) -> post.clicked = value)
+			.bindBoolean("stickied", (post, value) -> post.stickied = value)
+			.bindValue("edited", (post, value) -> post.edited = value)
+			.bindNullableBoolean("likes", (post, value) -> post.likes = value)
+			.bindNullableBoolean("spoiler", (post, value) -> post.spoiler = value)
+			.bindNullableBoolean("locked", (post, value) -> post.locked = value)
+			.bindLong("created", (post, value) -> post.created = value)
+			.bindLong("created_utc", (post, value) -> post.created_utc = value)
+			.bindString("selftext", (post, value) -> post.selftext = value)
+			.bindString("selftext_html", (post, value) -> post.selftext_html = value)
+			.bindString("permalink", (post, value) -> post.permalink = value)
+			.bindString("link_flair_text", (post, value) -> post.link_flair_text = value)
+			.bindString("author_flair_text", (post, value) -> post.author_flair_text = value)
+			.bindString("thumbnail", (post, value) -> post.thumbnail = value)
+			.bindObject("media", (post, value) -> post.media = value)
+			.bindString("rr_internal_dash_url", (post, value) -> post.rr_internal_dash_url = value)
+			.bindObject("preview", (post, value) -> post.preview = value)
+			.bindNullableBoolean("is_video", (post, value) -> post.is_video = value)
+			.bindString("distinguished", (post, value) -> post.distinguished = value)
+			.bindUnknownFields((post, value) -> post.rr_unknown_fields = value);
+
 	public RedditPost() {
 	}
 
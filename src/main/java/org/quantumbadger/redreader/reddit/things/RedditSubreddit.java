@@ -20,6 +20,7 @@ package org.quantumbadger.redreader.reddit.things;
 import android.content.Intent;
 import android.os.Parcel;
 import android.os.Parcelable;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import org.apache.commons.text.StringEscapeUtils;
 import org.quantumbadger.redreader.R;
@@ -27,6 +28,7 @@ import org.quantumbadger.redreader.activities.HtmlViewActivity;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.StringUtils;
 import org.quantumbadger.redreader.io.WritableObject;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 
 import java.util.Locale;
@@ -76,6 +78,26 @@ public class RedditSubreddit implements
 
 	@WritableObjectTimestamp public long downloadTime;
 
+	@Nullable public JsonObject rr_unknown_fields;
+
+	public static final JsonBinder<RedditSubreddit> BINDER = new JsonBinder<>(RedditSubreddit::new)
+			.bindString("header_img", (sr, value) -> sr.header_img = value)
+			.bindString("header_title", (sr, value) -> sr.header_title = value)
+			.bindString("description", (sr, value) -> sr.description = value)
+			.bindString("description_html", (sr, value) -> sr.description_html = value)
+			.bindString("public_description", (sr, value) -> sr.public_description = value)
+			.bindString("id", (sr, value) -> sr.id = value)
+			.bindString("name", (sr, value) -> sr.name = value)
+			.bindString("title", (sr, value) -> sr.title = value)
+			.bindString("display_name", (sr, value) -> sr.display_name = value)
+			.bindString("url", (sr, value) -> sr.url = value)
+			.bindLong("created", (sr, value) -> sr.created = value)
+			.bindLong("created_utc", (sr, value) -> sr.created_utc = value)
+			.bindNullableInt("accounts_active", (sr, value) -> sr.accounts_active = value)
+			.bindNullableInt("subscribers", (sr, value) -> sr.subscribers = value)
+			.bindBoolean("over18", (sr, value) -> sr.over18 = value)
+			.bindUnknownFields((sr, value) -> sr.rr_unknown_fields = value);
+
 	private static final Pattern NAME_PATTERN = Pattern.compile(
 			"((/)?r/)?([\\w\\+\\-\\.:]+)/?");
 	private static final Pattern USER_PATTERN = Pattern.compile(
@@ -18,9 +18,14 @@
 package org.quantumbadger.redreader.reddit.things;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,6 +37,9 @@ public final class RedditThing implements JsonObject.JsonDeserializable {
 
 	private static final Map<String, Kind> kinds;
 
+	// Binders used to read "data" straight from a stream, once "kind" has been seen
+	private static final Map<String, JsonBinder<?>> dataBinders;
+
 	static {
 		kinds = new HashMap<>();
 		kinds.put("t1", Kind.COMMENT);
@@ -41,10 +49,44 @@ public final class RedditThing implements JsonObject.JsonDeserializable {
 		kinds.put("t5", Kind.SUBREDDIT);
 		kinds.put("more", Kind.MORE_COMMENTS);
 		kinds.put("Listing", Kind.LISTING);
+
+		dataBinders = new HashMap<>();
+		dataBinders.put("t1", RedditComment.BINDER);
+		dataBinders.put("t2", RedditUser.BINDER);
+		dataBinders.put("t3", RedditPost.BINDER);
+		dataBinders.put("t4", RedditMessage.BINDER);
+		dataBinders.put("t5", RedditSubreddit.BINDER);
+		dataBinders.put("more", RedditMoreComments.BINDER);
 	}
 
 	public String kind;
-	public JsonObject data;
+
+	// Null if the thing was read from a stream and its kind has a typed class, in which case
+	// the data is only available through the asX() methods
+	@Nullable public JsonObject data;
+
+	@Nullable private Object mParsedData;
+
+	public static final JsonBinder<RedditThing> BINDER = new JsonBinder<>(RedditThing::new)
+			.bindString("kind", (thing, value) -> thing.kind = value)
+			.bindStreamed(
+					"data",
+					RedditThing::readData,
+					(thing, value) -> thing.data = value.asObject());
+
+	private static void readData(
+			@NonNull final RedditThing thing,
+			@NonNull final JsonParser parser) throws IOException {
+
+		// Reddit always sends "kind" first. If it hasn't, fall back to a JsonObject.
+		final JsonBinder<?> binder = thing.kind == null ? null : dataBinders.get(thing.kind);
+
+		if(binder != null && parser.currentToken() == JsonToken.START_OBJECT) {
+			thing.mParsedData = binder.parse(parser);
+		} else {
+			thing.data = JsonValue.parse(parser).asObject();
+		}
+	}
 
 	@NonNull
 	public Kind getKind() {
@@ -58,51 +100,42 @@ public final class RedditThing implements JsonObject.JsonDeserializable {
 		return result;
 	}
 
-	public RedditMoreComments asMoreComments() throws
-			InstantiationException,
-			IllegalAccessException,
-			NoSuchMethodException,
-			InvocationTargetException {
-		return data.asObject(RedditMoreComments.class);
+	@NonNull
+	private <E> E as(@NonNull final Class<E> type, @NonNull final JsonBinder<E> binder) {
+
+		if(type.isInstance(mParsedData)) {
+			return type.cast(mParsedData);
+		}
+
+		if(data == null) {
+			throw new RuntimeException(
+					"Thing of kind " + kind + " is not a " + type.getSimpleName());
+		}
+
+		return binder.bind(data);
+	}
+
+	public RedditMoreComments asMoreComments() {
+		return as(RedditMoreComments.class, RedditMoreComments.BINDER);
 	}
 
-	public RedditComment asComment() throws
-			InstantiationException,
-			IllegalAccessException,
-			NoSuchMethodException,
-			InvocationTargetException {
-		return data.asObject(RedditComment.class);
+	public RedditComment asComment() {
+		return as(RedditComment.class, RedditComment.BINDER);
 	}
 
-	public RedditPost asPost() throws
-			InstantiationException,
-			IllegalAccessException,
-			NoSuchMethodException,
-			InvocationTargetException {
-		return data.asObject(RedditPost.class);
+	public RedditPost asPost() {
+		return as(RedditPost.class, RedditPost.BINDER);
 	}
 
-	public RedditSubreddit asSubreddit() throws
-			InstantiationException,
-			IllegalAccessException,
-			NoSuchMethodException,
-			InvocationTargetException {
-		return data.asObject(RedditSubreddit.class);
+	public RedditSubreddit asSubreddit() {
+		return as(RedditSubreddit.class, RedditSubreddit.BINDER);
 	}
 
-	public RedditUser asUser() throws
-			InstantiationException,
-			IllegalAccessException,
-			NoSuchMethodException,
-			InvocationTargetException {
-		return data.asObject(RedditUser.class);
+	public RedditUser asUser() {
+		return as(RedditUser.class, RedditUser.BINDER);
 	}
 
-	public RedditMessage asMessage() throws
-			IllegalAccessException,
-			InstantiationException,
-			InvocationTargetException,
-			NoSuchMethodException {
-		return data.asObject(RedditMessage.class);
+	public RedditMessage asMessage() {
+		return as(RedditMessage.class, RedditMessage.BINDER);
 	}
 }
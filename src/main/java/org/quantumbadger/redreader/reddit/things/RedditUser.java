@@ -19,6 +19,8 @@ package org.quantumbadger.redreader.reddit.things;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.jsonwrap.JsonBinder;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 
 public class RedditUser implements Parcelable, JsonObject.JsonDeserializable {
@@ -40,6 +42,24 @@ public class RedditUser implements Parcelable, JsonObject.JsonDeserializable {
 	public String modhash;
 	public String name;
 
+	@Nullable public JsonObject rr_unknown_fields;
+
+	public static final JsonBinder<RedditUser> BINDER = new JsonBinder<>(RedditUser::new)
+			.bindInt("comment_karma", (user, value) -> user.comment_karma = value)
+			.bindInt("link_karma", (user, value) -> user.link_karma = value)
+			.bindLong("created", (user, value) -> user.created = value)
+			.bindLong("created_utc", (user, value) -> user.created_utc = value)
+			.bindNullableBoolean("has_mail", (user, value) -> user.has_mail = value)
+			.bindNullableBoolean("has_mod_mail", (user, value) -> user.has_mod_mail = value)
+			.bindBoolean("is_friend", (user, value) -> user.is_friend = value)
+			.bindBoolean("is_gold", (user, value) -> user.is_gold = value)
+			.bindBoolean("is_mod", (user, value) -> user.is_mod = value)
+			.bindBoolean("over_18", (user, value) -> user.over_18 = value)
+			.bindString("id", (user, value) -> user.id = value)
+			.bindString("modhash", (user, value) -> user.modhash = value)
+			.bindString("name", (user, value) -> user.name = value)
+			.bindUnknownFields((user, value) -> user.rr_unknown_fields = value);
+
 	@Override
 	public int describeContents() {
 		return 0;
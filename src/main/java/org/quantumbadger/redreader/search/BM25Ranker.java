@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.search;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Scores FTS4 matches with Okapi BM25, using the output of matchinfo(table, 'pcnalx').
+public final class BM25Ranker {
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	private BM25Ranker() {}
+
+	@NonNull
+	public static int[] decodeMatchInfo(@NonNull final byte[] blob) {
+
+		final int[] result = new int[blob.length / 4];
+
+		// SQLite writes the values in the machine's native byte order
+		ByteBuffer.wrap(blob).order(ByteOrder.nativeOrder()).asIntBuffer().get(result);
+
+		return result;
+	}
+
+	public static double score(
+			@NonNull final int[] matchInfo,
+			@NonNull final double[] columnWeights) {
+
+		final int phraseCount = matchInfo[0];
+		final int columnCount = matchInfo[1];
+		final int rowCount = matchInfo[2];
+
+		final int avgLengthOffset = 3;
+		final int lengthOffset = avgLengthOffset + columnCount;
+		final int hitsOffset = lengthOffset + columnCount;
+
+		double result = 0;
+
+		for(int phrase = 0; phrase < phraseCount; phrase++) {
+			for(int column = 0; column < columnCount; column++) {
+
+				final int hitsOffsetForColumn = hitsOffset + 3 * (phrase * columnCount + column);
+
+				final int hitsInRow = matchInfo[hitsOffsetForColumn];
+
+				if(hitsInRow == 0) {
+					continue;
+				}
+
+				final int rowsWithHits = matchInfo[hitsOffsetForColumn + 2];
+
+				// Always positive, unlike the original formula, so that very common terms
+				// still count for something
+				final double idf = Math.log(
+						1.0 + (rowCount - rowsWithHits + 0.5) / (rowsWithHits + 0.5));
+
+				final double avgLength = Math.max(1, matchInfo[avgLengthOffset + column]);
+				final double length = matchInfo[lengthOffset + column];
+
+				final double tf = (hitsInRow * (K1 + 1))
+						/ (hitsInRow + K1 * (1 - B + B * length / avgLength));
+
+				result += columnWeights[column] * idf * tf;
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.search;
+
+import android.app.AlertDialog;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import org.apache.commons.text.StringEscapeUtils;
+import org.quantumbadger.redreader.R;
+import org.quantumbadger.redreader.common.AndroidCommon;
+import org.quantumbadger.redreader.common.Constants;
+import org.quantumbadger.redreader.common.DialogUtils;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.LinkHandler;
+
+import java.util.ArrayList;
+
+public final class OfflineSearchDialog {
+
+	private static final int MAX_RESULTS = 100;
+
+	private OfflineSearchDialog() {}
+
+	public static void show(@NonNull final AppCompatActivity activity) {
+
+		DialogUtils.showSearchDialog(activity, R.string.action_search_offline, query -> {
+
+			if(query == null) {
+				General.quickToast(activity, R.string.mainmenu_custom_empty_search_query);
+				return;
+			}
+
+			new Thread("Offline search") {
+				@Override
+				public void run() {
+
+					final ArrayList<SearchResult> results = OfflineSearchIndex
+							.getInstance(activity)
+							.search(query, MAX_RESULTS);
+
+					AndroidCommon.runOnUiThread(() -> showResults(activity, query, results));
+				}
+			}.start();
+		});
+	}
+
+	private static void showResults(
+			@NonNull final AppCompatActivity activity,
+			@NonNull final String query,
+			@NonNull final ArrayList<SearchResult> allResults) {
+
+		final ArrayList<SearchResult> results = new ArrayList<>(allResults.size());
+
+		for(final SearchResult result : allResults) {
+			if(result.permalink != null) {
+				results.add(result);
+			}
+		}
+
+		if(results.isEmpty()) {
+			General.quickToast(activity, R.string.offline_search_no_results);
+			return;
+		}
+
+		final CharSequence[] items = new CharSequence[results.size()];
+
+		for(int i = 0; i < results.size(); i++) {
+			items[i] = getDescription(activity, results.get(i));
+		}
+
+		new AlertDialog.Builder(activity)
+				.setTitle(query)
+				.setItems(items, (dialog, which) -> LinkHandler.onLinkClicked(
+						activity,
+						Constants.Reddit.getNonAPIUri(StringEscapeUtils.unescapeHtml4(
+								results.get(which).permalink)).toString()))
+				.setNegativeButton(R.string.dialog_close, null)
+				.show();
+	}
+
+	@NonNull
+	private static String getDescription(
+			@NonNull final AppCompatActivity activity,
+			@NonNull final SearchResult result) {
+
+		final StringBuilder sb = new StringBuilder(256);
+
+		if(result.kind == SearchDocument.KIND_POST) {
+			sb.append(unescape(result.postTitle));
+
+		} else if(result.postTitle != null) {
+			sb.append(activity.getString(
+					R.string.offline_search_comment_on,
+					unescape(result.postTitle)));
+
+		} else {
+			sb.append(activity.getString(R.string.offline_search_comment));
+		}
+
+		if(!result.snippet.isEmpty()) {
+			sb.append('\n').append(unescape(result.snippet));
+		}
+
+		if(result.subreddit != null) {
+			sb.append('\n').append("r/").append(result.subreddit);
+		}
+
+		return sb.toString();
+	}
+
+	@NonNull
+	private static String unescape(final String text) {
+		return text == null ? "" : StringEscapeUtils.unescapeHtml4(text);
+	}
+}
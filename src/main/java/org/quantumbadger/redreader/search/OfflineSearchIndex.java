@@ -0,0 +1,628 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.search;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.cache.CacheRequestListingParser;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.StringUtils;
+import org.quantumbadger.redreader.http.FailedRequestBody;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+// Full-text index of the posts and comments in cached listings, so that they can be searched
+// while offline. Documents are removed once the listings they came from have been pruned
+// from the cache.
+public final class OfflineSearchIndex extends SQLiteOpenHelper {
+
+	private static final String TAG = "OfflineSearchIndex";
+
+	private static final String DB_FILENAME = "search_index.db";
+	private static final int DB_VERSION = 1;
+
+	private static final String TABLE_DOCUMENTS = "documents";
+	private static final String TABLE_TEXT = "document_text";
+
+	private static final String FIELD_ID = "id";
+	private static final String FIELD_NAME = "name";
+	private static final String FIELD_KIND = "kind";
+	private static final String FIELD_SUBREDDIT = "subreddit";
+	private static final String FIELD_AUTHOR = "author";
+	private static final String FIELD_POST_TITLE = "post_title";
+	private static final String FIELD_PERMALINK = "permalink";
+	private static final String FIELD_CREATED_UTC = "created_utc";
+
+	// Timestamp of the newest cached listing the document was seen in
+	private static final String FIELD_TIMESTAMP = "timestamp";
+
+	private static final String FIELD_TEXT_TITLE = "title";
+	private static final String FIELD_TEXT_BODY = "body";
+
+	// Weights for the title and body columns of the text table
+	private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+
+	private static final int MAX_DOCUMENTS = 100_000;
+	private static final int PRUNE_BATCH_SIZE = 500;
+
+	@SuppressLint("StaticFieldLeak") private static OfflineSearchIndex singleton;
+
+	private static final class ScoredId {
+
+		private final long mId;
+		private final double mScore;
+
+		private ScoredId(final long id, final double score) {
+			mId = id;
+			mScore = score;
+		}
+	}
+
+	// Worst first. Newer documents, which have higher IDs, win ties.
+	private static int compareScoredIds(@NonNull final ScoredId a, @NonNull final ScoredId b) {
+
+		final int result = Double.compare(a.mScore, b.mScore);
+
+		if(result != 0) {
+			return result;
+		}
+
+		return Long.compare(a.mId, b.mId);
+	}
+
+	public static synchronized OfflineSearchIndex getInstance(final Context context) {
+		if(singleton == null) {
+			singleton = new OfflineSearchIndex(context.getApplicationContext());
+		}
+		return singleton;
+	}
+
+	private final CachedThreadPool mIndexThreadPool = new CachedThreadPool(1, "Search indexer");
+
+	// Only used on the indexer thread
+	private SQLiteStatement mInsertDocumentStatement;
+	private SQLiteStatement mUpdateDocumentStatement;
+	private SQLiteStatement mSelectIdStatement;
+	private SQLiteStatement mInsertTextStatement;
+	private SQLiteStatement mUpdateTextStatement;
+
+	private OfflineSearchIndex(final Context context) {
+		super(context, DB_FILENAME, null, DB_VERSION);
+
+		// Searches shouldn't have to wait for a listing to finish being indexed
+		setWriteAheadLoggingEnabled(true);
+	}
+
+	@Override
+	public void onCreate(final SQLiteDatabase db) {
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE TABLE %s ("
+						+ "%s INTEGER PRIMARY KEY,"
+						+ "%s TEXT NOT NULL UNIQUE,"
+						+ "%s INTEGER NOT NULL,"
+						+ "%s TEXT,"
+						+ "%s TEXT,"
+						+ "%s TEXT,"
+						+ "%s TEXT,"
+						+ "%s INTEGER,"
+						+ "%s INTEGER NOT NULL)",
+				TABLE_DOCUMENTS,
+				FIELD_ID,
+				FIELD_NAME,
+				FIELD_KIND,
+				FIELD_SUBREDDIT,
+				FIELD_AUTHOR,
+				FIELD_POST_TITLE,
+				FIELD_PERMALINK,
+				FIELD_CREATED_UTC,
+				FIELD_TIMESTAMP));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE INDEX %1$s_%2$s ON %1$s (%2$s)",
+				TABLE_DOCUMENTS,
+				FIELD_TIMESTAMP));
+
+		// FTS4 is available on every Android version we support, unlike FTS5 and the
+		// unicode61 tokenizer
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE VIRTUAL TABLE %s USING fts4(%s, %s)",
+				TABLE_TEXT,
+				FIELD_TEXT_TITLE,
+				FIELD_TEXT_BODY));
+
+		db.execSQL(String.format(
+				Locale.US,
+				"CREATE TRIGGER %1$s_delete AFTER DELETE ON %1$s BEGIN "
+						+ "DELETE FROM %2$s WHERE docid = old.%3$s; END",
+				TABLE_DOCUMENTS,
+				TABLE_TEXT,
+				FIELD_ID));
+	}
+
+	@Override
+	public void onUpgrade(
+			final SQLiteDatabase db,
+			final int oldVersion,
+			final int newVersion) {
+
+		// Nothing to do yet
+	}
+
+	// Turns each thing into documents as soon as it has been parsed, so that the things
+	// themselves don't need to be kept until the listing has finished
+	private final class ListingIndexer implements CacheRequestListingParser.Listener {
+
+		@Nullable private SearchDocument.Extractor mExtractor;
+		@NonNull private ArrayList<SearchDocument> mDocuments = new ArrayList<>();
+		private long mTimestamp;
+
+		@Override
+		public void onListingStarted(
+				final long timestamp,
+				@NonNull final UUID session,
+				final boolean fromCache) {
+
+			mExtractor = new SearchDocument.Extractor();
+			mDocuments = new ArrayList<>();
+			mTimestamp = timestamp;
+		}
+
+		@Override
+		public void onThingParsed(@NonNull final RedditThing thing) {
+
+			if(mExtractor == null) {
+				return;
+			}
+
+			// A thing which can't be indexed mustn't fail the listing itself
+			try {
+				mExtractor.extract(thing, mDocuments);
+
+			} catch(final Exception e) {
+				Log.e(TAG, "Failed to index listing", e);
+				mExtractor = null;
+				mDocuments = new ArrayList<>();
+			}
+		}
+
+		@Override
+		public void onListingFinished() {
+
+			if(mExtractor != null && !mDocuments.isEmpty()) {
+				addDocuments(mDocuments, mTimestamp);
+			}
+
+			mExtractor = null;
+			mDocuments = new ArrayList<>();
+		}
+
+		@Override
+		public void onFailure(
+				final int type,
+				@Nullable final Throwable t,
+				@Nullable final Integer httpStatus,
+				@Nullable final String readableMessage,
+				@NonNull final Optional<FailedRequestBody> body) {
+
+			mExtractor = null;
+			mDocuments = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Returns a listener which indexes the posts and comments in a listing as it is parsed.
+	 * A new listener is needed for each CacheRequestListingParser.
+	 */
+	@NonNull
+	public CacheRequestListingParser.Listener createListingIndexer() {
+		return new ListingIndexer();
+	}
+
+	/**
+	 * Indexes the documents from a listing, in the background. Documents which are already in
+	 * the index are only updated if the listing is newer than the one they were last indexed
+	 * from, so reloading a listing from the cache doesn't rewrite anything.
+	 *
+	 * @param timestamp The time that the listing was downloaded.
+	 */
+	public void addDocuments(
+			@NonNull final ArrayList<SearchDocument> documents,
+			final long timestamp) {
+
+		mIndexThreadPool.add(() -> {
+
+			try {
+				indexDocuments(documents, timestamp);
+
+			} catch(final Exception e) {
+				Log.e(TAG, "Failed to index listing", e);
+			}
+		});
+	}
+
+	private void indexDocuments(
+			@NonNull final ArrayList<SearchDocument> documents,
+			final long timestamp) {
+
+		final SQLiteDatabase db = getWritableDatabase();
+
+		if(mInsertDocumentStatement == null) {
+			compileStatements(db);
+		}
+
+		int inserted = 0;
+		int updated = 0;
+
+		db.beginTransaction();
+
+		try {
+			for(final SearchDocument document : documents) {
+
+				bindDocument(mInsertDocumentStatement, document, timestamp);
+				mInsertDocumentStatement.bindString(8, document.name);
+
+				final long insertedId = mInsertDocumentStatement.executeInsert();
+
+				if(insertedId != -1) {
+					bindText(mInsertTextStatement, document, insertedId);
+					mInsertTextStatement.executeInsert();
+					inserted++;
+					continue;
+				}
+
+				bindDocument(mUpdateDocumentStatement, document, timestamp);
+				mUpdateDocumentStatement.bindString(8, document.name);
+				mUpdateDocumentStatement.bindLong(9, timestamp);
+
+				if(mUpdateDocumentStatement.executeUpdateDelete() == 0) {
+					// Already indexed from this listing, or a newer one
+					continue;
+				}
+
+				mSelectIdStatement.bindString(1, document.name);
+				final long existingId = mSelectIdStatement.simpleQueryForLong();
+
+				bindText(mUpdateTextStatement, document, existingId);
+				mUpdateTextStatement.executeUpdateDelete();
+				updated++;
+			}
+
+			db.setTransactionSuccessful();
+
+		} finally {
+			db.endTransaction();
+		}
+
+		Log.i(TAG, String.format(
+				Locale.US,
+				"Indexed listing: %d documents, %d new, %d updated",
+				documents.size(),
+				inserted,
+				updated));
+	}
+
+	private void compileStatements(@NonNull final SQLiteDatabase db) {
+
+		mInsertDocumentStatement = db.compileStatement(String.format(
+				Locale.US,
+				"INSERT OR IGNORE INTO %s (%s, %s, %s, %s, %s, %s, %s, %s) "
+						+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+				TABLE_DOCUMENTS,
+				FIELD_KIND,
+				FIELD_SUBREDDIT,
+				FIELD_AUTHOR,
+				FIELD_POST_TITLE,
+				FIELD_PERMALINK,
+				FIELD_CREATED_UTC,
+				FIELD_TIMESTAMP,
+				FIELD_NAME));
+
+		mUpdateDocumentStatement = db.compileStatement(String.format(
+				Locale.US,
+				"UPDATE %1$s SET %2$s=?, %3$s=?, %4$s=?, %5$s=?, %6$s=?, %7$s=?, %8$s=? "
+						+ "WHERE %9$s=? AND %8$s<?",
+				TABLE_DOCUMENTS,
+				FIELD_KIND,
+				FIELD_SUBREDDIT,
+				FIELD_AUTHOR,
+				FIELD_POST_TITLE,
+				FIELD_PERMALINK,
+				FIELD_CREATED_UTC,
+				FIELD_TIMESTAMP,
+				FIELD_NAME));
+
+		mSelectIdStatement = db.compileStatement(String.format(
+				Locale.US,
+				"SELECT %s FROM %s WHERE %s=?",
+				FIELD_ID,
+				TABLE_DOCUMENTS,
+				FIELD_NAME));
+
+		mInsertTextStatement = db.compileStatement(String.format(
+				Locale.US,
+				"INSERT INTO %s (%s, %s, docid) VALUES (?, ?, ?)",
+				TABLE_TEXT,
+				FIELD_TEXT_TITLE,
+				FIELD_TEXT_BODY));
+
+		mUpdateTextStatement = db.compileStatement(String.format(
+				Locale.US,
+				"UPDATE %s SET %s=?, %s=? WHERE docid=?",
+				TABLE_TEXT,
+				FIELD_TEXT_TITLE,
+				FIELD_TEXT_BODY));
+	}
+
+	// Binds parameters 1 to 7, which are shared by the insert and update statements
+	private static void bindDocument(
+			@NonNull final SQLiteStatement statement,
+			@NonNull final SearchDocument document,
+			final long timestamp) {
+
+		statement.bindLong(1, document.kind);
+		bindNullableString(statement, 2, document.subreddit);
+		bindNullableString(statement, 3, document.author);
+		bindNullableString(statement, 4, document.postTitle);
+		bindNullableString(statement, 5, document.permalink);
+		statement.bindLong(6, document.createdUtc);
+		statement.bindLong(7, timestamp);
+	}
+
+	private static void bindText(
+			@NonNull final SQLiteStatement statement,
+			@NonNull final SearchDocument document,
+			final long id) {
+
+		statement.bindString(1, document.getIndexedTitle());
+		statement.bindString(2, document.getIndexedBody());
+		statement.bindLong(3, id);
+	}
+
+	private static void bindNullableString(
+			final SQLiteStatement statement,
+			final int index,
+			final String value) {
+
+		if(value == null) {
+			statement.bindNull(index);
+		} else {
+			statement.bindString(index, value);
+		}
+	}
+
+	/**
+	 * Searches the index for documents containing every word in the query. The results are
+	 * ranked by relevance, best first.
+	 */
+	@NonNull
+	public ArrayList<SearchResult> search(@NonNull final String query, final int maxResults) {
+
+		final ArrayList<SearchResult> results = new ArrayList<>();
+
+		final String matchExpression = OfflineSearchQuery.toMatchExpression(query);
+
+		if(matchExpression == null || maxResults <= 0) {
+			return results;
+		}
+
+		final SQLiteDatabase db = getReadableDatabase();
+
+		// Every match is ranked, but only the best are kept, so memory use doesn't depend on
+		// how common the search terms are
+		final PriorityQueue<ScoredId> best = new PriorityQueue<>(
+				maxResults + 1,
+				OfflineSearchIndex::compareScoredIds);
+
+		try(Cursor cursor = db.rawQuery(
+				String.format(
+						Locale.US,
+						"SELECT docid, matchinfo(%1$s, 'pcnalx') FROM %1$s WHERE %1$s MATCH ?",
+						TABLE_TEXT),
+				new String[] {matchExpression})) {
+
+			while(cursor.moveToNext()) {
+
+				best.add(new ScoredId(
+						cursor.getLong(0),
+						BM25Ranker.score(
+								BM25Ranker.decodeMatchInfo(cursor.getBlob(1)),
+								COLUMN_WEIGHTS)));
+
+				if(best.size() > maxResults) {
+					best.poll();
+				}
+			}
+		}
+
+		if(best.isEmpty()) {
+			return results;
+		}
+
+		final HashMap<Long, ScoredId> topIds = new HashMap<>();
+
+		for(final ScoredId scoredId : best) {
+			topIds.put(scoredId.mId, scoredId);
+		}
+
+		try(Cursor cursor = db.rawQuery(
+				String.format(
+						Locale.US,
+						"SELECT d.%3$s, d.%4$s, d.%5$s, d.%6$s, d.%7$s, d.%8$s, d.%9$s, d.%10$s, "
+								+ "snippet(%1$s, '', '', '\u2026', -1, 16) "
+								+ "FROM %1$s JOIN %2$s d ON d.%3$s = %1$s.docid "
+								+ "WHERE %1$s MATCH ? AND %1$s.docid IN (%11$s)",
+						TABLE_TEXT,
+						TABLE_DOCUMENTS,
+						FIELD_ID,
+						FIELD_NAME,
+						FIELD_KIND,
+						FIELD_SUBREDDIT,
+						FIELD_AUTHOR,
+						FIELD_POST_TITLE,
+						FIELD_PERMALINK,
+						FIELD_CREATED_UTC,
+						StringUtils.join(topIds.keySet(), ",")),
+				new String[] {matchExpression})) {
+
+			while(cursor.moveToNext()) {
+				results.add(new SearchResult(
+						cursor.getString(1),
+						cursor.getInt(2),
+						cursor.getString(3),
+						cursor.getString(4),
+						cursor.getString(5),
+						cursor.getString(6),
+						cursor.getLong(7),
+						cursor.getString(8),
+						topIds.get(cursor.getLong(0)).mScore));
+			}
+		}
+
+		Collections.sort(results, (a, b) -> {
+
+			final int result = Double.compare(b.score, a.score);
+
+			if(result != 0) {
+				return result;
+			}
+
+			return Long.compare(b.createdUtc, a.createdUtc);
+		});
+
+		return results;
+	}
+
+	/**
+	 * Removes documents which were last seen in a listing older than the specified time, and
+	 * then the oldest documents if the index is still too large. This should be called
+	 * whenever listings are pruned from the cache.
+	 */
+	public void prune(final long removeIfBefore) {
+
+		final SQLiteDatabase db = getWritableDatabase();
+
+		int pruned = deleteInBatches(
+				db,
+				String.format(Locale.US, "WHERE %s<%d", FIELD_TIMESTAMP, removeIfBefore),
+				Long.MAX_VALUE);
+
+		final long excess = DatabaseUtils.queryNumEntries(db, TABLE_DOCUMENTS) - MAX_DOCUMENTS;
+
+		if(excess > 0) {
+			pruned += deleteInBatches(db, "", excess);
+		}
+
+		Log.i(TAG, "Pruned " + pruned + " documents");
+	}
+
+	/**
+	 * Removes the documents which were last indexed from the listings with the specified
+	 * timestamps. This should be called whenever listings are evicted from the cache before
+	 * they reach their maximum age.
+	 *
+	 * A document which also appears in an older listing that is still cached is removed
+	 * too, as the index only records the newest listing each document was seen in.
+	 */
+	public void removeListings(@NonNull final Collection<Long> timestamps) {
+
+		if(timestamps.isEmpty()) {
+			return;
+		}
+
+		final int removed = deleteInBatches(
+				getWritableDatabase(),
+				String.format(
+						Locale.US,
+						"WHERE %s IN (%s)",
+						FIELD_TIMESTAMP,
+						StringUtils.join(timestamps, ",")),
+				Long.MAX_VALUE);
+
+		Log.i(TAG, "Removed " + removed + " documents from evicted listings");
+	}
+
+	public void clear() {
+
+		final SQLiteDatabase db = getWritableDatabase();
+
+		db.beginTransaction();
+
+		try {
+			db.delete(TABLE_TEXT, null, null);
+			db.delete(TABLE_DOCUMENTS, null, null);
+			db.setTransactionSuccessful();
+
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	// Oldest first, in batches, so that indexing and searches can interleave
+	private static int deleteInBatches(
+			@NonNull final SQLiteDatabase db,
+			@NonNull final String whereClause,
+			final long maxToDelete) {
+
+		int deleted = 0;
+
+		while(deleted < maxToDelete) {
+
+			final long batchSize = Math.min(PRUNE_BATCH_SIZE, maxToDelete - deleted);
+
+			final int deletedInBatch = db.delete(
+					TABLE_DOCUMENTS,
+					String.format(
+							Locale.US,
+							"%1$s IN (SELECT %1$s FROM %2$s %3$s ORDER BY %4$s LIMIT %5$d)",
+							FIELD_ID,
+							TABLE_DOCUMENTS,
+							whereClause,
+							FIELD_TIMESTAMP,
+							batchSize),
+					null);
+
+			deleted += deletedInBatch;
+
+			if(deletedInBatch < batchSize) {
+				break;
+			}
+		}
+
+		return deleted;
+	}
+}
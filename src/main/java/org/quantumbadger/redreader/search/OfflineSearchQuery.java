@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+public final class OfflineSearchQuery {
+
+	// Shorter terms are matched exactly, as a prefix search would match too much of the index
+	private static final int MIN_PREFIX_TERM_LENGTH = 3;
+
+	private OfflineSearchQuery() {}
+
+	/**
+	 * Converts the user's query into an FTS MATCH expression which requires every word in the
+	 * query to be present. Words are split the same way as SQLite's "simple" tokenizer, and
+	 * each one is quoted, so that characters in the query can't be interpreted as operators.
+	 *
+	 * @return The expression, or null if the query contains no searchable words.
+	 */
+	@Nullable
+	public static String toMatchExpression(@NonNull final String query) {
+
+		final StringBuilder result = new StringBuilder(query.length() + 16);
+		final StringBuilder term = new StringBuilder(32);
+
+		for(int i = 0; i <= query.length(); i++) {
+
+			final char c = i < query.length() ? query.charAt(i) : ' ';
+
+			if(isTokenChar(c)) {
+				term.append(c >= 'A' && c <= 'Z' ? (char)(c - 'A' + 'a') : c);
+
+			} else if(term.length() > 0) {
+
+				if(result.length() > 0) {
+					result.append(' ');
+				}
+
+				result.append('"').append(term);
+
+				if(term.length() >= MIN_PREFIX_TERM_LENGTH) {
+					result.append('*');
+				}
+
+				result.append('"');
+				term.setLength(0);
+			}
+		}
+
+		return result.length() == 0 ? null : result.toString();
+	}
+
+	// The simple tokenizer treats all non-ASCII characters as part of a word
+	private static boolean isTokenChar(final char c) {
+		return c >= 128
+				|| (c >= 'a' && c <= 'z')
+				|| (c >= 'A' && c <= 'Z')
+				|| (c >= '0' && c <= '9');
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.reddit.things.RedditComment;
+import org.quantumbadger.redreader.reddit.things.RedditPost;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+// A post or comment, as stored in the offline search index.
+public final class SearchDocument {
+
+	public static final int KIND_POST = 0;
+	public static final int KIND_COMMENT = 1;
+
+	@NonNull public final String name;
+	public final int kind;
+	@Nullable public final String subreddit;
+	@Nullable public final String author;
+
+	// For comments, this is the title of the post they were made on, if known
+	@Nullable public final String postTitle;
+
+	@Nullable public final String body;
+	@Nullable public final String permalink;
+	public final long createdUtc;
+
+	public SearchDocument(
+			@NonNull final String name,
+			final int kind,
+			@Nullable final String subreddit,
+			@Nullable final String author,
+			@Nullable final String postTitle,
+			@Nullable final String body,
+			@Nullable final String permalink,
+			final long createdUtc) {
+
+		this.name = name;
+		this.kind = kind;
+		this.subreddit = subreddit;
+		this.author = author;
+		this.postTitle = postTitle;
+		this.body = body;
+		this.permalink = permalink;
+		this.createdUtc = createdUtc;
+	}
+
+	@NonNull
+	public String getIndexedTitle() {
+		return kind == KIND_POST && postTitle != null ? postTitle : "";
+	}
+
+	@NonNull
+	public String getIndexedBody() {
+		return body != null ? body : "";
+	}
+
+	/**
+	 * Extracts the posts and comments from the things in a listing as they are parsed,
+	 * including all nested replies. Anything else in the listing is ignored.
+	 */
+	public static final class Extractor {
+
+		// Comment listings start with the post, so its title is known by the time we see
+		// the comments
+		private final HashMap<String, String> mPostTitles = new HashMap<>();
+
+		private final ArrayDeque<RedditThing> mPending = new ArrayDeque<>();
+
+		public void extract(
+				@NonNull final RedditThing thing,
+				@NonNull final Collection<SearchDocument> output) {
+
+			mPending.addLast(thing);
+
+			while(!mPending.isEmpty()) {
+				add(mPending.removeFirst(), output);
+			}
+		}
+
+		private void add(
+				@NonNull final RedditThing thing,
+				@NonNull final Collection<SearchDocument> output) {
+
+			if("t3".equals(thing.kind)) {
+
+				final RedditPost post = thing.asPost();
+
+				if(post.name == null) {
+					return;
+				}
+
+				if(post.title != null) {
+					mPostTitles.put(post.name, post.title);
+				}
+
+				output.add(new SearchDocument(
+						post.name,
+						KIND_POST,
+						post.subreddit,
+						post.author,
+						post.title,
+						post.selftext,
+						post.permalink,
+						post.created_utc));
+
+			} else if("t1".equals(thing.kind)) {
+
+				final RedditComment comment = thing.asComment();
+
+				if(comment.name == null) {
+					return;
+				}
+
+				// Comments in user and search listings carry the post's title and their own
+				// permalink, neither of which are bound to fields
+				final JsonObject unknownFields = comment.rr_unknown_fields;
+
+				String postTitle = null;
+				String permalink = null;
+
+				if(unknownFields != null) {
+					postTitle = unknownFields.getString("link_title");
+					permalink = unknownFields.getString("permalink");
+				}
+
+				if(postTitle == null && comment.link_id != null) {
+					postTitle = mPostTitles.get(comment.link_id);
+				}
+
+				output.add(new SearchDocument(
+						comment.name,
+						KIND_COMMENT,
+						comment.subreddit,
+						comment.author,
+						postTitle,
+						comment.body,
+						permalink,
+						comment.created_utc));
+
+				// Replies are extracted straight after their parent
+				final List<RedditThing> replies = comment.getReplies();
+
+				for(int i = replies.size() - 1; i >= 0; i--) {
+					mPending.addFirst(replies.get(i));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+public final class SearchResult {
+
+	@NonNull public final String name;
+	public final int kind;
+	@Nullable public final String subreddit;
+	@Nullable public final String author;
+	@Nullable public final String postTitle;
+	@Nullable public final String permalink;
+	public final long createdUtc;
+
+	// An extract of the matching text
+	@NonNull public final String snippet;
+
+	public final double score;
+
+	public SearchResult(
+			@NonNull final String name,
+			final int kind,
+			@Nullable final String subreddit,
+			@Nullable final String author,
+			@Nullable final String postTitle,
+			@Nullable final String permalink,
+			final long createdUtc,
+			@NonNull final String snippet,
+			final double score) {
+
+		this.name = name;
+		this.kind = kind;
+		this.subreddit = subreddit;
+		this.author = author;
+		this.postTitle = postTitle;
+		this.permalink = permalink;
+		this.createdUtc = createdUtc;
+		this.snippet = snippet;
+		this.score = score;
+	}
+}
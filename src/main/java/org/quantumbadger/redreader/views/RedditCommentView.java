@@ -30,6 +30,7 @@ import org.quantumbadger.redreader.R;
 import org.quantumbadger.redreader.account.RedditAccountManager;
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.PrefsSnapshot;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.RRThemeAttributes;
 import org.quantumbadger.redreader.fragments.CommentListingFragment;
@@ -55,7 +56,7 @@ public class RedditCommentView extends FlingableItemView
 	private final IndentView mIndentView;
 	private final LinearLayout mIndentedContent;
 
-	private final float mBodyFontScale;
+	private final float mBodyTextSize;
 
 	private final boolean mShowLinkButtons;
 
@@ -223,8 +224,7 @@ public class RedditCommentView extends FlingableItemView
 
 		final Context context = getContext();
 
-		final PrefsUtility.CommentFlingAction pref =
-				PrefsUtility.pref_behaviour_fling_comment_left();
+		final PrefsUtility.CommentFlingAction pref = PrefsUtility.snapshot().commentFlingLeft;
 
 		mLeftFlingAction = chooseFlingAction(pref);
 
@@ -241,8 +241,7 @@ public class RedditCommentView extends FlingableItemView
 
 		final Context context = getContext();
 
-		final PrefsUtility.CommentFlingAction pref =
-				PrefsUtility.pref_behaviour_fling_comment_right();
+		final PrefsUtility.CommentFlingAction pref = PrefsUtility.snapshot().commentFlingRight;
 
 		mRightFlingAction = chooseFlingAction(pref);
 
@@ -325,18 +324,20 @@ public class RedditCommentView extends FlingableItemView
 		mBodyHolder = rootView.findViewById(R.id.view_reddit_comment_bodyholder);
 		mIndentedContent = rootView.findViewById(R.id.view_reddit_comment_indented_content);
 
-		final int minimumCommentHeight = PrefsUtility.pref_accessibility_min_comment_height();
+		final PrefsSnapshot prefs = PrefsUtility.snapshot();
+
+		final int minimumCommentHeight = prefs.commentMinHeight;
 
 		mIndentedContent.setMinimumHeight(General.dpToPixels(context, minimumCommentHeight));
 
-		mBodyFontScale = PrefsUtility.appearance_fontscale_bodytext();
-		final float mHeaderFontScale = PrefsUtility.appearance_fontscale_comment_headers();
+		mBodyTextSize = getBodyTextSize();
+		final float mHeaderFontScale = prefs.commentHeaderFontScale;
 
 		mHeader.setTextSize(
 				TypedValue.COMPLEX_UNIT_PX,
 				mHeader.getTextSize() * mHeaderFontScale);
 
-		mShowLinkButtons = PrefsUtility.pref_appearance_linkbuttons();
+		mShowLinkButtons = prefs.showLinkButtons;
 
 		setOnClickListener(view -> mListener.onCommentClicked(this));
 
@@ -346,6 +347,10 @@ public class RedditCommentView extends FlingableItemView
 		});
 	}
 
+	public static float getBodyTextSize() {
+		return 13.0f * PrefsUtility.snapshot().commentBodyFontScale;
+	}
+
 	@Override
 	public void onRedditDataChange(final String thingIdAndType) {
 		reset(mActivity, mComment, true);
@@ -391,7 +396,7 @@ public class RedditCommentView extends FlingableItemView
 		final View commentBody = comment.asComment().getBody(
 				activity,
 				mTheme.rrCommentBodyCol,
-				13.0f * mBodyFontScale,
+				mBodyTextSize,
 				mShowLinkButtons && !hideLinkButtons);
 
 		mBodyHolder.addView(commentBody);
@@ -402,7 +407,7 @@ public class RedditCommentView extends FlingableItemView
 
 		final RedditRenderableComment renderableComment = mComment.asComment();
 
-		final int ageUnits = PrefsUtility.appearance_comment_age_units();
+		final int ageUnits = PrefsUtility.snapshot().commentAgeUnits;
 
 		final long postTimestamp = (mFragment != null && mFragment.getPost() != null)
 				? mFragment.getPost().src.getCreatedTimeSecsUTC()
@@ -87,7 +87,7 @@ public class RedditInboxItemView extends LinearLayout {
 
 		setDescendantFocusability(FOCUS_BLOCK_DESCENDANTS);
 
-		showLinkButtons = PrefsUtility.pref_appearance_linkbuttons();
+		showLinkButtons = PrefsUtility.snapshot().showLinkButtons;
 
 		setOnClickListener(v -> handleInboxClick(mActivity));
 
@@ -111,7 +111,7 @@ public class RedditInboxItemView extends LinearLayout {
 				theme,
 				changeDataManager,
 				context,
-				PrefsUtility.appearance_inbox_age_units(),
+				PrefsUtility.snapshot().inboxAgeUnits,
 				RedditRenderableComment.NO_TIMESTAMP,
 				RedditRenderableComment.NO_TIMESTAMP));
 
@@ -119,7 +119,7 @@ public class RedditInboxItemView extends LinearLayout {
 				theme,
 				changeDataManager,
 				context,
-				PrefsUtility.appearance_inbox_age_units(),
+				PrefsUtility.snapshot().inboxAgeUnits,
 				RedditRenderableComment.NO_TIMESTAMP,
 				RedditRenderableComment.NO_TIMESTAMP,
 				false));
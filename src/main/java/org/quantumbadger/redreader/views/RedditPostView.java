@@ -53,6 +53,7 @@ import org.quantumbadger.redreader.common.DisplayUtils;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.GenericFactory;
 import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.PrefsSnapshot;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
@@ -341,8 +342,10 @@ public final class RedditPostView extends FlingableItemView
 
 		final float dpScale = context.getResources().getDisplayMetrics().density;
 
-		final float titleFontScale = PrefsUtility.appearance_fontscale_posts();
-		final float subtitleFontScale = PrefsUtility.appearance_fontscale_post_subtitles();
+		final PrefsSnapshot prefs = PrefsUtility.snapshot();
+
+		final float titleFontScale = prefs.postFontScale;
+		final float subtitleFontScale = prefs.postSubtitleFontScale;
 
 		final View rootView =
 				LayoutInflater.from(context).inflate(R.layout.reddit_post, this, true);
@@ -386,8 +389,7 @@ public final class RedditPostView extends FlingableItemView
 		title = Objects.requireNonNull(rootView.findViewById(R.id.reddit_post_title));
 		subtitle = Objects.requireNonNull(rootView.findViewById(R.id.reddit_post_subtitle));
 
-		mCommentsButtonPref =
-				PrefsUtility.appearance_post_show_comments_button();
+		mCommentsButtonPref = prefs.postShowCommentsButton;
 
 		mCommentsButton = rootView.findViewById(R.id.reddit_post_comments_button);
 		mCommentsText = mCommentsButton.findViewById(R.id.reddit_post_comments_text);
@@ -421,7 +423,7 @@ public final class RedditPostView extends FlingableItemView
 			mCommentsButton.setOnClickListener(v -> fragmentParent.onPostCommentsSelected(mPost));
 		}
 
-		final boolean postTitleOpensPost = PrefsUtility.pref_behaviour_post_title_opens_comments();
+		final boolean postTitleOpensPost = prefs.postTitleOpensComments;
 
 		if(postTitleOpensPost) {
 			title.setOnClickListener(v -> fragmentParent.onPostCommentsSelected(mPost));
@@ -434,10 +436,8 @@ public final class RedditPostView extends FlingableItemView
 				TypedValue.COMPLEX_UNIT_PX,
 				subtitle.getTextSize() * subtitleFontScale);
 
-		mLeftFlingPref =
-				PrefsUtility.pref_behaviour_fling_post_left();
-		mRightFlingPref =
-				PrefsUtility.pref_behaviour_fling_post_right();
+		mLeftFlingPref = prefs.postFlingLeft;
+		mRightFlingPref = prefs.postFlingRight;
 
 		{
 			final TypedArray attr = context.obtainStyledAttributes(new int[] {
@@ -454,7 +454,7 @@ public final class RedditPostView extends FlingableItemView
 			attr.recycle();
 		}
 
-		mThumbnailSizePrefPixels = (int)(dpScale * PrefsUtility.images_thumbnail_size_dp());
+		mThumbnailSizePrefPixels = (int)(dpScale * prefs.thumbnailSizeDp);
 	}
 
 	@UiThread
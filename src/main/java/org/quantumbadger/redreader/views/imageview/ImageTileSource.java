@@ -30,6 +30,7 @@ public interface ImageTileSource {
 
 	int getTileSize();
 
+	// Returns null if the source has been disposed
 	Bitmap getTile(int sampleSize, int tileX, int tileY);
 
 	void dispose();
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.views.imageview;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.General;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Decodes each tile from the encoded image on demand, so the full resolution bitmap is never
+// held in memory
+public class ImageTileSourceRegionDecoder implements ImageTileSource {
+
+	@NonNull private final BitmapRegionDecoder mDecoder;
+
+	private final int mWidth;
+	private final int mHeight;
+
+	private static final int TILE_SIZE = 512;
+
+	private boolean mDisposed = false;
+
+	// Decodes straight from the file, rather than copying the encoded image into memory. Throws
+	// IOException if the image format does not support region decoding.
+	@SuppressWarnings("deprecation")
+	public ImageTileSourceRegionDecoder(@NonNull final File file) throws IOException {
+		this(BitmapRegionDecoder.newInstance(file.getAbsolutePath(), false));
+	}
+
+	// Throws IOException if the image format does not support region decoding
+	@SuppressWarnings("deprecation")
+	public ImageTileSourceRegionDecoder(@NonNull final InputStream is) throws IOException {
+		this(BitmapRegionDecoder.newInstance(is, false));
+	}
+
+	private ImageTileSourceRegionDecoder(
+			@Nullable final BitmapRegionDecoder decoder) throws IOException {
+
+		if(decoder == null) {
+			throw new IOException("Failed to create region decoder");
+		}
+
+		mDecoder = decoder;
+		mWidth = decoder.getWidth();
+		mHeight = decoder.getHeight();
+	}
+
+	@Override
+	public int getWidth() {
+		return mWidth;
+	}
+
+	@Override
+	public int getHeight() {
+		return mHeight;
+	}
+
+	@Override
+	public int getTileSize() {
+		return TILE_SIZE;
+	}
+
+	@Override
+	public int getHTileCount() {
+		return General.divideCeil(getWidth(), TILE_SIZE);
+	}
+
+	@Override
+	public int getVTileCount() {
+		return General.divideCeil(getHeight(), TILE_SIZE);
+	}
+
+	@Nullable
+	@Override
+	public Bitmap getTile(final int sampleSize, final int tileX, final int tileY) {
+
+		final Rect region = new Rect(
+				tileX * TILE_SIZE,
+				tileY * TILE_SIZE,
+				Math.min(mWidth, (tileX + 1) * TILE_SIZE),
+				Math.min(mHeight, (tileY + 1) * TILE_SIZE));
+
+		final BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inSampleSize = sampleSize;
+		options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+		final Bitmap result;
+
+		synchronized(mDecoder) {
+
+			// The loader threads may still have tiles queued after the viewer is closed
+			if(mDisposed) {
+				return null;
+			}
+
+			result = mDecoder.decodeRegion(region, options);
+		}
+
+		if(result == null) {
+			throw new RuntimeException("Failed to decode tile " + region);
+		}
+
+		return result;
+	}
+
+	@Override
+	public void dispose() {
+
+		synchronized(mDecoder) {
+
+			if(!mDisposed) {
+				mDisposed = true;
+				mDecoder.recycle();
+			}
+		}
+	}
+}
@@ -74,6 +74,7 @@ public class ImageViewDisplayListManager implements
 	private int mResolutionY;
 
 	private final MultiScaleTileManager[][] mTileLoaders;
+	private final ImageViewTileLoaderThread mTileLoaderThread;
 	private final RRGLRenderableTexturedQuad[][] mTiles;
 	private boolean[][] mTileVisibility;
 	private boolean[][] mTileLoaded;
@@ -123,12 +124,16 @@ public class ImageViewDisplayListManager implements
 		mTiles = new RRGLRenderableTexturedQuad[mHTileCount][mVTileCount];
 
 		mTileLoaders = new MultiScaleTileManager[mHTileCount][mVTileCount];
-		final ImageViewTileLoaderThread thread = new ImageViewTileLoaderThread();
+		mTileLoaderThread = new ImageViewTileLoaderThread();
 
 		for(int x = 0; x < mHTileCount; x++) {
 			for(int y = 0; y < mVTileCount; y++) {
-				mTileLoaders[x][y] =
-						new MultiScaleTileManager(imageTileSource, thread, x, y, this);
+				mTileLoaders[x][y] = new MultiScaleTileManager(
+						imageTileSource,
+						mTileLoaderThread,
+						x,
+						y,
+						this);
 			}
 		}
 	}
@@ -269,6 +274,11 @@ public class ImageViewDisplayListManager implements
 		final int desiredScaleIndex =
 				MultiScaleTileManager.sampleSizeToScaleIndex(sampleSize);
 
+		mTileLoaderThread.setViewport(
+				(int)Math.floor((firstVisiblePixelX + lastVisiblePixelX) / 2 / mTileSize),
+				(int)Math.floor((firstVisiblePixelY + lastVisiblePixelY) / 2 / mTileSize),
+				sampleSize);
+
 		for(int x = 0; x < mHTileCount; x++) {
 			for(int y = 0; y < mVTileCount; y++) {
 
@@ -306,6 +316,7 @@ public class ImageViewDisplayListManager implements
 								texture.releaseReference();
 								mTileLoaded[x][y] = true;
 								tile.recycle();
+								mTileLoaderThread.onTileDisplayed();
 
 							} catch(final Exception e) {
 								Log.e(
@@ -337,6 +348,7 @@ public class ImageViewDisplayListManager implements
 
 	@Override
 	public void onUIDetach() {
+		mTileLoaderThread.logStats();
 		mImageTileSource.dispose();
 	}
 
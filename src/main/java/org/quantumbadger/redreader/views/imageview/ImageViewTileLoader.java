@@ -69,6 +69,18 @@ public class ImageViewTileLoader {
 		mNotifyRunnable = () -> mListener.onTileLoaded(mX, mY, mSampleSize);
 	}
 
+	public int getX() {
+		return mX;
+	}
+
+	public int getY() {
+		return mY;
+	}
+
+	public int getSampleSize() {
+		return mSampleSize;
+	}
+
 	// Caller must synchronize on mLock
 	public void markAsWanted() {
 
@@ -112,7 +124,15 @@ public class ImageViewTileLoader {
 			return;
 		}
 
+		if(tile == null) {
+			// The source was disposed, so nothing is displaying the tile
+			return;
+		}
+
 		synchronized(mLock) {
+
+			mThread.onTileDecoded(mWanted);
+
 			if(mWanted) {
 				mResult = tile;
 			} else if(tile != null) {
@@ -138,6 +158,10 @@ public class ImageViewTileLoader {
 	// Caller must synchronize on mLock
 	public void markAsUnwanted() {
 
+		if(mWanted) {
+			mThread.remove(this);
+		}
+
 		mWanted = false;
 
 		if(mResult != null) {
@@ -18,15 +18,31 @@
 package org.quantumbadger.redreader.views.imageview;
 
 import android.util.Log;
+import androidx.annotation.NonNull;
+import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.TriggerableThreadGroup;
+import org.quantumbadger.redreader.common.collections.PriorityHeap;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ImageViewTileLoaderThread {
 
+	private static final String TAG = "IViewTileLoaderThread";
+
 	private final TriggerableThreadGroup mThreads;
-	private final Deque<ImageViewTileLoader> mQueue = new ArrayDeque<>(128);
+
+	// Tiles at the desired scale come first, then the closest to the centre of the viewport
+	private final PriorityHeap<ImageViewTileLoader> mQueue = new PriorityHeap<>();
+
+	private int mCentreTileX;
+	private int mCentreTileY;
+	private int mDesiredSampleSize = 1;
+
+	private final AtomicInteger mTilesDecoded = new AtomicInteger();
+	private final AtomicInteger mTilesDiscarded = new AtomicInteger();
+	private final AtomicInteger mTilesDropped = new AtomicInteger();
+	private final AtomicInteger mTilesDisplayed = new AtomicInteger();
 
 	public ImageViewTileLoaderThread() {
 
@@ -34,21 +50,88 @@ public class ImageViewTileLoaderThread {
 				1,
 				Runtime.getRuntime().availableProcessors() - 1);
 
-		Log.i("IViewTileLoaderThread", "Using thread count: " + threadCount);
+		Log.i(TAG, "Using thread count: " + threadCount);
 
 		mThreads = new TriggerableThreadGroup(
 				threadCount,
 				new InternalRunnable());
 	}
 
+	@NonNull
+	private Priority getPriority(@NonNull final ImageViewTileLoader tile) {
+
+		final int dx = tile.getX() - mCentreTileX;
+		final int dy = tile.getY() - mCentreTileY;
+
+		return new Priority(
+				tile.getSampleSize() == mDesiredSampleSize ? 0 : 1,
+				dx * dx + dy * dy);
+	}
+
 	public void enqueue(final ImageViewTileLoader tile) {
 
 		synchronized(mQueue) {
-			mQueue.addLast(tile);
-			mThreads.triggerOne();
+			if(mQueue.add(tile, getPriority(tile))) {
+				mThreads.triggerOne();
+			}
 		}
 	}
 
+	// Drops a tile which is no longer wanted, if it hasn't been decoded yet
+	public void remove(final ImageViewTileLoader tile) {
+
+		synchronized(mQueue) {
+			if(mQueue.remove(tile)) {
+				mTilesDropped.incrementAndGet();
+			}
+		}
+	}
+
+	public void setViewport(
+			final int centreTileX,
+			final int centreTileY,
+			final int desiredSampleSize) {
+
+		synchronized(mQueue) {
+
+			if(centreTileX == mCentreTileX
+					&& centreTileY == mCentreTileY
+					&& desiredSampleSize == mDesiredSampleSize) {
+				return;
+			}
+
+			mCentreTileX = centreTileX;
+			mCentreTileY = centreTileY;
+			mDesiredSampleSize = desiredSampleSize;
+
+			mQueue.updateAllPriorities(this::getPriority);
+		}
+	}
+
+	public void onTileDecoded(final boolean stillWanted) {
+
+		mTilesDecoded.incrementAndGet();
+
+		if(!stillWanted) {
+			mTilesDiscarded.incrementAndGet();
+		}
+	}
+
+	public void onTileDisplayed() {
+		mTilesDisplayed.incrementAndGet();
+	}
+
+	public void logStats() {
+		Log.i(TAG, String.format(
+				Locale.US,
+				"Tiles decoded: %d, displayed: %d, discarded after decode: %d,"
+						+ " dropped before decode: %d",
+				mTilesDecoded.get(),
+				mTilesDisplayed.get(),
+				mTilesDiscarded.get(),
+				mTilesDropped.get()));
+	}
+
 	private class InternalRunnable implements Runnable {
 
 		@Override
@@ -64,7 +147,7 @@ public class ImageViewTileLoaderThread {
 						return;
 					}
 
-					tile = mQueue.removeFirst();
+					tile = mQueue.poll();
 				}
 
 				tile.doPrepare();
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Randomly generated and mutated URLs, covering each provider and the corner cases of the
+// original patterns
+public final class LinkCorpus {
+
+	private static final String[] PREFIXES = {
+			"",
+			"http://",
+			"https://",
+			"https://www.",
+			"https://i.",
+			"https://m.",
+			"x",
+			"Ximgur.com/abc ",
+			"https://example.com/?u=https://",
+			"a\nb",
+			"\r\n"
+	};
+
+	private static final String[] HOSTS = {
+			"imgur.com/",
+			"imgur.com/a/",
+			"imgur.com/gallery/",
+			"gfycat.com/",
+			"gfycat.com/gifs/detail/",
+			"redgifs.com/watch/",
+			"redgifs.com/watch/gifs/detail/",
+			"redgifs.com/",
+			"streamable.com/",
+			"i.reddituploads.com/",
+			"reddituploads.com/",
+			"v.redd.it/",
+			"vXreddYit/",
+			"v.redd.it",
+			"i.redd.it/",
+			"imgflip.com/i/",
+			"imgflip.com/",
+			"makeameme.org/meme/",
+			"giphy.com/gifs/",
+			"giphy.com/",
+			"qkme.me/",
+			"quickmeme.com/meme/",
+			"livememe.com/",
+			"deviantart.com/",
+			"https://www.deviantart.com/",
+			"IMGUR.COM/",
+			"example.com/"
+	};
+
+	private static final String[] IDS = {
+			"",
+			"a",
+			"ab",
+			"abc",
+			"abcdef",
+			"ab-cd",
+			"-x",
+			"gallery",
+			"gallery123",
+			"A_b9",
+			"gifs/detail/",
+			"gifs/detail/abcdefg",
+			"user/art/",
+			"user-name/art/some-art-123",
+			"abcdefghijklmnopqrstuvwxyz",
+			"\uD83D\uDE00abc"
+	};
+
+	private static final String[] SUFFIXES = {
+			"",
+			".jpg",
+			".gifv",
+			"?x=1",
+			"/",
+			"\n",
+			"\nhttps://imgur.com/zzzz",
+			" https://v.redd.it/qwerty",
+			" https://gfycat.com/qwertyuiop",
+			"#frag",
+			"/imgur.com/last"
+	};
+
+	private static final String MUTATION_CHARS
+			= "aZ09_-./?\n\r\u0085\u2028\u2029 \u00e9\uD83D";
+
+	private static String randomElement(final Random random, final String[] elements) {
+		return elements[random.nextInt(elements.length)];
+	}
+
+	private static String randomUrl(final Random random) {
+
+		final StringBuilder result = new StringBuilder();
+
+		result.append(randomElement(random, PREFIXES));
+		result.append(randomElement(random, HOSTS));
+		result.append(randomElement(random, IDS));
+		result.append(randomElement(random, SUFFIXES));
+
+		final int mutations = random.nextInt(3);
+
+		for(int i = 0; i < mutations && result.length() > 0; i++) {
+
+			final int pos = random.nextInt(result.length());
+			final char c = MUTATION_CHARS.charAt(random.nextInt(MUTATION_CHARS.length()));
+
+			if(random.nextBoolean()) {
+				result.setCharAt(pos, c);
+			} else {
+				result.insert(pos, c);
+			}
+		}
+
+		return result.toString();
+	}
+
+	public static List<String> generate(final int size) {
+
+		final Random random = new Random(12345);
+		final ArrayList<String> result = new ArrayList<>(size);
+
+		for(int i = 0; i < size; i++) {
+			if(i % 5 == 0) {
+				result.add(randomUrl(random) + randomUrl(random));
+			} else {
+				result.add(randomUrl(random));
+			}
+		}
+
+		return result;
+	}
+
+	private LinkCorpus() {}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class ReferenceLinkPatterns {
+
+	// The patterns LinkHandler ran over every URL before LinkClassifier replaced them. This is
+	// now the only copy, kept so that LinkClassifier can be checked against them.
+	private static final Map<LinkClassifier.Provider, Pattern> REFERENCE_PATTERNS
+			= new EnumMap<>(LinkClassifier.Provider.class);
+
+	static {
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.IMGUR,
+				Pattern.compile(".*[^A-Za-z]imgur\\.com/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.GFYCAT,
+				Pattern.compile(".*[^A-Za-z]gfycat\\.com/(?:gifs/detail/)?(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.REDGIFS,
+				Pattern.compile(".*[^A-Za-z]redgifs\\.com/watch/(?:gifs/detail/)?(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.STREAMABLE,
+				Pattern.compile(".*[^A-Za-z]streamable\\.com/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.REDDIT_UPLOADS,
+				Pattern.compile(".*[^A-Za-z]i\\.reddituploads\\.com/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.REDDIT_VIDEOS,
+				Pattern.compile(".*[^A-Za-z]v.redd.it/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.IMGFLIP,
+				Pattern.compile(".*[^A-Za-z]imgflip\\.com/i/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.MAKEAMEME,
+				Pattern.compile(".*[^A-Za-z]makeameme\\.org/meme/([\\w\\-]+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.GIPHY,
+				Pattern.compile(".*[^A-Za-z]giphy\\.com/gifs/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.QKME,
+				Pattern.compile(".*[^A-Za-z]qkme\\.me/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.QUICKMEME,
+				Pattern.compile(".*[^A-Za-z]quickmeme\\.com/meme/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.LIVEMEME,
+				Pattern.compile(".*[^A-Za-z]livememe\\.com/(\\w+).*"));
+		REFERENCE_PATTERNS.put(
+				LinkClassifier.Provider.DEVIANTART,
+				Pattern.compile(
+						"https://www\\.deviantart\\.com/([\\w\\-]+)/art/([\\w\\-]+)"));
+	}
+
+	public static String getId(final LinkClassifier.Provider provider, final String url) {
+
+		final Matcher matcher = REFERENCE_PATTERNS.get(provider).matcher(url);
+		return matcher.find() ? matcher.group(1) : null;
+	}
+
+	private ReferenceLinkPatterns() {}
+}
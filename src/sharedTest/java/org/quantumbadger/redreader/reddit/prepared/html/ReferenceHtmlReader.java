@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.prepared.html;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.apache.commons.text.StringEscapeUtils;
+
+// The tokenizer as it was before HtmlReader worked over a char array, kept to check that the
+// output hasn't changed
+public final class ReferenceHtmlReader {
+
+	@NonNull private final String mHtml;
+	private int mPos = 0;
+
+	private boolean mPreformattedTextPending = false;
+
+	public ReferenceHtmlReader(@NonNull final String html) {
+		mHtml = html;
+	}
+
+	private static String normaliseWhitespace(@NonNull final String html) {
+
+		final StringBuilder result = new StringBuilder(html.length());
+
+		boolean lastCharWasWhitespace = false;
+
+		for(int i = 0; i < html.length(); i++) {
+
+			final char c = html.charAt(i);
+
+			if(c != '\n' && c != '\r') {
+				if(isWhitespace(c)) {
+					if(!lastCharWasWhitespace) {
+						result.append(" ");
+						lastCharWasWhitespace = true;
+					}
+
+				} else {
+					lastCharWasWhitespace = false;
+					result.append(c);
+				}
+			}
+		}
+
+		return result.toString();
+	}
+
+	private static boolean isWhitespace(final char c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+	}
+
+	private static boolean isNameChar(final char c) {
+
+		switch(c) {
+			case 0:
+			case ' ':
+			case '\'':
+			case '"':
+			case '>':
+			case '/':
+			case '=':
+				return false;
+
+			default:
+				return true;
+		}
+	}
+
+	private String readName() throws MalformedHtmlException {
+
+		final StringBuilder result = new StringBuilder(16);
+
+		try {
+			while(isNameChar(mHtml.charAt(mPos))) {
+				result.append(mHtml.charAt(mPos));
+				mPos++;
+			}
+
+		} catch(final IndexOutOfBoundsException e) {
+			throw new MalformedHtmlException(
+					"Reached EOF while reading name",
+					mHtml,
+					mPos,
+					e);
+		}
+
+		if(result.length() == 0) {
+			throw new MalformedHtmlException("Got zero-length name", mHtml, mPos);
+		}
+
+		return result.toString();
+	}
+
+	private String readAndUnescapeUntil(final char endChar) {
+
+		final StringBuilder result = new StringBuilder(64);
+
+		while(mPos < mHtml.length() && mHtml.charAt(mPos) != endChar) {
+			result.append(mHtml.charAt(mPos));
+			mPos++;
+		}
+
+		return StringEscapeUtils.unescapeHtml4(result.toString());
+	}
+
+	private boolean tryAccept(final char c) {
+
+		if(mPos < mHtml.length() && mHtml.charAt(mPos) == c) {
+			mPos++;
+			return true;
+		}
+
+		return false;
+	}
+
+	private void accept(final char c) throws MalformedHtmlException {
+
+		try {
+			if(mHtml.charAt(mPos) != c) {
+				throw new MalformedHtmlException("Expecting " + c, mHtml, mPos);
+			}
+
+		} catch(final IndexOutOfBoundsException e) {
+			throw new MalformedHtmlException("Unexpected EOF", mHtml, mPos, e);
+		}
+
+		mPos++;
+	}
+
+	private void skipWhitespace() {
+
+		while(mPos < mHtml.length() && isWhitespace(mHtml.charAt(mPos))) {
+			mPos++;
+		}
+	}
+
+	private void skipNewlines() {
+
+		while(mPos < mHtml.length() && mHtml.charAt(mPos) == '\n') {
+			mPos++;
+		}
+	}
+
+	public HtmlReader.Token readNext() throws MalformedHtmlException {
+
+		try {
+
+			mainLoop:
+			while(true) {
+
+				skipNewlines();
+
+				if(mPos >= mHtml.length()) {
+					// End of data
+					return HtmlReader.Token.EOF;
+				}
+
+				if(mHtml.charAt(mPos) == '<') {
+
+					mPos++;
+					skipWhitespace();
+
+					final HtmlReader.TokenType type;
+
+					if(mHtml.charAt(mPos) == '!') {
+
+						// Comment
+						mPos++;
+						accept('-');
+						accept('-');
+
+						while(true) {
+
+							if(mHtml.charAt(mPos) == '-'
+									&& mHtml.charAt(mPos + 1) == '-'
+									&& mHtml.charAt(mPos + 2) == '>') {
+
+								mPos += 3;
+								continue mainLoop;
+
+							} else {
+								mPos++;
+							}
+						}
+
+					}
+
+					if(mHtml.charAt(mPos) == '/') {
+						type = HtmlReader.TokenType.TAG_END;
+						mPos++;
+						skipWhitespace();
+
+					} else {
+						type = HtmlReader.TokenType.TAG_START;
+					}
+
+					final String tagName = readName();
+					@Nullable String href = null;
+					@Nullable String cssClass = null;
+					@Nullable String title = null;
+
+					if(tagName.equalsIgnoreCase("pre")) {
+						mPreformattedTextPending = true;
+					}
+
+					skipWhitespace();
+
+					while(mHtml.charAt(mPos) != '>') {
+
+						if(tryAccept('/')) {
+							skipWhitespace();
+							accept('>');
+							return new HtmlReader.Token(
+									HtmlReader.TokenType.TAG_START_AND_END,
+									tagName,
+									href,
+									cssClass,
+									title);
+						}
+
+						final String propertyName = readName();
+
+						if(tryAccept('=')) {
+							accept('"');
+							final String value = readAndUnescapeUntil('"');
+							accept('"');
+							skipWhitespace();
+
+							if(propertyName.equalsIgnoreCase("href")) {
+								href = value;
+							} else if(propertyName.equalsIgnoreCase("class")) {
+								cssClass = value;
+							} else if(propertyName.equalsIgnoreCase("title")) {
+								title = value;
+							}
+						}
+					}
+
+					accept('>');
+
+					return new HtmlReader.Token(type, tagName, href, cssClass, title);
+
+				} else {
+
+					if(mPreformattedTextPending) {
+
+						mPreformattedTextPending = false;
+
+						String preformattedText = readAndUnescapeUntil('<');
+
+						if(preformattedText.endsWith("\n")) {
+							preformattedText = preformattedText.substring(
+									0,
+									preformattedText.length() - 1);
+						}
+
+						return new HtmlReader.Token(
+								HtmlReader.TokenType.TEXT,
+								preformattedText,
+								null,
+								null,
+								null);
+					}
+
+					// Raw text
+					return new HtmlReader.Token(
+							HtmlReader.TokenType.TEXT,
+							normaliseWhitespace(readAndUnescapeUntil('<')),
+							null,
+							null,
+							null);
+				}
+			}
+
+		} catch(final IndexOutOfBoundsException e) {
+			throw new MalformedHtmlException("Unexpected EOF", mHtml, mPos, e);
+		}
+	}
+}
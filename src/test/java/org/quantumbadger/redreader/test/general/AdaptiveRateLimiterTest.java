@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.AdaptiveRateLimiter;
+
+public class AdaptiveRateLimiterTest {
+
+	private static class FakeClock implements AdaptiveRateLimiter.Clock {
+
+		long mNowMs = 1000;
+
+		@Override
+		public long nowMs() {
+			return mNowMs;
+		}
+	}
+
+	@Test
+	public void testBurstThenDefaultRate() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(5, 1.0, clock);
+
+		for(int i = 0; i < 5; i++) {
+			Assert.assertEquals(0, limiter.tryAcquire());
+		}
+
+		Assert.assertEquals(1000, limiter.tryAcquire());
+
+		clock.mNowMs += 400;
+		Assert.assertEquals(600, limiter.tryAcquire());
+
+		clock.mNowMs += 600;
+		Assert.assertEquals(0, limiter.tryAcquire());
+		Assert.assertEquals(1000, limiter.tryAcquire());
+	}
+
+	@Test
+	public void testTokensCappedAtBurstSize() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(3, 1.0, clock);
+
+		clock.mNowMs += 60_000;
+
+		for(int i = 0; i < 3; i++) {
+			Assert.assertEquals(0, limiter.tryAcquire());
+		}
+
+		Assert.assertTrue(limiter.tryAcquire() > 0);
+	}
+
+	@Test
+	public void testPlentifulBudgetSpeedsUp() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 1.0, clock);
+
+		Assert.assertEquals(0, limiter.tryAcquire());
+
+		// 100 requests left over 10 seconds
+		limiter.onResponse(200, 100.0, 10.0);
+
+		Assert.assertEquals(100, limiter.tryAcquire());
+	}
+
+	@Test
+	public void testBacksOffNearLimit() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 1.0, clock);
+
+		// Only two requests left for the next 100 seconds
+		limiter.onResponse(200, 2.0, 100.0);
+
+		Assert.assertEquals(0, limiter.tryAcquire());
+		Assert.assertEquals(0, limiter.tryAcquire());
+		Assert.assertEquals(50_000, limiter.tryAcquire());
+	}
+
+	@Test
+	public void testExhaustedBudgetBlocksUntilReset() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 1.0, clock);
+
+		limiter.onResponse(200, 0.0, 30.0);
+
+		Assert.assertEquals(30_000, limiter.tryAcquire());
+
+		clock.mNowMs += 30_000;
+		Assert.assertEquals(0, limiter.tryAcquire());
+	}
+
+	@Test
+	public void testTooManyRequestsBacksOff() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 1.0, clock);
+
+		limiter.onResponse(429, null, null);
+
+		Assert.assertEquals(10_000, limiter.tryAcquire());
+
+		clock.mNowMs += 10_000;
+		Assert.assertEquals(0, limiter.tryAcquire());
+	}
+
+	@Test
+	public void testMissingHeadersIgnored() {
+
+		final FakeClock clock = new FakeClock();
+		final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 1.0, clock);
+
+		limiter.onResponse(200, null, null);
+
+		Assert.assertEquals(0, limiter.tryAcquire());
+		Assert.assertEquals(1000, limiter.tryAcquire());
+	}
+
+	@Test
+	public void testParseHeaderValue() {
+		Assert.assertEquals(598.0, AdaptiveRateLimiter.parseHeaderValue(" 598.0 "), 0.0);
+		Assert.assertEquals(456.0, AdaptiveRateLimiter.parseHeaderValue("456"), 0.0);
+		Assert.assertNull(AdaptiveRateLimiter.parseHeaderValue(null));
+		Assert.assertNull(AdaptiveRateLimiter.parseHeaderValue("soon"));
+		Assert.assertNull(AdaptiveRateLimiter.parseHeaderValue("NaN"));
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.datastream.MappedFileInputStream;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+import org.quantumbadger.redreader.common.datastream.StreamingSeekableInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CacheFileStreamTest {
+
+	private static byte[] randomBytes(final int length) {
+		final byte[] result = new byte[length];
+		new Random(1234).nextBytes(result);
+		return result;
+	}
+
+	private static File writeTempFile(final byte[] data, final boolean gzip) throws IOException {
+
+		final File file = File.createTempFile("CacheFileStreamTest", ".tmp");
+		file.deleteOnExit();
+
+		try(FileOutputStream os = new FileOutputStream(file)) {
+			if(gzip) {
+				try(GZIPOutputStream gzos = new GZIPOutputStream(os)) {
+					gzos.write(data);
+				}
+			} else {
+				os.write(data);
+			}
+		}
+
+		return file;
+	}
+
+	// GZIP stands in for ZSTD here, as the native library isn't available to JVM tests
+	private static SeekableInputStream openStreaming(final File file) throws IOException {
+		return new StreamingSeekableInputStream(
+				() -> new GZIPInputStream(new FileInputStream(file)));
+	}
+
+	private static byte[] readAll(final InputStream is) throws IOException {
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final byte[] buf = new byte[8192];
+
+		int bytesRead;
+
+		while((bytesRead = is.read(buf, 0, buf.length)) > 0) {
+			output.write(buf, 0, bytesRead);
+		}
+
+		return output.toByteArray();
+	}
+
+	private static void checkStream(
+			final byte[] data,
+			final SeekableInputStream is) throws IOException {
+
+		Assert.assertEquals(data[0] & 0xFF, is.read());
+		Assert.assertEquals(1, is.getPosition());
+
+		final byte[] buf = new byte[100];
+		Assert.assertEquals(100, is.read(buf, 0, 100));
+		Assert.assertEquals(data[100], buf[99]);
+		Assert.assertEquals(101, is.getPosition());
+
+		// Forwards
+		is.seek(5000);
+		Assert.assertEquals(data[5000] & 0xFF, is.read());
+
+		// Backwards
+		is.seek(10);
+		Assert.assertEquals(data[10] & 0xFF, is.read());
+
+		is.mark(0);
+		Assert.assertEquals(1000, is.skip(1000));
+		Assert.assertEquals(data[1011] & 0xFF, is.read());
+		is.reset();
+		Assert.assertEquals(data[11] & 0xFF, is.read());
+
+		is.seek(data.length - 1);
+		Assert.assertEquals(data[data.length - 1] & 0xFF, is.read());
+		Assert.assertEquals(-1, is.read());
+		Assert.assertEquals(-1, is.read(buf, 0, buf.length));
+
+		is.seek(0);
+		Assert.assertArrayEquals(data, readAll(is));
+
+		is.seek(3);
+		is.readRemainingAsBytes((result, offset, length) -> {
+			Assert.assertEquals(data.length - 3, length);
+			Assert.assertEquals(data[3], result[offset]);
+			Assert.assertEquals(data[data.length - 1], result[offset + length - 1]);
+		});
+	}
+
+	@Test
+	public void testMappedFile() throws IOException {
+
+		final byte[] data = randomBytes(100_000);
+		final File file = writeTempFile(data, false);
+
+		try(SeekableInputStream is = new MappedFileInputStream(file)) {
+			Assert.assertEquals(data.length, is.available());
+			checkStream(data, is);
+		}
+	}
+
+	@Test
+	public void testMappedEmptyFile() throws IOException {
+
+		final File file = writeTempFile(new byte[0], false);
+
+		try(SeekableInputStream is = new MappedFileInputStream(file)) {
+			Assert.assertEquals(0, is.available());
+			Assert.assertEquals(-1, is.read());
+		}
+	}
+
+	@Test
+	public void testStreaming() throws IOException {
+
+		final byte[] data = randomBytes(100_000);
+		final File file = writeTempFile(data, true);
+
+		try(SeekableInputStream is = openStreaming(file)) {
+			checkStream(data, is);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testStreamingSeekPastEnd() throws IOException {
+
+		final File file = writeTempFile(randomBytes(1000), true);
+
+		try(SeekableInputStream is = openStreaming(file)) {
+			is.seek(1001);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.collections.FenwickTree;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class FenwickTreeTest {
+
+	private static void assertMatches(final ArrayList<Integer> expected, final FenwickTree tree) {
+
+		Assert.assertEquals(expected.size(), tree.size());
+
+		int sum = 0;
+
+		for(int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(sum, tree.prefixSum(i));
+			Assert.assertEquals((int)expected.get(i), tree.get(i));
+			sum += expected.get(i);
+		}
+
+		Assert.assertEquals(sum, tree.total());
+
+		for(int target = 0; target <= sum; target++) {
+
+			int expectedIndex = -1;
+			int runningSum = 0;
+
+			for(int i = 0; i < expected.size(); i++) {
+				runningSum += expected.get(i);
+				if(runningSum > target) {
+					expectedIndex = i;
+					break;
+				}
+			}
+
+			Assert.assertEquals(expectedIndex, tree.indexOfPrefixSumExceeding(target));
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+
+		final FenwickTree tree = new FenwickTree();
+
+		Assert.assertEquals(0, tree.size());
+		Assert.assertEquals(0, tree.total());
+		Assert.assertEquals(-1, tree.indexOfPrefixSumExceeding(0));
+	}
+
+	@Test
+	public void testVisibilityFlags() {
+
+		final FenwickTree tree = new FenwickTree(1);
+
+		tree.add(1);
+		tree.add(0);
+		tree.add(1);
+		tree.add(1);
+
+		Assert.assertEquals(3, tree.total());
+		Assert.assertEquals(0, tree.indexOfPrefixSumExceeding(0));
+		Assert.assertEquals(2, tree.indexOfPrefixSumExceeding(1));
+		Assert.assertEquals(3, tree.indexOfPrefixSumExceeding(2));
+		Assert.assertEquals(-1, tree.indexOfPrefixSumExceeding(3));
+
+		tree.set(0, 0);
+
+		Assert.assertEquals(2, tree.indexOfPrefixSumExceeding(0));
+		Assert.assertEquals(1, tree.prefixSum(3));
+
+		tree.remove(2);
+
+		Assert.assertEquals(3, tree.size());
+		Assert.assertEquals(1, tree.total());
+		Assert.assertEquals(2, tree.indexOfPrefixSumExceeding(0));
+
+		tree.clear();
+
+		Assert.assertEquals(0, tree.size());
+		Assert.assertEquals(0, tree.total());
+	}
+
+	@Test
+	public void testRandomOperations() {
+
+		final Random random = new Random(12345);
+
+		final ArrayList<Integer> expected = new ArrayList<>();
+		final FenwickTree tree = new FenwickTree(2);
+
+		for(int op = 0; op < 2000; op++) {
+
+			final int choice = random.nextInt(10);
+
+			if(choice < 5 || expected.isEmpty()) {
+				final int value = random.nextInt(3);
+				expected.add(value);
+				tree.add(value);
+
+			} else if(choice < 9) {
+				final int index = random.nextInt(expected.size());
+				final int value = random.nextInt(3);
+				expected.set(index, value);
+				tree.set(index, value);
+
+			} else {
+				final int index = random.nextInt(expected.size());
+				expected.remove(index);
+				tree.remove(index);
+			}
+
+			if(op % 50 == 0) {
+				assertMatches(expected, tree);
+			}
+		}
+
+		assertMatches(expected, tree);
+	}
+}
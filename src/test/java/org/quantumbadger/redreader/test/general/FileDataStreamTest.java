@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.datastream.FileDataStream;
+import org.quantumbadger.redreader.common.datastream.FileDataStreamInputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class FileDataStreamTest {
+
+	private static byte[] bytes(final String str) {
+		return str.getBytes(General.CHARSET_UTF8);
+	}
+
+	@Test
+	public void test() throws IOException {
+
+		final File file = File.createTempFile("FileDataStreamTest", ".tmp");
+		final File movedFile = new File(file.getParentFile(), file.getName() + ".moved");
+
+		try(FileOutputStream os = new FileOutputStream(file)) {
+
+			// Ring buffer smaller than the data, so early reads must come from the file
+			final FileDataStream stream = new FileDataStream(file, os::write, 4);
+
+			Assert.assertEquals(0, stream.size());
+
+			stream.writeBytes(bytes("Hello"), 0, 5);
+			stream.writeBytes(bytes(" World"), 0, 6);
+
+			Assert.assertEquals(11, stream.size());
+
+			final FileDataStreamInputStream early = stream.getInputStream();
+
+			final byte[] buf = new byte[32];
+
+			Assert.assertEquals(11, early.read(buf, 0, buf.length));
+			Assert.assertEquals("Hello World", new String(buf, 0, 11, General.CHARSET_UTF8));
+
+			early.seek(8);
+			Assert.assertEquals(3, early.read(buf, 0, buf.length));
+			Assert.assertEquals("rld", new String(buf, 0, 3, General.CHARSET_UTF8));
+
+			stream.writeBytes(bytes("!!"), 0, 2);
+
+			Assert.assertEquals('!', early.read());
+			Assert.assertEquals('!', early.read());
+
+			stream.setComplete(() -> {
+				Assert.assertTrue(file.renameTo(movedFile));
+				return movedFile;
+			});
+
+			Assert.assertEquals(-1, early.read());
+			early.close();
+
+			try(FileDataStreamInputStream late = stream.getInputStream()) {
+				Assert.assertEquals(
+						"Hello World!!",
+						General.readWholeStreamAsUTF8(late));
+			}
+
+		} finally {
+			file.delete();
+			movedFile.delete();
+		}
+	}
+
+	@Test
+	public void testWaitForCompleteFile() throws Exception {
+
+		final File file = File.createTempFile("FileDataStreamTest", ".tmp");
+		final File movedFile = new File(file.getParentFile(), file.getName() + ".moved");
+
+		try(FileOutputStream os = new FileOutputStream(file)) {
+
+			final FileDataStream stream = new FileDataStream(file, os::write, 1024);
+			final FileDataStreamInputStream is = stream.getInputStream();
+
+			stream.writeBytes(bytes("Hello"), 0, 5);
+
+			final File[] result = {null};
+
+			final Thread waiter = new Thread(() -> {
+				try {
+					result[0] = is.waitForCompleteFile();
+				} catch(final IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+
+			waiter.start();
+
+			// Still waiting, as the stream isn't complete
+			waiter.join(100);
+			Assert.assertTrue(waiter.isAlive());
+
+			stream.setComplete(() -> {
+				Assert.assertTrue(file.renameTo(movedFile));
+				return movedFile;
+			});
+
+			waiter.join();
+			Assert.assertEquals(movedFile, result[0]);
+
+			is.close();
+
+		} finally {
+			file.delete();
+			movedFile.delete();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testFailure() throws IOException {
+
+		final File file = File.createTempFile("FileDataStreamTest", ".tmp");
+
+		try(FileOutputStream os = new FileOutputStream(file)) {
+
+			final FileDataStream stream = new FileDataStream(file, os::write, 1024);
+			final FileDataStreamInputStream is = stream.getInputStream();
+
+			stream.writeBytes(bytes("Hi"), 0, 2);
+			stream.setFailed(new IOException("Test failure"));
+
+			is.read(new byte[10], 0, 10);
+
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import androidx.annotation.NonNull;
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.reddit.prepared.html.HtmlReader;
+import org.quantumbadger.redreader.reddit.prepared.html.MalformedHtmlException;
+import org.quantumbadger.redreader.reddit.prepared.html.ReferenceHtmlReader;
+
+import java.util.Random;
+
+public class HtmlReaderTest {
+
+	private interface Tokenizer {
+		HtmlReader.Token readNext() throws MalformedHtmlException;
+	}
+
+	private static final String COMMENT_HTML = "<div class=\"md\"><p>I don&#39;t think"
+			+ " that&#39;s   right.\nSee <a href=\"https://example.com/a?b=1&amp;c=2\">this"
+			+ " link</a> &amp; <strong>bold</strong> <em>it</em>.</p>\n"
+			+ "\n"
+			+ "<blockquote>\n"
+			+ "<p>Quoted &quot;text&quot;, <del>struck</del> and x<sup>2</sup></p>\n"
+			+ "</blockquote>\n"
+			+ "\n"
+			+ "<ul>\n"
+			+ "<li>One &lt; two</li>\n"
+			+ "<li>Two &gt; one\t\tand <code>inline code</code></li>\n"
+			+ "</ul>\n"
+			+ "\n"
+			+ "<p><span class=\"md-spoiler-text\">Spoiler</span> &nbsp;&copy; &#x1F600;"
+			+ " &#128512; &#x27;quoted&#x27; &apos;</p>\n"
+			+ "</div>";
+
+	private static final String SELF_POST_HTML = "<!-- SC_OFF --><div class=\"md\">"
+			+ "<h1>Title</h1>\n"
+			+ "\n"
+			+ "<p>Some text with a <a href=\"/r/redreader\">subreddit link</a>.</p>\n"
+			+ "\n"
+			+ "<pre><code>code block\n"
+			+ "  indented &lt;tag&gt; &amp;&amp;\n"
+			+ "</code></pre>\n"
+			+ "\n"
+			+ "<ol>\n"
+			+ "<li><p>First</p></li>\n"
+			+ "<li><p>Second</p></li>\n"
+			+ "</ol>\n"
+			+ "\n"
+			+ "<table><thead>\n"
+			+ "<tr>\n"
+			+ "<th align=\"left\">Column</th>\n"
+			+ "<th align=\"left\">Other</th>\n"
+			+ "</tr>\n"
+			+ "</thead><tbody>\n"
+			+ "<tr>\n"
+			+ "<td align=\"left\">1</td>\n"
+			+ "<td align=\"left\"><a href=\"https://example.com\" title=\"A &quot;title&quot;\">"
+			+ "x</a></td>\n"
+			+ "</tr>\n"
+			+ "</tbody></table>\n"
+			+ "\n"
+			+ "<hr/>\n"
+			+ "\n"
+			+ "<p>Line<br/>\n"
+			+ "break &#0039; &#39a; &#; &#x; &#xZZ; &amp &#65536; &#99999999999;</p>\n"
+			+ "</div><!-- SC_ON -->";
+
+	private static final String MUTATION_CHARS = "<>/\"&#;x= \n\ta1-!";
+
+	private static String mutate(final Random random, final String html) {
+
+		final StringBuilder result = new StringBuilder(html);
+		final int mutations = 1 + random.nextInt(4);
+
+		for(int i = 0; i < mutations; i++) {
+
+			final int pos = random.nextInt(result.length());
+
+			switch(random.nextInt(3)) {
+				case 0:
+					result.deleteCharAt(pos);
+					break;
+				case 1:
+					result.insert(pos, MUTATION_CHARS.charAt(
+							random.nextInt(MUTATION_CHARS.length())));
+					break;
+				default:
+					result.setLength(pos);
+					break;
+			}
+
+			if(result.length() == 0) {
+				break;
+			}
+		}
+
+		return result.toString();
+	}
+
+	@NonNull
+	private static String describeTokens(@NonNull final Tokenizer tokenizer) {
+
+		final StringBuilder result = new StringBuilder();
+
+		try {
+			while(true) {
+
+				final HtmlReader.Token token = tokenizer.readNext();
+
+				result.append(token.type)
+						.append('|').append(token.text)
+						.append('|').append(token.href)
+						.append('|').append(token.cssClass)
+						.append('|').append(token.title)
+						.append('\n');
+
+				if(token.type == HtmlReader.TokenType.EOF) {
+					return result.toString();
+				}
+			}
+
+		} catch(final MalformedHtmlException e) {
+			return result.append("Malformed: ")
+					.append(e.getMessage())
+					.append(" at ")
+					.append(e.charPosition)
+					.toString();
+
+		} catch(final RuntimeException e) {
+			// Thrown by StringEscapeUtils for some invalid numeric entities
+			return result.append("Exception: ").append(e.getClass().getName()).toString();
+		}
+	}
+
+	private static void assertMatchesReference(@NonNull final String html) {
+		Assert.assertEquals(
+				html,
+				describeTokens(new ReferenceHtmlReader(html)::readNext),
+				describeTokens(new HtmlReader(html)::readNext));
+	}
+
+	@Test
+	public void testTokens() throws MalformedHtmlException {
+
+		final HtmlReader reader = new HtmlReader(
+				"<p class=\"md\">A &amp;  b\n&#39;c&#39;</p><br/>");
+
+		HtmlReader.Token token = reader.readNext();
+		Assert.assertEquals(HtmlReader.TokenType.TAG_START, token.type);
+		Assert.assertEquals("p", token.text);
+		Assert.assertEquals("md", token.cssClass);
+
+		token = reader.readNext();
+		Assert.assertEquals(HtmlReader.TokenType.TEXT, token.type);
+		Assert.assertEquals("A & b'c'", token.text);
+
+		token = reader.readNext();
+		Assert.assertEquals(HtmlReader.TokenType.TAG_END, token.type);
+		Assert.assertEquals("p", token.text);
+
+		token = reader.readNext();
+		Assert.assertEquals(HtmlReader.TokenType.TAG_START_AND_END, token.type);
+		Assert.assertEquals("br", token.text);
+
+		Assert.assertEquals(HtmlReader.TokenType.EOF, reader.readNext().type);
+	}
+
+	@Test
+	public void testRealHtmlMatchesReference() {
+		assertMatchesReference(COMMENT_HTML);
+		assertMatchesReference(SELF_POST_HTML);
+		assertMatchesReference("");
+		assertMatchesReference("<pre>\n  text &amp; more\n</pre>");
+	}
+
+	@Test
+	public void testMalformedHtmlMatchesReference() {
+
+		final Random random = new Random(12345);
+
+		for(int i = 0; i < 20_000; i++) {
+			assertMatchesReference(mutate(random, i % 2 == 0 ? COMMENT_HTML : SELF_POST_HTML));
+		}
+	}
+}
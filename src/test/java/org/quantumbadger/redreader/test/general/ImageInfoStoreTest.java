@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.image.ImageInfo;
+import org.quantumbadger.redreader.image.ImageInfoStore;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ImageInfoStoreTest {
+
+	private static final long MAX_AGE = 1000;
+
+	private static ImageInfo info(final String url) {
+		return new ImageInfo(
+				url,
+				"https://example.com/thumb.jpg",
+				"Title",
+				null,
+				"video/mp4",
+				true,
+				640L,
+				480L,
+				null,
+				ImageInfo.MediaType.VIDEO,
+				ImageInfo.HasAudio.MAYBE_AUDIO,
+				null,
+				null,
+				null);
+	}
+
+	private static ImageInfoStore open(final File file, final long now) throws IOException {
+		final ImageInfoStore store = new ImageInfoStore(file, 3);
+		store.load(now);
+		return store;
+	}
+
+	@Test
+	public void testPersistsAcrossInstances() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore store = open(file, 0);
+			store.put("https://imgur.com/abc", info("https://i.imgur.com/abc.mp4"), 0, MAX_AGE);
+			store.flush(0);
+
+			final ImageInfo loaded = open(file, 10).get("https://imgur.com/abc", 10);
+
+			Assert.assertNotNull(loaded);
+			Assert.assertEquals("https://i.imgur.com/abc.mp4", loaded.urlOriginal);
+			Assert.assertEquals("https://example.com/thumb.jpg", loaded.urlBigSquare);
+			Assert.assertEquals("Title", loaded.title);
+			Assert.assertNull(loaded.caption);
+			Assert.assertEquals(Boolean.TRUE, loaded.isAnimated);
+			Assert.assertEquals(Long.valueOf(640), loaded.width);
+			Assert.assertNull(loaded.size);
+			Assert.assertEquals(ImageInfo.MediaType.VIDEO, loaded.mediaType);
+			Assert.assertEquals(ImageInfo.HasAudio.MAYBE_AUDIO, loaded.hasAudio);
+
+			Assert.assertNull(open(file, 10).get("https://imgur.com/other", 10));
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void testExpiry() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore store = open(file, 0);
+			store.put("a", info("a.mp4"), 0, MAX_AGE);
+			store.flush(0);
+
+			Assert.assertNotNull(store.get("a", MAX_AGE));
+			Assert.assertNull(store.get("a", MAX_AGE + 1));
+			Assert.assertNull(open(file, MAX_AGE + 1).get("a", MAX_AGE + 1));
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void testExpiryPerEntry() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore store = open(file, 0);
+			store.put("short", info("short.mp4"), 0, MAX_AGE / 10);
+			store.put("long", info("long.mp4"), 0, MAX_AGE);
+			store.flush(0);
+
+			final ImageInfoStore reopened = open(file, MAX_AGE / 2);
+			Assert.assertNull(reopened.get("short", MAX_AGE / 2));
+			Assert.assertNotNull(reopened.get("long", MAX_AGE / 2));
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void testClear() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore store = open(file, 0);
+			store.put("a", info("a.mp4"), 0, MAX_AGE);
+			store.flush(0);
+
+			store.clear();
+			store.flush(0);
+
+			Assert.assertNull(store.get("a", 0));
+			Assert.assertEquals(0, open(file, 0).size());
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void testEvictsOldestWrites() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore store = open(file, 0);
+			store.put("a", info("a.mp4"), 0, MAX_AGE);
+			store.put("b", info("b.mp4"), 0, MAX_AGE);
+			store.put("c", info("c.mp4"), 0, MAX_AGE);
+			store.put("a", info("a2.mp4"), 0, MAX_AGE);
+			store.put("d", info("d.mp4"), 0, MAX_AGE);
+			store.flush(0);
+
+			for(final ImageInfoStore reopened : new ImageInfoStore[] {store, open(file, 0)}) {
+				Assert.assertEquals(3, reopened.size());
+				Assert.assertNull(reopened.get("b", 0));
+				Assert.assertEquals("a2.mp4", reopened.get("a", 0).urlOriginal);
+				Assert.assertNotNull(reopened.get("c", 0));
+				Assert.assertNotNull(reopened.get("d", 0));
+			}
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void testCompactsJournal() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore store = open(file, 0);
+
+			long maxEarlyLength = 0;
+
+			for(int i = 0; i < 20; i++) {
+
+				store.put("url" + (100 + i), info("media" + (100 + i)), 0, MAX_AGE);
+				store.flush(0);
+
+				if(i < 10) {
+					maxEarlyLength = Math.max(maxEarlyLength, file.length());
+				} else {
+					// The journal is rewritten rather than growing without bound
+					Assert.assertTrue(file.length() <= maxEarlyLength);
+				}
+			}
+
+			final ImageInfoStore reopened = open(file, 0);
+			Assert.assertEquals(3, reopened.size());
+			Assert.assertEquals("media119", reopened.get("url119", 0).urlOriginal);
+			Assert.assertNull(reopened.get("url116", 0));
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void testEntriesAddedBeforeLoadTakePrecedence() throws IOException {
+
+		final File file = File.createTempFile("ImageInfoStoreTest", ".dat");
+
+		try {
+			final ImageInfoStore first = open(file, 0);
+			first.put("a", info("old.mp4"), 0, MAX_AGE);
+			first.flush(0);
+
+			final ImageInfoStore second = new ImageInfoStore(file, 3);
+			second.put("a", info("new.mp4"), 5, MAX_AGE);
+			second.load(5);
+
+			Assert.assertEquals("new.mp4", second.get("a", 5).urlOriginal);
+
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+}
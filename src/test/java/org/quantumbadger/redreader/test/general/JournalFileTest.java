@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.io.JournalFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class JournalFileTest {
+
+	private static JournalFile.RecordWriter record(final String value) {
+		return dos -> dos.writeUTF(value);
+	}
+
+	private static List<String> replay(
+			final JournalFile journal,
+			final long generation) throws IOException {
+
+		final ArrayList<String> result = new ArrayList<>();
+		journal.replay(generation, dis -> result.add(dis.readUTF()));
+		return result;
+	}
+
+	@Test
+	public void testAppendAndReplay() throws IOException {
+
+		final File file = File.createTempFile("JournalFileTest", ".dat");
+
+		try {
+			final JournalFile journal = new JournalFile(file);
+			journal.reset(5);
+
+			journal.append(Collections.singletonList(record("one")));
+			journal.append(Arrays.asList(record("two"), record("three")));
+
+			Assert.assertEquals(
+					Arrays.asList("one", "two", "three"),
+					replay(journal, 5));
+
+			// A different generation means the journal belongs to an older snapshot
+			Assert.assertEquals(Collections.emptyList(), replay(journal, 6));
+			Assert.assertEquals(Collections.emptyList(), replay(journal, 5));
+
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testTruncatedRecordIsDiscarded() throws IOException {
+
+		final File file = File.createTempFile("JournalFileTest", ".dat");
+
+		try {
+			final JournalFile journal = new JournalFile(file);
+			journal.reset(1);
+
+			journal.append(Collections.singletonList(record("complete")));
+			final long validLength = file.length();
+			journal.append(Collections.singletonList(record("partial")));
+
+			try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(file.length() - 3);
+			}
+
+			Assert.assertEquals(Collections.singletonList("complete"), replay(journal, 1));
+			Assert.assertEquals(validLength, file.length());
+
+			// New records must still be readable after the discarded one
+			journal.append(Collections.singletonList(record("after")));
+
+			Assert.assertEquals(
+					Arrays.asList("complete", "after"),
+					replay(journal, 1));
+
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testBytesPerRecordIndependentOfJournalSize() throws IOException {
+
+		final File file = File.createTempFile("JournalFileTest", ".dat");
+
+		try {
+			final JournalFile journal = new JournalFile(file);
+			journal.reset(1);
+
+			final long firstAppend
+					= journal.append(Collections.singletonList(record("t3_abcdef")));
+
+			for(int i = 0; i < 1000; i++) {
+				journal.append(Collections.singletonList(record("t3_" + (100_000 + i))));
+			}
+
+			final long laterAppend
+					= journal.append(Collections.singletonList(record("t3_ghijkl")));
+
+			Assert.assertEquals(firstAppend, laterAppend);
+			Assert.assertEquals(1002, replay(journal, 1).size());
+
+		} finally {
+			file.delete();
+		}
+	}
+}
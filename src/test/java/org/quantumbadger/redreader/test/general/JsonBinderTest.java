@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+import org.quantumbadger.redreader.reddit.things.RedditComment;
+import org.quantumbadger.redreader.reddit.things.RedditPost;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonBinderTest {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String LISTING_FIXTURE = "fixtures/listing_100_posts.json";
+	private static final String THREAD_FIXTURE = "fixtures/thread_500_comments.json";
+
+	private static String readFixture(final String name) throws IOException {
+		try(InputStream is = JsonBinderTest.class.getClassLoader().getResourceAsStream(name)) {
+			return General.readWholeStreamAsUTF8(is);
+		}
+	}
+
+	private static JsonArray children(final JsonValue listing) {
+		return listing.asObject().getObject("data").getArray("children");
+	}
+
+	private static List<RedditPost> postsByReflection(final String json) throws Exception {
+
+		final ArrayList<RedditPost> result = new ArrayList<>();
+
+		for(final JsonValue child : children(JsonValue.parse(JSON_FACTORY.createParser(json)))) {
+			result.add(child.asObject().getObject("data").asObject(RedditPost.class));
+		}
+
+		return result;
+	}
+
+	private static List<RedditPost> postsByBinder(final String json) throws IOException {
+
+		final ArrayList<RedditPost> result = new ArrayList<>();
+
+		for(final JsonValue child : children(JsonValue.parse(JSON_FACTORY.createParser(json)))) {
+			result.add(child.asObject(RedditThing.BINDER).asPost());
+		}
+
+		return result;
+	}
+
+	// Reads the posts straight from the token stream, without building a JsonValue tree
+	private static List<RedditPost> postsByStreaming(final String json) throws IOException {
+
+		final ArrayList<RedditPost> result = new ArrayList<>();
+
+		try(JsonParser parser = JSON_FACTORY.createParser(json)) {
+
+			while(parser.nextToken() != null) {
+				if(parser.currentToken() == JsonToken.FIELD_NAME
+						&& "children".equals(parser.getCurrentName())) {
+					break;
+				}
+			}
+
+			Assert.assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+			parser.nextToken();
+
+			while(parser.currentToken() == JsonToken.START_OBJECT) {
+
+				parser.nextToken();
+
+				while(parser.currentToken() == JsonToken.FIELD_NAME) {
+
+					final String field = parser.getCurrentName();
+					parser.nextToken();
+
+					if("data".equals(field)) {
+						result.add(RedditPost.BINDER.parse(parser));
+					} else {
+						parser.skipChildren();
+						parser.nextToken();
+					}
+				}
+
+				parser.nextToken();
+			}
+		}
+
+		return result;
+	}
+
+	private static void collectComments(
+			final JsonValue listing,
+			final List<JsonObject> output) {
+
+		for(final JsonValue child : children(listing)) {
+
+			if(!"t1".equals(child.asObject().getString("kind"))) {
+				continue;
+			}
+
+			final JsonObject data = child.asObject().getObject("data");
+			output.add(data);
+
+			final JsonValue replies = data.get("replies");
+
+			if(replies != null && replies.asObject() != null) {
+				collectComments(replies, output);
+			}
+		}
+	}
+
+	// The second listing on a comment page holds the comments
+	private static List<JsonObject> commentObjects(final String json) throws IOException {
+		final JsonArray page = JsonValue.parse(JSON_FACTORY.createParser(json)).asArray();
+
+		final ArrayList<JsonObject> result = new ArrayList<>();
+		collectComments(page.get(1), result);
+		return result;
+	}
+
+	private static void assertPostsEqual(final RedditPost expected, final RedditPost actual) {
+
+		Assert.assertEquals(expected.id, actual.id);
+		Assert.assertEquals(expected.name, actual.name);
+		Assert.assertEquals(expected.title, actual.title);
+		Assert.assertEquals(expected.url, actual.url);
+		Assert.assertEquals(expected.author, actual.author);
+		Assert.assertEquals(expected.num_comments, actual.num_comments);
+		Assert.assertEquals(expected.score, actual.score);
+		Assert.assertEquals(expected.gilded, actual.gilded);
+		Assert.assertEquals(expected.over_18, actual.over_18);
+		Assert.assertEquals(expected.is_self, actual.is_self);
+		Assert.assertEquals(expected.likes, actual.likes);
+		Assert.assertEquals(expected.spoiler, actual.spoiler);
+		Assert.assertEquals(expected.created_utc, actual.created_utc);
+		Assert.assertEquals(expected.selftext, actual.selftext);
+		Assert.assertEquals(expected.link_flair_text, actual.link_flair_text);
+		Assert.assertEquals(expected.thumbnail, actual.thumbnail);
+		Assert.assertEquals(expected.distinguished, actual.distinguished);
+		Assert.assertEquals(expected.edited.asLong(), actual.edited.asLong());
+		Assert.assertEquals(expected.edited.asBoolean(), actual.edited.asBoolean());
+		Assert.assertEquals(String.valueOf(expected.media), String.valueOf(actual.media));
+		Assert.assertEquals(String.valueOf(expected.preview), String.valueOf(actual.preview));
+	}
+
+	@Test
+	public void testPostBindingMatchesReflection() throws Exception {
+
+		final String json = readFixture(LISTING_FIXTURE);
+
+		final List<RedditPost> expected = postsByReflection(json);
+		final List<RedditPost> bound = postsByBinder(json);
+		final List<RedditPost> streamed = postsByStreaming(json);
+
+		Assert.assertEquals(100, expected.size());
+		Assert.assertEquals(100, bound.size());
+		Assert.assertEquals(100, streamed.size());
+
+		for(int i = 0; i < expected.size(); i++) {
+			assertPostsEqual(expected.get(i), bound.get(i));
+			assertPostsEqual(expected.get(i), streamed.get(i));
+		}
+
+		Assert.assertEquals("lmg4hl", bound.get(1).id);
+		Assert.assertEquals(Boolean.TRUE, bound.get(1).likes);
+		Assert.assertNull(bound.get(2).likes);
+		Assert.assertEquals(1634564672L, bound.get(7).created_utc);
+		Assert.assertNotNull(bound.get(7).media);
+		Assert.assertEquals(Long.valueOf(1634568817L), streamed.get(4).edited.asLong());
+	}
+
+	@Test
+	public void testCommentBindingMatchesReflection() throws Exception {
+
+		final List<JsonObject> comments = commentObjects(readFixture(THREAD_FIXTURE));
+		Assert.assertEquals(500, comments.size());
+
+		for(final JsonObject data : comments) {
+
+			final RedditComment expected = data.asObject(RedditComment.class);
+			final RedditComment actual = RedditComment.BINDER.bind(data);
+
+			Assert.assertEquals(expected.id, actual.id);
+			Assert.assertEquals(expected.body, actual.body);
+			Assert.assertEquals(expected.author, actual.author);
+			Assert.assertEquals(expected.archived, actual.archived);
+			Assert.assertEquals(expected.likes, actual.likes);
+			Assert.assertEquals(expected.ups, actual.ups);
+			Assert.assertEquals(expected.controversiality, actual.controversiality);
+			Assert.assertEquals(expected.created_utc, actual.created_utc);
+			Assert.assertEquals(expected.saved, actual.saved);
+			Assert.assertSame(expected.replies, actual.replies);
+		}
+	}
+
+	@Test
+	public void testLenientConversions() throws IOException {
+
+		final RedditPost post = RedditPost.BINDER.parse(JSON_FACTORY.createParser(
+				"{\"score\": \"12\", \"over_18\": \"true\", \"title\": 5,"
+						+ " \"ups\": null, \"unknown\": {\"a\": [1, 2]}, \"id\": \"x\"}"));
+
+		Assert.assertEquals(12, post.score);
+		Assert.assertTrue(post.over_18);
+		Assert.assertEquals("5", post.title);
+		Assert.assertEquals(0, post.ups);
+		Assert.assertEquals("x", post.id);
+	}
+
+	@Test
+	public void testUnknownFieldsAreKept() throws IOException {
+
+		final String json = "{\"id\": \"x\", \"link_title\": \"Title\", \"depth\": 2}";
+
+		final RedditComment streamed = RedditComment.BINDER.parse(JSON_FACTORY.createParser(json));
+		final RedditComment bound = RedditComment.BINDER.bind(
+				JsonValue.parse(JSON_FACTORY.createParser(json)).asObject());
+
+		for(final RedditComment comment : new RedditComment[] {streamed, bound}) {
+			Assert.assertEquals("x", comment.id);
+			Assert.assertNotNull(comment.rr_unknown_fields);
+			Assert.assertEquals("Title", comment.rr_unknown_fields.getString("link_title"));
+			Assert.assertEquals(Long.valueOf(2), comment.rr_unknown_fields.getLong("depth"));
+			Assert.assertNull(comment.rr_unknown_fields.getString("id"));
+		}
+	}
+}
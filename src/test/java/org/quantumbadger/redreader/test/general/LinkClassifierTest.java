@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.LinkClassifier;
+import org.quantumbadger.redreader.common.LinkCorpus;
+import org.quantumbadger.redreader.common.ReferenceLinkPatterns;
+
+public class LinkClassifierTest {
+
+	private static void assertMatchesReference(final String url) {
+
+		final LinkClassifier.Result result = LinkClassifier.classify(url);
+
+		for(final LinkClassifier.Provider provider : LinkClassifier.Provider.values()) {
+			Assert.assertEquals(
+					provider + " for '" + url + "'",
+					ReferenceLinkPatterns.getId(provider, url),
+					result.getId(provider));
+		}
+	}
+
+	@Test
+	public void testCommonLinks() {
+
+		final LinkClassifier.Result imgur = LinkClassifier.classify("https://i.imgur.com/AbCd123.jpg");
+		Assert.assertEquals("AbCd123", imgur.getId(LinkClassifier.Provider.IMGUR));
+		Assert.assertNull(imgur.getId(LinkClassifier.Provider.GFYCAT));
+
+		final LinkClassifier.Result gfycat
+				= LinkClassifier.classify("https://gfycat.com/gifs/detail/SomeLongName");
+		Assert.assertEquals("SomeLongName", gfycat.getId(LinkClassifier.Provider.GFYCAT));
+
+		final LinkClassifier.Result video = LinkClassifier.classify("https://v.redd.it/abcd1234");
+		Assert.assertEquals("abcd1234", video.getId(LinkClassifier.Provider.REDDIT_VIDEOS));
+
+		final LinkClassifier.Result deviantart = LinkClassifier.classify(
+				"https://www.deviantart.com/some-user/art/Some-Art-123456");
+		Assert.assertEquals("some-user", deviantart.getId(LinkClassifier.Provider.DEVIANTART));
+
+		final LinkClassifier.Result none = LinkClassifier.classify("https://example.com/page");
+
+		for(final LinkClassifier.Provider provider : LinkClassifier.Provider.values()) {
+			Assert.assertNull(none.getId(provider));
+		}
+	}
+
+	@Test
+	public void testPatternQuirks() {
+
+		// The host must follow a non-letter, and is matched anywhere in the URL
+		Assert.assertNull(LinkClassifier.classify("https://notimgur.com/abc")
+				.getId(LinkClassifier.Provider.IMGUR));
+		Assert.assertEquals("abc", LinkClassifier.classify("https://x.com/?u=imgur.com/abc")
+				.getId(LinkClassifier.Provider.IMGUR));
+
+		// Last occurrence wins, but only on the first line containing a match
+		Assert.assertEquals("second", LinkClassifier.classify("/imgur.com/first/imgur.com/second")
+				.getId(LinkClassifier.Provider.IMGUR));
+		Assert.assertEquals("first", LinkClassifier.classify("/imgur.com/first\n/imgur.com/second")
+				.getId(LinkClassifier.Provider.IMGUR));
+
+		// Unescaped dots in the original pattern
+		Assert.assertEquals("abcd", LinkClassifier.classify("/vXreddYit/abcd")
+				.getId(LinkClassifier.Provider.REDDIT_VIDEOS));
+
+		// The optional prefix is dropped if nothing follows it
+		Assert.assertEquals("gifs", LinkClassifier.classify("/gfycat.com/gifs/detail/")
+				.getId(LinkClassifier.Provider.GFYCAT));
+	}
+
+	@Test
+	public void testMatchesReferencePatterns() {
+		for(final String url : LinkCorpus.generate(20_000)) {
+			assertMatchesReference(url);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.reddit.things.RedditListingStreamReader;
+import org.quantumbadger.redreader.search.BM25Ranker;
+import org.quantumbadger.redreader.search.OfflineSearchQuery;
+import org.quantumbadger.redreader.search.SearchDocument;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+public class OfflineSearchTest {
+
+	private static final double[] WEIGHTS = {2.0, 1.0};
+
+	@Test
+	public void testMatchExpression() {
+
+		Assert.assertEquals(
+				"\"hello*\" \"world*\"",
+				OfflineSearchQuery.toMatchExpression("Hello, World!"));
+
+		Assert.assertEquals(
+				"\"an\" \"apple*\"",
+				OfflineSearchQuery.toMatchExpression("an apple"));
+
+		// Operators and quotes in the query are treated as separators
+		Assert.assertEquals(
+				"\"cats*\" \"or\" \"dogs*\"",
+				OfflineSearchQuery.toMatchExpression("\"cats\" OR -dogs*"));
+
+		// Non-ASCII characters are kept as part of a word, as in the "simple" tokenizer
+		Assert.assertEquals(
+				"\"café*\"",
+				OfflineSearchQuery.toMatchExpression("Café"));
+
+		Assert.assertNull(OfflineSearchQuery.toMatchExpression(""));
+		Assert.assertNull(OfflineSearchQuery.toMatchExpression(" -*\" "));
+	}
+
+	// Builds the output of matchinfo(table, 'pcnalx') for a single phrase
+	private static int[] matchInfo(
+			final int rows,
+			final int titleLength,
+			final int bodyLength,
+			final int titleHits,
+			final int bodyHits,
+			final int rowsWithTitleHits,
+			final int rowsWithBodyHits) {
+
+		return new int[] {
+				1, 2, rows,
+				8, 40,
+				titleLength, bodyLength,
+				titleHits, titleHits * 3, rowsWithTitleHits,
+				bodyHits, bodyHits * 3, rowsWithBodyHits};
+	}
+
+	@Test
+	public void testRanking() {
+
+		final double titleMatch = BM25Ranker.score(matchInfo(100, 8, 40, 1, 0, 10, 10), WEIGHTS);
+		final double bodyMatch = BM25Ranker.score(matchInfo(100, 8, 40, 0, 1, 10, 10), WEIGHTS);
+		final double moreHits = BM25Ranker.score(matchInfo(100, 8, 40, 0, 3, 10, 10), WEIGHTS);
+		final double longBody = BM25Ranker.score(matchInfo(100, 8, 400, 0, 1, 10, 10), WEIGHTS);
+		final double common = BM25Ranker.score(matchInfo(100, 8, 40, 0, 1, 10, 90), WEIGHTS);
+
+		Assert.assertTrue(titleMatch > bodyMatch);
+		Assert.assertTrue(moreHits > bodyMatch);
+		Assert.assertTrue(longBody < bodyMatch);
+		Assert.assertTrue(common < bodyMatch);
+		Assert.assertTrue(common > 0);
+
+		Assert.assertEquals(0, BM25Ranker.score(matchInfo(100, 8, 40, 0, 0, 10, 10), WEIGHTS), 0);
+	}
+
+	@Test
+	public void testDecodeMatchInfo() {
+
+		final int[] values = {1, 2, 3, 0x12345678};
+		final byte[] blob = new byte[values.length * 4];
+
+		ByteBuffer.wrap(blob)
+				.order(ByteOrder.nativeOrder())
+				.asIntBuffer()
+				.put(values);
+
+		Assert.assertArrayEquals(values, BM25Ranker.decodeMatchInfo(blob));
+	}
+
+	@Test
+	public void testDocumentsFromCommentListing() throws IOException {
+
+		final String json = "["
+				+ "{\"kind\":\"Listing\",\"data\":{\"children\":["
+				+ "{\"kind\":\"t3\",\"data\":{\"name\":\"t3_p\",\"title\":\"A post\","
+				+ "\"selftext\":\"Post body\",\"subreddit\":\"test\",\"author\":\"op\","
+				+ "\"permalink\":\"/r/test/comments/p/a_post/\",\"created_utc\":1600000000.0}}"
+				+ "]}},"
+				+ "{\"kind\":\"Listing\",\"data\":{\"children\":["
+				+ "{\"kind\":\"t1\",\"data\":{\"name\":\"t1_a\",\"link_id\":\"t3_p\","
+				+ "\"body\":\"Top level\",\"subreddit\":\"test\",\"author\":\"x\","
+				+ "\"replies\":{\"kind\":\"Listing\",\"data\":{\"children\":["
+				+ "{\"kind\":\"t1\",\"data\":{\"name\":\"t1_b\",\"link_id\":\"t3_p\","
+				+ "\"body\":\"Nested reply\",\"replies\":\"\"}},"
+				+ "{\"kind\":\"more\",\"data\":{\"name\":\"t1_c\",\"count\":5}}"
+				+ "]}}}},"
+				+ "{\"kind\":\"more\",\"data\":{\"name\":\"t1_d\",\"count\":5}}"
+				+ "]}}"
+				+ "]";
+
+		final ArrayList<SearchDocument> documents = new ArrayList<>();
+		final SearchDocument.Extractor extractor = new SearchDocument.Extractor();
+
+		try(JsonParser parser = new JsonFactory().createParser(json)) {
+			RedditListingStreamReader.read(parser, thing -> extractor.extract(thing, documents));
+		}
+
+		Assert.assertEquals(3, documents.size());
+
+		final SearchDocument post = documents.get(0);
+		Assert.assertEquals("t3_p", post.name);
+		Assert.assertEquals(SearchDocument.KIND_POST, post.kind);
+		Assert.assertEquals("A post", post.getIndexedTitle());
+		Assert.assertEquals("Post body", post.getIndexedBody());
+		Assert.assertEquals(1600000000L, post.createdUtc);
+
+		final SearchDocument topLevel = documents.get(1);
+		Assert.assertEquals("t1_a", topLevel.name);
+		Assert.assertEquals(SearchDocument.KIND_COMMENT, topLevel.kind);
+		Assert.assertEquals("A post", topLevel.postTitle);
+		Assert.assertEquals("", topLevel.getIndexedTitle());
+		Assert.assertEquals("Top level", topLevel.getIndexedBody());
+
+		final SearchDocument reply = documents.get(2);
+		Assert.assertEquals("t1_b", reply.name);
+		Assert.assertEquals("A post", reply.postTitle);
+		Assert.assertEquals("Nested reply", reply.getIndexedBody());
+	}
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.common.OrderedWorkQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class OrderedWorkQueueTest {
+
+	@Test
+	public void testResultsConsumedInSubmissionOrder() throws InterruptedException {
+
+		final List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+
+		final OrderedWorkQueue<Integer> queue = new OrderedWorkQueue<>(
+				new CachedThreadPool(8, "OrderedWorkQueueTest"),
+				consumed::add);
+
+		final Random random = new Random(1234);
+
+		for(int i = 0; i < 500; i++) {
+
+			final int value = i;
+			final int delayMs = random.nextInt(3);
+
+			queue.submit(() -> {
+
+				try {
+					Thread.sleep(delayMs);
+				} catch(final InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+
+				return value;
+			});
+		}
+
+		queue.awaitCompletion();
+
+		Assert.assertEquals(500, consumed.size());
+
+		for(int i = 0; i < 500; i++) {
+			Assert.assertEquals(i, (int)consumed.get(i));
+		}
+	}
+
+	@Test
+	public void testConsumerNotCalledConcurrently() throws InterruptedException {
+
+		final int[] active = {0};
+		final int[] maxActive = {0};
+
+		final OrderedWorkQueue<Integer> queue = new OrderedWorkQueue<>(
+				new CachedThreadPool(8, "OrderedWorkQueueTest"),
+				value -> {
+
+					synchronized(active) {
+						active[0]++;
+						maxActive[0] = Math.max(maxActive[0], active[0]);
+					}
+
+					Thread.yield();
+
+					synchronized(active) {
+						active[0]--;
+					}
+				});
+
+		for(int i = 0; i < 1000; i++) {
+			final int value = i;
+			queue.submit(() -> value);
+		}
+
+		queue.awaitCompletion();
+
+		Assert.assertEquals(1, maxActive[0]);
+	}
+
+	@Test
+	public void testFailureSkipsResultAndIsRethrown() throws InterruptedException {
+
+		final List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+
+		final OrderedWorkQueue<Integer> queue = new OrderedWorkQueue<>(
+				new CachedThreadPool(4, "OrderedWorkQueueTest"),
+				consumed::add);
+
+		for(int i = 0; i < 10; i++) {
+
+			final int value = i;
+
+			queue.submit(() -> {
+
+				if(value == 3) {
+					throw new IllegalStateException("Task failed");
+				}
+
+				return value;
+			});
+		}
+
+		try {
+			queue.awaitCompletion();
+			Assert.fail("Expected exception");
+
+		} catch(final IllegalStateException e) {
+			Assert.assertEquals("Task failed", e.getMessage());
+		}
+
+		Assert.assertEquals(9, consumed.size());
+		Assert.assertFalse(consumed.contains(3));
+		Assert.assertEquals(9, (int)consumed.get(8));
+	}
+
+	@Test(timeout = 10_000)
+	public void testErrorsDoNotBlockCompletion() throws InterruptedException {
+
+		final List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+
+		final OrderedWorkQueue<Integer> queue = new OrderedWorkQueue<>(
+				new CachedThreadPool(4, "OrderedWorkQueueTest"),
+				value -> {
+					if(value == 7) {
+						throw new AssertionError("Consumer failed");
+					}
+					consumed.add(value);
+				});
+
+		for(int i = 0; i < 10; i++) {
+
+			final int value = i;
+
+			queue.submit(() -> {
+
+				if(value == 2) {
+					throw new StackOverflowError();
+				}
+
+				return value;
+			});
+		}
+
+		try {
+			queue.awaitCompletion();
+			Assert.fail("Expected error");
+
+		} catch(final Error e) {
+			// Expected
+		}
+
+		Assert.assertEquals(8, consumed.size());
+		Assert.assertFalse(consumed.contains(2));
+		Assert.assertFalse(consumed.contains(7));
+	}
+
+	@Test
+	public void testAwaitWithNothingSubmitted() throws InterruptedException {
+
+		final OrderedWorkQueue<Integer> queue = new OrderedWorkQueue<>(
+				new CachedThreadPool(1, "OrderedWorkQueueTest"),
+				value -> Assert.fail());
+
+		queue.awaitCompletion();
+	}
+}
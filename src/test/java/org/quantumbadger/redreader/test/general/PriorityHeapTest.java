@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.Priority;
+import org.quantumbadger.redreader.common.collections.PriorityHeap;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class PriorityHeapTest {
+
+	private static final class Task {
+
+		private final int mId;
+		private Priority mPriority;
+
+		private Task(final int id, final Priority priority) {
+			mId = id;
+			mPriority = priority;
+		}
+	}
+
+	private static ArrayList<Integer> drain(final PriorityHeap<Task> heap) {
+
+		final ArrayList<Integer> result = new ArrayList<>();
+
+		Task task;
+		while((task = heap.poll()) != null) {
+			result.add(task.mId);
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testOrdering() {
+
+		final PriorityHeap<Task> heap = new PriorityHeap<>();
+
+		heap.add(new Task(1, new Priority(5)), new Priority(5));
+		heap.add(new Task(2, new Priority(1)), new Priority(1));
+		heap.add(new Task(3, new Priority(1, -1)), new Priority(1, -1));
+		heap.add(new Task(4, new Priority(9)), new Priority(9));
+		heap.add(new Task(5, new Priority(1)), new Priority(1));
+
+		Assert.assertEquals(5, heap.size());
+		Assert.assertEquals(3, heap.peek().mId);
+
+		final ArrayList<Integer> order = drain(heap);
+
+		Assert.assertEquals(5, order.size());
+		Assert.assertEquals(Integer.valueOf(3), order.get(0));
+		Assert.assertEquals(Integer.valueOf(2), order.get(1));
+		Assert.assertEquals(Integer.valueOf(5), order.get(2));
+		Assert.assertEquals(Integer.valueOf(1), order.get(3));
+		Assert.assertEquals(Integer.valueOf(4), order.get(4));
+
+		Assert.assertTrue(heap.isEmpty());
+		Assert.assertNull(heap.poll());
+	}
+
+	@Test
+	public void testEqualPrioritiesAreFifo() {
+
+		final PriorityHeap<Task> heap = new PriorityHeap<>();
+
+		for(int i = 0; i < 100; i++) {
+			heap.add(new Task(i, new Priority(3)), new Priority(3));
+		}
+
+		final ArrayList<Integer> order = drain(heap);
+
+		for(int i = 0; i < 100; i++) {
+			Assert.assertEquals(Integer.valueOf(i), order.get(i));
+		}
+	}
+
+	@Test
+	public void testRemoveAndUpdate() {
+
+		final PriorityHeap<Task> heap = new PriorityHeap<>();
+		final ArrayList<Task> tasks = new ArrayList<>();
+
+		for(int i = 0; i < 10; i++) {
+			final Task task = new Task(i, new Priority(i));
+			tasks.add(task);
+			Assert.assertTrue(heap.add(task, task.mPriority));
+		}
+
+		Assert.assertFalse(heap.add(tasks.get(0), new Priority(0)));
+
+		Assert.assertTrue(heap.remove(tasks.get(0)));
+		Assert.assertTrue(heap.remove(tasks.get(5)));
+		Assert.assertFalse(heap.remove(tasks.get(5)));
+		Assert.assertFalse(heap.contains(tasks.get(5)));
+
+		// Scrolled off screen
+		Assert.assertTrue(heap.updatePriority(tasks.get(1), new Priority(100)));
+
+		// Scrolled into view
+		Assert.assertTrue(heap.updatePriority(tasks.get(9), new Priority(-1)));
+
+		final ArrayList<Integer> order = drain(heap);
+
+		Assert.assertEquals(8, order.size());
+		Assert.assertEquals(Integer.valueOf(9), order.get(0));
+		Assert.assertEquals(Integer.valueOf(2), order.get(1));
+		Assert.assertEquals(Integer.valueOf(8), order.get(6));
+		Assert.assertEquals(Integer.valueOf(1), order.get(7));
+
+		Assert.assertFalse(heap.updatePriority(tasks.get(1), new Priority(0)));
+	}
+
+	@Test
+	public void testUpdateAllPriorities() {
+
+		final PriorityHeap<Task> heap = new PriorityHeap<>();
+
+		for(int i = 0; i < 20; i++) {
+			final Task task = new Task(i, new Priority(i));
+			heap.add(task, task.mPriority);
+		}
+
+		// Reverse the order, leaving ties between pairs
+		heap.updateAllPriorities(task -> new Priority(-(task.mId / 2)));
+
+		final ArrayList<Integer> order = drain(heap);
+
+		Assert.assertEquals(20, order.size());
+		Assert.assertEquals(Integer.valueOf(18), order.get(0));
+		Assert.assertEquals(Integer.valueOf(19), order.get(1));
+		Assert.assertEquals(Integer.valueOf(16), order.get(2));
+		Assert.assertEquals(Integer.valueOf(0), order.get(18));
+		Assert.assertEquals(Integer.valueOf(1), order.get(19));
+	}
+
+	@Test
+	public void testRandomOperationsMatchLinearScan() {
+
+		final Random random = new Random(1234);
+		final PriorityHeap<Task> heap = new PriorityHeap<>();
+		final ArrayList<Task> reference = new ArrayList<>();
+
+		int nextId = 0;
+
+		for(int op = 0; op < 20_000; op++) {
+
+			final int action = random.nextInt(4);
+
+			if(action == 0 || reference.isEmpty()) {
+				final Task task = new Task(nextId++, new Priority(random.nextInt(5)));
+				heap.add(task, task.mPriority);
+				reference.add(task);
+
+			} else if(action == 1) {
+				final Task expected = pollLinear(reference);
+				Assert.assertSame(expected, heap.poll());
+
+			} else if(action == 2) {
+				final Task task = reference.remove(random.nextInt(reference.size()));
+				Assert.assertTrue(heap.remove(task));
+
+			} else {
+				final Task task = reference.get(random.nextInt(reference.size()));
+				task.mPriority = new Priority(random.nextInt(5));
+				Assert.assertTrue(heap.updatePriority(task, task.mPriority));
+			}
+
+			Assert.assertEquals(reference.size(), heap.size());
+		}
+	}
+
+	// The previous implementation: the first task found with the highest priority, where tasks
+	// are kept in the order they were added
+	private static Task pollLinear(final ArrayList<Task> tasks) {
+
+		int bestIndex = -1;
+
+		for(int i = 0; i < tasks.size(); i++) {
+			if(bestIndex < 0 || tasks.get(i).mPriority.isHigherPriorityThan(
+					tasks.get(bestIndex).mPriority)) {
+				bestIndex = i;
+			}
+		}
+
+		return tasks.remove(bestIndex);
+	}
+}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+import org.quantumbadger.redreader.reddit.things.RedditComment;
+import org.quantumbadger.redreader.reddit.things.RedditListingStreamReader;
+import org.quantumbadger.redreader.reddit.things.RedditPost;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RedditListingStreamReaderTest {
+
+	// Stands in for a network connection: hands out the body a chunk at a time.
+	private static final class ChunkedInputStream extends InputStream {
+
+		private final byte[] mData;
+		private final int mChunkSize;
+
+		private int mPosition = 0;
+
+		private ChunkedInputStream(final byte[] data, final int chunkSize) {
+			mData = data;
+			mChunkSize = chunkSize;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] buf = new byte[1];
+			return read(buf, 0, 1) < 0 ? -1 : buf[0] & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+			if(mPosition >= mData.length) {
+				return -1;
+			}
+
+			final int count = Math.min(Math.min(len, mChunkSize), mData.length - mPosition);
+			System.arraycopy(mData, mPosition, buf, off, count);
+			mPosition += count;
+			return count;
+		}
+
+		public int getPosition() {
+			return mPosition;
+		}
+	}
+
+	private static String readListing() throws IOException {
+
+		try(InputStream is = RedditListingStreamReaderTest.class.getClassLoader()
+				.getResourceAsStream("fixtures/listing_100_posts.json")) {
+
+			return General.readWholeStreamAsUTF8(is);
+		}
+	}
+
+	private static JsonParser parser(final String json) throws IOException {
+		return new JsonFactory().createParser(json);
+	}
+
+	@Test
+	public void testReadsAllChildrenInOrder() throws IOException {
+
+		final String json = readListing();
+		final ArrayList<RedditPost> posts = new ArrayList<>();
+
+		final int count = RedditListingStreamReader.read(
+				parser(json),
+				thing -> {
+					Assert.assertEquals(RedditThing.Kind.POST, thing.getKind());
+					posts.add(thing.asPost());
+				});
+
+		final JsonArray children = JsonValue.parse(parser(json)).asObject()
+				.getObject("data")
+				.getArray("children");
+
+		Assert.assertEquals(100, count);
+		Assert.assertEquals(children.size(), posts.size());
+
+		for(int i = 0; i < posts.size(); i++) {
+
+			final JsonObject data = children.get(i).asObject().getObject("data");
+
+			Assert.assertEquals(data.getString("name"), posts.get(i).name);
+			Assert.assertEquals(data.getLong("score").intValue(), posts.get(i).score);
+		}
+	}
+
+	@Test
+	public void testEmptyListing() throws IOException {
+
+		final int count = RedditListingStreamReader.read(
+				parser("{\"kind\": \"Listing\", \"data\": {\"children\": [], \"after\": null}}"),
+				thing -> Assert.fail());
+
+		Assert.assertEquals(0, count);
+	}
+
+	@Test
+	public void testCommentPageListings() throws IOException {
+
+		final ArrayList<RedditThing.Kind> kinds = new ArrayList<>();
+
+		final int count = RedditListingStreamReader.read(
+				parser("[{\"kind\": \"Listing\", \"data\": {\"children\": ["
+						+ "{\"kind\": \"t3\", \"data\": {\"id\": \"p\"}}]}},"
+						+ " {\"kind\": \"Listing\", \"data\": {\"children\": ["
+						+ "{\"kind\": \"t1\", \"data\": {\"id\": \"c1\"}},"
+						+ " {\"kind\": \"more\", \"data\": {\"count\": 3}}]}}]"),
+				thing -> kinds.add(thing.getKind()));
+
+		Assert.assertEquals(3, count);
+		Assert.assertEquals(RedditThing.Kind.POST, kinds.get(0));
+		Assert.assertEquals(RedditThing.Kind.COMMENT, kinds.get(1));
+		Assert.assertEquals(RedditThing.Kind.MORE_COMMENTS, kinds.get(2));
+	}
+
+	@Test
+	public void testStreamsDataIntoTypedClasses() throws IOException {
+
+		final ArrayList<RedditThing> things = new ArrayList<>();
+
+		RedditListingStreamReader.read(
+				parser("{\"kind\": \"Listing\", \"data\": {\"children\": ["
+						+ "{\"kind\": \"t1\", \"data\": {\"id\": \"c1\", \"replies\":"
+						+ " {\"kind\": \"Listing\", \"data\": {\"children\": ["
+						+ "{\"kind\": \"t1\", \"data\": {\"id\": \"c2\", \"replies\": \"\"}},"
+						+ " {\"kind\": \"more\", \"data\": {\"count\": 3}}]}}}},"
+						+ " {\"data\": {\"id\": \"c3\"}, \"kind\": \"t1\"}]}}"),
+				things::add);
+
+		Assert.assertEquals(2, things.size());
+
+		// Read straight into a RedditComment, without building a JsonObject for the data
+		Assert.assertNull(things.get(0).data);
+
+		final RedditComment comment = things.get(0).asComment();
+		Assert.assertEquals("c1", comment.id);
+		Assert.assertSame(comment, things.get(0).asComment());
+
+		final List<RedditThing> replies = comment.getReplies();
+		Assert.assertEquals(2, replies.size());
+		Assert.assertEquals("c2", replies.get(0).asComment().id);
+		Assert.assertTrue(replies.get(0).asComment().getReplies().isEmpty());
+		Assert.assertEquals(3, replies.get(1).asMoreComments().getCount());
+
+		// With the kind after the data, the data can only be bound afterwards
+		Assert.assertNotNull(things.get(1).data);
+		Assert.assertEquals("c3", things.get(1).asComment().id);
+	}
+
+	@Test(expected = IOException.class)
+	public void testErrorResponseIsNotAListing() throws IOException {
+		RedditListingStreamReader.read(
+				parser("{\"message\": \"Forbidden\", \"error\": 403}"),
+				thing -> Assert.fail());
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedListing() throws IOException {
+
+		final String json = readListing();
+
+		RedditListingStreamReader.read(
+				parser(json.substring(0, json.length() / 2)),
+				thing -> {});
+	}
+
+	// The first post should be delivered once its own bytes have arrived, rather than after
+	// the whole body has been downloaded.
+	@Test
+	public void testFirstPostBeforeWholeBody() throws IOException {
+
+		final byte[] data = readListing().getBytes(StandardCharsets.UTF_8);
+		final ChunkedInputStream stream = new ChunkedInputStream(data, 8192);
+
+		final int[] bytesReadAtFirstPost = {-1};
+
+		final int count = RedditListingStreamReader.read(
+				new JsonFactory().createParser(stream),
+				thing -> {
+					if(bytesReadAtFirstPost[0] < 0) {
+						bytesReadAtFirstPost[0] = stream.getPosition();
+					}
+				});
+
+		Assert.assertEquals(100, count);
+		Assert.assertTrue(bytesReadAtFirstPost[0] > 0);
+		Assert.assertTrue(bytesReadAtFirstPost[0] < data.length / 10);
+	}
+
+	@Test
+	public void testReadsFromInputStream() throws IOException {
+
+		final byte[] data = readListing().getBytes(StandardCharsets.UTF_8);
+		final ArrayList<String> names = new ArrayList<>();
+
+		RedditListingStreamReader.read(
+				new JsonFactory().createParser(new ByteArrayInputStream(data)),
+				thing -> names.add(thing.asPost().name));
+
+		Assert.assertEquals(100, names.size());
+		Assert.assertEquals("t3_lrjl6j", names.get(2));
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.collections.SizeBoundedLruCache;
+
+public class SizeBoundedLruCacheTest {
+
+	private static SizeBoundedLruCache<String, String> create(final long maxSize) {
+		return new SizeBoundedLruCache<>(maxSize, value -> value.length());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+
+		final SizeBoundedLruCache<String, String> cache = create(10);
+
+		cache.put("a", "aaaa");
+		cache.put("b", "bbbb");
+
+		Assert.assertEquals(8, cache.size());
+
+		// Touch "a", so that "b" is the eldest
+		Assert.assertEquals("aaaa", cache.get("a"));
+
+		cache.put("c", "cccc");
+
+		Assert.assertEquals(2, cache.count());
+		Assert.assertEquals(8, cache.size());
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals("aaaa", cache.get("a"));
+		Assert.assertEquals("cccc", cache.get("c"));
+	}
+
+	@Test
+	public void testEvictsUntilUnderBudget() {
+
+		final SizeBoundedLruCache<String, String> cache = create(10);
+
+		cache.put("a", "aa");
+		cache.put("b", "bb");
+		cache.put("c", "cc");
+		cache.put("d", "dddddddd");
+
+		Assert.assertEquals(2, cache.count());
+		Assert.assertEquals(10, cache.size());
+		Assert.assertNull(cache.get("a"));
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals("cc", cache.get("c"));
+		Assert.assertEquals("dddddddd", cache.get("d"));
+	}
+
+	@Test
+	public void testReplaceAndRemove() {
+
+		final SizeBoundedLruCache<String, String> cache = create(10);
+
+		cache.put("a", "aaaa");
+		cache.put("a", "aa");
+
+		Assert.assertEquals(1, cache.count());
+		Assert.assertEquals(2, cache.size());
+
+		Assert.assertEquals("aa", cache.remove("a"));
+		Assert.assertNull(cache.remove("a"));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testOversizedValueNotStored() {
+
+		final SizeBoundedLruCache<String, String> cache = create(4);
+
+		cache.put("a", "aa");
+		cache.put("b", "bbbbbbbb");
+
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals("aa", cache.get("a"));
+
+		cache.clear();
+		Assert.assertEquals(0, cache.count());
+		Assert.assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.image.StreamingGifDecoder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class StreamingGifDecoderTest {
+
+	private static final int RED = 0xFFFF0000;
+	private static final int GREEN = 0xFF00FF00;
+	private static final int BLUE = 0xFF0000FF;
+
+	private static final class TestFrame {
+
+		private final BufferedImage mImage;
+		private final int mX;
+		private final int mY;
+		private final String mDisposal;
+		private final int mDelayMs;
+
+		private TestFrame(
+				final int width,
+				final int height,
+				final int colour,
+				final int x,
+				final int y,
+				final String disposal,
+				final int delayMs) {
+
+			mImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+			for(int row = 0; row < height; row++) {
+				for(int col = 0; col < width; col++) {
+					mImage.setRGB(col, row, colour);
+				}
+			}
+
+			mX = x;
+			mY = y;
+			mDisposal = disposal;
+			mDelayMs = delayMs;
+		}
+	}
+
+	private static IIOMetadataNode getOrCreateChild(
+			final IIOMetadataNode parent,
+			final String name) {
+
+		for(int i = 0; i < parent.getLength(); i++) {
+			if(parent.item(i).getNodeName().equals(name)) {
+				return (IIOMetadataNode)parent.item(i);
+			}
+		}
+
+		final IIOMetadataNode result = new IIOMetadataNode(name);
+		parent.appendChild(result);
+		return result;
+	}
+
+	private static byte[] encode(
+			final int width,
+			final int height,
+			final List<TestFrame> frames) throws IOException {
+
+		final ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		try(ImageOutputStream ios = ImageIO.createImageOutputStream(output)) {
+
+			writer.setOutput(ios);
+			writer.prepareWriteSequence(null);
+
+			for(final TestFrame frame : frames) {
+
+				final ImageWriteParam param = writer.getDefaultWriteParam();
+				final IIOMetadata metadata = writer.getDefaultImageMetadata(
+						ImageTypeSpecifier.createFromRenderedImage(frame.mImage),
+						param);
+
+				final String format = metadata.getNativeMetadataFormatName();
+				final IIOMetadataNode root = (IIOMetadataNode)metadata.getAsTree(format);
+
+				final IIOMetadataNode control
+						= getOrCreateChild(root, "GraphicControlExtension");
+				control.setAttribute("disposalMethod", frame.mDisposal);
+				control.setAttribute("userInputFlag", "FALSE");
+				control.setAttribute("transparentColorFlag", "FALSE");
+				control.setAttribute("delayTime", Integer.toString(frame.mDelayMs / 10));
+				control.setAttribute("transparentColorIndex", "0");
+
+				final IIOMetadataNode descriptor = getOrCreateChild(root, "ImageDescriptor");
+				descriptor.setAttribute("imageLeftPosition", Integer.toString(frame.mX));
+				descriptor.setAttribute("imageTopPosition", Integer.toString(frame.mY));
+
+				metadata.setFromTree(format, root);
+
+				writer.writeToSequence(new IIOImage(frame.mImage, null, metadata), param);
+			}
+
+			writer.endWriteSequence();
+		}
+
+		// The logical screen size is taken from the first frame, so patch it
+		final byte[] result = output.toByteArray();
+		result[6] = (byte)width;
+		result[7] = (byte)(width >> 8);
+		result[8] = (byte)height;
+		result[9] = (byte)(height >> 8);
+		return result;
+	}
+
+	private static StreamingGifDecoder decoder(final byte[] gif) throws IOException {
+		return new StreamingGifDecoder(new BufferedInputStream(new ByteArrayInputStream(gif)));
+	}
+
+	private static int pixel(final StreamingGifDecoder decoder, final int x, final int y) {
+		return decoder.getCanvas()[y * decoder.getWidth() + x];
+	}
+
+	@Test
+	public void testSingleFrame() throws IOException {
+
+		final byte[] gif = encode(5, 3, Arrays.asList(
+				new TestFrame(5, 3, RED, 0, 0, "none", 0)));
+
+		final StreamingGifDecoder decoder = decoder(gif);
+
+		Assert.assertEquals(5, decoder.getWidth());
+		Assert.assertEquals(3, decoder.getHeight());
+
+		Assert.assertTrue(decoder.readNextFrame());
+
+		for(final int colour : decoder.getCanvas()) {
+			Assert.assertEquals(RED, colour);
+		}
+
+		Assert.assertFalse(decoder.readNextFrame());
+		Assert.assertEquals(1, decoder.getFrameCount());
+	}
+
+	@Test
+	public void testDisposal() throws IOException {
+
+		final byte[] gif = encode(8, 8, Arrays.asList(
+				new TestFrame(8, 8, RED, 0, 0, "doNotDispose", 100),
+				new TestFrame(4, 4, BLUE, 2, 2, "restoreToPrevious", 200),
+				new TestFrame(2, 2, GREEN, 0, 0, "doNotDispose", 300)));
+
+		final StreamingGifDecoder decoder = decoder(gif);
+
+		Assert.assertTrue(decoder.readNextFrame());
+		Assert.assertEquals(100, decoder.getFrameDelayMs());
+		Assert.assertEquals(RED, pixel(decoder, 3, 3));
+
+		Assert.assertTrue(decoder.readNextFrame());
+		Assert.assertEquals(200, decoder.getFrameDelayMs());
+		Assert.assertEquals(RED, pixel(decoder, 1, 1));
+		Assert.assertEquals(BLUE, pixel(decoder, 2, 2));
+		Assert.assertEquals(BLUE, pixel(decoder, 5, 5));
+		Assert.assertEquals(RED, pixel(decoder, 6, 6));
+
+		// The blue square is removed before the green one is drawn
+		Assert.assertTrue(decoder.readNextFrame());
+		Assert.assertEquals(300, decoder.getFrameDelayMs());
+		Assert.assertEquals(GREEN, pixel(decoder, 0, 0));
+		Assert.assertEquals(GREEN, pixel(decoder, 1, 1));
+		Assert.assertEquals(RED, pixel(decoder, 2, 2));
+		Assert.assertEquals(RED, pixel(decoder, 5, 5));
+
+		Assert.assertFalse(decoder.readNextFrame());
+		Assert.assertEquals(3, decoder.getFrameCount());
+	}
+
+	@Test
+	public void testMatchesImageIO() throws IOException {
+
+		final BufferedImage image = new BufferedImage(37, 23, BufferedImage.TYPE_INT_RGB);
+
+		for(int y = 0; y < image.getHeight(); y++) {
+			for(int x = 0; x < image.getWidth(); x++) {
+				image.setRGB(x, y, ((x * 7) << 16) | ((y * 11) << 8) | ((x + y) * 3));
+			}
+		}
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(image, "gif", output);
+		final byte[] gif = output.toByteArray();
+
+		final BufferedImage expected = ImageIO.read(new ByteArrayInputStream(gif));
+		final StreamingGifDecoder decoder = decoder(gif);
+
+		Assert.assertTrue(decoder.readNextFrame());
+
+		for(int y = 0; y < image.getHeight(); y++) {
+			for(int x = 0; x < image.getWidth(); x++) {
+				Assert.assertEquals(expected.getRGB(x, y), pixel(decoder, x, y));
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotAGif() throws IOException {
+		decoder("PNG not a gif".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+
+		final byte[] gif = encode(8, 8, Arrays.asList(
+				new TestFrame(8, 8, RED, 0, 0, "none", 0),
+				new TestFrame(8, 8, BLUE, 0, 0, "none", 0)));
+
+		// Drop the trailer
+		final byte[] truncated = Arrays.copyOf(gif, gif.length - 1);
+
+		final StreamingGifDecoder decoder = decoder(truncated);
+		Assert.assertTrue(decoder.readNextFrame());
+		Assert.assertTrue(decoder.readNextFrame());
+		Assert.assertFalse(decoder.readNextFrame());
+	}
+}